@@ -180,6 +180,7 @@
 #include "modules/SessionUpdates.hpp"
 #include "modules/SessionVCS.hpp"
 #include "modules/SessionHistory.hpp"
+#include "modules/SessionLargeFile.hpp"
 #include "modules/SessionLimits.hpp"
 #include "modules/SessionLists.hpp"
 #include "modules/SessionUserPrefs.hpp"
@@ -652,6 +653,7 @@ Error rInit(const rstudio::r::session::RInitInfo& rInitInfo)
 
       // modules with c++ implementations
       (modules::spelling::initialize)
+      (modules::large_file::initialize)
       (modules::lists::initialize)
       (modules::limits::initialize)
       (modules::ppe::initialize)
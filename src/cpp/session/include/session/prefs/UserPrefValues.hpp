@@ -197,6 +197,7 @@ namespace prefs {
 #define kSpellingDictionaryLanguage "spelling_dictionary_language"
 #define kSpellingCustomDictionaries "spelling_custom_dictionaries"
 #define kDocumentLoadLintDelay "document_load_lint_delay"
+#define kEditorHibernationDelay "editor_hibernation_delay"
 #define kIgnoreUppercaseWords "ignore_uppercase_words"
 #define kIgnoreWordsWithNumbers "ignore_words_with_numbers"
 #define kRealTimeSpellchecking "real_time_spellchecking"
@@ -1114,6 +1115,12 @@ public:
    int documentLoadLintDelay();
    core::Error setDocumentLoadLintDelay(int val);
 
+   /**
+    * The number of minutes a background editor tab without unsaved changes must go unused before its editor releases state it can rebuild, such as line tokens and undo history. Set to 0 to never hibernate editor tabs.
+    */
+   int editorHibernationDelay();
+   core::Error setEditorHibernationDelay(int val);
+
    /**
     * Whether to ignore words in uppercase when spell checking.
     */
@@ -64,8 +64,8 @@ const std::string& findCategory()
 
 namespace {
 
-// This must be the same as MAX_COUNT in FindOutputPane.java
-const size_t MAX_COUNT = 1000;
+// This must be the same as MAX_COUNT in FindResultStore.java
+const size_t MAX_COUNT = 100000;
 
 const size_t MAX_LINE_LENGTH = 3000;
 
@@ -0,0 +1,394 @@
+/*
+ * SessionLargeFile.cpp
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+#include "SessionLargeFile.hpp"
+
+#include <cstring>
+#include <list>
+#include <map>
+
+#include <boost/bind/bind.hpp>
+#include <boost/regex.hpp>
+
+#include <core/Exec.hpp>
+#include <core/StringUtils.hpp>
+#include <core/json/JsonRpc.hpp>
+
+#include <shared_core/Error.hpp>
+#include <shared_core/FilePath.hpp>
+
+#include <session/SessionModuleContext.hpp>
+#include <session/SessionSourceDatabase.hpp>
+
+using namespace rstudio::core;
+using namespace boost::placeholders;
+
+namespace rstudio {
+namespace session {
+namespace modules { 
+namespace large_file {
+
+namespace {
+
+#define kLargeFileType "large_file"
+
+// the index records the byte offset of every kCheckpointInterval'th line, so
+// reading from any line means seeking to the nearest checkpoint and skipping
+// at most this many lines
+const std::size_t kCheckpointInterval = 256;
+
+// the number of files whose index we keep around
+const std::size_t kMaxIndexes = 8;
+
+// the most lines returned by a single read
+const int kMaxReadLines = 5000;
+
+// lines longer than this are truncated before being sent to the client
+const std::size_t kMaxLineLength = 4096;
+
+// the most bytes a single search request scans before returning, so that
+// results for large files are delivered in pages
+const uintmax_t kSearchChunkBytes = 16 * 1024 * 1024;
+
+const std::size_t kReadBufferSize = 1024 * 1024;
+
+struct LineIndex
+{
+   std::time_t lastWriteTime;
+   uintmax_t size;
+   int lineCount;
+   std::vector<uintmax_t> checkpoints;
+};
+
+// indexes keyed by absolute path, along with the order in which they were
+// last used (most recent first)
+std::map<std::string, boost::shared_ptr<LineIndex> > s_indexes;
+std::list<std::string> s_indexOrder;
+
+Error buildIndex(const FilePath& filePath, LineIndex* pIndex)
+{
+   std::shared_ptr<std::istream> pStream;
+   Error error = filePath.openForRead(pStream);
+   if (error)
+      return error;
+
+   pIndex->lastWriteTime = filePath.getLastWriteTime();
+   pIndex->size = filePath.getSize();
+   pIndex->checkpoints.clear();
+   pIndex->checkpoints.push_back(0);
+
+   std::vector<char> buffer(kReadBufferSize);
+   uintmax_t offset = 0;
+   std::size_t lines = 0;
+   char last = '\n';
+   while (pStream->good())
+   {
+      pStream->read(&buffer[0], buffer.size());
+      std::streamsize count = pStream->gcount();
+      if (count <= 0)
+         break;
+
+      const char* begin = &buffer[0];
+      const char* end = begin + count;
+      for (const char* it = begin; it < end; it++)
+      {
+         it = static_cast<const char*>(std::memchr(it, '\n', end - it));
+         if (it == nullptr)
+            break;
+
+         lines++;
+         if (lines % kCheckpointInterval == 0)
+            pIndex->checkpoints.push_back(offset + (it - begin) + 1);
+      }
+
+      offset += count;
+      last = buffer[count - 1];
+   }
+
+   // a final line without a trailing newline is still a line
+   pIndex->lineCount = static_cast<int>(lines + (last == '\n' ? 0 : 1));
+   return Success();
+}
+
+void removeIndex(const std::string& path)
+{
+   s_indexes.erase(path);
+   s_indexOrder.remove(path);
+}
+
+Error getIndex(const FilePath& filePath, boost::shared_ptr<LineIndex>* ppIndex)
+{
+   if (!filePath.exists())
+      return fileNotFoundError(filePath, ERROR_LOCATION);
+   if (filePath.isDirectory())
+      return Error(json::errc::ParamInvalid, ERROR_LOCATION);
+
+   std::string key = filePath.getAbsolutePath();
+   auto it = s_indexes.find(key);
+   if (it != s_indexes.end() &&
+       it->second->lastWriteTime == filePath.getLastWriteTime() &&
+       it->second->size == filePath.getSize())
+   {
+      s_indexOrder.remove(key);
+      s_indexOrder.push_front(key);
+      *ppIndex = it->second;
+      return Success();
+   }
+
+   // the file is new to us, or has changed since we indexed it
+   removeIndex(key);
+   boost::shared_ptr<LineIndex> pIndex(new LineIndex());
+   Error error = buildIndex(filePath, pIndex.get());
+   if (error)
+      return error;
+
+   s_indexes[key] = pIndex;
+   s_indexOrder.push_front(key);
+   while (s_indexOrder.size() > kMaxIndexes)
+   {
+      s_indexes.erase(s_indexOrder.back());
+      s_indexOrder.pop_back();
+   }
+
+   *ppIndex = pIndex;
+   return Success();
+}
+
+// positions the stream at the start of the given line, returning the line
+// the stream is actually positioned at (the nearest preceding checkpoint)
+int seekToCheckpoint(std::istream& stream, const LineIndex& index, int line)
+{
+   std::size_t checkpoint = std::min(
+            static_cast<std::size_t>(line) / kCheckpointInterval,
+            index.checkpoints.size() - 1);
+   stream.seekg(static_cast<std::streamoff>(index.checkpoints[checkpoint]));
+   return static_cast<int>(checkpoint * kCheckpointInterval);
+}
+
+void stripCarriageReturn(std::string* pLine)
+{
+   if (!pLine->empty() && pLine->back() == '\r')
+      pLine->pop_back();
+}
+
+std::string displayLine(const std::string& line)
+{
+   std::string display = line;
+   if (display.size() > kMaxLineLength)
+   {
+      // don't truncate in the middle of a multibyte character
+      std::size_t length = kMaxLineLength;
+      while (length > 0 && (display[length] & 0xC0) == 0x80)
+         length--;
+      display.resize(length);
+   }
+
+   string_utils::utf8Clean(display.begin(), display.end(), '?');
+   return display;
+}
+
+// the (character) column of the given byte offset into a line
+int characterColumn(const std::string& line, std::size_t offset)
+{
+   std::size_t column = 0;
+   Error error = string_utils::utf8Distance(line.begin(), line.begin() + offset, &column);
+   if (error)
+      return static_cast<int>(offset);
+   return static_cast<int>(column);
+}
+
+Error largeFileReadLines(const json::JsonRpcRequest& request,
+                         json::JsonRpcResponse* pResponse)
+{
+   std::string path;
+   int startLine = 0;
+   int count = 0;
+   Error error = json::readParams(request.params, &path, &startLine, &count);
+   if (error)
+      return error;
+
+   FilePath filePath = module_context::resolveAliasedPath(path);
+   boost::shared_ptr<LineIndex> pIndex;
+   error = getIndex(filePath, &pIndex);
+   if (error)
+      return error;
+
+   startLine = std::max(0, std::min(startLine, pIndex->lineCount));
+   count = std::max(0, std::min(count, kMaxReadLines));
+   int endLine = std::min(startLine + count, pIndex->lineCount);
+
+   json::Array lines;
+   if (endLine > startLine)
+   {
+      std::shared_ptr<std::istream> pStream;
+      error = filePath.openForRead(pStream);
+      if (error)
+         return error;
+
+      std::string line;
+      for (int i = seekToCheckpoint(*pStream, *pIndex, startLine);
+           i < endLine && std::getline(*pStream, line);
+           i++)
+      {
+         if (i < startLine)
+            continue;
+
+         stripCarriageReturn(&line);
+         lines.push_back(json::Value(displayLine(line)));
+      }
+   }
+
+   json::Object result;
+   result["line_count"] = pIndex->lineCount;
+   result["start_line"] = startLine;
+   result["lines"] = lines;
+   pResponse->setResult(result);
+   return Success();
+}
+
+Error largeFileSearch(const json::JsonRpcRequest& request,
+                      json::JsonRpcResponse* pResponse)
+{
+   std::string path;
+   std::string pattern;
+   bool ignoreCase = false;
+   int fromLine = 0;
+   int maxResults = 0;
+   Error error = json::readParams(request.params,
+                                  &path,
+                                  &pattern,
+                                  &ignoreCase,
+                                  &fromLine,
+                                  &maxResults);
+   if (error)
+      return error;
+
+   json::Object result;
+
+   boost::regex regex;
+   try
+   {
+      regex = boost::regex(pattern, ignoreCase ? boost::regex::icase : boost::regex::normal);
+   }
+   catch (const boost::regex_error& e)
+   {
+      // report invalid patterns to the user rather than as a server error
+      result["error"] = std::string(e.what());
+      pResponse->setResult(result);
+      return Success();
+   }
+
+   FilePath filePath = module_context::resolveAliasedPath(path);
+   boost::shared_ptr<LineIndex> pIndex;
+   error = getIndex(filePath, &pIndex);
+   if (error)
+      return error;
+
+   std::shared_ptr<std::istream> pStream;
+   error = filePath.openForRead(pStream);
+   if (error)
+      return error;
+
+   fromLine = std::max(0, fromLine);
+   json::Array matches;
+   int nextLine = -1;
+   uintmax_t scanned = 0;
+   std::string line;
+   boost::smatch match;
+   for (int i = seekToCheckpoint(*pStream, *pIndex, fromLine);
+        std::getline(*pStream, line);
+        i++)
+   {
+      if (i < fromLine)
+         continue;
+
+      // return what we have so far once we've found a page of matches or
+      // scanned a chunk of the file; the client asks for the next page
+      if (static_cast<int>(matches.getSize()) >= maxResults ||
+          scanned >= kSearchChunkBytes)
+      {
+         nextLine = i;
+         break;
+      }
+
+      scanned += line.size() + 1;
+      stripCarriageReturn(&line);
+
+      bool found = false;
+      try
+      {
+         found = boost::regex_search(line, match, regex);
+      }
+      catch (const std::runtime_error& e)
+      {
+         // pathological patterns can exceed boost's complexity limits
+         result["error"] = std::string(e.what());
+         break;
+      }
+
+      if (found)
+      {
+         std::size_t start = match.position(static_cast<std::size_t>(0));
+         std::size_t end = start + match.length(0);
+
+         json::Object jsonMatch;
+         jsonMatch["line"] = i;
+         jsonMatch["text"] = displayLine(line);
+         jsonMatch["start"] = characterColumn(line, start);
+         jsonMatch["end"] = characterColumn(line, end);
+         matches.push_back(jsonMatch);
+      }
+   }
+
+   result["line_count"] = pIndex->lineCount;
+   result["matches"] = matches;
+   result["next_line"] = nextLine;
+   pResponse->setResult(result);
+   return Success();
+}
+
+void onDocPendingRemove(boost::shared_ptr<source_database::SourceDocument> pDoc)
+{
+   if (pDoc->type() != kLargeFileType)
+      return;
+
+   std::string path = pDoc->getProperty("path");
+   if (path.empty())
+      return;
+
+   removeIndex(module_context::resolveAliasedPath(path).getAbsolutePath());
+}
+
+} // anonymous namespace
+
+Error initialize()
+{
+   using boost::bind;
+   using namespace module_context;
+
+   source_database::events().onDocPendingRemove.connect(onDocPendingRemove);
+
+   ExecBlock initBlock;
+   initBlock.addFunctions()
+      (bind(registerRpcMethod, "large_file_read_lines", largeFileReadLines))
+      (bind(registerRpcMethod, "large_file_search", largeFileSearch));
+   return initBlock.execute();
+}
+
+} // namespace large_file
+} // namespace modules
+} // namespace session
+} // namespace rstudio
+
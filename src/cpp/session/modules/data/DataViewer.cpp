@@ -15,6 +15,9 @@
 
 #include "DataViewer.hpp"
 
+#include <cstring>
+#include <limits>
+#include <map>
 #include <string>
 #include <vector>
 #include <sstream>
@@ -48,6 +51,8 @@
 
 #include <session/prefs/UserPrefs.hpp>
 
+#include "../environment/EnvironmentUtils.hpp"
+
 #define kGridResource "grid_resource"
 #define kViewerCacheDir "viewer-cache"
 #define kGridResourceLocation "/" kGridResource "/"
@@ -63,6 +68,10 @@
 // special cell values
 #define SPECIAL_CELL_NA 0
 
+// the number of recent changes to a frame we remember the unchanged rows of;
+// clients with data older than this reload all of it
+#define MAX_FRAME_VERSIONS 16
+
 using namespace rstudio::core;
 using namespace boost::placeholders;
 
@@ -252,12 +261,33 @@ struct CachedFrame
       
       // cache number of columns
       ncol = safeDim(sexp, DIM_COLS);
+
+      colVersions.assign(std::max(ncol, 0), 0);
    };
    
    // Class is movable but not copyable
    CachedFrame(CachedFrame&&) = default;
    CachedFrame(const CachedFrame&) = delete;
 
+   CachedFrame& operator=(CachedFrame&& other)
+   {
+      envName = std::move(other.envName);
+      objName = std::move(other.objName);
+      nrow = other.nrow;
+      ncol = other.ncol;
+      colNames = std::move(other.colNames);
+      version = other.version;
+      colVersions = std::move(other.colVersions);
+      stableRows = std::move(other.stableRows);
+      workingSearch = std::move(other.workingSearch);
+      workingFilters = std::move(other.workingFilters);
+      workingOrderCols = std::move(other.workingOrderCols);
+      workingOrderDirs = std::move(other.workingOrderDirs);
+      observedSEXP.set(other.observedSEXP.get());
+      other.observedSEXP.releaseNow();
+      return *this;
+   }
+
    // The location of the frame (if we know it)
    std::string envName;
    std::string objName;
@@ -267,6 +297,17 @@ struct CachedFrame
    int nrow, ncol;
    std::vector<std::string> colNames;
 
+   // The version of the frame's contents, bumped each time a change is detected, and the version
+   // at which the existing values of each column last changed (rows added to or removed from the
+   // end of a column don't change its version). Clients tag the rows they fetch with these, so
+   // that after a change they only need to fetch again the rows that actually changed.
+   int version = 0;
+   std::vector<int> colVersions;
+
+   // The number of leading rows whose values were unchanged by each recent change, keyed by the
+   // version the change produced
+   std::map<int, int> stableRows;
+
    // The current search string and filter set
    std::string workingSearch;
    std::vector<std::string> workingFilters;
@@ -841,6 +882,14 @@ json::Object getData(SEXP dataSEXP,
    result["recordsTotal"] = nrow;
    result["recordsFiltered"] = filteredNRow;
    result["data"] = data;
+
+   // tag the rows with the version of the data they came from
+   if (cachedFrame != s_cachedFrames.end())
+   {
+      result["version"] = cachedFrame->second.version;
+      result["column_versions"] = columnVersions(
+               cachedFrame->second, columnOffset, numFormattedColumns);
+   }
    
    return result;
 }
@@ -957,6 +1006,10 @@ Error getGridData(const http::Request& request,
          {
             result = getData(dataSEXP, maxRows, maxCols, fields);
          }
+         else if (show == "versions")
+         {
+            result = getVersions(cacheKey, fields);
+         }
       }
    }
    catch (r::exec::RErrorException& e)
@@ -1065,6 +1118,203 @@ void onResume(const Settings&)
 {
 }
 
+// returns the row names attribute of a data frame, without expanding compact (automatic) row
+// names as Rf_getAttrib would
+SEXP rawRowNames(SEXP frameSEXP)
+{
+   for (SEXP attribSEXP = ATTRIB(frameSEXP); attribSEXP != R_NilValue; attribSEXP = CDR(attribSEXP))
+   {
+      if (TAG(attribSEXP) == R_RowNamesSymbol)
+         return CAR(attribSEXP);
+   }
+   return R_NilValue;
+}
+
+bool isCompactRowNames(SEXP rowNamesSEXP)
+{
+   return TYPEOF(rowNamesSEXP) == INTSXP &&
+          Rf_length(rowNamesSEXP) == 2 &&
+          INTEGER(rowNamesSEXP)[0] == NA_INTEGER;
+}
+
+// returns whether the first n values of two vectors are the same; vectors that can't be compared
+// cheaply (e.g. ALTREP vectors, which would have to be expanded) are assumed to differ
+bool hasSamePrefix(SEXP oldSEXP, SEXP newSEXP, int n)
+{
+   if (oldSEXP == newSEXP)
+      return true;
+
+   if (TYPEOF(oldSEXP) != TYPEOF(newSEXP) ||
+       Rf_length(oldSEXP) < n ||
+       Rf_length(newSEXP) < n)
+   {
+      return false;
+   }
+
+   if (modules::environment::isAltrep(oldSEXP) || modules::environment::isAltrep(newSEXP))
+      return false;
+
+   // the attributes (e.g. factor levels) affect how the values are displayed
+   if (!R_compute_identical(ATTRIB(oldSEXP), ATTRIB(newSEXP), 0))
+      return false;
+
+   switch (TYPEOF(oldSEXP))
+   {
+   case LGLSXP:
+      return std::memcmp(LOGICAL(oldSEXP), LOGICAL(newSEXP), n * sizeof(int)) == 0;
+   case INTSXP:
+      return std::memcmp(INTEGER(oldSEXP), INTEGER(newSEXP), n * sizeof(int)) == 0;
+   case REALSXP:
+      return std::memcmp(REAL(oldSEXP), REAL(newSEXP), n * sizeof(double)) == 0;
+   case STRSXP:
+      // R caches strings, so equal strings (in the same encoding) are the same CHARSXP
+      for (int i = 0; i < n; i++)
+      {
+         if (STRING_ELT(oldSEXP, i) != STRING_ELT(newSEXP, i))
+            return false;
+      }
+      return true;
+   default:
+      return false;
+   }
+}
+
+// returns whether a column's type (and so how it's displayed and filtered) differs between two
+// versions of a data frame with the same columns
+bool columnTypesChanged(SEXP oldSEXP, SEXP newSEXP)
+{
+   for (int i = 0; i < Rf_length(oldSEXP) && i < Rf_length(newSEXP); i++)
+   {
+      SEXP oldColSEXP = VECTOR_ELT(oldSEXP, i);
+      SEXP newColSEXP = VECTOR_ELT(newSEXP, i);
+      if (oldColSEXP == newColSEXP)
+         continue;
+
+      if (TYPEOF(oldColSEXP) != TYPEOF(newColSEXP) ||
+          !R_compute_identical(Rf_getAttrib(oldColSEXP, R_ClassSymbol),
+                               Rf_getAttrib(newColSEXP, R_ClassSymbol), 0) ||
+          !R_compute_identical(Rf_getAttrib(oldColSEXP, R_LevelsSymbol),
+                               Rf_getAttrib(newColSEXP, R_LevelsSymbol), 0))
+      {
+         return true;
+      }
+   }
+   return false;
+}
+
+// versions a frame that has changed; columns whose existing rows are unchanged keep their
+// versions, and the number of rows left unchanged is recorded with the new version
+void versionChangedFrame(const CachedFrame& oldFrame,
+                         SEXP oldSEXP,
+                         SEXP newSEXP,
+                         CachedFrame* pNewFrame)
+{
+   int version = oldFrame.version + 1;
+   pNewFrame->version = version;
+   pNewFrame->colVersions.assign(std::max(pNewFrame->ncol, 0), version);
+   pNewFrame->stableRows = oldFrame.stableRows;
+   while (pNewFrame->stableRows.size() >= static_cast<std::size_t>(MAX_FRAME_VERSIONS))
+      pNewFrame->stableRows.erase(pNewFrame->stableRows.begin());
+
+   // only data frames with the same columns can be compared column by column; an object that was
+   // modified in place can't be compared with its old self at all
+   bool comparable =
+         oldSEXP != nullptr &&
+         oldSEXP != newSEXP &&
+         TYPEOF(oldSEXP) == VECSXP &&
+         TYPEOF(newSEXP) == VECSXP &&
+         Rf_inherits(oldSEXP, "data.frame") &&
+         Rf_inherits(newSEXP, "data.frame") &&
+         oldFrame.nrow >= 0 &&
+         pNewFrame->nrow >= 0 &&
+         oldFrame.ncol == pNewFrame->ncol &&
+         oldFrame.colNames == pNewFrame->colNames;
+
+   int stableRows = comparable ? std::min(oldFrame.nrow, pNewFrame->nrow) : 0;
+   if (comparable)
+   {
+      SEXP oldRowNamesSEXP = rawRowNames(oldSEXP);
+      SEXP newRowNamesSEXP = rawRowNames(newSEXP);
+      bool rowNamesStable =
+            (isCompactRowNames(oldRowNamesSEXP) && isCompactRowNames(newRowNamesSEXP)) ||
+            hasSamePrefix(oldRowNamesSEXP, newRowNamesSEXP, stableRows);
+      if (!rowNamesStable)
+      {
+         comparable = false;
+         stableRows = 0;
+      }
+   }
+
+   if (comparable)
+   {
+      int ncol = std::min(Rf_length(oldSEXP), Rf_length(newSEXP));
+      for (int i = 0;
+           i < ncol && i < static_cast<int>(oldFrame.colVersions.size()) &&
+           i < static_cast<int>(pNewFrame->colVersions.size());
+           i++)
+      {
+         if (hasSamePrefix(VECTOR_ELT(oldSEXP, i), VECTOR_ELT(newSEXP, i), stableRows))
+            pNewFrame->colVersions[i] = oldFrame.colVersions[i];
+      }
+   }
+
+   pNewFrame->stableRows[version] = stableRows;
+}
+
+// returns the versions of the columns in the given slice of a frame (or from the given offset
+// onwards, if the number of columns isn't positive)
+json::Array columnVersions(const CachedFrame& frame, int offset, int count)
+{
+   int size = static_cast<int>(frame.colVersions.size());
+   int end = count > 0 ? std::min(size, offset + count) : size;
+
+   json::Array versions;
+   for (int i = std::max(offset, 0); i < end; i++)
+      versions.push_back(frame.colVersions[i]);
+   return versions;
+}
+
+// returns the number of leading rows that haven't changed since the given version of a frame, or
+// 0 if that version is too old to tell
+int stableRowsSince(const CachedFrame& frame, int version)
+{
+   if (version < 0 || version > frame.version)
+      return 0;
+
+   int stableRows = std::numeric_limits<int>::max();
+   for (int v = version + 1; v <= frame.version; v++)
+   {
+      auto it = frame.stableRows.find(v);
+      if (it == frame.stableRows.end())
+         return 0;
+      stableRows = std::min(stableRows, it->second);
+   }
+   return std::min(stableRows, std::max(frame.nrow, 0));
+}
+
+// returns the current versions of a frame, so a client can tell which of the rows it has already
+// fetched are still valid
+json::Object getVersions(const std::string& cacheKey, const http::Fields& fields)
+{
+   json::Object result;
+   auto it = s_cachedFrames.find(cacheKey);
+   if (it == s_cachedFrames.end())
+   {
+      // not observing the frame, so we can't tell what changed
+      result["version"] = -1;
+      return result;
+   }
+
+   int sinceVersion = http::util::fieldValue<int>(fields, "since_version", -1);
+
+   const CachedFrame& frame = it->second;
+   result["version"] = frame.version;
+   result["nrow"] = frame.nrow;
+   result["stable_rows"] = stableRowsSince(frame, sinceVersion);
+   result["column_versions"] = columnVersions(frame, 0, -1);
+   return result;
+}
+
 void onDetectChanges(module_context::ChangeSource source)
 {
    DROP_RECURSIVE_CALLS;
@@ -1110,6 +1360,19 @@ void onDetectChanges(module_context::ChangeSource source)
 
       if (sexpChanged || typeChanged || structureChanged)
       {
+         // work out which columns' values changed, so the client only needs to fetch those
+         versionChangedFrame(i->second, observedSEXP, sexp, &newFrame);
+
+         // a change to the columns themselves (rather than just their values) means the
+         // client needs to rebuild the table
+         bool columnsChanged =
+               i->second.ncol != newFrame.ncol ||
+               i->second.colNames != newFrame.colNames ||
+               observedSEXP == nullptr ||
+               TYPEOF(observedSEXP) != VECSXP ||
+               TYPEOF(sexp) != VECSXP ||
+               columnTypesChanged(observedSEXP, sexp);
+
          // replace cached copy
          r::exec::RFunction(".rs.assignCachedData")
                .addParam(i->first)
@@ -1131,13 +1394,14 @@ void onDetectChanges(module_context::ChangeSource source)
          changed["cache_key"] = i->first;
          changed["type_changed"] = typeChanged;
          changed["structure_changed"] = structureChanged;
+         changed["columns_changed"] = columnsChanged;
          changed["object_exists"] = true;
          changed["object_class"] = json::toJsonArray(objectClass);
          ClientEvent event(client_events::kDataViewChanged, changed);
          module_context::enqueClientEvent(event);
 
-         // replace old frame with new
-         s_cachedFrames.emplace(i->first, std::move(newFrame));
+         // replace old frame with new (emplace would keep the old one, as its key is in use)
+         i->second = std::move(newFrame);
       }
    }
 }
@@ -1440,6 +1440,19 @@ core::Error UserPrefValues::setDocumentLoadLintDelay(int val)
    return writePref("document_load_lint_delay", val);
 }
 
+/**
+ * The number of minutes a background editor tab without unsaved changes must go unused before its editor releases state it can rebuild, such as line tokens and undo history. Set to 0 to never hibernate editor tabs.
+ */
+int UserPrefValues::editorHibernationDelay()
+{
+   return readPref<int>("editor_hibernation_delay");
+}
+
+core::Error UserPrefValues::setEditorHibernationDelay(int val)
+{
+   return writePref("editor_hibernation_delay", val);
+}
+
 /**
  * Whether to ignore words in uppercase when spell checking.
  */
@@ -3593,6 +3606,7 @@ std::vector<std::string> UserPrefValues::allKeys()
       kSpellingDictionaryLanguage,
       kSpellingCustomDictionaries,
       kDocumentLoadLintDelay,
+      kEditorHibernationDelay,
       kIgnoreUppercaseWords,
       kIgnoreWordsWithNumbers,
       kRealTimeSpellchecking,
@@ -172,6 +172,20 @@
   // rate limit certain events
   var bootstrapping = false;
 
+  // rows fetched from the server, in blocks of blockSize rows, keyed by the
+  // view (sort, search, filters and columns) and block index; see fetchRows
+  var blockSize = 100;
+  var maxBlocks = 400;
+  var blockCache = new Map();
+
+  // the keys of the blocks currently being fetched
+  var pendingBlocks = {};
+
+  // the version of the data the cached blocks were fetched from (-1 if not
+  // known); when the data changes, blocks whose columns and rows didn't
+  // change are kept
+  var cacheVersion = -1;
+
   // helper for creating a tag with properties + content
   // (created as a string)
   var createTag = function (tag, content, attributes) {
@@ -1058,6 +1072,227 @@
     return parsedLocation;
   };
 
+  var showDataError = function (jqXHR) {
+    if (jqXHR.responseText[0] !== "{") showError(jqXHR.responseText);
+    else {
+      var result = $.parseJSON(jqXHR.responseText);
+      if (result.error) {
+        showError(result.error);
+      } else {
+        showError("The data could not be displayed.");
+      }
+    }
+  };
+
+  // the parameters identifying the object being viewed and the columns shown
+  var addDataParams = function (d) {
+    var parsedLocation = parseLocationUrl();
+    d.env = parsedLocation.env;
+    d.obj = parsedLocation.obj;
+    d.cache_key = parsedLocation.cacheKey;
+    d.show = "data";
+    d.column_offset = columnOffset;
+    d.max_display_columns = maxDisplayColumns;
+    d.max_rows = maxRows;
+    return d;
+  };
+
+  // whether the rows of the view depend on anything other than their own
+  // values (so that any change to the data can reorder them)
+  var isTransformedView = function (d) {
+    if (d.search && d.search.value) return true;
+    for (var i = 0; d.order && i < d.order.length; i++) {
+      if (d.order[i].column > 0) return true;
+    }
+    for (i = 0; d.columns && i < d.columns.length; i++) {
+      if (d.columns[i].search && d.columns[i].search.value) return true;
+    }
+    return false;
+  };
+
+  var viewKey = function (d) {
+    return JSON.stringify({
+      order: (d.order || []).filter(function (o) {
+        return o.column > 0;
+      }),
+      search: d.search ? d.search.value : "",
+      filters: (d.columns || []).map(function (c) {
+        return c.search ? c.search.value : "";
+      }),
+      columnOffset: columnOffset,
+      maxDisplayColumns: maxDisplayColumns,
+      maxRows: maxRows,
+    });
+  };
+
+  var getBlock = function (key) {
+    var block = blockCache.get(key);
+    if (block) {
+      // keep the cache in least recently used order
+      blockCache.delete(key);
+      blockCache.set(key, block);
+    }
+    return block;
+  };
+
+  var putBlock = function (key, block) {
+    blockCache.delete(key);
+    blockCache.set(key, block);
+    while (blockCache.size > maxBlocks) {
+      blockCache.delete(blockCache.keys().next().value);
+    }
+  };
+
+  // fetches the given range of blocks of the view described by the DataTables
+  // request d, then calls done (if given)
+  var fetchBlocks = function (d, key, first, last, done) {
+    var req = addDataParams($.extend(true, {}, d));
+    req.start = first * blockSize;
+    req.length = (last - first + 1) * blockSize;
+
+    for (var b = first; b <= last; b++) pendingBlocks[key + "/" + b] = true;
+    var clearPending = function () {
+      for (var b = first; b <= last; b++) delete pendingBlocks[key + "/" + b];
+    };
+
+    $.ajax({
+      url: "../grid_data",
+      type: "POST",
+      data: req,
+      dataType: "json",
+    })
+      .done(function (result) {
+        clearPending();
+        if (typeof result.version === "number") {
+          if (result.version < cacheVersion) {
+            // fetched before the cache moved on to newer data (e.g. a
+            // prefetch sent before refreshValues); drop the stale rows, and
+            // let the caller (if any) fetch the missing blocks again
+            if (done) done();
+            return;
+          }
+
+          if (result.version > cacheVersion) {
+            // the data changed since the cached blocks were fetched, and we
+            // haven't been told what changed; start over
+            blockCache.clear();
+            cacheVersion = result.version;
+          }
+        }
+
+        var transformed = isTransformedView(d);
+        for (var b = first; b <= last; b++) {
+          var offset = (b - first) * blockSize;
+          putBlock(key + "/" + b, {
+            start: b * blockSize,
+            rows: result.data.slice(offset, offset + blockSize),
+            total: result.recordsTotal,
+            filtered: result.recordsFiltered,
+            columnOffset: columnOffset,
+            columnVersions: result.column_versions || null,
+            transformed: transformed,
+          });
+        }
+        if (done) done();
+      })
+      .fail(function (jqXHR) {
+        clearPending();
+        if (done) showDataError(jqXHR);
+      });
+  };
+
+  // fetches a block in the background, if it exists and isn't already
+  // cached or being fetched
+  var prefetchBlock = function (d, key, b, filtered) {
+    if (b < 0 || b * blockSize >= filtered) return;
+    if (blockCache.has(key + "/" + b) || pendingBlocks[key + "/" + b]) return;
+    fetchBlocks(d, key, b, b, null);
+  };
+
+  // serves the rows DataTables asks for from the cached blocks, fetching any
+  // missing blocks first, and then prefetches the blocks on either side
+  var fetchRows = function (d, callback) {
+    if (d.length < 0) {
+      // all rows were asked for; don't cache those
+      $.ajax({ url: "../grid_data", type: "POST", data: addDataParams(d), dataType: "json" })
+        .done(callback)
+        .fail(showDataError);
+      return;
+    }
+
+    var key = viewKey(d);
+    var first = Math.floor(d.start / blockSize);
+    var last = Math.floor((d.start + Math.max(d.length, 1) - 1) / blockSize);
+
+    var respond = function () {
+      var data = [];
+      var total = 0;
+      var filtered = 0;
+      for (var b = first; b <= last; b++) {
+        var block = getBlock(key + "/" + b);
+        if (!block) {
+          // evicted while the others were fetched; try again
+          fetchBlocks(d, key, b, last, respond);
+          return;
+        }
+        total = block.total;
+        filtered = block.filtered;
+        var from = Math.max(d.start - block.start, 0);
+        var to = Math.min(d.start + d.length - block.start, block.rows.length);
+        for (var i = from; i < to; i++) data.push(block.rows[i]);
+      }
+
+      callback({
+        draw: d.draw,
+        recordsTotal: total,
+        recordsFiltered: filtered,
+        data: data,
+      });
+
+      prefetchBlock(d, key, first - 1, filtered);
+      prefetchBlock(d, key, last + 1, filtered);
+    };
+
+    var missingFirst = -1;
+    var missingLast = -1;
+    for (var b = first; b <= last; b++) {
+      if (!blockCache.has(key + "/" + b)) {
+        if (missingFirst < 0) missingFirst = b;
+        missingLast = b;
+      }
+    }
+
+    if (missingFirst < 0) respond();
+    else fetchBlocks(d, key, missingFirst, missingLast, respond);
+  };
+
+  // drops the cached blocks that changed in the given version of the data;
+  // a block is kept only if none of its columns changed, all its rows are
+  // among the unchanged leading rows, and no rows were added to it
+  var invalidateBlocks = function (versions) {
+    var columnVersions = versions.column_versions || [];
+    var nrow = maxRows > 0 ? Math.min(versions.nrow, maxRows) : versions.nrow;
+
+    blockCache.forEach(function (block, key) {
+      var valid =
+        !block.transformed &&
+        block.columnVersions !== null &&
+        block.start + block.rows.length <= versions.stable_rows &&
+        (block.rows.length === blockSize || block.total === nrow);
+
+      for (var i = 0; valid && i < block.columnVersions.length; i++) {
+        valid = block.columnVersions[i] === columnVersions[block.columnOffset + i];
+      }
+
+      if (valid) {
+        block.total = block.filtered = nrow;
+      } else {
+        blockCache.delete(key);
+      }
+    });
+    cacheVersion = versions.version;
+  };
+
   var initDataTableLoad = function (result) {
     table = $("#rsGridData").DataTable();
 
@@ -1108,9 +1343,6 @@
 
     // look up the query parameters
     var parsedLocation = parseLocationUrl();
-    var env = parsedLocation.env,
-      obj = parsedLocation.obj,
-      cacheKey = parsedLocation.cacheKey;
 
     // maxCols overrides maxDisplayColumns if it's specified
     if (parsedLocation.maxCols)
@@ -1181,29 +1413,8 @@
     var dataTableColumns = null;
 
     if (!data) {
-      dataTableAjax = {
-        url: "../grid_data",
-        type: "POST",
-        data: function (d) {
-          d.env = env;
-          d.obj = obj;
-          d.cache_key = cacheKey;
-          d.show = "data";
-          d.column_offset = columnOffset;
-          d.max_display_columns = maxDisplayColumns;
-          d.max_rows = maxRows;
-        },
-        error: function (jqXHR) {
-          if (jqXHR.responseText[0] !== "{") showError(jqXHR.responseText);
-          else {
-            var result = $.parseJSON(jqXHR.responseText);
-            if (result.error) {
-              showError(result.error);
-            } else {
-              showError("The data could not be displayed.");
-            }
-          }
-        },
+      dataTableAjax = function (d, callback) {
+        fetchRows(d, callback);
       };
       dataTableColumnDefs = [
         {
@@ -1633,9 +1844,49 @@
 
   // called from RStudio when the underlying object changes
   window.refreshData = function () {
+    blockCache.clear();
+    cacheVersion = -1;
     bootstrap();
   };
 
+  // called from RStudio when the values of the underlying object change, but
+  // its columns don't; reloads only the rows that changed, keeping the sort,
+  // filters, search and scroll position
+  window.refreshValues = function () {
+    if (!table || cacheVersion < 0) {
+      window.refreshData();
+      return;
+    }
+
+    var parsedLocation = parseLocationUrl();
+    $.ajax({
+      url: "../grid_data",
+      type: "POST",
+      data: {
+        show: "versions",
+        env: parsedLocation.env,
+        obj: parsedLocation.obj,
+        cache_key: parsedLocation.cacheKey,
+        since_version: cacheVersion,
+      },
+      dataType: "json",
+    })
+      .done(function (versions) {
+        if (!table || typeof versions.version !== "number" || versions.version < 0) {
+          window.refreshData();
+          return;
+        }
+
+        invalidateBlocks(versions);
+
+        // redraw without resetting the paging (and so the scroll position)
+        table.draw(false);
+      })
+      .fail(function () {
+        window.refreshData();
+      });
+  };
+
   // called from RStudio to apply a column-wide search.
   window.applySearch = function (text) {
     debouncedSearch(text);
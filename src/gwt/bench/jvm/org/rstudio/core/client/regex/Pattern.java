@@ -0,0 +1,144 @@
+/*
+ * Pattern.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.regex;
+
+// JVM stand-in for the JSNI (JavaScript RegExp) Pattern used by the client,
+// placed ahead of the client classes on the benchmark classpath. Mirrors the
+// RegExp semantics the client relies on: with the 'g' or 'y' flags matching
+// starts at the given index ('y' only matches there), otherwise matching
+// always starts from the beginning of the input.
+public class Pattern
+{
+   public interface ReplaceOperation
+   {
+      String replace(Match m);
+   }
+
+   public static Pattern create(String pattern)
+   {
+      return new Pattern(pattern, "gm");
+   }
+
+   public static Pattern create(String pattern, String flags)
+   {
+      return new Pattern(pattern, flags);
+   }
+
+   private Pattern(String pattern, String flags)
+   {
+      int javaFlags = 0;
+      if (flags.indexOf('i') != -1)
+         javaFlags |= java.util.regex.Pattern.CASE_INSENSITIVE |
+                      java.util.regex.Pattern.UNICODE_CASE;
+      if (flags.indexOf('m') != -1)
+         javaFlags |= java.util.regex.Pattern.MULTILINE;
+
+      pattern_ = java.util.regex.Pattern.compile(pattern, javaFlags);
+      global_ = flags.indexOf('g') != -1;
+      sticky_ = flags.indexOf('y') != -1;
+   }
+
+   public final int search(String string)
+   {
+      java.util.regex.Matcher matcher = pattern_.matcher(string);
+      return matcher.find() ? matcher.start() : -1;
+   }
+
+   public final Match match(String input, int index)
+   {
+      int start = (global_ || sticky_) ? index : 0;
+      if (start > input.length())
+         return null;
+
+      java.util.regex.Matcher matcher = pattern_.matcher(input);
+      boolean found;
+      if (sticky_)
+      {
+         matcher.region(start, input.length());
+         found = matcher.lookingAt();
+      }
+      else
+      {
+         found = matcher.find(start);
+      }
+
+      if (!found)
+         return null;
+
+      String[] groups = new String[matcher.groupCount() + 1];
+      for (int i = 0; i < groups.length; i++)
+         groups[i] = matcher.group(i);
+
+      return new Match(this, input, matcher.start(), matcher.end(), groups);
+   }
+
+   public final boolean test(String input)
+   {
+      return pattern_.matcher(input).find();
+   }
+
+   public static String escape(String str)
+   {
+      StringBuilder output = new StringBuilder();
+      for (int i = 0; i < str.length(); i++)
+      {
+         char c = str.charAt(i);
+         String hexStr = Integer.toHexString(c);
+         output.append("\\u");
+         for (int j = 4 - hexStr.length(); j > 0; j--)
+            output.append('0');
+         output.append(hexStr);
+      }
+      return output.toString();
+   }
+
+   public final String replaceAll(String str, String substr)
+   {
+      java.util.regex.Matcher matcher = pattern_.matcher(str);
+      return global_ ? matcher.replaceAll(substr) : matcher.replaceFirst(substr);
+   }
+
+   public final String replaceAll(String str, ReplaceOperation op)
+   {
+      StringBuilder result = new StringBuilder();
+      int tail = 0;
+      Match match = match(str, 0);
+      while (match != null)
+      {
+         if (tail < match.getIndex())
+            result.append(str, tail, match.getIndex());
+
+         result.append(op.replace(match));
+
+         tail = match.getIndex() + match.getValue().length();
+
+         match = match.nextMatch();
+      }
+
+      if (tail < str.length())
+         result.append(str, tail, str.length());
+
+      return result.toString();
+   }
+
+   public static String replace(String find, String repl, boolean caseSensitive)
+   {
+      return new Pattern(find, caseSensitive ? "g" : "ig").replaceAll(find, repl);
+   }
+
+   private final java.util.regex.Pattern pattern_;
+   private final boolean global_;
+   private final boolean sticky_;
+}
@@ -0,0 +1,208 @@
+/*
+ * Corpora.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Inputs for the benchmarks. Each corpus is generated deterministically (so
+// results are comparable between runs and releases), unless a file is
+// supplied through the corresponding system property, e.g.
+//
+//    ant bench -Dbench.jvmargs="-Dbench.corpus.r=/path/to/large.R"
+//
+final class Corpora
+{
+   // ~1 MB of R code: functions, control flow, strings, comments, formulas
+   static String rSource()
+   {
+      String file = fromFile("bench.corpus.r");
+      if (file != null)
+         return file;
+
+      Random random = new Random(42);
+      StringBuilder builder = new StringBuilder();
+      int i = 0;
+      while (builder.length() < R_SOURCE_SIZE)
+      {
+         String name = IDENTIFIERS[random.nextInt(IDENTIFIERS.length)] + "_" + i++;
+         builder.append("#' Summarise '").append(name).append("' by group.\n")
+                .append("#' @param data A data frame.\n")
+                .append(name).append(" <- function(data, by = \"group\", ...) {\n")
+                .append("   stopifnot(is.data.frame(data), by %in% names(data))\n")
+                .append("   result <- lapply(split(data, data[[by]]), function(df) {\n")
+                .append("      fit <- lm(y ~ x + I(x^2), data = df)\n")
+                .append("      c(n = nrow(df), coef = coef(fit)[[2L]], r2 = summary(fit)$r.squared)\n")
+                .append("   })\n")
+                .append("   if (length(result) > ").append(random.nextInt(100)).append("L && !is.null(by)) {\n")
+                .append("      warning(sprintf('many groups (%d) in %s', length(result), \"")
+                .append(name).append("\"))\n")
+                .append("   } else {\n")
+                .append("      out <- data[, c(\"x\", \"y\")] |> subset(x >= ")
+                .append(random.nextDouble()).append(") # keep the tail\n")
+                .append("   }\n")
+                .append("   `attr<-`(do.call(rbind, result), \"class\", c(\"summary\", \"matrix\"))\n")
+                .append("}\n\n");
+      }
+      return builder.toString();
+   }
+
+   // a multi-MB git diff with many files and hunks
+   static String gitDiff()
+   {
+      String file = fromFile("bench.corpus.diff");
+      if (file != null)
+         return file;
+
+      Random random = new Random(7);
+      StringBuilder builder = new StringBuilder();
+      int fileIndex = 0;
+      while (builder.length() < DIFF_SIZE)
+      {
+         String path = "R/" + IDENTIFIERS[random.nextInt(IDENTIFIERS.length)] + "-" + fileIndex++ + ".R";
+         builder.append("diff --git a/").append(path).append(" b/").append(path).append('\n')
+                .append("index 3f2a1c4..8b9d0e7 100644\n")
+                .append("--- a/").append(path).append('\n')
+                .append("+++ b/").append(path).append('\n');
+
+         int line = 1;
+         int hunks = 1 + random.nextInt(8);
+         for (int h = 0; h < hunks; h++)
+         {
+            line += 10 + random.nextInt(200);
+            builder.append("@@ -").append(line).append(",7 +").append(line).append(",8 @@ ")
+                   .append("function(data) {\n");
+            for (int k = 0; k < 3; k++)
+               builder.append("    x <- compute(data, ").append(k).append(")\n");
+            builder.append("-   y <- old_value(x)\n")
+                   .append("+   y <- new_value(x, na.rm = TRUE)\n")
+                   .append("+   stopifnot(length(y) == 1L)\n");
+            for (int k = 0; k < 3; k++)
+               builder.append("    z").append(k).append(" <- y + ").append(k).append('\n');
+         }
+      }
+      return builder.toString();
+   }
+
+   // 10,000 project-relative file paths
+   static List<String> filePaths()
+   {
+      List<String> paths = new ArrayList<>(FILE_COUNT);
+      Random random = new Random(11);
+      for (int i = 0; i < FILE_COUNT; i++)
+      {
+         String dir = DIRECTORIES[random.nextInt(DIRECTORIES.length)];
+         String name = IDENTIFIERS[random.nextInt(IDENTIFIERS.length)];
+         String ext = EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+         paths.add(dir + "/" + name + "_" + i + ext);
+      }
+      return paths;
+   }
+
+   // a CSV document (e.g. a persisted history list) with quoting and escapes
+   static String csv()
+   {
+      Random random = new Random(3);
+      StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < CSV_ROWS; i++)
+      {
+         builder.append("\"help/library/stats/html/")
+                .append(IDENTIFIERS[random.nextInt(IDENTIFIERS.length)])
+                .append(".html\",\"Title with \"\"quotes\"\", commas, and more ")
+                .append(i)
+                .append("\"\n");
+      }
+      return builder.toString();
+   }
+
+   // ~10 MB of R code with ~100,000 occurrences of 'old_value', for find
+   // and replace
+   static String findReplace()
+   {
+      String file = fromFile("bench.corpus.find");
+      if (file != null)
+         return file;
+
+      Random random = new Random(19);
+      StringBuilder builder = new StringBuilder();
+      int matches = 0;
+      int i = 0;
+      while (builder.length() < FIND_REPLACE_SIZE)
+      {
+         String name = IDENTIFIERS[random.nextInt(IDENTIFIERS.length)];
+         builder.append("   ").append(name).append("_").append(i++).append(" <- ");
+         if (matches < FIND_REPLACE_MATCHES && random.nextInt(3) < 2)
+         {
+            builder.append("transform(old_value, scale = ").append(random.nextInt(1000)).append(")");
+            matches++;
+         }
+         else
+         {
+            builder.append("compute(data[[\"").append(name).append("\"]], na.rm = TRUE)");
+         }
+         builder.append(" # step ").append(random.nextInt(100)).append('\n');
+      }
+      return builder.toString();
+   }
+
+   private static String fromFile(String property)
+   {
+      String path = System.getProperty(property);
+      if (path == null || path.isEmpty())
+         return null;
+
+      try
+      {
+         Path resolved = Paths.get(path);
+         return new String(Files.readAllBytes(resolved), StandardCharsets.UTF_8);
+      }
+      catch (IOException e)
+      {
+         throw new IllegalArgumentException("Unable to read corpus '" + path + "'", e);
+      }
+   }
+
+   private Corpora()
+   {
+   }
+
+   private static final int R_SOURCE_SIZE = 1024 * 1024;
+   private static final int DIFF_SIZE = 4 * 1024 * 1024;
+   private static final int FILE_COUNT = 10000;
+   private static final int CSV_ROWS = 5000;
+   private static final int FIND_REPLACE_SIZE = 10 * 1024 * 1024;
+   private static final int FIND_REPLACE_MATCHES = 100000;
+
+   private static final String[] IDENTIFIERS = {
+         "summarise", "mutate", "read_csv", "plot_model", "fit_glm", "tidy",
+         "bootstrap", "cross_validate", "impute", "normalize", "render_report",
+         "load_data", "clean_names", "pivot", "nest_by", "simulate", "utils"
+   };
+
+   private static final String[] DIRECTORIES = {
+         "R", "R/models", "R/plots", "tests/testthat", "inst/extdata",
+         "vignettes", "data-raw", "analysis/2023/q4", "src", "man"
+   };
+
+   private static final String[] EXTENSIONS = {
+         ".R", ".Rmd", ".qmd", ".cpp", ".h", ".csv", ".md", ".Rd", ".yml"
+   };
+}
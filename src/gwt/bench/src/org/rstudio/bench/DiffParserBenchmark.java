@@ -0,0 +1,60 @@
+/*
+ * DiffParserBenchmark.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.DiffChunk;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.DiffFileHeader;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.UnifiedParser;
+
+// Parses a multi-MB git diff; every hunk header goes through ChunkHeaderParser
+// (which is package-private, so it's measured as part of UnifiedParser).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DiffParserBenchmark
+{
+   @Setup
+   public void setup()
+   {
+      diff_ = Corpora.gitDiff();
+   }
+
+   @Benchmark
+   public void parseGitDiff(Blackhole blackhole)
+   {
+      UnifiedParser parser = new UnifiedParser(diff_);
+      DiffFileHeader header;
+      while (null != (header = parser.nextFilePair()))
+      {
+         blackhole.consume(header);
+
+         DiffChunk chunk;
+         while (null != (chunk = parser.nextChunk()))
+            blackhole.consume(chunk.getLines());
+      }
+   }
+
+   private String diff_;
+}
@@ -0,0 +1,132 @@
+/*
+ * FindReplaceBenchmark.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.workbench.views.source.editors.text.findreplace.FindMatchIndex;
+import org.rstudio.studio.client.workbench.views.source.editors.text.findreplace.FindMatchIndex.Replacement;
+
+// Find and Replace All over a ~10 MB document with ~100,000 matches. The
+// 'legacy' benchmark is the previous Replace All, which rebuilt the whole
+// document as a string; applying the edits to Ace isn't measured here.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FindReplaceBenchmark
+{
+   @Setup
+   public void setup()
+   {
+      code_ = Corpora.findReplace();
+      lines_ = new ArrayList<>(Arrays.asList(code_.split("\n", -1)));
+
+      index_ = new FindMatchIndex(literal(), false);
+      index_.indexRows(document_, Integer.MAX_VALUE);
+
+      regexIndex_ = new FindMatchIndex(Pattern.create("old_(value)", "gm"), true);
+      regexIndex_.indexRows(document_, Integer.MAX_VALUE);
+   }
+
+   @Benchmark
+   public int buildIndex()
+   {
+      FindMatchIndex index = new FindMatchIndex(literal(), false);
+      index.indexRows(document_, Integer.MAX_VALUE);
+      return index.getMatchCount();
+   }
+
+   // typing on a line with a match: remove and re-insert one character
+   @Benchmark
+   @OutputTimeUnit(TimeUnit.MICROSECONDS)
+   public int updateIndexForEdit()
+   {
+      int row = lines_.size() / 2;
+      String line = lines_.get(row);
+      lines_.set(row, line.substring(1));
+      index_.onRemove(document_, row, row);
+      lines_.set(row, line);
+      index_.onInsert(document_, row, row);
+      return index_.getMatchCount();
+   }
+
+   @Benchmark
+   public List<Replacement> replacementsFromIndex()
+   {
+      return index_.getReplacements(
+            document_, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, "new_value");
+   }
+
+   @Benchmark
+   public List<Replacement> regexReplacementsFromIndex()
+   {
+      return regexIndex_.getReplacements(
+            document_, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, "new_$1");
+   }
+
+   @Benchmark
+   public String legacyReplaceAll()
+   {
+      Pattern pattern = literal();
+      StringBuilder result = new StringBuilder();
+      int pos = 0;
+      for (Match m = pattern.match(code_, 0); m != null; m = m.nextMatch())
+      {
+         int index = m.getIndex();
+         result.append(code_, pos, index);
+         result.append("new_value");
+         pos = index + m.getValue().length();
+      }
+      result.append(code_, pos, code_.length());
+      return result.toString();
+   }
+
+   private static Pattern literal()
+   {
+      return Pattern.create(Pattern.escape("old_value"), "gm");
+   }
+
+   private final FindMatchIndex.Lines document_ = new FindMatchIndex.Lines()
+   {
+      @Override
+      public int getLength()
+      {
+         return lines_.size();
+      }
+
+      @Override
+      public String getLine(int row)
+      {
+         return lines_.get(row);
+      }
+   };
+
+   private String code_;
+   private List<String> lines_;
+   private FindMatchIndex index_;
+   private FindMatchIndex regexIndex_;
+}
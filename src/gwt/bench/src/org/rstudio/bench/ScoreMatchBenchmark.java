@@ -0,0 +1,56 @@
+/*
+ * ScoreMatchBenchmark.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+
+// Scores a 10k entry file list against a query, as "Go to File/Function" does
+// on every keystroke.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScoreMatchBenchmark
+{
+   @Param({ "r", "fitglm", "analysis/q4/model" })
+   public String query;
+
+   @Setup
+   public void setup()
+   {
+      paths_ = Corpora.filePaths();
+   }
+
+   @Benchmark
+   public long scoreFileList()
+   {
+      long total = 0;
+      for (String path : paths_)
+         total += CodeSearchOracle.scoreMatch(path, query, true);
+      return total;
+   }
+
+   private List<String> paths_;
+}
@@ -0,0 +1,86 @@
+/*
+ * StringUtilBenchmark.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rstudio.core.client.StringUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StringUtilBenchmark
+{
+   @Setup
+   public void setup()
+   {
+      lines_ = Corpora.rSource().split("\n");
+      paths_ = Corpora.filePaths();
+   }
+
+   // fuzzy filtering, as done for completions and file / topic search
+   @Benchmark
+   public int isSubsequenceOverFileList()
+   {
+      int count = 0;
+      for (String path : paths_)
+      {
+         if (StringUtil.isSubsequence(path, "rmodfit", true))
+            count++;
+      }
+      return count;
+   }
+
+   @Benchmark
+   public void stripRComments(Blackhole blackhole)
+   {
+      for (String line : lines_)
+         blackhole.consume(StringUtil.stripRComment(line));
+   }
+
+   @Benchmark
+   public void maskStrings(Blackhole blackhole)
+   {
+      for (String line : lines_)
+         blackhole.consume(StringUtil.maskStrings(line));
+   }
+
+   @Benchmark
+   public String commonPrefixOfRoxygenBlock()
+   {
+      return StringUtil.getCommonPrefix(ROXYGEN, true, false);
+   }
+
+   private String[] lines_;
+   private List<String> paths_;
+
+   private static final String[] ROXYGEN = {
+         "#' Summarise a data frame by group.",
+         "#'",
+         "#' @param data A data frame.",
+         "#' @param by   The grouping column.",
+         "#' @return A matrix, one row per group.",
+         "#' @export"
+   };
+}
@@ -0,0 +1,74 @@
+/*
+ * TextCursorBenchmark.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.rstudio.core.client.TextCursor;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TextCursorBenchmark
+{
+   @Setup
+   public void setup()
+   {
+      source_ = Corpora.rSource();
+   }
+
+   // find the matching close bracket for every open bracket in the file
+   @Benchmark
+   public int matchBrackets()
+   {
+      int matched = 0;
+      TextCursor cursor = new TextCursor(source_);
+      for (int i = 0; i < source_.length(); i++)
+      {
+         char ch = source_.charAt(i);
+         if (ch != '(' && ch != '{' && ch != '[')
+            continue;
+
+         cursor.setIndex(i);
+         if (cursor.fwdToMatchingCharacter())
+            matched++;
+      }
+      return matched;
+   }
+
+   // walk the file statement by statement, skipping over quoted strings
+   @Benchmark
+   public int scanUnquotedNewlines()
+   {
+      int count = 0;
+      TextCursor cursor = new TextCursor(source_);
+      while (cursor.fwdToNonQuotedCharacter('\n'))
+      {
+         count++;
+         if (!cursor.moveToNextCharacter())
+            break;
+      }
+      return count;
+   }
+
+   private String source_;
+}
@@ -20,8 +20,17 @@ import java.util.Iterator;
 public class CsvReader implements Iterable<String[]>
 {
    public CsvReader(String data)
+   {
+      this(data, ',', '"');
+   }
+
+   // A quote of NO_QUOTE disables quoting, so that quote characters are
+   // read as part of the field.
+   public CsvReader(String data, char delimiter, char quote)
    {
       data_ = data;
+      delimiter_ = delimiter;
+      quote_ = quote;
    }
 
    public Iterator<String[]> iterator()
@@ -50,12 +59,17 @@ public class CsvReader implements Iterable<String[]>
             {
                char c = data_.charAt(pos);
 
+               if (c == '\r' && state != IN_QUOTE &&
+                   pos < data_.length() - 1 && data_.charAt(pos+1) == '\n')
+               {
+                  continue;
+               }
                if (c == '\n' && state != IN_QUOTE)
                {
                   pos++;
                   break;
                }
-               if (c == ',' && state != IN_QUOTE)
+               if (c == delimiter_ && state != IN_QUOTE)
                {
                   if (state != QUOTE_ENDED)
                      list.add(chunk.toString());
@@ -63,17 +77,17 @@ public class CsvReader implements Iterable<String[]>
                   state = START;
                   continue;
                }
-               if (c == '"' && state == START)
+               if (c == quote_ && state == START)
                {
                   state = IN_QUOTE;
                   continue;
                }
-               if (c == '"' && state == IN_QUOTE)
+               if (c == quote_ && state == IN_QUOTE)
                {
                   int lookahead = (pos < data_.length() - 1)
                                   ? data_.charAt(pos+1)
                                   : -1;
-                  if (lookahead == '"')
+                  if (lookahead == quote_)
                   {
                      chunk.append((char)lookahead);
                      pos++;
@@ -105,5 +119,9 @@ public class CsvReader implements Iterable<String[]>
       };
    }
 
+   public static final char NO_QUOTE = '\0';
+
    private final String data_;
+   private final char delimiter_;
+   private final char quote_;
 }
@@ -31,6 +31,7 @@ import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.shell.ShellWidget.ErrorClass;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.prefs.model.Prefs;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefsAccessor;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefsSubset;
@@ -93,13 +94,13 @@ public class VirtualConsole
       @Override
       public boolean screenReaderEnabled()
       {
-         return getUserPrefs().enableScreenReader().getValue();
+         return Prefs.booleanValue(getUserPrefs().enableScreenReader());
       }
 
       @Override
       public boolean limitConsoleVisible()
       {
-         return getUserPrefs().limitVisibleConsole().getValue();
+         return Prefs.booleanValue(getUserPrefs().limitVisibleConsole());
       }
    }
    
@@ -24,6 +24,7 @@ import com.google.gwt.user.client.Random;
 import org.rstudio.core.client.CoreClientConstants;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry.ResponseType;
+import org.rstudio.core.client.profiling.Profiler;
 import org.rstudio.studio.client.application.ApplicationCsrfToken;
 import org.rstudio.studio.client.application.Desktop;
 
@@ -132,6 +133,26 @@ public class RpcRequest
             
             public void onResponseReceived(Request request, 
                                            Response response)
+            {
+               // attribute the time spent handling the response to the method
+               if (!Profiler.isEnabled())
+               {
+                  handleResponse(response);
+                  return;
+               }
+               
+               double start = Profiler.now();
+               try
+               {
+                  handleResponse(response);
+               }
+               finally
+               {
+                  Profiler.record(Profiler.CATEGORY_RPC, method_, start);
+               }
+            }
+            
+            private void handleResponse(Response response)
             {
                // only accept 200 responses
                int status = response.getStatusCode();
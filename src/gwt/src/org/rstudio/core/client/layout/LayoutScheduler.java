@@ -0,0 +1,196 @@
+/*
+ * LayoutScheduler.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.layout;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.rstudio.core.client.Debug;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.event.shared.HandlerRegistration;
+
+/**
+ * Runs layout work at most once per animation frame, with every participant's
+ * layout reads done before any of their writes, so that a resize costs one
+ * reflow for all of them rather than one for each.
+ *
+ * Participants are scheduled explicitly (e.g. from RequiresResize.onResize,
+ * which can be called many times in a frame while panes are animating), or
+ * by a ResizeObserver watching their element. Elements that are hidden
+ * report an empty size to the observer, and aren't scheduled.
+ */
+public class LayoutScheduler
+{
+   public interface Participant
+   {
+      /**
+       * Reads the layout the participant needs (sizes, scroll positions);
+       * mustn't change the DOM or any styles.
+       *
+       * @return Whether mutate() needs to be called
+       */
+      boolean measure();
+
+      /**
+       * Applies what measure() read; shouldn't read layout.
+       */
+      void mutate();
+   }
+
+   public static LayoutScheduler get()
+   {
+      if (INSTANCE == null)
+         INSTANCE = new LayoutScheduler();
+      return INSTANCE;
+   }
+
+   private LayoutScheduler()
+   {
+   }
+
+   /**
+    * Runs the participant's measure and mutate phases in the next frame. A
+    * participant scheduled more than once before then runs only once.
+    */
+   public void schedule(Participant participant)
+   {
+      if (!pending_.add(participant) || frameRequested_ || flushing_)
+         return;
+
+      frameRequested_ = true;
+      AnimationScheduler.get().requestAnimationFrame(timestamp -> flush());
+   }
+
+   /**
+    * Schedules the participant whenever the element's size changes. Does
+    * nothing if the browser doesn't support ResizeObserver.
+    *
+    * @return A registration that stops observing the element
+    */
+   public HandlerRegistration observe(Element element, Participant participant)
+   {
+      if (!isResizeObserverSupported())
+         return () -> {};
+
+      if (observer_ == null)
+         observer_ = createObserver();
+
+      observe(observer_, element, participant);
+      return () -> unobserve(observer_, element);
+   }
+
+   private void flush()
+   {
+      frameRequested_ = false;
+      flushing_ = true;
+
+      try
+      {
+         // participants scheduled by another's mutate phase (e.g. children
+         // resized by their parent) run in a further round in this frame
+         for (int round = 0; round < MAX_ROUNDS && !pending_.isEmpty(); round++)
+         {
+            List<Participant> participants = new ArrayList<>(pending_);
+            pending_.clear();
+
+            List<Participant> mutating = new ArrayList<>();
+            for (Participant participant : participants)
+            {
+               try
+               {
+                  if (participant.measure())
+                     mutating.add(participant);
+               }
+               catch (Exception e)
+               {
+                  Debug.logException(e);
+               }
+            }
+
+            for (Participant participant : mutating)
+            {
+               try
+               {
+                  participant.mutate();
+               }
+               catch (Exception e)
+               {
+                  Debug.logException(e);
+               }
+            }
+         }
+      }
+      finally
+      {
+         flushing_ = false;
+      }
+
+      // anything still pending waits for the next frame
+      if (!pending_.isEmpty())
+      {
+         frameRequested_ = true;
+         AnimationScheduler.get().requestAnimationFrame(timestamp -> flush());
+      }
+   }
+
+   private static native boolean isResizeObserverSupported() /*-{
+      return typeof $wnd.ResizeObserver === "function";
+   }-*/;
+
+   private native JavaScriptObject createObserver() /*-{
+      var self = this;
+      return new $wnd.ResizeObserver($entry(function(entries) {
+         for (var i = 0; i < entries.length; i++) {
+            var entry = entries[i];
+            var participant = entry.target.__rstudioLayoutParticipant;
+            if (participant == null)
+               continue;
+
+            // hidden elements have no size; they're scheduled again once
+            // they're shown
+            var rect = entry.contentRect;
+            if (rect.width === 0 && rect.height === 0)
+               continue;
+
+            self.@org.rstudio.core.client.layout.LayoutScheduler::schedule(*)(participant);
+         }
+      }));
+   }-*/;
+
+   private static native void observe(JavaScriptObject observer,
+                                      Element element,
+                                      Participant participant) /*-{
+      element.__rstudioLayoutParticipant = participant;
+      observer.observe(element);
+   }-*/;
+
+   private static native void unobserve(JavaScriptObject observer,
+                                        Element element) /*-{
+      observer.unobserve(element);
+      delete element.__rstudioLayoutParticipant;
+   }-*/;
+
+   private final LinkedHashSet<Participant> pending_ = new LinkedHashSet<>();
+   private JavaScriptObject observer_;
+   private boolean frameRequested_ = false;
+   private boolean flushing_ = false;
+
+   private static final int MAX_ROUNDS = 4;
+   private static LayoutScheduler INSTANCE;
+}
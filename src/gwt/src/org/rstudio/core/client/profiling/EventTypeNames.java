@@ -0,0 +1,31 @@
+/*
+ * EventTypeNames.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.profiling;
+
+import java.util.Map;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Source names for event types, for use by the profiler. Production builds
+ * are compiled without class metadata, so an event's class name can't be
+ * recovered at runtime; instead, the implementation of this interface is
+ * generated (see EventTypeNamesGenerator) and maps the public static Type of
+ * every GwtEvent subclass to that class's name.
+ */
+public interface EventTypeNames
+{
+   void addNames(Map<GwtEvent.Type<?>, String> names);
+}
@@ -0,0 +1,312 @@
+/*
+ * Profiler.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.profiling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Opt-in profiler for work done on the main (UI) thread.
+ *
+ * While enabled, callers record spans (event dispatch, RPC callbacks, ...)
+ * which are kept in a bounded ring buffer, along with long tasks reported by
+ * the browser and dropped frames. The buffer can be exported in the Chrome
+ * trace event format, which can be loaded into the Performance panel of the
+ * Chrome dev tools or Perfetto.
+ *
+ * When disabled, the only cost to callers is the isEnabled() check.
+ */
+public class Profiler
+{
+   public static final String CATEGORY_EVENT = "event";
+   public static final String CATEGORY_HANDLER = "handler";
+   public static final String CATEGORY_CLIENT_EVENT = "client_event";
+   public static final String CATEGORY_RPC = "rpc";
+   public static final String CATEGORY_LONG_TASK = "long_task";
+   public static final String CATEGORY_FRAME = "frame";
+
+   public static class Summary
+   {
+      Summary(String category, String name)
+      {
+         category_ = category;
+         name_ = name;
+      }
+
+      public String getCategory() { return category_; }
+      public String getName() { return name_; }
+      public int getCount() { return count_; }
+      public double getTotalMs() { return totalMs_; }
+      public double getMaxMs() { return maxMs_; }
+
+      private final String category_;
+      private final String name_;
+      private int count_;
+      private double totalMs_;
+      private double maxMs_;
+   }
+
+   public static boolean isEnabled()
+   {
+      return enabled_;
+   }
+
+   public static void setEnabled(boolean enabled)
+   {
+      if (enabled == enabled_)
+         return;
+
+      enabled_ = enabled;
+      if (enabled)
+      {
+         clear();
+         loadEventNames();
+         startObservers();
+      }
+      else
+      {
+         stopObservers();
+      }
+   }
+
+   public static void clear()
+   {
+      buffer_ = new TraceEvent[CAPACITY];
+      head_ = 0;
+      size_ = 0;
+      summaries_.clear();
+   }
+
+   public static native double now() /*-{
+      return $wnd.performance.now();
+   }-*/;
+
+   /**
+    * Records a completed span that started at 'startMs' (as returned by now())
+    * and ends now.
+    */
+   public static void record(String category, String name, double startMs)
+   {
+      record(category, name, startMs, now() - startMs);
+   }
+
+   public static void record(String category,
+                             String name,
+                             double startMs,
+                             double durationMs)
+   {
+      if (!enabled_)
+         return;
+
+      buffer_[head_] = TraceEvent.create(category, name, startMs, durationMs);
+      head_ = (head_ + 1) % CAPACITY;
+      if (size_ < CAPACITY)
+         size_++;
+
+      String key = category + "/" + name;
+      Summary summary = summaries_.get(key);
+      if (summary == null)
+      {
+         summary = new Summary(category, name);
+         summaries_.put(key, summary);
+      }
+      summary.count_++;
+      summary.totalMs_ += durationMs;
+      summary.maxMs_ = Math.max(summary.maxMs_, durationMs);
+   }
+
+   /**
+    * Aggregated timings for everything recorded since profiling was enabled
+    * (including events that have since fallen out of the ring buffer), most
+    * expensive first.
+    */
+   public static List<Summary> getSummaries()
+   {
+      List<Summary> result = new ArrayList<>(summaries_.values());
+      Collections.sort(result, (a, b) -> Double.compare(b.totalMs_, a.totalMs_));
+      return result;
+   }
+
+   /**
+    * Returns the source name of the event's class (e.g. "ConsolePromptEvent"),
+    * which can't be taken from the class itself in production builds.
+    */
+   public static String getEventName(GwtEvent<?> event)
+   {
+      String name = eventNames_ == null
+            ? null
+            : eventNames_.get(event.getAssociatedType());
+      if (name != null)
+         return name;
+
+      // not a named event type (or names not yet loaded); fall back to the
+      // class name, which is only meaningful when class metadata is present
+      String className = event.getClass().getName();
+      return className.substring(className.lastIndexOf('.') + 1);
+   }
+
+   /**
+    * Returns the contents of the ring buffer as a Chrome trace (JSON object
+    * format), oldest events first.
+    */
+   public static String toChromeTrace()
+   {
+      JavaScriptObject events = JavaScriptObject.createArray();
+      if (buffer_ == null)
+         return toChromeTraceJson(events);
+
+      int start = (head_ - size_ + CAPACITY) % CAPACITY;
+      for (int i = 0; i < size_; i++)
+         push(events, buffer_[(start + i) % CAPACITY]);
+      return toChromeTraceJson(events);
+   }
+
+   private static native void push(JavaScriptObject array,
+                                   JavaScriptObject value) /*-{
+      array.push(value);
+   }-*/;
+
+   private static native String toChromeTraceJson(JavaScriptObject events) /*-{
+      return JSON.stringify({
+         traceEvents: events,
+         displayTimeUnit: "ms",
+         otherData: { source: "RStudio" }
+      });
+   }-*/;
+
+   // the names reference every event type, so they're loaded in their own
+   // fragment (and only once profiling is enabled) rather than pulling each
+   // event class into the initial download
+   private static void loadEventNames()
+   {
+      if (eventNames_ != null)
+         return;
+
+      GWT.runAsync(EventTypeNames.class, new RunAsyncCallback()
+      {
+         @Override
+         public void onSuccess()
+         {
+            EventTypeNames names = GWT.create(EventTypeNames.class);
+            HashMap<GwtEvent.Type<?>, String> map = new HashMap<>();
+            names.addNames(map);
+            eventNames_ = map;
+         }
+
+         @Override
+         public void onFailure(Throwable reason)
+         {
+            // event spans keep their fallback names
+         }
+      });
+   }
+
+   private static void onLongTask(double startMs, double durationMs)
+   {
+      record(CATEGORY_LONG_TASK, "Long Task", startMs, durationMs);
+   }
+
+   private static void onFrameDropped(double startMs, double durationMs)
+   {
+      record(CATEGORY_FRAME, "Dropped Frames", startMs, durationMs);
+   }
+
+   private static native void startObservers() /*-{
+      // long tasks (> 50ms on the main thread), where supported
+      if (typeof $wnd.PerformanceObserver === "function") {
+         try {
+            var observer = new $wnd.PerformanceObserver($entry(function(list) {
+               var entries = list.getEntries();
+               for (var i = 0; i < entries.length; i++) {
+                  @org.rstudio.core.client.profiling.Profiler::onLongTask(DD)(
+                     entries[i].startTime, entries[i].duration);
+               }
+            }));
+            observer.observe({ entryTypes: ["longtask"] });
+            $wnd.__rstudioProfilerObserver = observer;
+         } catch (e) {
+            // long task timing not supported
+         }
+      }
+
+      // dropped frames: gaps between animation frames well over a frame
+      var last = $wnd.performance.now();
+      var onFrame = function(time) {
+         if (time - last > @org.rstudio.core.client.profiling.Profiler::DROPPED_FRAME_MS) {
+            @org.rstudio.core.client.profiling.Profiler::onFrameDropped(DD)(
+               last, time - last);
+         }
+         last = time;
+         $wnd.__rstudioProfilerFrame = $wnd.requestAnimationFrame(onFrame);
+      };
+      $wnd.__rstudioProfilerFrame = $wnd.requestAnimationFrame(onFrame);
+   }-*/;
+
+   private static native void stopObservers() /*-{
+      if ($wnd.__rstudioProfilerObserver) {
+         $wnd.__rstudioProfilerObserver.disconnect();
+         $wnd.__rstudioProfilerObserver = null;
+      }
+
+      if ($wnd.__rstudioProfilerFrame) {
+         $wnd.cancelAnimationFrame($wnd.__rstudioProfilerFrame);
+         $wnd.__rstudioProfilerFrame = null;
+      }
+   }-*/;
+
+   // a single 'complete' event in the Chrome trace format; times are in
+   // microseconds
+   private static class TraceEvent extends JavaScriptObject
+   {
+      protected TraceEvent()
+      {
+      }
+
+      public static final native TraceEvent create(String category,
+                                                   String name,
+                                                   double startMs,
+                                                   double durationMs) /*-{
+         return {
+            name: name,
+            cat: category,
+            ph: "X",
+            ts: startMs * 1000,
+            dur: durationMs * 1000,
+            pid: 1,
+            tid: 1
+         };
+      }-*/;
+   }
+
+   private static boolean enabled_ = false;
+
+   private static final int CAPACITY = 50000;
+   private static final double DROPPED_FRAME_MS = 50;
+
+   // allocated when profiling is first enabled
+   private static TraceEvent[] buffer_;
+   private static int head_ = 0;
+   private static int size_ = 0;
+   private static final HashMap<String, Summary> summaries_ = new HashMap<>();
+   private static Map<GwtEvent.Type<?>, String> eventNames_;
+}
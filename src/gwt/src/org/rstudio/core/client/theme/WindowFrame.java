@@ -26,6 +26,7 @@ import java.util.HashMap;
 
 import org.rstudio.core.client.ClassIds;
 import org.rstudio.core.client.events.*;
+import org.rstudio.core.client.layout.LayoutScheduler;
 import org.rstudio.core.client.layout.RequiresVisibilityChanged;
 import org.rstudio.core.client.layout.WindowState;
 import org.rstudio.core.client.theme.res.ThemeResources;
@@ -88,6 +89,24 @@ public class WindowFrame extends Composite
       initWidget(frame_);
    }
 
+   @Override
+   protected void onLoad()
+   {
+      super.onLoad();
+      resizeObserver_ = LayoutScheduler.get().observe(getElement(), resizer_);
+   }
+
+   @Override
+   protected void onUnload()
+   {
+      if (resizeObserver_ != null)
+      {
+         resizeObserver_.removeHandler();
+         resizeObserver_ = null;
+      }
+      super.onUnload();
+   }
+
    public String getName()
    {
       return name_;
@@ -104,6 +123,10 @@ public class WindowFrame extends Composite
    {
       super.setVisible(visible);
 
+      // catch up on any resize skipped while hidden
+      if (visible)
+         LayoutScheduler.get().schedule(resizer_);
+
       if (main_ instanceof RequiresVisibilityChanged)
          ((RequiresVisibilityChanged)main_).onVisibilityChanged(visible);
       if (fill_ instanceof RequiresVisibilityChanged)
@@ -304,8 +327,47 @@ public class WindowFrame extends Composite
 
    public void onResize()
    {
-      if (frame_ != null)
+      // the contents are resized in the next frame, once however many times
+      // the frame is resized before then (e.g. while panes are animating)
+      resizer_.request();
+   }
+
+   // resizes the contents of the frame, skipping the (deep) fan-out while
+   // the frame is hidden or collapsed to nothing; it runs when the frame is
+   // shown again, and gets a size
+   private class Resizer implements LayoutScheduler.Participant
+   {
+      public void request()
+      {
+         requested_ = true;
+         LayoutScheduler.get().schedule(this);
+      }
+
+      @Override
+      public boolean measure()
+      {
+         width_ = getOffsetWidth();
+         height_ = getOffsetHeight();
+         if (!isVisible() || width_ == 0 || height_ == 0)
+            return false;
+
+         return requested_ || width_ != laidOutWidth_ || height_ != laidOutHeight_;
+      }
+
+      @Override
+      public void mutate()
+      {
+         requested_ = false;
+         laidOutWidth_ = width_;
+         laidOutHeight_ = height_;
          frame_.onResize();
+      }
+
+      private boolean requested_ = false;
+      private int width_;
+      private int height_;
+      private int laidOutWidth_ = -1;
+      private int laidOutHeight_ = -1;
    }
 
    public void focus()
@@ -391,6 +453,8 @@ public class WindowFrame extends Composite
    private HandlerRegistration ensureHeightRegistration_;
    private Widget previousHeader_;
    private final FlowPanel buttonsArea_;
+   private final Resizer resizer_ = new Resizer();
+   private HandlerRegistration resizeObserver_;
 
    private static final int TOP_SHADOW_WIDTH = 3,
                             LEFT_SHADOW_WIDTH = 3,
@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.TreeSet;
 
 import org.rstudio.core.client.ClassIds;
 import org.rstudio.core.client.Rectangle;
@@ -34,6 +35,7 @@ import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.dom.client.NodeList;
 import com.google.gwt.dom.client.Style.Cursor;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.dom.client.TableElement;
 import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.dom.client.TableSectionElement;
@@ -185,7 +187,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       event.preventDefault();
       
       List<String> rowText = new ArrayList<String>();
-      for (TableRowElement row : selectedRows_)
+      for (TableRowElement row : getSelectedRowElements())
          rowText.add(row.getInnerText());
       
       String fullText = String.join("\n", rowText);
@@ -214,6 +216,30 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    public void setOwningScrollPanel(ScrollPanel scrollPanel)
    {
       scrollPanel_ = scrollPanel;
+      if (windowed_)
+         scrollPanel_.addScrollHandler(event -> onScroll());
+   }
+
+   /**
+    * Keeps every item added to the table, but only creates rows for the items
+    * in a window around the visible part of the owning scroll panel; the
+    * space taken by the items outside the window is margin around the table.
+    * Selection is tracked by item index, so it survives rows being scrolled
+    * out of (and back into) the window.
+    *
+    * Must be called before any items are added. Only codecs that create one
+    * row per item (i.e. that have no non-value rows) are supported, and the
+    * table should be given an owning scroll panel.
+    */
+   public void setWindowed(boolean windowed)
+   {
+      assert !windowed || !codec_.hasNonValueRows() :
+         "Windowed tables can't have non-value rows";
+      assert items_.isEmpty() : "Windowed mode must be set before adding items";
+
+      if (windowed && !windowed_ && scrollPanel_ != null)
+         scrollPanel_.addScrollHandler(event -> onScroll());
+      windowed_ = windowed;
    }
 
    private void handleRowClick(MouseDownEvent event, TableRowElement row)
@@ -244,14 +270,25 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       {
          // SHIFT or CTRL+SHIFT
 
-         int target = row.getRowIndex();
+         int target = getPosition(row);
          Integer min = null;
          Integer max = null;
-         for (TableRowElement selectedRow : selectedRows_)
+         if (windowed_)
+         {
+            if (!selectedIndexes_.isEmpty())
+            {
+               min = selectedIndexes_.first();
+               max = selectedIndexes_.last();
+            }
+         }
+         else
          {
-            if (min == null)
-               min = selectedRow.getRowIndex();
-            max = selectedRow.getRowIndex();
+            for (TableRowElement selectedRow : selectedRows_)
+            {
+               if (min == null)
+                  min = selectedRow.getRowIndex();
+               max = selectedRow.getRowIndex();
+            }
          }
 
          int offset; // selection offset
@@ -344,6 +381,16 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    private void selectPreviousRow(boolean clearSelection)
    {
+      if (windowed_)
+      {
+         int min = selectedIndexes_.isEmpty()
+               ? items_.size()
+               : selectedIndexes_.first();
+         if (min > 0)
+            selectItem(min - 1, clearSelection);
+         return;
+      }
+
       int min = selectedRows_.size() > 0
             ? selectedRows_.get(0).getRowIndex()
             : table_.getRows().getLength();
@@ -365,6 +412,16 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    private void selectNextRow(boolean clearSelection)
    {
+      if (windowed_)
+      {
+         int max = selectedIndexes_.isEmpty()
+               ? -1
+               : selectedIndexes_.last();
+         if (max < items_.size() - 1)
+            selectItem(max + 1, clearSelection);
+         return;
+      }
+
       int max = selectedRows_.size() > 0
             ? selectedRows_.get(selectedRows_.size() - 1).getRowIndex()
             : -1;
@@ -390,6 +447,20 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
          DomUtils.ensureVisibleVert(scrollPanel_.getElement(), getRow(row), 0);
    }
 
+   // selects the item at the given index (in windowed mode), rendering the
+   // window around it first if it isn't already rendered
+   private void selectItem(int index, boolean clearSelection)
+   {
+      if (clearSelection)
+         clearSelection();
+
+      if (!isRendered(index))
+         renderWindow(index - WINDOW_SIZE / 2);
+
+      setItemSelected(index, true);
+      ensureRowVisible(index - windowStart_);
+   }
+
    private Integer findNextValueRow(int physicalRowIndex, boolean up)
    {
       int limit = up ? -1 : table_.getRows().getLength();
@@ -406,10 +477,33 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    {
       while (selectedRows_.size() > 0)
          setSelected(selectedRows_.get(0), false);
+      selectedIndexes_.clear();
    }
 
    public void addItems(Iterable<TItemInput> items, boolean top)
    {
+      if (windowed_)
+      {
+         ArrayList<TItemInput> added = new ArrayList<>();
+         for (TItemInput item : items)
+            added.add(item);
+
+         if (top)
+         {
+            items_.addAll(0, added);
+            shiftSelectedIndexes(added.size());
+
+            // keep the same items rendered, so that the view doesn't move
+            renderWindow(windowStart_ + added.size());
+         }
+         else
+         {
+            items_.addAll(added);
+            renderWindow(windowStart_);
+         }
+         return;
+      }
+
       TableSectionElement tbody = Document.get().createTBodyElement();
       for (TItemInput item : items)
          tbody.appendChild(codec_.getRowForItem(item));
@@ -430,6 +524,13 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    {
       table_.setInnerText("");
       selectedRows_.clear();
+
+      items_.clear();
+      selectedIndexes_.clear();
+      windowBody_ = null;
+      windowStart_ = 0;
+      if (windowed_)
+         setWindowMargins(0, 0);
    }
 
    public void focus()
@@ -440,6 +541,9 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public int getRowCount()
    {
+      if (windowed_)
+         return items_.size();
+
       return codec_.getLogicalRowCount(table_);
    }
 
@@ -448,6 +552,15 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       if (rowCount <= 0)
          return;
 
+      if (windowed_)
+      {
+         rowCount = Math.min(rowCount, items_.size());
+         items_.subList(0, rowCount).clear();
+         shiftSelectedIndexes(-rowCount);
+         renderWindow(windowStart_ - rowCount);
+         return;
+      }
+
       NodeList<TableSectionElement> tBodies = table_.getTBodies();
       for (int i = 0; i < tBodies.getLength(); i++)
       {
@@ -478,6 +591,9 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public ArrayList<Integer> getSelectedRowIndexes()
    {
+      if (windowed_)
+         return new ArrayList<>(selectedIndexes_);
+
       sortSelectedRows();
 
       ArrayList<Integer> results = new ArrayList<>();
@@ -495,7 +611,10 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    @Deprecated
    public void setSelected(int row, boolean selected)
    {
-      setSelected(getRow(row), selected);
+      if (windowed_)
+         setItemSelected(row, selected);
+      else
+         setSelected(getRow(row), selected);
    }
 
    public void setSelected(int offset, int length, boolean selected)
@@ -524,8 +643,35 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    private void setSelectedPhysical(int offset, int length, boolean selected)
    {
+      // windowed tables have no non-value rows, so there the physical offset
+      // is the item index
       for (int i = 0; i < length; i++)
-         setSelected(getRow(offset + i), selected);
+      {
+         if (windowed_)
+            setItemSelected(offset + i, selected);
+         else
+            setSelected(getRow(offset + i), selected);
+      }
+   }
+
+   // (windowed mode) selects the item at the given index, whether or not its
+   // row is currently rendered
+   private void setItemSelected(int index, boolean selected)
+   {
+      if (index < 0 || index >= items_.size())
+         return;
+
+      if (isRendered(index))
+      {
+         setSelected(getRow(index - windowStart_), selected);
+         return;
+      }
+
+      boolean changed = selected
+            ? selectedIndexes_.add(index)
+            : selectedIndexes_.remove(index);
+      if (changed && selected)
+         fireSelectionChanged();
    }
 
    public void setSelected(TableRowElement row, boolean selected)
@@ -557,24 +703,37 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       else
          selectedRows_.remove(row);
 
-      if (selected && !allowMultiSelect_)
+      if (windowed_)
       {
-         Scheduler.get().scheduleDeferred(new ScheduledCommand()
-         {
-            public void execute()
-            {
-               fireEvent(new SelectionChangedEvent());
-            }
-         });
+         int index = windowStart_ + row.getRowIndex();
+         if (selected)
+            selectedIndexes_.add(index);
+         else
+            selectedIndexes_.remove(index);
       }
+
+      if (selected)
+         fireSelectionChanged();
    }
 
-   public ArrayList<TItemOutput> getSelectedValues()
+   private void fireSelectionChanged()
    {
-      sortSelectedRows();
+      if (allowMultiSelect_)
+         return;
+
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         public void execute()
+         {
+            fireEvent(new SelectionChangedEvent());
+         }
+      });
+   }
 
+   public ArrayList<TItemOutput> getSelectedValues()
+   {
       ArrayList<TItemOutput> results = new ArrayList<>();
-      for (TableRowElement row : selectedRows_)
+      for (TableRowElement row : getSelectedRowElements())
          results.add(codec_.getOutputForRow(row));
       return results;
    }
@@ -592,16 +751,45 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public ArrayList<TItemOutput2> getSelectedValues2()
    {
-      sortSelectedRows();
-
       ArrayList<TItemOutput2> results = new ArrayList<>();
-      for (TableRowElement row : selectedRows_)
+      for (TableRowElement row : getSelectedRowElements())
          results.add(codec_.getOutputForRow2(row));
       return results;
    }
 
+   // the rows of the selected items, in order; in windowed mode, rows are
+   // created (but not attached) for selected items outside the window
+   private List<TableRowElement> getSelectedRowElements()
+   {
+      if (!windowed_)
+      {
+         sortSelectedRows();
+         return selectedRows_;
+      }
+
+      List<TableRowElement> rows = new ArrayList<>();
+      for (int index : selectedIndexes_)
+      {
+         rows.add(isRendered(index)
+               ? getRow(index - windowStart_)
+               : codec_.getRowForItem(items_.get(index)));
+      }
+      return rows;
+   }
+
    public boolean moveSelectionUp()
    {
+      if (windowed_)
+      {
+         if (selectedIndexes_.isEmpty() || selectedIndexes_.first() == 0)
+            return false;
+
+         int index = selectedIndexes_.first() - 1;
+         clearSelection();
+         setItemSelected(index, true);
+         return true;
+      }
+
       if (selectedRows_.isEmpty())
          return false;
 
@@ -629,6 +817,18 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public boolean moveSelectionDown()
    {
+      if (windowed_)
+      {
+         if (selectedIndexes_.isEmpty() ||
+             selectedIndexes_.last() == items_.size() - 1)
+            return false;
+
+         int index = selectedIndexes_.last() + 1;
+         clearSelection();
+         setItemSelected(index, true);
+         return true;
+      }
+
       if (selectedRows_.isEmpty())
          return false;
 
@@ -667,6 +867,29 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
          return null;
    }
 
+   /**
+    * @return The distance from the top of the table (including, in windowed
+    *    mode, the space left for items above the window) to the row of the
+    *    item at the given (logical) index, or -1 if there is no such item
+    */
+   public int getItemOffsetTop(int index)
+   {
+      if (windowed_)
+      {
+         if (index < 0 || index >= items_.size())
+            return -1;
+         if (!isRendered(index))
+            return index * rowHeight_;
+         return windowStart_ * rowHeight_ +
+                getRow(index - windowStart_).getOffsetTop();
+      }
+
+      Integer physical = codec_.logicalOffsetToPhysicalOffset(table_, index);
+      if (physical == null || physical >= table_.getRows().getLength())
+         return -1;
+      return getRow(physical).getOffsetTop();
+   }
+
    public ArrayList<TableRowElement> getSelectedRows()
    {
       return new ArrayList<>(selectedRows_);
@@ -688,6 +911,101 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       return new Rectangle(left, top, width, bottom - top);
    }
 
+   // the index of the given row's item (in windowed mode), or the row's
+   // physical index otherwise
+   private int getPosition(TableRowElement row)
+   {
+      return windowed_ ? windowStart_ + row.getRowIndex() : row.getRowIndex();
+   }
+
+   private boolean isRendered(int index)
+   {
+      return windowBody_ != null &&
+             index >= windowStart_ &&
+             index < windowStart_ + windowBody_.getRows().getLength();
+   }
+
+   private void shiftSelectedIndexes(int delta)
+   {
+      TreeSet<Integer> shifted = new TreeSet<>();
+      for (int index : selectedIndexes_)
+      {
+         if (index + delta >= 0)
+            shifted.add(index + delta);
+      }
+      selectedIndexes_.clear();
+      selectedIndexes_.addAll(shifted);
+   }
+
+   private void onScroll()
+   {
+      if (!windowed_ || items_.size() <= WINDOW_SIZE || windowBody_ == null)
+         return;
+
+      int viewHeight = scrollPanel_.getOffsetHeight();
+      if (viewHeight <= 0)
+         return;
+
+      // find the items at the top and bottom of the view, from where the
+      // rendered rows are relative to the view
+      int windowTop = table_.getAbsoluteTop() -
+                      scrollPanel_.getElement().getAbsoluteTop();
+      int first = windowStart_ +
+                  (int) Math.floor((double) -windowTop / rowHeight_);
+      int last = first + viewHeight / rowHeight_;
+
+      // re-render once the visible items get close to either end of the
+      // rendered window
+      int windowEnd = windowStart_ + windowBody_.getRows().getLength();
+      if ((first < windowStart_ + WINDOW_MARGIN && windowStart_ > 0) ||
+          (last > windowEnd - WINDOW_MARGIN && windowEnd < items_.size()))
+      {
+         renderWindow((first + last - WINDOW_SIZE) / 2);
+      }
+   }
+
+   // (windowed mode) replaces the rendered rows with those of the items from
+   // the given index (adjusted to fit) onwards
+   private void renderWindow(int start)
+   {
+      int count = Math.min(WINDOW_SIZE, items_.size());
+      start = Math.max(0, Math.min(start, items_.size() - count));
+      windowStart_ = start;
+
+      TableSectionElement tbody = Document.get().createTBodyElement();
+      selectedRows_.clear();
+      for (int i = start; i < start + count; i++)
+      {
+         TableRowElement row = codec_.getRowForItem(items_.get(i));
+         if (selectedIndexes_.contains(i))
+         {
+            setStyleName(row, selectedClassName_, true);
+            selectedRows_.add(row);
+         }
+         tbody.appendChild(row);
+      }
+
+      if (windowBody_ != null)
+         windowBody_.removeFromParent();
+      windowBody_ = tbody;
+      addToTop(tbody);
+      codec_.onRowsChanged(tbody);
+
+      // rows can wrap, so this is only an estimate, but it's kept up to date
+      // with the rows that are actually rendered
+      if (count > 0 && tbody.getOffsetHeight() > 0)
+         rowHeight_ = Math.max(1, tbody.getOffsetHeight() / count);
+
+      setWindowMargins(start * rowHeight_,
+                       (items_.size() - start - count) * rowHeight_);
+   }
+
+   private void setWindowMargins(int top, int bottom)
+   {
+      table_.getStyle().setMarginTop(top, Unit.PX);
+      table_.getStyle().setMarginBottom(bottom, Unit.PX);
+   }
+
    protected Element getEventTargetCell(Event event) {
      Element td = DOM.eventGetTarget(event);
      for (; td != null; td = DOM.getParent(td)) {
@@ -770,6 +1088,16 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    }
 
    private final ArrayList<TableRowElement> selectedRows_ = new ArrayList<>();
+
+   // windowed mode: every item, the indexes of the selected items, and the
+   // rows rendered for the items from windowStart_ onwards
+   private boolean windowed_;
+   private final ArrayList<TItemInput> items_ = new ArrayList<>();
+   private final TreeSet<Integer> selectedIndexes_ = new TreeSet<>();
+   private TableSectionElement windowBody_;
+   private int windowStart_ = 0;
+   private int rowHeight_ = 20;
+
    private final ItemCodec<TItemInput, TItemOutput, TItemOutput2> codec_;
    private final TableElement table_;
    private final String selectedClassName_;
@@ -777,4 +1105,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    private ScrollPanel scrollPanel_;
    private final boolean focusable_;
    private boolean isFocused_;
+
+   private static final int WINDOW_SIZE = 200;
+   private static final int WINDOW_MARGIN = 50;
 }
@@ -0,0 +1,124 @@
+/*
+ * EventTypeNamesGenerator.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.rebind;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.rstudio.core.client.profiling.EventTypeNames;
+
+import com.google.gwt.core.ext.Generator;
+import com.google.gwt.core.ext.GeneratorContext;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.typeinfo.JClassType;
+import com.google.gwt.core.ext.typeinfo.JField;
+import com.google.gwt.core.ext.typeinfo.TypeOracle;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.user.rebind.ClassSourceFileComposerFactory;
+import com.google.gwt.user.rebind.SourceWriter;
+
+// Generates an EventTypeNames implementation which names every event type
+// exposed as a public static GwtEvent.Type field of a GwtEvent subclass
+public class EventTypeNamesGenerator extends Generator
+{
+   @Override
+   public String generate(TreeLogger logger,
+                          GeneratorContext context,
+                          String typeName) throws UnableToCompleteException
+   {
+      TypeOracle oracle = context.getTypeOracle();
+      JClassType eventType = oracle.findType(GwtEvent.class.getCanonicalName());
+      JClassType typeType = oracle.findType(GwtEvent.Type.class.getCanonicalName());
+      if (eventType == null || typeType == null)
+      {
+         logger.log(TreeLogger.ERROR, "Unable to find GwtEvent types");
+         throw new UnableToCompleteException();
+      }
+
+      // collect 'put' statements for each accessible Type field; sorted so
+      // the generated source is stable between compiles
+      List<String> entries = new ArrayList<>();
+      for (JClassType classType : oracle.getTypes())
+      {
+         if (classType == eventType ||
+             !classType.isAssignableTo(eventType) ||
+             !isAccessible(classType))
+         {
+            continue;
+         }
+
+         for (JField field : classType.getFields())
+         {
+            if (!field.isStatic() || !field.isPublic())
+               continue;
+
+            JClassType fieldType = field.getType().isClassOrInterface();
+            if (fieldType == null ||
+                !fieldType.getErasedType().isAssignableTo(typeType))
+            {
+               continue;
+            }
+
+            entries.add("names.put(" +
+                        classType.getQualifiedSourceName() + "." +
+                        field.getName() + ", \"" +
+                        classType.getName() + "\");");
+         }
+      }
+      Collections.sort(entries);
+
+      ClassSourceFileComposerFactory sourceFile =
+            new ClassSourceFileComposerFactory(GEN_PACKAGE_NAME, GEN_CLASS_NAME);
+      sourceFile.addImplementedInterface(EventTypeNames.class.getCanonicalName());
+      sourceFile.addImport("java.util.Map");
+      sourceFile.addImport(GwtEvent.class.getCanonicalName());
+
+      PrintWriter printWriter = context.tryCreate(logger,
+                                                  GEN_PACKAGE_NAME,
+                                                  GEN_CLASS_NAME);
+      if (printWriter != null)
+      {
+         SourceWriter w = sourceFile.createSourceWriter(context, printWriter);
+         w.println("public void addNames(Map<GwtEvent.Type<?>, String> names)");
+         w.println("{");
+         w.indent();
+         for (String entry : entries)
+            w.println(entry);
+         w.outdent();
+         w.println("}");
+         w.commit(logger);
+      }
+
+      return sourceFile.getCreatedClassName();
+   }
+
+   // the generated class must be able to reference the Type field, so the
+   // event class (and any class enclosing it) must be public
+   private static boolean isAccessible(JClassType classType)
+   {
+      for (JClassType type = classType; type != null; type = type.getEnclosingType())
+      {
+         if (!type.isPublic())
+            return false;
+      }
+      return true;
+   }
+
+   private static final String GEN_PACKAGE_NAME = "org.rstudio.core.client.profiling";
+   private static final String GEN_CLASS_NAME = "EventTypeNames__Impl";
+}
@@ -85,7 +85,6 @@ import org.rstudio.studio.client.plumber.PlumberAPISatellite;
 import org.rstudio.studio.client.projects.ui.newproject.NewProjectResources;
 import org.rstudio.studio.client.projects.ui.prefs.ProjectPreferencesDialogResources;
 import org.rstudio.studio.client.rmarkdown.RmdOutputSatellite;
-import org.rstudio.studio.client.rsconnect.ui.RSConnectDeploy;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.shiny.ShinyApplicationSatellite;
@@ -301,9 +300,25 @@ public class RStudio implements EntryPoint
       String view = Window.Location.getParameter("view");
       if (VCSApplication.NAME.equals(view))
       {
-         RStudioGinjector.INSTANCE.getVCSApplication().go(
-               RootLayoutPanel.get(),
-               dismissProgressAnimation_);
+         // the review and history dialogs are only ever shown in this
+         // satellite, so give them their own fragment
+         GWT.runAsync(new RunAsyncCallback()
+         {
+            @Override
+            public void onSuccess()
+            {
+               RStudioGinjector.INSTANCE.getVCSApplication().go(
+                     RootLayoutPanel.get(),
+                     dismissProgressAnimation_);
+            }
+
+            @Override
+            public void onFailure(Throwable reason)
+            {
+               dismissProgressAnimation_.execute();
+               Window.alert(constants_.errorText(reason.getMessage()));
+            }
+         });
       }
       else if (HTMLPreviewApplication.NAME.equals(view))
       {
@@ -426,7 +441,6 @@ public class RStudio implements EntryPoint
       PackratActionDialog.ensureStylesInjected();
       LocalRepositoriesWidget.ensureStylesInjected();
       CppCompletionResources.INSTANCE.styles().ensureInjected();
-      RSConnectDeploy.RESOURCES.style().ensureInjected();
       NewConnectionShinyHost.ensureStylesInjected();
       NewConnectionSnippetHost.ensureStylesInjected();
       NewConnectionSnippetDialog.ensureStylesInjected();
@@ -28,6 +28,7 @@ import org.rstudio.studio.client.application.ApplicationQuit;
 import org.rstudio.studio.client.application.ApplicationView;
 import org.rstudio.studio.client.application.ApplicationVisibility;
 import org.rstudio.studio.client.application.DesktopInfo;
+import org.rstudio.studio.client.application.StartupTiming;
 import org.rstudio.studio.client.application.events.FireEvents;
 import org.rstudio.core.client.command.ApplicationCommandManager;
 import org.rstudio.core.client.command.EditorCommandManager;
@@ -123,8 +124,12 @@ import org.rstudio.studio.client.shiny.ui.ShinyApplicationWindow;
 import org.rstudio.studio.client.sql.model.SqlServerOperations;
 import org.rstudio.studio.client.vcs.VCSApplicationView;
 import org.rstudio.studio.client.vcs.ui.VCSApplicationWindow;
+import org.rstudio.studio.client.workbench.BenchmarkAiEventDecoding;
 import org.rstudio.studio.client.workbench.ClientStateUpdater;
+import org.rstudio.studio.client.workbench.MainThreadProfiling;
+import org.rstudio.studio.client.workbench.ShowBackgroundAnalysisTimings;
 import org.rstudio.studio.client.workbench.ShowDOMElementIDs;
+import org.rstudio.studio.client.workbench.ShowEditorHibernationStats;
 import org.rstudio.studio.client.workbench.UserInterfaceHighlighter;
 import org.rstudio.studio.client.workbench.WorkbenchContext;
 import org.rstudio.studio.client.workbench.WorkbenchListManager;
@@ -308,13 +313,18 @@ public class RStudioGinModule extends AbstractGinModule
       bind(ApplicationQuit.class).asEagerSingleton();
       bind(ApplicationInterrupt.class).asEagerSingleton();
       bind(ApplicationVisibility.class).asEagerSingleton();
+      bind(StartupTiming.class).asEagerSingleton();
       bind(ClientStateUpdater.class).asEagerSingleton();
       bind(ConsoleProcessFactory.class).asEagerSingleton();
       bind(RnwWeaveRegistry.class).asEagerSingleton();
       bind(LatexProgramRegistry.class).asEagerSingleton();
       bind(Commands.class).in(Singleton.class);
       bind(UserInterfaceHighlighter.class).asEagerSingleton();
+      bind(ShowBackgroundAnalysisTimings.class).asEagerSingleton();
+      bind(MainThreadProfiling.class).asEagerSingleton();
+      bind(BenchmarkAiEventDecoding.class).asEagerSingleton();
       bind(ShowDOMElementIDs.class).asEagerSingleton();
+      bind(ShowEditorHibernationStats.class).asEagerSingleton();
       bind(DefaultCRANMirror.class).in(Singleton.class);
       bind(ChooseFile.class).in(Singleton.class);
       bind(ConsoleDispatcher.class).in(Singleton.class);
@@ -0,0 +1,82 @@
+/*
+ * StartupTiming.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.application;
+
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.common.satellite.Satellite;
+import org.rstudio.studio.client.workbench.views.console.events.ConsolePromptEvent;
+
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Records the time from page load (the navigation start of the main window)
+ * to the first console prompt, which is the point at which the IDE becomes
+ * usable. The result is published as a "rstudio-startup" entry on the
+ * browser performance timeline, so it can be collected from dev tools or
+ * automated page-load runs when comparing code-splitting changes.
+ */
+@Singleton
+public class StartupTiming
+{
+   @Inject
+   public StartupTiming(EventBus events)
+   {
+      if (Satellite.isCurrentWindowSatellite())
+         return;
+
+      promptHandler_ = events.addHandler(ConsolePromptEvent.TYPE, event ->
+      {
+         promptHandler_.removeHandler();
+         promptHandler_ = null;
+
+         elapsedMs_ = markStartupComplete(MEASURE_NAME);
+      });
+   }
+
+   /**
+    * @return Milliseconds from page load to the first console prompt, or -1
+    *    if the first prompt has not yet been seen (or timing is unavailable).
+    */
+   public double getElapsedMs()
+   {
+      return elapsedMs_;
+   }
+
+   private static final native double markStartupComplete(String name)
+   /*-{
+      var perf = $wnd.performance;
+      if (!perf || typeof perf.now !== "function")
+         return -1;
+
+      var elapsed = perf.now();
+      try
+      {
+         // measure from time origin (navigation start) to now
+         if (typeof perf.measure === "function")
+            perf.measure(name);
+      }
+      catch (e)
+      {
+      }
+      return elapsed;
+   }-*/;
+
+   private HandlerRegistration promptHandler_;
+   private double elapsedMs_ = -1;
+
+   private static final String MEASURE_NAME = "rstudio-startup";
+}
@@ -14,9 +14,15 @@
  */
 package org.rstudio.studio.client.application.events;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.dom.WindowEx;
 import org.rstudio.core.client.js.JavaScriptSerializer;
+import org.rstudio.core.client.profiling.Profiler;
 import org.rstudio.studio.client.application.Desktop;
 import org.rstudio.studio.client.common.satellite.Satellite;
 import org.rstudio.studio.client.common.satellite.SatelliteManager;
@@ -31,6 +37,7 @@ import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.GwtEvent.Type;
 import com.google.gwt.event.shared.HandlerManager;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.event.shared.UmbrellaException;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -90,16 +97,126 @@ public class EventBus extends HandlerManager implements FireEvents
          }
          else
          {
-            super.fireEvent(event);
+            fireLocalEvent(event);
          }
       }
       else
+      {
+         fireLocalEvent(event);
+      }
+      
+   }
+   
+   private void fireLocalEvent(GwtEvent<?> event)
+   {
+      if (!Profiler.isEnabled())
       {
          super.fireEvent(event);
+         return;
       }
       
+      // when profiling, time the dispatch as a whole as well as each of its
+      // handlers; events fired by a handler are recorded as spans nested
+      // within it
+      String name = Profiler.getEventName(event);
+      double start = Profiler.now();
+      try
+      {
+         fireProfiledEvent(event, name);
+      }
+      finally
+      {
+         Profiler.record(Profiler.CATEGORY_EVENT, name, start);
+      }
    }
    
+   // dispatches the event as HandlerManager.fireEvent does (reviving it,
+   // overriding its source and killing it afterwards), but to one handler at
+   // a time so that each can be timed
+   private <H extends EventHandler> void fireProfiledEvent(GwtEvent<H> event,
+                                                           String name)
+   {
+      // handlers added or removed during dispatch don't affect this one
+      Type<H> type = event.getAssociatedType();
+      int count = getHandlerCount(type);
+      List<H> handlers = new ArrayList<>(count);
+      for (int i = 0; i < count; i++)
+         handlers.add(getHandler(type, i));
+      
+      if (!event.isLive())
+         revive(event);
+      Object oldSource = event.getSource();
+      overrideSource(event, null);
+      
+      Set<Throwable> causes = null;
+      try
+      {
+         for (int i = 0; i < handlers.size(); i++)
+         {
+            H handler = handlers.get(i);
+            double start = Profiler.now();
+            try
+            {
+               dispatch(event, handler);
+            }
+            catch (Throwable e)
+            {
+               if (causes == null)
+                  causes = new HashSet<>();
+               causes.add(e);
+            }
+            finally
+            {
+               Profiler.record(Profiler.CATEGORY_HANDLER,
+                               handlerName(name, i, handler),
+                               start);
+            }
+         }
+      }
+      finally
+      {
+         if (oldSource == null)
+            kill(event);
+         else
+            overrideSource(event, oldSource);
+      }
+      
+      if (causes != null)
+         throw new UmbrellaException(causes);
+   }
+   
+   // handlers are usually lambdas or anonymous classes, and have no useful
+   // name in production builds; identify them by their registration order,
+   // adding the class name when class metadata is present
+   private static String handlerName(String eventName, int index, Object handler)
+   {
+      String name = eventName + " handler #" + (index + 1);
+      String className = handler.getClass().getName();
+      if (className.indexOf('.') != -1)
+         name += " (" + className.substring(className.lastIndexOf('.') + 1) + ")";
+      return name;
+   }
+   
+   // GwtEvent's dispatch and lifecycle methods are protected (they're meant
+   // for the event bus implementation)
+   private static native void dispatch(GwtEvent<?> event,
+                                       EventHandler handler) /*-{
+      event.@com.google.gwt.event.shared.GwtEvent::dispatch(Lcom/google/gwt/event/shared/EventHandler;)(handler);
+   }-*/;
+   
+   private static native void overrideSource(GwtEvent<?> event,
+                                             Object source) /*-{
+      event.@com.google.gwt.event.shared.GwtEvent::overrideSource(Ljava/lang/Object;)(source);
+   }-*/;
+   
+   private static native void revive(GwtEvent<?> event) /*-{
+      event.@com.google.gwt.event.shared.GwtEvent::revive()();
+   }-*/;
+   
+   private static native void kill(GwtEvent<?> event) /*-{
+      event.@com.google.gwt.event.shared.GwtEvent::kill()();
+   }-*/;
+   
    @Override
    public void fireEventToAllSatellites(CrossWindowEvent<?> event)
    {
@@ -2104,4 +2104,12 @@ public interface StudioClientCommonConstants extends com.google.gwt.i18n.client.
     @Key("consoleBufferedMessage")
     String consoleBufferedMessage(int bufferSize);
 
+    /**
+     * Translated "Large File".
+     *
+     * @return translated "Large File"
+     */
+    @DefaultMessage("Large File")
+    @Key("largeFileLabel")
+    String largeFileLabel();
 }
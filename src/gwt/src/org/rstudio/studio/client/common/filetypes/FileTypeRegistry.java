@@ -316,6 +316,7 @@ public class FileTypeRegistry
    public static final CodeBrowserType CODEBROWSER = new CodeBrowserType();
    public static final ProfilerType PROFILER = new ProfilerType();
    public static final ObjectExplorerFileType OBJECT_EXPLORER = new ObjectExplorerFileType();
+   public static final LargeFileType LARGE_FILE = new LargeFileType();
 
    public static final BrowserType BROWSER = new BrowserType();
 
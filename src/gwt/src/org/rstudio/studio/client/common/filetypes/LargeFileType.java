@@ -0,0 +1,43 @@
+/*
+ * LargeFileType.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.filetypes;
+
+import com.google.gwt.core.client.GWT;
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.core.client.resources.ImageResource2x;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.common.StudioClientCommonConstants;
+
+// Text files too large for the source editor, which are shown in a read-only
+// viewer that reads the file from the server a page at a time
+public class LargeFileType extends EditableFileType
+{
+   public LargeFileType()
+   {
+      super(ID,
+            constants_.largeFileLabel(),
+            new ImageResource2x(FileIconResources.INSTANCE.iconText2x()));
+   }
+
+   @Override
+   protected void openFile(FileSystemItem file, EventBus eventBus)
+   {
+      assert false :
+         "Large files are opened through the source editor";
+   }
+
+   public static final String ID = "large_file";
+   private static final StudioClientCommonConstants constants_ = GWT.create(StudioClientCommonConstants.class);
+}
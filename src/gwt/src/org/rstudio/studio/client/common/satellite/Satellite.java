@@ -62,9 +62,18 @@ public class Satellite implements HasCloseHandlers<Satellite>
 
    public void initialize(String name,
                           CommandWithArg<JavaScriptObject> onReactivated)
+   {
+      initialize(name, null, onReactivated);
+   }
+
+   // the event filter (if any) limits the client events the main window
+   // forwards to this satellite; a null filter receives everything
+   public void initialize(String name,
+                          SatelliteEventFilter eventFilter,
+                          CommandWithArg<JavaScriptObject> onReactivated)
    {
       onReactivated_ = onReactivated;
-      initializeNative(name);
+      initializeNative(name, eventFilter);
 
       // load MathJax
       MathJaxLoader.ensureMathJaxLoaded();
@@ -126,12 +135,16 @@ public class Satellite implements HasCloseHandlers<Satellite>
 
    // satellite windows should call this during startup to setup a
    // communication channel with the main window
-   private native void initializeNative(String name) /*-{
+   private native void initializeNative(String name,
+                                        SatelliteEventFilter eventFilter) /*-{
 
       // global flag used to conditionalize behavior
       $wnd.isRStudioSatellite = true;
       $wnd.RStudioSatelliteName = name;
 
+      // read by the main window when we register
+      $wnd.RStudioSatelliteEventFilter = eventFilter;
+
       // export setSessionInfo callback
       var satellite = this;
       $wnd.setRStudioSatelliteSessionInfo = $entry(
@@ -118,11 +118,23 @@ public class SatelliteApplication
       return false;
    }
    
+   /**
+    * Have subclasses override and return a filter describing the remote
+    * server events they consume, so that the main window doesn't forward
+    * (and buffer) events the satellite has no use for.
+    * @return The event filter, or null to receive all events.
+    */
+   protected SatelliteEventFilter getEventFilter()
+   {
+      return null;
+   }
+   
    public void go(RootLayoutPanel rootPanel, 
                   final Command dismissLoadingProgress)
    {
       // indicate that we are a satellite window
       satellite_.initialize(name_,
+                            getEventFilter(),
                             new CommandWithArg<JavaScriptObject> () {
                                @Override
                                public void execute(JavaScriptObject params)
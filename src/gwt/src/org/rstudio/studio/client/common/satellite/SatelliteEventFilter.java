@@ -0,0 +1,76 @@
+/*
+ * SatelliteEventFilter.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.satellite;
+
+import org.rstudio.core.client.JsArrayUtil;
+import org.rstudio.studio.client.server.remote.ClientEvent;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+
+// Declares which client events a satellite window consumes. Satellites hand
+// this to the main window when they register, and the main window's
+// SatelliteManager then only forwards (and buffers) matching events.
+//
+// This is a plain JavaScript object since it's created in the satellite
+// window and read from the main window.
+public class SatelliteEventFilter extends JavaScriptObject
+{
+   protected SatelliteEventFilter()
+   {
+   }
+
+   // Receive only the given event types.
+   public static SatelliteEventFilter only(String... types)
+   {
+      return create(false, JsArrayUtil.createStringArray(types));
+   }
+
+   // Receive every event type except the given ones.
+   public static SatelliteEventFilter allExcept(String... types)
+   {
+      return create(true, JsArrayUtil.createStringArray(types));
+   }
+
+   // Receive everything except the high-volume output streams of the console,
+   // builds, jobs and tests; for satellites that don't display any of those.
+   public static SatelliteEventFilter allExceptOutputStreams()
+   {
+      return allExcept(OUTPUT_STREAM_EVENTS);
+   }
+
+   public final native boolean isExclusive() /*-{
+      return !!this.exclusive;
+   }-*/;
+
+   public final native JsArrayString getTypes() /*-{
+      return this.types || [];
+   }-*/;
+
+   private static native SatelliteEventFilter create(boolean exclusive,
+                                                     JsArrayString types) /*-{
+      return { exclusive: exclusive, types: types };
+   }-*/;
+
+   private static final String[] OUTPUT_STREAM_EVENTS = {
+         ClientEvent.ConsoleOutput,
+         ClientEvent.ConsoleError,
+         ClientEvent.ConsoleWritePrompt,
+         ClientEvent.ConsoleWriteInput,
+         ClientEvent.BuildOutput,
+         ClientEvent.JobOutput,
+         ClientEvent.TestsOutput
+   };
+}
@@ -14,14 +14,18 @@
  */
 package org.rstudio.studio.client.common.satellite;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map.Entry;
 
 import com.google.inject.Provider;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.JsArrayUtil;
 import org.rstudio.core.client.Point;
 import org.rstudio.core.client.Size;
 import org.rstudio.core.client.StringUtil;
@@ -40,6 +44,7 @@ import org.rstudio.studio.client.common.satellite.events.AllSatellitesClosingEve
 import org.rstudio.studio.client.common.satellite.events.SatelliteClosedEvent;
 import org.rstudio.studio.client.common.satellite.events.WindowClosedEvent;
 import org.rstudio.studio.client.common.satellite.events.WindowOpenedEvent;
+import org.rstudio.studio.client.server.remote.ClientEvent;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
@@ -187,7 +192,7 @@ public class SatelliteManager implements CloseHandler<Window>
       if (!pendingEventsBySatelliteName_.containsKey(name))
       {
          pendingEventsBySatelliteName_.put(name,
-                                           new ArrayList<>());
+                                           new PendingEvents());
       }
 
       // record satellite params for subsequent setting (this value is read
@@ -343,17 +348,21 @@ public class SatelliteManager implements CloseHandler<Window>
       }
    }
 
-   // dispatch an event to all satellites
+   // dispatch an event to all satellites that consume it
    public void dispatchClientEvent(JavaScriptObject clientEvent)
    {
+      if (satellites_.isEmpty() && pendingEventsBySatelliteName_.isEmpty())
+         return;
+
+      String type = clientEvent.<ClientEvent>cast().getType();
+
       // list of windows to remove (because they were closed)
       ArrayList<ActiveSatellite> removeWindows = null;
 
       // iterate over the satellites (make a copy to avoid races if
       // for some reason firing an event creates or destroys a satellite)
-      @SuppressWarnings("unchecked")
-      ArrayList<ActiveSatellite> satellites =
-                           (ArrayList<ActiveSatellite>)satellites_.clone();
+      ActiveSatellite[] satellites =
+            satellites_.toArray(new ActiveSatellite[satellites_.size()]);
       for (ActiveSatellite satellite : satellites)
       {
          try
@@ -372,7 +381,16 @@ public class SatelliteManager implements CloseHandler<Window>
             }
             else
             {
-               callDispatchEvent(satelliteWnd, clientEvent);
+               EventRoute route = getRoute(satellite.getName());
+               if (route.accepts(type))
+               {
+                  callDispatchEvent(satelliteWnd, clientEvent);
+                  route.counters.dispatched++;
+               }
+               else
+               {
+                  route.counters.filtered++;
+               }
             }
          }
          catch(Throwable e)
@@ -380,10 +398,16 @@ public class SatelliteManager implements CloseHandler<Window>
          }
       }
 
-      for (Entry<String, ArrayList<JavaScriptObject>> entry :
+      for (Entry<String, PendingEvents> entry :
                                        pendingEventsBySatelliteName_.entrySet())
       {
-         entry.getValue().add(clientEvent);
+         // the filter is known here if the satellite was open before
+         // (e.g. it's being reloaded); otherwise it's applied at flush time
+         EventRoute route = getRoute(entry.getKey());
+         if (route.accepts(type))
+            entry.getValue().add(clientEvent, type, route.counters);
+         else
+            route.counters.filtered++;
       }
 
       // remove windows if necessary
@@ -396,6 +420,14 @@ public class SatelliteManager implements CloseHandler<Window>
       }
    }
 
+   // counts of the client events routed to the named satellite (across
+   // reloads of its window), or null if no such satellite has been opened
+   public DispatchCounters getDispatchCounters(String name)
+   {
+      EventRoute route = routesBySatelliteName_.get(name);
+      return route == null ? null : route.counters;
+   }
+
    // dispatch a command to the named satellite window, or to the main window
    // if no target is specified
    public void dispatchCommand(AppCommand command, String target)
@@ -455,6 +487,9 @@ public class SatelliteManager implements CloseHandler<Window>
       if (!satellites_.contains(satellite))
          satellites_.add(satellite);
 
+      // pick up the set of events the satellite wants to receive
+      getRoute(name).setFilter(getEventFilter(satelliteWnd));
+
       // augment the current session info with an up-to-date set of source
       // documents
       SessionInfo sessionInfo = session_.getSessionInfo();
@@ -503,10 +538,19 @@ public class SatelliteManager implements CloseHandler<Window>
 
    private void flushPendingEvents(String name)
    {
-      ArrayList<JavaScriptObject> events =
-                                    pendingEventsBySatelliteName_.remove(name);
+      PendingEvents pending = pendingEventsBySatelliteName_.remove(name);
+      if (pending == null)
+         return;
 
-      if (events == null || events.size() == 0)
+      EventRoute route = getRoute(name);
+      if (pending.getDroppedCount() > 0)
+      {
+         Debug.log("Dropped " + pending.getDroppedCount() +
+                   " buffered event(s) for satellite '" + name + "'");
+      }
+
+      ArrayList<JavaScriptObject> events = pending.drain();
+      if (events.isEmpty())
          return;
 
       for (ActiveSatellite satellite :
@@ -517,9 +561,17 @@ public class SatelliteManager implements CloseHandler<Window>
          {
             for (JavaScriptObject evt : events)
             {
+               // filter now that we know what the satellite consumes
+               if (!route.accepts(evt.<ClientEvent>cast().getType()))
+               {
+                  route.counters.filtered++;
+                  continue;
+               }
+
                try
                {
                   callDispatchEvent(satellite.getWindow(), evt);
+                  route.counters.dispatched++;
                }
                catch (Exception e)
                {
@@ -610,6 +662,11 @@ public class SatelliteManager implements CloseHandler<Window>
       satellite.notifyRStudioSatelliteReactivated(params);
    }-*/;
 
+   // read the event filter a satellite exported before registering
+   private native SatelliteEventFilter getEventFilter(JavaScriptObject satellite) /*-{
+      return satellite.RStudioSatelliteEventFilter || null;
+   }-*/;
+
    // dispatch event to a satellite
    private native void callDispatchEvent(JavaScriptObject satellite,
                                          JavaScriptObject clientEvent) /*-{
@@ -663,9 +720,137 @@ public class SatelliteManager implements CloseHandler<Window>
 
    private final HashMap<String,JavaScriptObject> satelliteParams_ = new HashMap<>();
 
-   private final HashMap<String, ArrayList<JavaScriptObject>>
+   private final HashMap<String, PendingEvents>
          pendingEventsBySatelliteName_ = new HashMap<>();
 
+   private final HashMap<String, EventRoute>
+         routesBySatelliteName_ = new HashMap<>();
+
+   private EventRoute getRoute(String name)
+   {
+      EventRoute route = routesBySatelliteName_.get(name);
+      if (route == null)
+      {
+         route = new EventRoute();
+         routesBySatelliteName_.put(name, route);
+      }
+      return route;
+   }
+
+   public static class DispatchCounters
+   {
+      public int getDispatched()
+      {
+         return dispatched;
+      }
+
+      public int getFiltered()
+      {
+         return filtered;
+      }
+
+      public int getCompacted()
+      {
+         return compacted;
+      }
+
+      public int getDropped()
+      {
+         return dropped;
+      }
+
+      private int dispatched;
+      private int filtered;
+      private int compacted;
+      private int dropped;
+   }
+
+   // which events a satellite consumes (as declared by its
+   // SatelliteEventFilter), along with its dispatch counters
+   private static class EventRoute
+   {
+      void setFilter(SatelliteEventFilter filter)
+      {
+         if (filter == null)
+         {
+            types_ = null;
+            return;
+         }
+
+         exclusive_ = filter.isExclusive();
+         types_ = new HashSet<>(JsArrayUtil.fromJsArrayString(filter.getTypes()));
+      }
+
+      boolean accepts(String type)
+      {
+         if (types_ == null)
+            return true;
+
+         return types_.contains(type) != exclusive_;
+      }
+
+      final DispatchCounters counters = new DispatchCounters();
+
+      private HashSet<String> types_ = null;
+      private boolean exclusive_ = false;
+   }
+
+   // events buffered for a satellite that is still loading. Only the latest
+   // of each state-like event is kept, and the buffer is capped so that a
+   // satellite which never finishes loading can't accumulate events forever.
+   private static class PendingEvents
+   {
+      void add(JavaScriptObject event, String type, DispatchCounters counters)
+      {
+         if (COMPACTABLE_EVENTS.contains(type))
+         {
+            JavaScriptObject previous = latestByType_.put(type, event);
+            if (previous != null && events_.removeFirstOccurrence(previous))
+               counters.compacted++;
+         }
+
+         events_.addLast(event);
+
+         if (events_.size() > MAX_PENDING_EVENTS)
+         {
+            // drop the oldest event
+            events_.removeFirst();
+            dropped_++;
+            counters.dropped++;
+         }
+      }
+
+      int getDroppedCount()
+      {
+         return dropped_;
+      }
+
+      ArrayList<JavaScriptObject> drain()
+      {
+         ArrayList<JavaScriptObject> events = new ArrayList<>(events_);
+         events_.clear();
+         latestByType_.clear();
+         return events;
+      }
+
+      private final ArrayDeque<JavaScriptObject> events_ = new ArrayDeque<>();
+      private final HashMap<String, JavaScriptObject> latestByType_ = new HashMap<>();
+      private int dropped_ = 0;
+   }
+
+   // events that describe current state (rather than a change), so that
+   // only the most recent one matters to a satellite that's catching up
+   private static final HashSet<String> COMPACTABLE_EVENTS = new HashSet<>(Arrays.asList(
+         ClientEvent.Busy,
+         ClientEvent.WorkingDirChanged,
+         ClientEvent.PlotsStateChanged,
+         ClientEvent.SaveActionChanged,
+         ClientEvent.QuotaStatus,
+         ClientEvent.SessionCountChanged,
+         ClientEvent.MemoryUsageChanged));
+
+   private static final int MAX_PENDING_EVENTS = 2000;
+
    private class ActiveSatellite
    {
       public ActiveSatellite(String name, WindowEx window)
@@ -286,6 +286,15 @@ public class DataTable
 
       refreshData(getWindow());
    }
+
+   /**
+    * Reloads the values shown after the data changed without its columns
+    * changing, keeping the current search, filters, sort and scroll position.
+    */
+   public void refreshValues()
+   {
+      refreshValues(getWindow());
+   }
    
    public void onActivate()
    {
@@ -318,6 +327,13 @@ public class DataTable
          frame.refreshData();
    }-*/;
 
+   private static final native void refreshValues(WindowEx frame) /*-{
+      if (frame && frame.refreshValues)
+         frame.refreshValues();
+      else if (frame && frame.refreshData)
+         frame.refreshData();
+   }-*/;
+
    private static final native void applySearch(WindowEx frame, String text) /*-{
       if (frame && frame.applySearch)
          frame.applySearch(text);
@@ -99,18 +99,22 @@ public class AppCommandPaletteItem extends BasePaletteItem<AppCommandPaletteEntr
    }
    
    @Override
-   public boolean matchesSearch(String[] keywords)
+   public String getSearchText()
    {
-      String prefix = "";
-
       // Non-workbench commands can match on context
       if (command_.getContext() != Context.Workbench)
       {
-         prefix = command_.getContext().toString() + " ";
+         return command_.getContext().toString() + " " + label_;
       }
 
+      return label_;
+   }
+
+   @Override
+   public boolean matchesSearch(String[] keywords)
+   {
       // Matches if the label matches
-      return super.labelMatchesSearch(prefix + label_, keywords);
+      return super.labelMatchesSearch(getSearchText(), keywords);
    }
 
    @Override
@@ -35,6 +35,7 @@ import org.rstudio.studio.client.palette.model.CommandPaletteMruEntry;
 import org.rstudio.studio.client.palette.ui.CommandPalette;
 import org.rstudio.studio.client.workbench.WorkbenchListManager;
 import org.rstudio.studio.client.workbench.addins.AddinsCommandManager;
+import org.rstudio.studio.client.workbench.addins.events.AddinRegistryUpdatedEvent;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.views.source.Source;
@@ -90,6 +91,15 @@ public class CommandPaletteLauncher implements CommandPalette.Host
          pWorkbenchLists_.get().getCommandPaletteMruList().prepend(
             evt.getMruEntry().toString());
       });
+
+      // Keep the addins shown in an open palette up to date
+      events.addHandler(AddinRegistryUpdatedEvent.TYPE, (evt) ->
+      {
+         if (palette_ != null)
+         {
+            palette_.updateSource(new RAddinPaletteSource(evt.getData(), ShortcutManager.INSTANCE));
+         }
+      });
    }
    
    @Handler
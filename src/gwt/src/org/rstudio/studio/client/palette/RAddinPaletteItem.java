@@ -58,10 +58,16 @@ public class RAddinPaletteItem extends BasePaletteItem<RAddinCommandPaletteEntry
       executor_.execute(addin_);
    }
 
+   @Override
+   public String getSearchText()
+   {
+      return addin_.getPackage() + " " + label_;
+   }
+
    @Override
    public boolean matchesSearch(String[] keywords)
    {
-      return super.labelMatchesSearch(addin_.getPackage() + " " + label_, keywords);
+      return super.labelMatchesSearch(getSearchText(), keywords);
    }
 
    @Override
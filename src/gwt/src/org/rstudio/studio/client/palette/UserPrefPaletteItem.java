@@ -58,10 +58,16 @@ public class UserPrefPaletteItem extends BasePaletteItem<UserPrefPaletteEntry>
       nudgeWriter();
    }
 
+   @Override
+   public String getSearchText()
+   {
+      return "setting " + val_.getTitle();
+   }
+
    @Override
    public boolean matchesSearch(String[] keywords)
    {
-      return super.labelMatchesSearch("setting " + val_.getTitle(), keywords);
+      return super.labelMatchesSearch(getSearchText(), keywords);
    }
 
    @Override
@@ -0,0 +1,395 @@
+/*
+ * CommandPaletteIndex.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.palette.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.palette.ui.CommandPalette;
+
+/**
+ * A search index over the items supplied by the Command Palette's entry
+ * providers. It's built once when the palette opens (and updated when a
+ * provider's items change), so that each keystroke only scores the items
+ * that can possibly match instead of asking every item to match itself.
+ *
+ * An item matches when each keyword is found in its search text, either as
+ * a substring or, for longer keywords, as a subsequence starting at a word.
+ * Matches are ranked by how well each keyword matches (a whole word, the
+ * start of a word, a substring, or a subsequence). Recently used items are
+ * boosted to the top of the results, in the order they were last used.
+ */
+public class CommandPaletteIndex
+{
+   public CommandPaletteIndex(List<CommandPaletteMruEntry> mru)
+   {
+      entries_ = new ArrayList<>();
+      buckets_ = new HashMap<>();
+      mruRanks_ = new HashMap<>();
+      mru_ = mru;
+
+      if (mru != null)
+      {
+         for (int i = 0; i < mru.size(); i++)
+         {
+            String key = key(mru.get(i).getScope(), mru.get(i).getId());
+            if (!mruRanks_.containsKey(key))
+               mruRanks_.put(key, i);
+         }
+      }
+   }
+
+   /**
+    * Indexes the items from the given provider, replacing any items it
+    * previously supplied.
+    *
+    * @param provider The provider to index
+    *
+    * @return The items previously supplied by the provider that are no
+    *    longer indexed
+    */
+   public List<CommandPaletteItem> addProvider(CommandPaletteEntryProvider provider)
+   {
+      String scope = provider.getProviderScope();
+      List<CommandPaletteItem> replaced = new ArrayList<>();
+      entries_.removeIf((entry) ->
+      {
+         if (!StringUtil.equals(entry.scope, scope))
+            return false;
+         replaced.add(entry.item);
+         return true;
+      });
+
+      List<CommandPaletteItem> items = provider.getCommandPaletteItems();
+      Set<String> ids = new HashSet<>();
+      for (CommandPaletteItem item: items)
+      {
+         if (item != null)
+         {
+            addItem(scope, item);
+            ids.add(item.getId());
+         }
+      }
+
+      // Recently used items aren't always in the provider's list (e.g.
+      // commands that aren't currently visible); ask for those individually
+      if (mru_ != null)
+      {
+         for (CommandPaletteMruEntry mru: mru_)
+         {
+            if (StringUtil.equals(mru.getScope(), scope) && !ids.contains(mru.getId()))
+            {
+               CommandPaletteItem item = provider.getCommandPaletteItem(mru.getId());
+               if (item != null)
+               {
+                  addItem(scope, item);
+                  ids.add(mru.getId());
+               }
+            }
+         }
+      }
+
+      rebuildBuckets();
+
+      // items the provider supplied again are still in use
+      for (Entry entry: entries_)
+      {
+         if (StringUtil.equals(entry.scope, scope))
+            replaced.remove(entry.item);
+      }
+      return replaced;
+   }
+
+   /**
+    * Finds the items matching the given keywords.
+    *
+    * @param keywords The (lowercase) keywords to match
+    *
+    * @return The matching items, best first
+    */
+   public List<CommandPaletteItem> search(String[] keywords)
+   {
+      List<String> needles = new ArrayList<>();
+      for (String keyword: keywords)
+      {
+         if (!keyword.isEmpty())
+            needles.add(keyword);
+      }
+
+      List<Entry> candidates;
+      if (needles.isEmpty())
+      {
+         candidates = entries_;
+      }
+      else if (canRefine(needles))
+      {
+         // anything matching the refined keywords matched the previous ones
+         candidates = lastMatches_;
+      }
+      else
+      {
+         candidates = smallestBucket(needles);
+      }
+
+      List<Entry> matches = new ArrayList<>();
+      for (Entry entry: candidates)
+      {
+         int score = 0;
+         for (String needle: needles)
+         {
+            int needleScore = score(entry, needle);
+            if (needleScore == NO_MATCH)
+            {
+               score = NO_MATCH;
+               break;
+            }
+            score += needleScore;
+         }
+
+         if (score != NO_MATCH)
+         {
+            entry.score = score;
+            matches.add(entry);
+         }
+      }
+
+      lastNeedles_ = needles;
+      lastMatches_ = matches;
+
+      List<Entry> ranked = new ArrayList<>(matches);
+      Collections.sort(ranked, (a, b) ->
+      {
+         // recently used items come first, most recent first; the rest are
+         // ranked by how well they match
+         boolean aMru = a.mruRank >= 0;
+         boolean bMru = b.mruRank >= 0;
+         if (aMru != bMru)
+            return aMru ? -1 : 1;
+         if (aMru)
+            return a.mruRank - b.mruRank;
+         if (a.score != b.score)
+            return a.score - b.score;
+         return a.order - b.order;
+      });
+
+      List<CommandPaletteItem> results = new ArrayList<>(ranked.size());
+      for (Entry entry: ranked)
+      {
+         results.add(entry.item);
+      }
+      return results;
+   }
+
+   private void addItem(String scope, CommandPaletteItem item)
+   {
+      Integer rank = mruRanks_.get(key(scope, item.getId()));
+      item.setIsMru(rank != null);
+      entries_.add(new Entry(
+            item,
+            scope,
+            StringUtil.notNull(item.getSearchText()).toLowerCase(),
+            nextOrder_++,
+            rank == null ? -1 : rank));
+   }
+
+   private void rebuildBuckets()
+   {
+      buckets_.clear();
+      for (Entry entry: entries_)
+      {
+         Set<Character> seen = new HashSet<>();
+         for (int i = 0; i < entry.hay.length(); i++)
+         {
+            char c = entry.hay.charAt(i);
+            if (seen.add(c))
+            {
+               List<Entry> bucket = buckets_.get(c);
+               if (bucket == null)
+               {
+                  bucket = new ArrayList<>();
+                  buckets_.put(c, bucket);
+               }
+               bucket.add(entry);
+            }
+         }
+      }
+
+      lastNeedles_ = null;
+      lastMatches_ = null;
+   }
+
+   /**
+    * Every character of every keyword must appear in a match, so the items
+    * containing the rarest of those characters are the only candidates.
+    */
+   private List<Entry> smallestBucket(List<String> needles)
+   {
+      List<Entry> smallest = entries_;
+      for (String needle: needles)
+      {
+         for (int i = 0; i < needle.length(); i++)
+         {
+            List<Entry> bucket = buckets_.get(needle.charAt(i));
+            if (bucket == null)
+               return Collections.emptyList();
+            if (bucket.size() < smallest.size())
+               smallest = bucket;
+         }
+      }
+      return smallest;
+   }
+
+   /**
+    * Whether the keywords only narrow the previous search (each previous
+    * keyword was extended, or new keywords were added), in which case the
+    * previous matches are a superset of the new ones.
+    */
+   private boolean canRefine(List<String> needles)
+   {
+      if (lastNeedles_ == null || lastNeedles_.isEmpty() ||
+          needles.size() < lastNeedles_.size())
+      {
+         return false;
+      }
+
+      for (int i = 0; i < lastNeedles_.size(); i++)
+      {
+         String last = lastNeedles_.get(i);
+         String needle = needles.get(i);
+         if (!needle.startsWith(last))
+            return false;
+
+         // a keyword that becomes long enough for fuzzy matching can match
+         // items the shorter keyword didn't
+         if (last.length() < FUZZY_MIN_LENGTH && needle.length() >= FUZZY_MIN_LENGTH)
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Scores how well a single keyword matches an entry; lower is better.
+    */
+   private static int score(Entry entry, String needle)
+   {
+      String hay = entry.hay;
+      int index = hay.indexOf(needle);
+      if (index == -1)
+      {
+         if (needle.length() < FUZZY_MIN_LENGTH)
+            return NO_MATCH;
+
+         int gaps = fuzzyGaps(hay, needle);
+         return gaps == NO_MATCH ? NO_MATCH : SCORE_FUZZY + gaps;
+      }
+
+      // find the best of the keyword's occurrences: a whole word, then the
+      // start of a word, then anywhere
+      int best = SCORE_SUBSTRING;
+      for ( ; index != -1; index = hay.indexOf(needle, index + 1))
+      {
+         if (index == 0 || !isWordChar(hay.charAt(index - 1)))
+         {
+            int end = index + needle.length();
+            if (end == hay.length() || !isWordChar(hay.charAt(end)))
+               return SCORE_WORD;
+            best = SCORE_WORD_PREFIX;
+         }
+      }
+      return best;
+   }
+
+   /**
+    * Matches the keyword as a subsequence starting at the beginning of a
+    * word, returning the fewest characters skipped over by any such match.
+    */
+   private static int fuzzyGaps(String hay, String needle)
+   {
+      int best = NO_MATCH;
+      char first = needle.charAt(0);
+      for (int start = hay.indexOf(first); start != -1; start = hay.indexOf(first, start + 1))
+      {
+         if (start > 0 && isWordChar(hay.charAt(start - 1)))
+            continue;
+
+         int pos = start;
+         int i = 1;
+         for ( ; i < needle.length(); i++)
+         {
+            pos = hay.indexOf(needle.charAt(i), pos + 1);
+            if (pos == -1)
+               break;
+         }
+
+         if (i < needle.length())
+            break; // later starts can't match either
+
+         int gaps = (pos - start + 1) - needle.length();
+         if (best == NO_MATCH || gaps < best)
+            best = gaps;
+      }
+      return best;
+   }
+
+   private static boolean isWordChar(char c)
+   {
+      return Character.isLetterOrDigit(c);
+   }
+
+   private static String key(String scope, String id)
+   {
+      return scope + CommandPalette.SCOPE_MRU_DELIMITER + id;
+   }
+
+   private static class Entry
+   {
+      Entry(CommandPaletteItem item, String scope, String hay, int order, int mruRank)
+      {
+         this.item = item;
+         this.scope = scope;
+         this.hay = hay;
+         this.order = order;
+         this.mruRank = mruRank;
+      }
+
+      final CommandPaletteItem item;
+      final String scope;
+      final String hay;
+      final int order;
+      final int mruRank;
+      int score;
+   }
+
+   private final List<Entry> entries_;
+   private final HashMap<Character, List<Entry>> buckets_;
+   private final HashMap<String, Integer> mruRanks_;
+   private final List<CommandPaletteMruEntry> mru_;
+   private int nextOrder_ = 0;
+
+   private List<String> lastNeedles_;
+   private List<Entry> lastMatches_;
+
+   private static final int NO_MATCH = -1;
+   private static final int SCORE_WORD = 0;
+   private static final int SCORE_WORD_PREFIX = 1;
+   private static final int SCORE_SUBSTRING = 3;
+   private static final int SCORE_FUZZY = 10;
+   private static final int FUZZY_MIN_LENGTH = 3;
+}
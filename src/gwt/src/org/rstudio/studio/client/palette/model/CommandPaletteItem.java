@@ -68,6 +68,14 @@ public interface CommandPaletteItem extends IsWidget, HasHandlers
     */
    HandlerRegistration addInvokeHandler(PaletteItemInvokedEvent.Handler handler);
 
+   /**
+    * The text that search keywords are matched against: the item's label,
+    * plus any context it can be found by (such as its package or scope).
+    * 
+    * @return The item's search text
+    */
+   String getSearchText();
+
    /**
     * Does this item match the given search keywords?
     * 
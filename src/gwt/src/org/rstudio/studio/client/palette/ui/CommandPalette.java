@@ -16,11 +16,12 @@
 package org.rstudio.studio.client.palette.ui;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.rstudio.core.client.DebouncedCommand;
 import org.rstudio.core.client.ElementIds;
-import org.rstudio.core.client.HandlerRegistrations;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.a11y.A11y;
 import org.rstudio.core.client.widget.AriaLiveStatusWidget;
@@ -28,6 +29,7 @@ import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.events.AriaLiveStatusEvent.Severity;
 import org.rstudio.studio.client.palette.PaletteConstants;
 import org.rstudio.studio.client.palette.model.CommandPaletteEntryProvider;
+import org.rstudio.studio.client.palette.model.CommandPaletteIndex;
 import org.rstudio.studio.client.palette.model.CommandPaletteItem;
 import org.rstudio.studio.client.palette.model.CommandPaletteItem.InvocationSource;
 
@@ -38,6 +40,7 @@ import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.resources.client.CssResource;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
@@ -90,7 +93,7 @@ public class CommandPalette extends Composite
    {
       initWidget(uiBinder.createAndBindUi(this));
 
-      items_ = new ArrayList<>();
+      results_ = new ArrayList<>();
       visible_ = new ArrayList<>();
       host_ = host;
       selected_ = -1;
@@ -98,9 +101,9 @@ public class CommandPalette extends Composite
       pageSize_ = 0;
       sources_ = sources;
       needles_ = new String[0];
-      registrations_ = new HandlerRegistrations();
+      invokeRegistrations_ = new HashMap<>();
       styles_.ensureInjected();
-      mru_ = mru;
+      index_ = new CommandPaletteIndex(mru);
       
       Element searchBox = searchBox_.getElement();
       searchBox.setAttribute("spellcheck", "false");
@@ -151,7 +154,11 @@ public class CommandPalette extends Composite
    public void onDetach()
    {
       // Clean up event handlers
-      registrations_.removeHandler();
+      for (HandlerRegistration registration: invokeRegistrations_.values())
+      {
+         registration.removeHandler();
+      }
+      invokeRegistrations_.clear();
    }
 
    /**
@@ -237,8 +244,16 @@ public class CommandPalette extends Composite
          }
       });
       
-      // Render the first page of elements
-      renderNextPage();
+      // Index the items from every source, then render the first page
+      for (CommandPaletteEntryProvider provider: sources_)
+      {
+         if (provider != null)
+         {
+            index_.addProvider(provider);
+         }
+      }
+      populated_ = true;
+      applyFilter();
       
       // If we are already attached to the DOM at this point, compute the page
       // size for scrolling by pages. 
@@ -257,7 +272,7 @@ public class CommandPalette extends Composite
    private void computePageSize()
    {
       // Find the first visible entry (we can't measure an invisible one)
-      for (CommandPaletteItem item: items_)
+      for (CommandPaletteItem item: visible_)
       {
          Widget entry = item.asWidget();
          if (entry.isVisible())
@@ -284,12 +299,47 @@ public class CommandPalette extends Composite
       }
    }
    
+   /**
+    * Re-indexes the items from a source whose items have changed (e.g. when
+    * R addins are installed), and refreshes the results.
+    *
+    * @param provider The source to re-index
+    */
+   public void updateSource(CommandPaletteEntryProvider provider)
+   {
+      for (int i = 0; i < sources_.size(); i++)
+      {
+         CommandPaletteEntryProvider source = sources_.get(i);
+         if (source != null &&
+             StringUtil.equals(source.getProviderScope(), provider.getProviderScope()))
+         {
+            sources_.set(i, provider);
+         }
+      }
+
+      // If we've already populated, re-index the source and show its new items
+      if (populated_)
+      {
+         // Release the invocation handlers of the items that were replaced
+         for (CommandPaletteItem item: index_.addProvider(provider))
+         {
+            HandlerRegistration registration = invokeRegistrations_.remove(item);
+            if (registration != null)
+            {
+               registration.removeHandler();
+            }
+         }
+         applyFilter();
+      }
+   }
+
    /**
     * Filter the commands by the current contents of the search box
     */
    private void applyFilter()
    {
-      // Clear the command list and render marker in preparation for a re-render
+      // Clear the command list and render marker in preparation for a re-render.
+      // The items keep their widgets, so re-rendering them is cheap.
       commandList_.clear();
       renderedItem_ = 0;
       if (selected_ >= 0)
@@ -298,6 +348,9 @@ public class CommandPalette extends Composite
 
       selected_ = -1;
       
+      // Look up the matching items in the index, best matches first
+      results_ = index_.search(needles_);
+      
       // Render the next page of command entries
       renderNextPage();
    }
@@ -418,131 +471,62 @@ public class CommandPalette extends Composite
     */
    private void renderNextPage()
    {
-      // If we have no items yet, start with MRU items
-      if (items_.size() == 0 && mru_ != null)
-      {
-         for (CommandPaletteMruEntry mru: mru_)
-         {
-            // Look for the entry provider from which this MRU entry originated
-            for (CommandPaletteEntryProvider provider: sources_)
-            {
-               if (StringUtil.equals(provider.getProviderScope(), mru.getScope()))
-               {
-                  // Found the entry provider; ask it to supply the command.
-                  CommandPaletteItem item = provider.getCommandPaletteItem(mru.getId());
-                  if (item != null)
-                  {
-                     item.setIsMru(true);
-                     items_.add(item);
-                  }
-
-                  // Command found; no need to look at other providers
-                  break;
-               }
-            }
-         }
-      }
-
-      // If we haven't already pulled items from all our sources and we have
-      // less than a page of data left, pull in data from the next source.
-      if (renderedSource_ < sources_.size() &&
-          items_.size() - renderedItem_ < RENDER_PAGE_SIZE)
-      {
-         // Read the next non-null data source
-         List<CommandPaletteItem> items = null;
-         do
-         {
-            items = null;
-            CommandPaletteEntryProvider provider = sources_.get(renderedSource_);
-            if (provider != null)
-            {
-               items = provider.getCommandPaletteItems();
-
-               // Remove any items already present in the MRU
-               if (mru_ != null)
-               {
-                  items.removeIf((item) ->
-                  {
-                     for (CommandPaletteMruEntry entry : mru_)
-                     {
-                        if (StringUtil.equals(entry.getScope(), provider.getProviderScope()) &&
-                            StringUtil.equals(entry.getId(), item.getId()))
-                        {
-                           // Item already present in MRU; remove it
-                           return true;
-                        }
-                     }
-                     // Item not present in MRU; don't remove
-                     return false;
-                  });
-               }
-            }
-            renderedSource_++;
-         } while (items == null);
-
-         items_.addAll(items);
-      }
-      
       // Set initial conditions for render loop
       int rendered = 0;
       int idx = renderedItem_;
-      boolean mruSeparator = false;
+      boolean mruSeparator = idx > 0 && results_.get(idx - 1).getIsMru();
 
       // Main render loop; render items until we have rendered a full page
-      while (idx < items_.size() && rendered < RENDER_PAGE_SIZE)
+      while (idx < results_.size() && rendered < RENDER_PAGE_SIZE)
       {
-         CommandPaletteItem item = items_.get(idx);
+         CommandPaletteItem item = results_.get(idx);
 
-         // Render this item if non-null and matches the search keywords, if we
-         // have them
-         if (item != null && (needles_.length == 0 || item.matchesSearch(needles_)))
+         // Remember whether this item has been rendered
+         boolean isRendered = item.isRendered();
+         
+         // Render the item to a widget (this is the expensive step, so it
+         // only happens the first time the item is shown)
+         Widget widget = item.asWidget();
+         if (widget != null)
          {
-            // Remember whether this item has been rendered
-            boolean isRendered = item.isRendered();
-            
-            // Render the item to a widget (this is the expensive step)
-            Widget widget = item.asWidget();
-            if (widget != null)
+            if (item.getIsMru())
             {
-               if (item.getIsMru())
-               {
-                  // If this item came from the MRU, we need to render a separator to
-                  // delineate the MRU and non MRU entries in the palette
-                  mruSeparator = true;
-               }
-               else if (mruSeparator)
-               {
-                  // Render the MRU separator if we've entered the region of non-MRU items
-                  addMruSeparator();
-                  mruSeparator = false;
-               }
-
-               // Add and highlight the item
-               commandList_.add(item.asWidget());
-               visible_.add(item);
-               item.setSearchHighlight(needles_);
-               
-               // If we just added the first widget to the box, select it
-               if (visible_.size() == 1)
-               {
-                  selectNewCommand(0);
-               }
-               rendered++;
+               // If this item came from the MRU, we need to render a separator to
+               // delineate the MRU and non MRU entries in the palette
+               mruSeparator = true;
+            }
+            else if (mruSeparator)
+            {
+               // Render the MRU separator if we've entered the region of non-MRU items
+               addMruSeparator();
+               mruSeparator = false;
             }
+
+            // Add and highlight the item
+            commandList_.add(widget);
+            visible_.add(item);
+            item.setSearchHighlight(needles_);
             
-            // Attach an invocation handler if this is the first time we've
-            // rendered this item
-            if (!isRendered)
+            // If we just added the first widget to the box, select it
+            if (visible_.size() == 1)
             {
-               registrations_.add(item.addInvokeHandler((evt) ->
-               {
-                  if (evt.getItem().dismissOnInvoke())
-                  {
-                     host_.dismiss();
-                  }
-                  evt.getItem().invoke(InvocationSource.Mouse);
-               }));
+               selectNewCommand(0);
             }
+            rendered++;
+         }
+         
+         // Attach an invocation handler if this is the first time we've
+         // rendered this item
+         if (!isRendered)
+         {
+            invokeRegistrations_.put(item, item.addInvokeHandler((evt) ->
+            {
+               if (evt.getItem().dismissOnInvoke())
+               {
+                  host_.dismiss();
+               }
+               evt.getItem().invoke(InvocationSource.Mouse);
+            }));
          }
          
          // Advance to next command palette item
@@ -553,16 +537,19 @@ public class CommandPalette extends Composite
       renderedItem_ = idx;
       
       // If we didn't render everything, schedule another pass
-      if (renderedItem_ < items_.size() || renderedSource_ < sources_.size())
+      if (renderedItem_ < results_.size())
       {
          // Don't populate while user is typing as dumping more elements into
          // the DOM is distracting (plus the additional elements will be
          // discarded once the timer finishes running)
          if (!applyFilter_.isRunning())
          {
+            final List<CommandPaletteItem> results = results_;
             Scheduler.get().scheduleDeferred(() ->
             {
-               renderNextPage();
+               // Skip if the results were replaced in the meantime
+               if (results == results_)
+                  renderNextPage();
             });
          }
       }
@@ -587,18 +574,18 @@ public class CommandPalette extends Composite
 
    private final Host host_;
    private final List<CommandPaletteEntryProvider> sources_;
-   private final List<CommandPaletteItem> items_;
+   private final CommandPaletteIndex index_;
+   private List<CommandPaletteItem> results_;
    private final List<CommandPaletteItem> visible_;
-   private final List<CommandPaletteMruEntry> mru_;
-   private final HandlerRegistrations registrations_;
+   private final Map<CommandPaletteItem, HandlerRegistration> invokeRegistrations_;
    private int selected_;
    private String searchText_;
    private String[] needles_;
    private boolean attached_;
+   private boolean populated_;
    private int pageSize_;
    
    private int renderedItem_; // The index of the last rendered item
-   private int renderedSource_ = 0; // The index of the last rendered data source
    private final int RENDER_PAGE_SIZE = 50;
 
    // These scopes serve two purposes: they ensure IDs are unique across different
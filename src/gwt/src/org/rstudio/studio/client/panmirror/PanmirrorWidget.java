@@ -19,6 +19,7 @@ package org.rstudio.studio.client.panmirror;
 import java.util.ArrayList;
 
 import org.rstudio.core.client.CommandWithArg;
+import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.DebouncedCommand;
 import org.rstudio.core.client.HandlerRegistrations;
 import org.rstudio.core.client.events.MouseDragHandler;
@@ -68,6 +69,8 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.MarkdownToo
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorThemeChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.themes.AceTheme;
 
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerManager;
@@ -116,6 +119,7 @@ public class PanmirrorWidget extends DockLayoutPanel implements
       PanmirrorFormat getFormat(PanmirrorUIToolsFormat formatTools);
    }
    
+   // 'completed' receives null if the editor couldn't be loaded
    public static void create(PanmirrorContext context,
                              FormatSource formatSource,
                              PanmirrorOptions options,
@@ -124,6 +128,36 @@ public class PanmirrorWidget extends DockLayoutPanel implements
                              int progressDelay,
                              CommandWithArg<PanmirrorWidget> completed) {
       
+      // the widget, toolbar, outline, and find/replace bridge are only needed
+      // once a document enters visual mode, so keep them in their own fragment
+      // (creation is already asynchronous b/c of Panmirror.load)
+      GWT.runAsync(new RunAsyncCallback()
+      {
+         @Override
+         public void onSuccess()
+         {
+            createEditor(context, formatSource, options, widgetOptions, toolbar, progressDelay, completed);
+         }
+
+         @Override
+         public void onFailure(Throwable reason)
+         {
+            // the fragment couldn't be loaded (e.g. the network dropped or
+            // the server was upgraded); let the caller fall back
+            Debug.logException(reason);
+            completed.execute(null);
+         }
+      });
+   }
+   
+   private static void createEditor(PanmirrorContext context,
+                                    FormatSource formatSource,
+                                    PanmirrorOptions options,
+                                    Options widgetOptions,
+                                    MarkdownToolbar toolbar,
+                                    int progressDelay,
+                                    CommandWithArg<PanmirrorWidget> completed) {
+      
       PanmirrorWidget editorWidget = new PanmirrorWidget(widgetOptions, toolbar);
    
       Panmirror.load(() -> {
@@ -38,10 +38,16 @@ public class PanmirrorCommandPaletteItem extends BasePaletteItem<PanmirrorComman
       cmd_.execute();
    }
 
+   @Override
+   public String getSearchText()
+   {
+      return constants_.visualEditorLabel(cmd_.getFullMenuText());
+   }
+
    @Override
    public boolean matchesSearch(String[] keywords)
    {
-      return super.labelMatchesSearch(constants_.visualEditorLabel(cmd_.getFullMenuText()), keywords);
+      return super.labelMatchesSearch(getSearchText(), keywords);
    }
 
    @Override
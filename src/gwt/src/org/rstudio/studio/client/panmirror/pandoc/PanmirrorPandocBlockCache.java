@@ -0,0 +1,875 @@
+/*
+ * PanmirrorPandocBlockCache.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.panmirror.pandoc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Section-level cache of pandoc markdown <-> AST conversions for the visual
+ * editor.
+ *
+ * Documents are split into top-level sections (at ATX headings on the
+ * markdown side and at top-level Header blocks on the AST side), and each
+ * section's conversion is cached by its content. On a conversion only the
+ * sections that aren't in the cache are sent to pandoc -- batched into a
+ * single request, separated by a sentinel paragraph -- and the results are
+ * stitched back together on the client.
+ *
+ * Splitting is only correct when sections convert independently, so any
+ * document that uses constructs with cross-section effects (footnotes,
+ * reference links, implicit header references, example lists, headings
+ * whose identifiers could collide, YAML blocks after the front matter,
+ * multi-section HTML or fenced blocks) is converted whole, as are small
+ * documents and documents that contain the sentinel itself.
+ *
+ * Each cache holds at most MAX_ENTRIES sections and MAX_BYTES of keys and
+ * values, evicting the least recently used first.
+ */
+@Singleton
+public class PanmirrorPandocBlockCache
+{
+   @Inject
+   public PanmirrorPandocBlockCache(PanmirrorPandocServerOperations server)
+   {
+      server_ = server;
+   }
+
+   public void markdownToAst(String markdown,
+                             String format,
+                             JsArrayString options,
+                             ServerRequestCallback<JavaScriptObject> callback)
+   {
+      final double start = now();
+
+      final List<String> sections = splitMarkdown(markdown);
+      if (sections == null)
+      {
+         server_.pandocMarkdownToAst(markdown, format, options,
+               timed(callback, KIND_MARKDOWN_TO_AST, start, false));
+         return;
+      }
+
+      final String prefix = keyPrefix(KIND_MARKDOWN_TO_AST, format, options);
+      final List<String> keys = new ArrayList<>();
+      final List<Integer> misses = new ArrayList<>();
+      for (int i = 0; i < sections.size(); i++)
+      {
+         // the first section owns the document metadata
+         keys.add(prefix + (i == 0 ? "0" : "1") + sections.get(i));
+         if (!astCache_.containsKey(keys.get(i)))
+            misses.add(i);
+      }
+
+      if (misses.isEmpty())
+      {
+         callback.onResponseReceived(assembleAst(keys));
+         recordTiming(KIND_MARKDOWN_TO_AST, start, true, sections.size(), 0);
+         return;
+      }
+
+      StringBuilder batch = new StringBuilder();
+      for (int i = 0; i < misses.size(); i++)
+      {
+         if (i > 0)
+            batch.append("\n\n").append(SENTINEL).append("\n\n");
+         batch.append(sections.get(misses.get(i)));
+      }
+
+      server_.pandocMarkdownToAst(batch.toString(), format, options,
+            new ServerRequestCallback<JavaScriptObject>()
+      {
+         @Override
+         public void onResponseReceived(JavaScriptObject ast)
+         {
+            JsArray<JavaScriptObject> groups = splitAstOnSentinel(ast);
+            if (groups.length() != misses.size())
+            {
+               // the batch didn't split cleanly (e.g. the sentinel was
+               // swallowed by a preceding block); convert the whole document
+               server_.pandocMarkdownToAst(markdown, format, options,
+                     timed(callback, KIND_MARKDOWN_TO_AST, start, false));
+               return;
+            }
+
+            apiVersion_ = getApiVersion(ast);
+            for (int i = 0; i < misses.size(); i++)
+            {
+               int index = misses.get(i);
+               JavaScriptObject meta = index == 0 ? getMeta(ast) : null;
+               putAst(keys.get(index),
+                      createAstEntry(groups.get(i), meta, getHeadingIds(ast)));
+            }
+
+            callback.onResponseReceived(assembleAst(keys));
+            recordTiming(KIND_MARKDOWN_TO_AST, start, true, sections.size(), misses.size());
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            callback.onError(error);
+         }
+      });
+   }
+
+   public void astToMarkdown(JavaScriptObject ast,
+                             String format,
+                             JsArrayString options,
+                             ServerRequestCallback<String> callback)
+   {
+      final double start = now();
+
+      final JsArray<JavaScriptObject> sections = splitAst(ast, options);
+      if (sections == null)
+      {
+         server_.pandocAstToMarkdown(ast, format, options,
+               timed(callback, KIND_AST_TO_MARKDOWN, start, false));
+         return;
+      }
+
+      final String prefix = keyPrefix(KIND_AST_TO_MARKDOWN, format, options);
+      final List<String> keys = new ArrayList<>();
+      final List<Integer> misses = new ArrayList<>();
+      for (int i = 0; i < sections.length(); i++)
+      {
+         String json = stringify(sections.get(i));
+         if (i == 0)
+            json = stringify(getMeta(ast)) + json;
+
+         keys.add(prefix + json);
+         if (!markdownCache_.containsKey(keys.get(i)))
+            misses.add(i);
+      }
+
+      if (misses.isEmpty())
+      {
+         callback.onResponseReceived(assembleMarkdown(keys));
+         recordTiming(KIND_AST_TO_MARKDOWN, start, true, sections.length(), 0);
+         return;
+      }
+
+      JsArray<JavaScriptObject> missed = JavaScriptObject.createArray().cast();
+      for (int index : misses)
+         missed.push(sections.get(index));
+
+      JavaScriptObject batch = createBatchAst(ast, missed, misses.get(0) == 0);
+      server_.pandocAstToMarkdown(batch, format, options,
+            new ServerRequestCallback<String>()
+      {
+         @Override
+         public void onResponseReceived(String markdown)
+         {
+            String[] pieces = splitMarkdownBatch(markdown);
+            if (pieces.length != misses.size())
+            {
+               server_.pandocAstToMarkdown(ast, format, options,
+                     timed(callback, KIND_AST_TO_MARKDOWN, start, false));
+               return;
+            }
+
+            for (int i = 0; i < misses.size(); i++)
+               putMarkdown(keys.get(misses.get(i)), trimNewlines(pieces[i]));
+
+            callback.onResponseReceived(assembleMarkdown(keys));
+            recordTiming(KIND_AST_TO_MARKDOWN, start, true, sections.length(), misses.size());
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            callback.onError(error);
+         }
+      });
+   }
+
+   public static class Timings
+   {
+      public int count;
+      public double totalMs;
+      public int sections;
+      public int sectionsConverted;
+   }
+
+   /**
+    * @return Accumulated timings for the given conversion ("markdown-to-ast"
+    *    or "ast-to-markdown"), either incremental or whole-document.
+    */
+   public Timings getTimings(String kind, boolean incremental)
+   {
+      String key = kind + (incremental ? "-incremental" : "-full");
+      if (!timings_.containsKey(key))
+         timings_.put(key, new Timings());
+      return timings_.get(key);
+   }
+
+   // Markdown splitting ----
+
+   static List<String> splitMarkdown(String markdown)
+   {
+      if (markdown.length() < MIN_INCREMENTAL_LENGTH)
+         return null;
+
+      // a batch containing the document's own sentinels wouldn't split back
+      // into the right sections
+      if (markdown.contains(SENTINEL))
+         return null;
+
+      if (markdown.contains("[^") || markdown.contains("(@"))
+         return null;
+
+      String[] lines = markdown.split("\n", -1);
+      List<String> sections = new ArrayList<>();
+      List<String> headings = new ArrayList<>();
+      Set<String> headingIds = new HashSet<>();
+
+      int sectionStart = 0;
+      String fence = null;
+      int divDepth = 0;
+      int latexDepth = 0;
+      boolean inComment = false;
+      boolean inFrontMatter = lines.length > 0 && lines[0].equals("---");
+
+      for (int i = 0; i < lines.length; i++)
+      {
+         String line = lines[i];
+         boolean prevBlank = i == 0 || lines[i - 1].trim().isEmpty();
+
+         if (inFrontMatter)
+         {
+            if (i > 0 && (line.equals("---") || line.equals("...")))
+               inFrontMatter = false;
+            continue;
+         }
+
+         if (fence != null)
+         {
+            if (line.trim().startsWith(fence) && line.trim().replace(fence.substring(0, 1), "").isEmpty())
+               fence = null;
+            continue;
+         }
+
+         if (inComment)
+         {
+            if (line.contains("-->"))
+               inComment = false;
+            continue;
+         }
+
+         String trimmed = line.trim();
+         if (RE_FENCE.test(line))
+         {
+            fence = RE_FENCE.match(line, 0).getGroup(1);
+            continue;
+         }
+
+         if (trimmed.startsWith("<!--"))
+         {
+            inComment = !trimmed.contains("-->");
+            continue;
+         }
+
+         // raw html blocks may span blank lines (and so sections)
+         if (RE_HTML_BLOCK.test(line))
+            return null;
+
+         // reference link definitions apply document-wide
+         if (RE_REFERENCE_DEFINITION.test(line))
+            return null;
+
+         // a YAML block after the front matter (as opposed to a rule)
+         if (line.equals("---") && prevBlank &&
+             i + 1 < lines.length && !lines[i + 1].trim().isEmpty())
+            return null;
+
+         if (trimmed.startsWith(":::"))
+         {
+            if (trimmed.replace(":", "").trim().isEmpty())
+               divDepth = Math.max(0, divDepth - 1);
+            else
+               divDepth++;
+            continue;
+         }
+
+         if (line.startsWith("\\begin{"))
+            latexDepth++;
+         else if (line.startsWith("\\end{"))
+            latexDepth = Math.max(0, latexDepth - 1);
+
+         // setext headings don't start sections, but their identifiers
+         // are de-duplicated along with the others
+         if (i > 0 && !prevBlank && RE_SETEXT_UNDERLINE.test(line))
+         {
+            Match id = RE_HEADING_ID.match(lines[i - 1], 0);
+            if (!addHeadingIds(headingIds,
+                               headingPlainText(lines[i - 1].trim()),
+                               id == null ? null : id.getGroup(1)))
+               return null;
+         }
+
+         if (prevBlank && RE_ATX_HEADING.test(line))
+         {
+            String heading = headingText(line);
+            Match id = RE_HEADING_ID.match(line, 0);
+            if (!addHeadingIds(headingIds,
+                               headingPlainText(heading),
+                               id == null ? null : id.getGroup(1)))
+               return null;
+
+            if (divDepth > 0 || latexDepth > 0)
+               continue;
+
+            headings.add(heading);
+            if (i > sectionStart)
+            {
+               sections.add(joinLines(lines, sectionStart, i));
+               sectionStart = i;
+            }
+         }
+      }
+
+      // unterminated blocks; let pandoc decide what they mean
+      if (fence != null || inComment || inFrontMatter || divDepth > 0)
+         return null;
+
+      sections.add(joinLines(lines, sectionStart, lines.length));
+      if (sections.size() < MIN_SECTIONS)
+         return null;
+
+      // implicit header references ([Heading] links) resolve across sections
+      String lower = markdown.toLowerCase();
+      for (String heading : headings)
+      {
+         if (lower.contains("[" + heading.toLowerCase() + "]"))
+            return null;
+      }
+
+      return sections;
+   }
+
+   // splits the markdown pandoc wrote for a batch at its sentinel paragraphs
+   static String[] splitMarkdownBatch(String markdown)
+   {
+      return markdown.split("\n" + SENTINEL + "\n", -1);
+   }
+
+   private static String headingText(String line)
+   {
+      String text = line.replaceFirst("^#+", "");
+      text = text.replaceFirst("\\{[^}]*\\}\\s*$", "");
+      text = text.replaceFirst("\\s#+\\s*$", "");
+      return text.trim();
+   }
+
+   // approximates the text pandoc sees in a heading's markdown, by dropping
+   // link destinations, attributes, tags and entities
+   private static String headingPlainText(String text)
+   {
+      return text
+            .replaceAll("\\]\\([^)]*\\)", "]")
+            .replaceAll("\\]\\[[^\\]]*\\]", "]")
+            .replaceAll("\\{[^}]*\\}", "")
+            .replaceAll("<[^>]*>", "")
+            .replaceAll("&#?[a-zA-Z0-9]+;", "");
+   }
+
+   // pandoc gives headings that would share an identifier distinct ones
+   // across the whole document ('setup', 'setup-1'), which sections converted
+   // separately can't; records the heading's identifiers, returning false if
+   // one of them may collide with a heading seen before
+   private static boolean addHeadingIds(Set<String> ids, String text, String explicitId)
+   {
+      Set<String> keys = new HashSet<>();
+      keys.add(identifierKey(text));
+      if (!StringUtil.isNullOrEmpty(explicitId))
+         keys.add(identifierKey(explicitId));
+
+      for (String key : keys)
+      {
+         if (ids.contains(key))
+            return false;
+      }
+
+      ids.addAll(keys);
+      return true;
+   }
+
+   // Reduces a heading's text to a key that's equal for any two headings
+   // that pandoc would give the same auto identifier. Pandoc keeps only
+   // letters, digits, '_', '-' and '.' (with spaces as '-'), drops everything
+   // before the first letter, and lowercases what's left, using 'section' if
+   // nothing is; the key additionally drops '_', '-', '.' and spaces, so
+   // that it also covers GitHub-style identifiers.
+   private static final native String identifierKey(String text)
+   /*-{
+      var key = text.toLowerCase()
+         .replace(new RegExp("^[^\\p{L}]+", "u"), "")
+         .replace(new RegExp("[^\\p{L}\\p{N}]", "gu"), "");
+      return key.length > 0 ? key : "section";
+   }-*/;
+
+   private static String joinLines(String[] lines, int start, int end)
+   {
+      StringBuilder builder = new StringBuilder();
+      for (int i = start; i < end; i++)
+      {
+         if (i > start)
+            builder.append('\n');
+         builder.append(lines[i]);
+      }
+      return trimNewlines(builder.toString());
+   }
+
+   private static String trimNewlines(String text)
+   {
+      int start = 0;
+      int end = text.length();
+      while (start < end && text.charAt(start) == '\n')
+         start++;
+      while (end > start && text.charAt(end - 1) == '\n')
+         end--;
+      return text.substring(start, end);
+   }
+
+   // Assembly ----
+
+   private JavaScriptObject assembleAst(List<String> keys)
+   {
+      JsArray<JavaScriptObject> entries = JavaScriptObject.createArray().cast();
+      for (String key : keys)
+         entries.push(astCache_.get(key));
+      return assembleAst(apiVersion_, entries);
+   }
+
+   private String assembleMarkdown(List<String> keys)
+   {
+      List<String> pieces = new ArrayList<>();
+      for (String key : keys)
+      {
+         String piece = markdownCache_.get(key);
+         if (!StringUtil.isNullOrEmpty(piece))
+            pieces.add(piece);
+      }
+      return StringUtil.join(pieces, "\n\n") + "\n";
+   }
+
+   private void putAst(String key, JavaScriptObject entry)
+   {
+      astCache_.put(key, entry);
+   }
+
+   private void putMarkdown(String key, String markdown)
+   {
+      markdownCache_.put(key, markdown);
+   }
+
+   private static String keyPrefix(String kind, String format, JsArrayString options)
+   {
+      return kind + KEY_SEPARATOR + format + KEY_SEPARATOR +
+             options.join(" ") + KEY_SEPARATOR;
+   }
+
+   // Timing ----
+
+   private <T> ServerRequestCallback<T> timed(final ServerRequestCallback<T> callback,
+                                              final String kind,
+                                              final double start,
+                                              final boolean incremental)
+   {
+      return new ServerRequestCallback<T>()
+      {
+         @Override
+         public void onResponseReceived(T response)
+         {
+            callback.onResponseReceived(response);
+            recordTiming(kind, start, incremental, 1, 1);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            callback.onError(error);
+         }
+      };
+   }
+
+   private void recordTiming(String kind,
+                             double start,
+                             boolean incremental,
+                             int sections,
+                             int sectionsConverted)
+   {
+      double end = now();
+
+      Timings timings = getTimings(kind, incremental);
+      timings.count++;
+      timings.totalMs += end - start;
+      timings.sections += sections;
+      timings.sectionsConverted += sectionsConverted;
+
+      measure("rstudio-pandoc-" + kind + (incremental ? "-incremental" : "-full"), start, end);
+   }
+
+   private static final native double now()
+   /*-{
+      return $wnd.performance.now();
+   }-*/;
+
+   private static final native void measure(String name, double start, double end)
+   /*-{
+      try
+      {
+         $wnd.performance.measure(name, { start: start, end: end });
+      }
+      catch (e)
+      {
+      }
+   }-*/;
+
+   // AST helpers ----
+
+   private static final native JsArray<JavaScriptObject> splitAst(JavaScriptObject ast,
+                                                                  JsArrayString options)
+   /*-{
+      var blocks = ast.blocks || [];
+      if (blocks.length < @org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::MIN_SECTIONS)
+         return null;
+
+      // reference links are collected at the end of the document
+      for (var i = 0; i < options.length; i++)
+         if (options[i].indexOf("--reference-links") === 0)
+            return null;
+
+      // the text pandoc derives a heading's identifier from
+      var text = function(inlines)
+      {
+         var result = "";
+         for (var i = 0; i < inlines.length; i++)
+         {
+            var inline = inlines[i];
+            switch (inline.t)
+            {
+            case "Str":
+               result += inline.c;
+               break;
+            case "Space":
+            case "SoftBreak":
+            case "LineBreak":
+               result += " ";
+               break;
+            case "Code":
+            case "Math":
+               result += inline.c[1];
+               break;
+            case "RawInline":
+            case "Note":
+               break;
+            case "Link":
+            case "Image":
+            case "Span":
+            case "Quoted":
+            case "Cite":
+               result += text(inline.c[1]);
+               break;
+            default:
+               if (Array.isArray(inline.c))
+                  result += text(inline.c);
+            }
+         }
+         return result;
+      };
+
+      // headings that could share an identifier are given distinct ones by
+      // pandoc across the whole document (including headings nested in
+      // other blocks), so they can't be converted separately
+      var ids = {};
+      var collides = false;
+      var visit = function(node)
+      {
+         if (collides || node === null || typeof node !== "object")
+            return;
+
+         if (Array.isArray(node))
+         {
+            for (var i = 0; i < node.length; i++)
+               visit(node[i]);
+            return;
+         }
+
+         if (node.t === "Header")
+         {
+            var keys = {};
+            keys[@org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::identifierKey(*)(text(node.c[2]))] = true;
+            if (node.c[1][0])
+               keys[@org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::identifierKey(*)(node.c[1][0])] = true;
+
+            for (var key in keys)
+            {
+               if (ids[key])
+                  collides = true;
+               ids[key] = true;
+            }
+            return;
+         }
+
+         if (node.c !== undefined)
+            visit(node.c);
+      };
+
+      visit(blocks);
+      if (collides)
+         return null;
+
+      var sections = [];
+      var current = null;
+      for (var i = 0; i < blocks.length; i++)
+      {
+         var block = blocks[i];
+         if (current === null || block.t === "Header")
+         {
+            current = [];
+            sections.push(current);
+         }
+         current.push(block);
+      }
+
+      if (sections.length < @org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::MIN_SECTIONS)
+         return null;
+
+      // notes are numbered and written at the end of the document, and a
+      // document containing the sentinel itself can't be batched
+      var json = JSON.stringify(blocks);
+      if (json.indexOf('"t":"Note"') !== -1 ||
+          json.indexOf(@org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::SENTINEL) !== -1)
+         return null;
+
+      return sections;
+   }-*/;
+
+   private static final native JavaScriptObject createBatchAst(JavaScriptObject ast,
+                                                               JsArray<JavaScriptObject> sections,
+                                                               boolean includeMeta)
+   /*-{
+      var blocks = [];
+      for (var i = 0; i < sections.length; i++)
+      {
+         if (i > 0)
+         {
+            blocks.push({
+               t: "Para",
+               c: [{ t: "Str", c: @org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::SENTINEL }]
+            });
+         }
+         Array.prototype.push.apply(blocks, sections[i]);
+      }
+
+      var batch = {};
+      for (var key in ast)
+         batch[key] = ast[key];
+      batch.blocks = blocks;
+      if (!includeMeta)
+         batch.meta = {};
+      return batch;
+   }-*/;
+
+   static final native JsArray<JavaScriptObject> splitAstOnSentinel(JavaScriptObject ast)
+   /*-{
+      var sentinel = @org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::SENTINEL;
+      var groups = [[]];
+      var blocks = ast.blocks || [];
+      for (var i = 0; i < blocks.length; i++)
+      {
+         var block = blocks[i];
+         var isSentinel =
+            block.t === "Para" &&
+            block.c.length === 1 &&
+            block.c[0].t === "Str" &&
+            block.c[0].c === sentinel;
+
+         if (isSentinel)
+            groups.push([]);
+         else
+            groups[groups.length - 1].push(block);
+      }
+      return groups;
+   }-*/;
+
+   private static final native JavaScriptObject createAstEntry(JavaScriptObject blocks,
+                                                               JavaScriptObject meta,
+                                                               JsArrayString headingIds)
+   /*-{
+      // keep only the explicit heading ids that belong to this section
+      var json = JSON.stringify(blocks);
+      var ids = [];
+      for (var i = 0; i < headingIds.length; i++)
+         if (json.indexOf(JSON.stringify(headingIds[i])) !== -1)
+            ids.push(headingIds[i]);
+
+      // stored as JSON so callers are free to mutate what they're given
+      return { blocks: json, meta: meta ? JSON.stringify(meta) : null, heading_ids: ids };
+   }-*/;
+
+   private static final native JavaScriptObject assembleAst(JavaScriptObject apiVersion,
+                                                            JsArray<JavaScriptObject> entries)
+   /*-{
+      var ast = { "pandoc-api-version": apiVersion, meta: {}, blocks: [], heading_ids: [] };
+      for (var i = 0; i < entries.length; i++)
+      {
+         var entry = entries[i];
+         if (entry.meta)
+            ast.meta = JSON.parse(entry.meta);
+         Array.prototype.push.apply(ast.blocks, JSON.parse(entry.blocks));
+         Array.prototype.push.apply(ast.heading_ids, entry.heading_ids);
+      }
+      return ast;
+   }-*/;
+
+   private static final native int astEntryLength(JavaScriptObject entry)
+   /*-{
+      return entry.blocks.length + (entry.meta ? entry.meta.length : 0);
+   }-*/;
+
+   private static final native JavaScriptObject getApiVersion(JavaScriptObject ast)
+   /*-{
+      return ast["pandoc-api-version"];
+   }-*/;
+
+   private static final native JavaScriptObject getMeta(JavaScriptObject ast)
+   /*-{
+      return ast.meta || {};
+   }-*/;
+
+   private static final native JsArrayString getHeadingIds(JavaScriptObject ast)
+   /*-{
+      return ast.heading_ids || [];
+   }-*/;
+
+   private static final native String stringify(JavaScriptObject object)
+   /*-{
+      return JSON.stringify(object);
+   }-*/;
+
+   // Cache storage ----
+
+   // bounded by both entry count and (approximate) size; keys are counted as
+   // well as values since they hold a section's content too
+   abstract static class LruCache<V> extends LinkedHashMap<String, V>
+   {
+      LruCache(int maxEntries, int maxBytes)
+      {
+         super(16, 0.75f, true);
+         maxEntries_ = maxEntries;
+         maxBytes_ = maxBytes;
+      }
+
+      // length of the value, in characters
+      protected abstract int length(V value);
+
+      @Override
+      public V put(String key, V value)
+      {
+         V previous = super.put(key, value);
+         if (previous != null)
+            bytes_ -= bytes(key, previous);
+         bytes_ += bytes(key, value);
+
+         // evict least recently used entries, always keeping the newest
+         Iterator<Map.Entry<String, V>> entries = entrySet().iterator();
+         while (size() > 1 && (size() > maxEntries_ || bytes_ > maxBytes_))
+         {
+            Map.Entry<String, V> eldest = entries.next();
+            bytes_ -= bytes(eldest.getKey(), eldest.getValue());
+            entries.remove();
+         }
+
+         return previous;
+      }
+
+      long getBytes()
+      {
+         return bytes_;
+      }
+
+      // strings are UTF-16 in the browser
+      private long bytes(String key, V value)
+      {
+         return 2L * (key.length() + length(value));
+      }
+
+      private final int maxEntries_;
+      private final int maxBytes_;
+      private long bytes_;
+   }
+
+   private final PanmirrorPandocServerOperations server_;
+   private final LruCache<JavaScriptObject> astCache_ =
+         new LruCache<JavaScriptObject>(MAX_ENTRIES, MAX_BYTES)
+   {
+      @Override
+      protected int length(JavaScriptObject entry)
+      {
+         return astEntryLength(entry);
+      }
+   };
+   private final LruCache<String> markdownCache_ =
+         new LruCache<String>(MAX_ENTRIES, MAX_BYTES)
+   {
+      @Override
+      protected int length(String markdown)
+      {
+         return markdown.length();
+      }
+   };
+   private final Map<String, Timings> timings_ = new LinkedHashMap<>();
+   private JavaScriptObject apiVersion_;
+
+   public static final String KIND_MARKDOWN_TO_AST = "markdown-to-ast";
+   public static final String KIND_AST_TO_MARKDOWN = "ast-to-markdown";
+
+   private static final String KEY_SEPARATOR = "\u001F";
+
+   // a paragraph that can't occur in a real document, used to separate the
+   // sections of a batched conversion
+   static final String SENTINEL = "RSTUDIOSECTIONBOUNDARY7f3a91c2";
+
+   private static final int MIN_INCREMENTAL_LENGTH = 16 * 1024;
+   private static final int MIN_SECTIONS = 3;
+   private static final int MAX_ENTRIES = 2000;
+   private static final int MAX_BYTES = 32 * 1024 * 1024;
+
+   private static final Pattern RE_FENCE = Pattern.create("^\\s{0,3}(`{3,}|~{3,})");
+   private static final Pattern RE_ATX_HEADING = Pattern.create("^#{1,6}(\\s|$)");
+   private static final Pattern RE_SETEXT_UNDERLINE = Pattern.create("^(=+|-+)\\s*$");
+   private static final Pattern RE_HEADING_ID = Pattern.create("\\{[^}]*#([^\\s}]+)[^}]*\\}\\s*$");
+   private static final Pattern RE_HTML_BLOCK = Pattern.create("^<[a-zA-Z]");
+   private static final Pattern RE_REFERENCE_DEFINITION = Pattern.create("^\\s{0,3}\\[[^\\]]+\\]:\\s");
+}
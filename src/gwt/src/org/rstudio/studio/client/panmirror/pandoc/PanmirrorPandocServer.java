@@ -41,9 +41,11 @@ public class PanmirrorPandocServer {
    }
    
    @Inject
-   void initialize(PanmirrorPandocServerOperations server)
+   void initialize(PanmirrorPandocServerOperations server,
+                   PanmirrorPandocBlockCache blockCache)
    {
       server_ = server;
+      blockCache_ = blockCache;
    }
    
    public Promise<JavaScriptObject> getCapabilities()
@@ -63,7 +65,8 @@ public class PanmirrorPandocServer {
       
       return new Promise<>((ResolveCallbackFn<JavaScriptObject> resolve, RejectCallbackFn reject) -> {
          
-         server_.pandocMarkdownToAst(
+         // unchanged sections are served from the cache; see PanmirrorPandocBlockCache
+         blockCache_.markdownToAst(
             input, format, options, 
             new PromiseServerRequestCallback<>(resolve, reject)
          );
@@ -73,7 +76,7 @@ public class PanmirrorPandocServer {
    public Promise<String> astToMarkdown(JavaScriptObject ast, String format, JsArrayString options)
    {
       return new Promise<>((ResolveCallbackFn<String> resolve, RejectCallbackFn reject) -> {
-         server_.pandocAstToMarkdown(
+         blockCache_.astToMarkdown(
             ast, format, options, 
             new PromiseServerRequestCallback<>(resolve, reject)
          );
@@ -126,5 +129,6 @@ public class PanmirrorPandocServer {
    }
 
    private PanmirrorPandocServerOperations server_;
+   private PanmirrorPandocBlockCache blockCache_;
    private static final PanmirrorConstants constants_ = GWT.create(PanmirrorConstants.class);
 }
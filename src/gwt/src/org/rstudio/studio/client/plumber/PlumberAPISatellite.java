@@ -17,6 +17,7 @@ package org.rstudio.studio.client.plumber;
 import org.rstudio.studio.client.application.ApplicationUncaughtExceptionHandler;
 import org.rstudio.studio.client.common.satellite.Satellite;
 import org.rstudio.studio.client.common.satellite.SatelliteApplication;
+import org.rstudio.studio.client.common.satellite.SatelliteEventFilter;
 import org.rstudio.studio.client.plumber.ui.PlumberAPIView;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
@@ -41,4 +42,10 @@ public class PlumberAPISatellite extends SatelliteApplication
    {
       super(NAME, view, satellite, pAceThemes, pUserPrefs, exHandler, commands);
    }
+
+   @Override
+   protected SatelliteEventFilter getEventFilter()
+   {
+      return SatelliteEventFilter.allExceptOutputStreams();
+   }
 }
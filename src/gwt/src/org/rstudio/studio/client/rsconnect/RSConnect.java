@@ -62,8 +62,7 @@ import org.rstudio.studio.client.rsconnect.model.RSConnectServerOperations;
 import org.rstudio.studio.client.rsconnect.model.RenderedDocPreview;
 import org.rstudio.studio.client.rsconnect.model.RmdPublishDetails;
 import org.rstudio.studio.client.rsconnect.ui.RSAccountConnector;
-import org.rstudio.studio.client.rsconnect.ui.RSConnectDeployDialog;
-import org.rstudio.studio.client.rsconnect.ui.RSConnectPublishWizard;
+import org.rstudio.studio.client.rsconnect.ui.RSConnectPublishDialogs;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.commands.Commands;
@@ -117,7 +116,8 @@ public class RSConnect implements SessionInitEvent.Handler,
                     RSAccountConnector connector,
                     Provider<UserPrefs> pUserPrefs,
                     Provider<UserState> pUserState,
-                    PlotPublishMRUList plotMru)
+                    PlotPublishMRUList plotMru,
+                    RSConnectPublishDialogs.Shim publishDialogs)
    {
       commands_ = commands;
       display_ = display;
@@ -131,6 +131,7 @@ public class RSConnect implements SessionInitEvent.Handler,
       pUserPrefs_ = pUserPrefs;
       pUserState_ = pUserState;
       plotMru_ = plotMru;
+      publishDialogs_ = publishDialogs;
 
       binder.bind(commands, this);
 
@@ -538,19 +539,16 @@ public class RSConnect implements SessionInitEvent.Handler,
    private void publishAsFiles(RSConnectActionEvent event,
          RSConnectPublishSource source)
    {
-      RSConnectDeployDialog dialog =
-            new RSConnectDeployDialog(
+      publishDialogs_.showDeployDialog(
                       event.getContentType(),
-                      server_, this, display_,
+                      this,
                       source,
                       event.getFromPrevious());
-      dialog.showModal();
    }
 
    private void publishWithWizard(final RSConnectPublishInput input)
    {
-      RSConnectPublishWizard wizard =
-            new RSConnectPublishWizard(input,
+      publishDialogs_.showPublishWizard(input,
                   new ProgressOperationWithInput<RSConnectPublishResult>()
             {
                @Override
@@ -573,7 +571,6 @@ public class RSConnect implements SessionInitEvent.Handler,
                   }
                }
             });
-      wizard.showModal();
    }
 
    @Override
@@ -1310,6 +1307,7 @@ public class RSConnect implements SessionInitEvent.Handler,
    private final Provider<UserPrefs> pUserPrefs_;
    private final Provider<UserState> pUserState_;
    private final PlotPublishMRUList plotMru_;
+   private final RSConnectPublishDialogs.Shim publishDialogs_;
 
    private boolean launchBrowser_ = false;
    private boolean sessionInited_ = false;
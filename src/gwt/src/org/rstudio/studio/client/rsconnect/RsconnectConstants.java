@@ -1520,4 +1520,31 @@ public interface RsconnectConstants extends com.google.gwt.i18n.client.Messages{
     @DefaultMessage("No environment variables are currently available.")
     String noEnvVarsAvailable();
     
+
+    /**
+     * Translated "Show {0} more...".
+     *
+     * @return translated "Show {0} more..."
+     */
+    @DefaultMessage("Show {0} more...")
+    @Key("showMoreFiles")
+    String showMoreFiles(int count);
+
+    /**
+     * Translated "Show only files changed since last publish ({0})".
+     *
+     * @return translated "Show only files changed since last publish ({0})"
+     */
+    @DefaultMessage("Show only files changed since last publish ({0})")
+    @Key("changedFilesOnly")
+    String changedFilesOnly(int count);
+
+    /**
+     * Translated "{0}, modified {1}".
+     *
+     * @return translated "{0}, modified {1}"
+     */
+    @DefaultMessage("{0}, modified {1}")
+    @Key("fileInfoTitle")
+    String fileInfoTitle(String size, String modified);
 }
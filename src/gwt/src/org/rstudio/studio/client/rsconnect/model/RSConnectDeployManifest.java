@@ -0,0 +1,334 @@
+/*
+ * RSConnectDeployManifest.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rsconnect.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import com.google.gwt.core.client.JsArrayNumber;
+
+/**
+ * The files offered for deployment, whether each is checked (deployed) or
+ * not, and the directory tree they're shown in. Entries are paths relative
+ * to the deployment directory; a path ending in "/" is a directory whose
+ * contents are deployed as a whole.
+ */
+public class RSConnectDeployManifest
+{
+   public static class Entry
+   {
+      private Entry(String path)
+      {
+         path_ = path;
+      }
+
+      public String getPath()
+      {
+         return path_;
+      }
+
+      public boolean isChecked()
+      {
+         return checked_;
+      }
+
+      public void setChecked(boolean checked)
+      {
+         checked_ = checked;
+      }
+
+      // the primary file can't be unchecked
+      public boolean isPrimary()
+      {
+         return primary_;
+      }
+
+      // size in bytes, or -1 if unknown
+      public double getSize()
+      {
+         return size_;
+      }
+
+      // modification time in seconds since the epoch, or 0 if unknown
+      public double getModified()
+      {
+         return modified_;
+      }
+
+      private final String path_;
+      private boolean checked_ = true;
+      private boolean primary_ = false;
+      private double size_ = -1;
+      private double modified_ = 0;
+   }
+
+   /**
+    * A node in the directory tree; either an entry, or a directory that
+    * contains entries.
+    */
+   public static class Node
+   {
+      private Node(String name, String path, Entry entry)
+      {
+         name_ = name;
+         path_ = path;
+         entry_ = entry;
+      }
+
+      public String getName()
+      {
+         return name_;
+      }
+
+      public String getPath()
+      {
+         return path_;
+      }
+
+      // the entry this node shows, or null for a directory
+      public Entry getEntry()
+      {
+         return entry_;
+      }
+
+      public boolean isDirectory()
+      {
+         return entry_ == null;
+      }
+
+      // directories first, then entries, each in the order they were added
+      public List<Node> getChildren()
+      {
+         ArrayList<Node> children = new ArrayList<>(dirs_.size() + entries_.size());
+         children.addAll(dirs_);
+         children.addAll(entries_);
+         return children;
+      }
+
+      private final String name_;
+      private final String path_;
+      private final Entry entry_;
+      private final ArrayList<Node> dirs_ = new ArrayList<>();
+      private final ArrayList<Node> entries_ = new ArrayList<>();
+   }
+
+   /**
+    * Creates a manifest.
+    *
+    * @param files The files to deploy
+    * @param sizes The sizes of the files, if known (may be null)
+    * @param modified The modification times of the files, if known (may be
+    *    null)
+    * @param additionalFiles Files that were added to a previous deployment by
+    *    hand (may be null)
+    * @param ignoredFiles Files that were excluded from a previous deployment
+    *    (may be null)
+    */
+   public RSConnectDeployManifest(List<String> files,
+                                  JsArrayNumber sizes,
+                                  JsArrayNumber modified,
+                                  List<String> additionalFiles,
+                                  List<String> ignoredFiles)
+   {
+      HashSet<String> ignored = new HashSet<>();
+      if (ignoredFiles != null)
+         ignored.addAll(ignoredFiles);
+
+      // the additional files are added separately below, after the others
+      HashSet<String> additional = new HashSet<>();
+      if (additionalFiles != null)
+         additional.addAll(additionalFiles);
+
+      for (int i = 0; i < files.size(); i++)
+      {
+         String path = files.get(i);
+         if (additional.contains(path))
+            continue;
+
+         Entry entry = add(path, !ignored.contains(path));
+         if (entry == null)
+            continue;
+
+         if (sizes != null && i < sizes.length())
+            entry.size_ = sizes.get(i);
+         if (modified != null && i < modified.length())
+            entry.modified_ = modified.get(i);
+      }
+
+      if (additionalFiles != null)
+      {
+         for (String path: additionalFiles)
+            add(path, true);
+      }
+   }
+
+   /**
+    * Adds an entry.
+    *
+    * @return The new entry, or null if there's already an entry for the path
+    */
+   public Entry add(String path, boolean checked)
+   {
+      if (entries_.containsKey(path))
+         return null;
+
+      Entry entry = new Entry(path);
+      entry.checked_ = checked;
+      entries_.put(path, entry);
+      order_.add(entry);
+      addToTree(entry);
+      return entry;
+   }
+
+   public boolean contains(String path)
+   {
+      return entries_.containsKey(path);
+   }
+
+   public Entry getEntry(String path)
+   {
+      return entries_.get(path);
+   }
+
+   public int size()
+   {
+      return order_.size();
+   }
+
+   /**
+    * @return The entries, in the order they're deployed
+    */
+   public List<Entry> getEntries()
+   {
+      return order_;
+   }
+
+   /**
+    * @return The paths of the entries that are (or aren't) checked
+    */
+   public ArrayList<String> getPaths(boolean checked)
+   {
+      ArrayList<String> paths = new ArrayList<>();
+      for (Entry entry: order_)
+      {
+         if (entry.checked_ == checked)
+            paths.add(entry.path_);
+      }
+      return paths;
+   }
+
+   /**
+    * Marks the entry for the given path as the primary file, which is always
+    * deployed, and listed first.
+    */
+   public void setPrimary(String path)
+   {
+      Entry entry = entries_.get(path);
+      if (entry == null)
+         return;
+
+      entry.primary_ = true;
+      entry.checked_ = true;
+      order_.remove(entry);
+      order_.add(0, entry);
+
+      Node parent = parentOf(entry.path_);
+      for (int i = 0; i < parent.entries_.size(); i++)
+      {
+         if (parent.entries_.get(i).entry_ == entry)
+         {
+            parent.entries_.add(0, parent.entries_.remove(i));
+            break;
+         }
+      }
+   }
+
+   public Node getRoot()
+   {
+      return root_;
+   }
+
+   /**
+    * @return Whether the size and modification time of the entries are known
+    */
+   public boolean hasFileInfo()
+   {
+      for (Entry entry: order_)
+      {
+         if (entry.modified_ > 0)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Whether an entry was changed after the given time; an entry whose
+    * modification time isn't known is assumed to have changed.
+    */
+   public static boolean isChangedSince(Entry entry, double since)
+   {
+      return entry.modified_ <= 0 || entry.modified_ > since;
+   }
+
+   /**
+    * @return The entries that were changed after the given time
+    */
+   public HashSet<Entry> getChangedSince(double since)
+   {
+      HashSet<Entry> changed = new HashSet<>();
+      for (Entry entry: order_)
+      {
+         if (isChangedSince(entry, since))
+            changed.add(entry);
+      }
+      return changed;
+   }
+
+   private void addToTree(Entry entry)
+   {
+      Node parent = parentOf(entry.path_);
+      String name = entry.path_;
+      int slash = name.lastIndexOf('/', name.length() - 2);
+      if (slash >= 0)
+         name = name.substring(slash + 1);
+      parent.entries_.add(new Node(name, entry.path_, entry));
+   }
+
+   // finds (creating as needed) the directory node containing the given path
+   private Node parentOf(String path)
+   {
+      int slash = path.lastIndexOf('/', path.length() - 2);
+      if (slash < 0)
+         return root_;
+
+      String dirPath = path.substring(0, slash);
+      Node dir = dirs_.get(dirPath);
+      if (dir == null)
+      {
+         Node parent = parentOf(dirPath);
+         dir = new Node(dirPath.substring(dirPath.lastIndexOf('/') + 1), dirPath, null);
+         parent.dirs_.add(dir);
+         dirs_.put(dirPath, dir);
+      }
+      return dir;
+   }
+
+   private final HashMap<String, Entry> entries_ = new HashMap<>();
+   private final ArrayList<Entry> order_ = new ArrayList<>();
+   private final HashMap<String, Node> dirs_ = new HashMap<>();
+   private final Node root_ = new Node("", "", null);
+}
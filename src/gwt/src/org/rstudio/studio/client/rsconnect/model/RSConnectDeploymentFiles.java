@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.rsconnect.model;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayNumber;
 import com.google.gwt.core.client.JsArrayString;
 
 public class RSConnectDeploymentFiles extends JavaScriptObject
@@ -27,6 +28,17 @@ public class RSConnectDeploymentFiles extends JavaScriptObject
       return this.dir_list;
    }-*/;
 
+   // sizes (in bytes) of the entries in the dir list
+   public final native JsArrayNumber getFileSizes() /*-{
+      return this.file_sizes || [];
+   }-*/;
+
+   // modification times (in seconds since the epoch) of the entries in the
+   // dir list
+   public final native JsArrayNumber getFileMtimes() /*-{
+      return this.file_mtimes || [];
+   }-*/;
+
    public final native int getDirSize() /*-{
       return this.dir_size;
    }-*/;
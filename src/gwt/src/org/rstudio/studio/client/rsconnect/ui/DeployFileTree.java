@@ -0,0 +1,218 @@
+/*
+ * DeployFileTree.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rsconnect.ui;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.rsconnect.RsconnectConstants;
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeployManifest;
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeployManifest.Entry;
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeployManifest.Node;
+
+import com.google.gwt.aria.client.ExpandedValue;
+import com.google.gwt.aria.client.Roles;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.dom.client.Style.FontWeight;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.Label;
+
+/**
+ * Shows the entries of a deployment manifest as a tree of directories. The
+ * contents of a directory are only rendered when it's first expanded, and
+ * long lists of entries are rendered a chunk at a time, so that manifests
+ * with thousands of files don't have to create a widget per file up front.
+ */
+public class DeployFileTree extends Composite
+{
+   public DeployFileTree()
+   {
+      root_ = new FlowPanel();
+      Roles.getTreeRole().set(root_.getElement());
+      initWidget(root_);
+   }
+
+   public void setManifest(RSConnectDeployManifest manifest)
+   {
+      manifest_ = manifest;
+      expanded_.clear();
+      changed_ = null;
+      refresh();
+   }
+
+   /**
+    * Shows only the entries changed after the given time, or all entries if
+    * the time is negative.
+    */
+   public void setChangedSince(double since)
+   {
+      if (manifest_ == null)
+         return;
+
+      changed_ = since < 0 ? null : manifest_.getChangedSince(since);
+      refresh();
+   }
+
+   /**
+    * Renders the tree again, e.g. after entries have been added to the
+    * manifest or (un)checked.
+    */
+   public void refresh()
+   {
+      root_.clear();
+      if (manifest_ != null)
+         renderChildren(manifest_.getRoot(), root_, 0);
+   }
+
+   // renders a directory's children, starting at the given index
+   private void renderChildren(Node dir, FlowPanel container, int start)
+   {
+      List<Node> children = dir.getChildren();
+
+      int rendered = 0;
+      int i;
+      for (i = start; i < children.size() && rendered < CHUNK_SIZE; i++)
+      {
+         Node child = children.get(i);
+         if (!isVisible(child))
+            continue;
+
+         container.add(child.isDirectory() ?
+               createDirectory(child) :
+               createEntry(child));
+         rendered++;
+      }
+
+      // leave the rest for later, if there's any left to show
+      int remaining = 0;
+      for (int j = i; j < children.size(); j++)
+      {
+         if (isVisible(children.get(j)))
+            remaining++;
+      }
+      if (remaining == 0)
+         return;
+
+      final int next = i;
+      Label more = new Label(constants_.showMoreFiles(remaining));
+      more.addStyleName(RSConnectDeploy.RESOURCES.style().fileTreeMore());
+      more.addClickHandler(evt ->
+      {
+         container.remove(more);
+         renderChildren(dir, container, next);
+      });
+      container.add(more);
+   }
+
+   private FlowPanel createDirectory(Node dir)
+   {
+      FlowPanel panel = new FlowPanel();
+      Label header = new Label();
+      header.addStyleName(RSConnectDeploy.RESOURCES.style().fileTreeDir());
+      Roles.getTreeitemRole().set(header.getElement());
+      panel.add(header);
+
+      FlowPanel children = new FlowPanel();
+      children.addStyleName(RSConnectDeploy.RESOURCES.style().fileTreeChildren());
+      Roles.getGroupRole().set(children.getElement());
+      panel.add(children);
+
+      // when showing changed entries, there are few enough that their
+      // directories can start out expanded
+      boolean expanded = changed_ != null || expanded_.contains(dir.getPath());
+      setExpanded(dir, header, children, expanded);
+
+      header.addClickHandler(evt ->
+      {
+         boolean expand = !children.isVisible();
+         if (expand)
+            expanded_.add(dir.getPath());
+         else
+            expanded_.remove(dir.getPath());
+         setExpanded(dir, header, children, expand);
+      });
+
+      return panel;
+   }
+
+   // shows or hides a directory's contents; expanded_ only tracks the
+   // directories the user expanded, which stay expanded across refreshes
+   private void setExpanded(Node dir,
+                            Label header,
+                            FlowPanel children,
+                            boolean expanded)
+   {
+      header.setText((expanded ? "\u25BE " : "\u25B8 ") + dir.getName() + "/");
+      Roles.getTreeitemRole().setAriaExpandedState(header.getElement(),
+            ExpandedValue.of(expanded));
+
+      // render the directory's contents the first time it's expanded
+      if (expanded && children.getWidgetCount() == 0)
+         renderChildren(dir, children, 0);
+      children.setVisible(expanded);
+   }
+
+   private DirEntryCheckBox createEntry(Node node)
+   {
+      Entry entry = node.getEntry();
+      DirEntryCheckBox check = new DirEntryCheckBox(entry.getPath(), node.getName());
+      Roles.getTreeitemRole().set(check.getElement());
+      check.setValue(entry.isChecked());
+      check.addValueChangeHandler(evt -> entry.setChecked(evt.getValue()));
+
+      if (entry.isPrimary())
+      {
+         // don't allow the user to unselect the primary file
+         check.setEnabled(false);
+         check.getElement().getStyle().setFontWeight(FontWeight.BOLD);
+      }
+
+      if (entry.getSize() >= 0 && entry.getModified() > 0)
+      {
+         check.setTitle(constants_.fileInfoTitle(
+               StringUtil.formatFileSize((long)entry.getSize()),
+               StringUtil.friendlyDateTime(new Date((long)(entry.getModified() * 1000)))));
+      }
+
+      return check;
+   }
+
+   private boolean isVisible(Node node)
+   {
+      if (changed_ == null)
+         return true;
+
+      if (!node.isDirectory())
+         return changed_.contains(node.getEntry());
+
+      for (Node child: node.getChildren())
+      {
+         if (isVisible(child))
+            return true;
+      }
+      return false;
+   }
+
+   private final FlowPanel root_;
+   private final HashSet<String> expanded_ = new HashSet<>();
+   private RSConnectDeployManifest manifest_;
+   private HashSet<Entry> changed_;
+
+   private static final int CHUNK_SIZE = 100;
+   private static final RsconnectConstants constants_ = GWT.create(RsconnectConstants.class);
+}
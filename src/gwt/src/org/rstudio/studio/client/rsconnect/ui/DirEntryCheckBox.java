@@ -18,6 +18,7 @@ import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.studio.client.RStudioGinjector;
 
+import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.user.client.ui.AbstractImagePrototype;
@@ -27,6 +28,15 @@ import com.google.gwt.user.client.ui.Composite;
 public class DirEntryCheckBox extends Composite
 {
    public DirEntryCheckBox(String path)
+   {
+      this(path, null);
+   }
+
+   /**
+    * Creates a check box for a path, labeled with the given text (or with
+    * the path if the text is null).
+    */
+   public DirEntryCheckBox(String path, String label)
    {
       // create the appropriate filesystem object for the path
       FileSystemItem fsi = null;
@@ -49,12 +59,17 @@ public class DirEntryCheckBox extends Composite
       hb.append(AbstractImagePrototype.create(icon).getSafeHtml());
       
       // insert the file/dir name into the checkbox
-      hb.appendEscaped(path_);
+      hb.appendEscaped(label == null ? path_ : label);
       checkbox_ = new CheckBox(hb.toSafeHtml());
       
       initWidget(checkbox_);
    }
    
+   public void addValueChangeHandler(ValueChangeHandler<Boolean> handler)
+   {
+      checkbox_.addValueChangeHandler(handler);
+   }
+
    public boolean getValue()
    {
       return checkbox_.getValue();
@@ -46,6 +46,7 @@ import org.rstudio.studio.client.rsconnect.model.RSConnectAccount;
 import org.rstudio.studio.client.rsconnect.model.RSConnectAppName;
 import org.rstudio.studio.client.rsconnect.model.RSConnectApplicationInfo;
 import org.rstudio.studio.client.rsconnect.model.RSConnectApplicationResult;
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeployManifest;
 import org.rstudio.studio.client.rsconnect.model.RSConnectDeploymentFiles;
 import org.rstudio.studio.client.rsconnect.model.RSConnectDeploymentRecord;
 import org.rstudio.studio.client.rsconnect.model.RSConnectPublishResult;
@@ -61,10 +62,10 @@ import com.google.gwt.aria.client.Id;
 import com.google.gwt.aria.client.Roles;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayNumber;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
-import com.google.gwt.dom.client.Style.FontWeight;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.ChangeEvent;
 import com.google.gwt.event.dom.client.ChangeHandler;
@@ -79,6 +80,7 @@ import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.Anchor;
+import com.google.gwt.user.client.ui.CheckBox;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.gwt.user.client.ui.HorizontalPanel;
@@ -116,6 +118,9 @@ public class RSConnectDeploy extends Composite
       String descriptionPanel();
       String envVarsLabel();
       String fileList();
+      String fileTreeChildren();
+      String fileTreeDir();
+      String fileTreeMore();
       String firstControlLabel();
       String gridControl();
       String launchCheck();
@@ -292,9 +297,10 @@ public class RSConnectDeploy extends Composite
       nameLabel_.setFor(appName_.getTextBox());
       accountList_.setLabelledBy(accountListLabel_.getElement());
       ElementIds.assignElementId(fileListLabel_, ElementIds.RSC_FILES_LIST_LABEL);
-      Roles.getListboxRole().set(fileListPanel_.getElement());
-      Roles.getListboxRole().setAriaLabelledbyProperty(fileListPanel_.getElement(),
+      Roles.getTreeRole().setAriaLabelledbyProperty(fileTree_.getElement(),
          Id.of(fileListLabel_.getElement()));
+      changedOnly_.addValueChangeHandler(evt ->
+         fileTree_.setChangedSince(evt.getValue() ? fromPrevious_.getWhen() : -1));
 
       if (asWizard)
       {
@@ -762,64 +768,42 @@ public class RSConnectDeploy extends Composite
    // Private methods --------------------------------------------------------
    
    private void setFileList(ArrayList<String> files,
+         JsArrayNumber sizes, JsArrayNumber modified,
          ArrayList<String> additionalFiles, ArrayList<String> ignoredFiles)
    {
-      fileChecks_ = new ArrayList<>();
-      
-      // clear existing file list
-      fileListPanel_.clear(); 
-      for (int i = 0; i < files.size(); i++)
-      {
-         boolean checked = true;
-         boolean add = true;
-         
-         // if this file is marked ignored, uncheck it
-         if (ignoredFiles != null)
-         {
-            for (int j = 0; j < ignoredFiles.size(); j++)
-            {
-               if (ignoredFiles.get(j) == files.get(i))
-               {
-                  checked = false; 
-                  break;
-               }
-            }
-         }
+      // ignored files start out unchecked; additional files are listed after
+      // the others
+      manifest_ = new RSConnectDeployManifest(files, sizes, modified,
+            additionalFiles, ignoredFiles);
+      fileTree_.setManifest(manifest_);
+      updateChangedOnly();
 
-         // if this file is marked additional, don't add it twice (we're about
-         // to add the additional files separately below)
-         if (additionalFiles != null)
-         {
-            for (int j = 0; j < additionalFiles.size(); j++)
-            {
-               if (additionalFiles.get(j) == files.get(i))
-               {
-                  add = false; 
-                  break;
-               }
-            }
-         }
-
-         if (add)
-         {
-            addFile(files.get(i), checked);
-         }
+      // hide check/uncheck all button if there are only a few files
+      if (manifest_.size() < 3)
+      {
+         hideCheckUncheckAllButton();
       }
+   }
 
-      // add any additional files 
-      if (additionalFiles != null)
+   // offers to show only the files changed since the previous deployment,
+   // if we know what those are
+   private void updateChangedOnly()
+   {
+      boolean show = manifest_ != null &&
+                     manifest_.hasFileInfo() &&
+                     fromPrevious_ != null &&
+                     fromPrevious_.getWhen() > 0;
+      if (show)
       {
-         for (int i = 0; i < additionalFiles.size(); i++)
-         {
-            addFile(additionalFiles.get(i), true);
-         }
+         int changed = manifest_.getChangedSince(fromPrevious_.getWhen()).size();
+         changedOnly_.setText(constants_.changedFilesOnly(changed));
       }
-      
-      // hide check/uncheck all button if there are only a few files
-      if (fileChecks_.size() < 3)
+      else if (changedOnly_.getValue())
       {
-         hideCheckUncheckAllButton();
+         changedOnly_.setValue(false);
+         fileTree_.setChangedSince(-1);
       }
+      changedOnly_.setVisible(show);
    }
    
    private RSConnectAccount getSelectedAccount()
@@ -1106,6 +1090,8 @@ public class RSConnectDeploy extends Composite
                      }
                      setFileList(
                            JsArrayUtil.fromJsArrayString(files.getDirList()), 
+                           files.getFileSizes(),
+                           files.getFileMtimes(),
                            fromPrevious_ != null ?
                                  fromPrevious_.getAdditionalFiles() : null, 
                            fromPrevious_ != null ? 
@@ -1138,25 +1124,21 @@ public class RSConnectDeploy extends Composite
 
    private void addFile(String path, boolean checked)
    {
-      DirEntryCheckBox fileCheck = new DirEntryCheckBox(path);
-      fileCheck.setValue(checked);
-      fileListPanel_.add(fileCheck);
-      fileChecks_.add(fileCheck);
+      if (manifest_ == null)
+      {
+         manifest_ = new RSConnectDeployManifest(new ArrayList<>(),
+               null, null, null, null);
+         fileTree_.setManifest(manifest_);
+      }
+      manifest_.add(path, checked);
+      fileTree_.refresh();
    }
    
    private ArrayList<String> getCheckedFileList(boolean checked)
    {
-      ArrayList<String> files = new ArrayList<>();
-      if (fileChecks_ == null)
-         return files;
-      for (int i = 0; i < fileChecks_.size(); i++)
-      {
-         if (fileChecks_.get(i).getValue() == checked)
-         {
-            files.add(fileChecks_.get(i).getPath());
-         }
-      }
-      return files;
+      if (manifest_ == null)
+         return new ArrayList<>();
+      return manifest_.getPaths(checked);
    }
    
    private void onAddFileClick()
@@ -1186,15 +1168,14 @@ public class RSConnectDeploy extends Composite
                      else
                      {
                         // see if the file is already in the list (we don't 
-                        // want to duplicate an existing entry)
-                        ArrayList<String> files = getFileList();
-                        for (String file: files)
+                        // want to duplicate an existing entry, but we do
+                        // want to deploy it)
+                        if (manifest_ != null && manifest_.contains(path))
                         {
-                           if (file == path)
-                           {
-                              indicator.onCompleted();
-                              return;
-                           }
+                           manifest_.getEntry(path).setChecked(true);
+                           fileTree_.refresh();
+                           indicator.onCompleted();
+                           return;
                         }
                         addFileToList(path);
                         filesAddedManually_.add(path);
@@ -1207,23 +1188,12 @@ public class RSConnectDeploy extends Composite
 
    private void setPrimaryFile(String path)
    {
-      if (fileChecks_ == null)
+      if (manifest_ == null)
          return;
 
-      for (int i = 0; i < fileChecks_.size(); i++)
-      {
-         DirEntryCheckBox fileCheck = fileChecks_.get(i);
-         if (fileCheck.getPath() == path)
-         {
-            // don't allow the user to unselect the primary file
-            fileCheck.setEnabled(false);
-            
-            // make this bold and move it to the top
-            fileCheck.getElement().getStyle().setFontWeight(FontWeight.BOLD);
-            fileListPanel_.remove(fileCheck);
-            fileListPanel_.insert(fileCheck, 0);
-         }
-      }
+      // the primary file can't be unchecked, and is listed first
+      manifest_.setPrimary(path);
+      fileTree_.refresh();
    }
    
    private void applySource()
@@ -1388,23 +1358,29 @@ public class RSConnectDeploy extends Composite
 
       // pretend we're creating a brand-new app
       fromPrevious_ = null;
+      updateChangedOnly();
       appEnvVars_.clear();
    }
    
    private void checkUncheckAll()
    {
       allChecked_ = !allChecked_;
-      for (DirEntryCheckBox box: fileChecks_)
+      if (manifest_ != null)
       {
-         // don't toggle state for disabled boxes, or common Shiny .R filenames
-         String file = box.getPath().toLowerCase();
-         if (box.isEnabled() &&
-             file != "ui.r" &&
-             file != "server.r" &&
-             file != "app.r")
+         for (RSConnectDeployManifest.Entry entry: manifest_.getEntries())
          {
-            box.setValue(allChecked_);
+            // don't toggle state for the primary file, or common Shiny .R
+            // filenames
+            String file = entry.getPath().toLowerCase();
+            if (!entry.isPrimary() &&
+                file != "ui.r" &&
+                file != "server.r" &&
+                file != "app.r")
+            {
+               entry.setChecked(allChecked_);
+            }
          }
+         fileTree_.refresh();
       }
       checkUncheckAllButton_.setText(allChecked_ ? constants_.uncheckAll() : constants_.checkAll());
    }
@@ -1535,7 +1511,8 @@ public class RSConnectDeploy extends Composite
    @UiField Label envVarsLabel_;
    @UiField ThemedButton checkUncheckAllButton_;
    @UiField ThemedButton previewButton_;
-   @UiField VerticalPanel fileListPanel_;
+   @UiField DeployFileTree fileTree_;
+   @UiField CheckBox changedOnly_;
    @UiField VerticalPanel filePanel_;
    @UiField VerticalPanel descriptionPanel_;
    @UiField HorizontalPanel publishFromPanel_;
@@ -1546,7 +1523,7 @@ public class RSConnectDeploy extends Composite
    @UiField(provided=true) RSConnectAccountList accountList_;
    @UiField(provided=true) AppNameTextbox appName_;
    
-   private ArrayList<DirEntryCheckBox> fileChecks_;
+   private RSConnectDeployManifest manifest_;
    private ArrayList<String> filesAddedManually_ = new ArrayList<>();
    private List<String> appEnvVars_ = new ArrayList<String>();
    
@@ -0,0 +1,98 @@
+/*
+ * RSConnectPublishDialogs.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rsconnect.ui;
+
+import org.rstudio.core.client.AsyncShim;
+import org.rstudio.core.client.widget.ProgressOperationWithInput;
+import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.common.GlobalDisplay;
+import org.rstudio.studio.client.rsconnect.RSConnect;
+import org.rstudio.studio.client.rsconnect.RsconnectConstants;
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeploymentRecord;
+import org.rstudio.studio.client.rsconnect.model.RSConnectPublishInput;
+import org.rstudio.studio.client.rsconnect.model.RSConnectPublishResult;
+import org.rstudio.studio.client.rsconnect.model.RSConnectPublishSource;
+import org.rstudio.studio.client.rsconnect.model.RSConnectServerOperations;
+
+import com.google.gwt.core.client.GWT;
+import com.google.inject.Inject;
+
+/**
+ * Owns construction of the publishing UI (the deploy dialog, the publish
+ * wizard, and the RSConnectDeploy file manifest they host). RSConnect is
+ * an eager singleton, so it reaches these through the Shim below to keep
+ * them in their own code fragment.
+ */
+public class RSConnectPublishDialogs
+{
+   public abstract static class Shim extends AsyncShim<RSConnectPublishDialogs>
+   {
+      public abstract void showDeployDialog(int contentType,
+                                            RSConnect connect,
+                                            RSConnectPublishSource source,
+                                            RSConnectDeploymentRecord fromPrevious);
+
+      public abstract void showPublishWizard(
+            RSConnectPublishInput input,
+            ProgressOperationWithInput<RSConnectPublishResult> operation);
+
+      @Override
+      protected void onDelayLoadFailure(Throwable reason)
+      {
+         RStudioGinjector.INSTANCE.getGlobalDisplay().showErrorMessage(
+               constants_.publishToServer(),
+               reason.getMessage());
+      }
+   }
+
+   @Inject
+   public RSConnectPublishDialogs(RSConnectServerOperations server,
+                                  GlobalDisplay display)
+   {
+      server_ = server;
+      display_ = display;
+
+      // injected here rather than at startup so the deploy styles travel
+      // with the rest of this fragment
+      RSConnectDeploy.RESOURCES.style().ensureInjected();
+   }
+
+   public void showDeployDialog(int contentType,
+                                RSConnect connect,
+                                RSConnectPublishSource source,
+                                RSConnectDeploymentRecord fromPrevious)
+   {
+      RSConnectDeployDialog dialog =
+            new RSConnectDeployDialog(
+                      contentType,
+                      server_, connect, display_,
+                      source,
+                      fromPrevious);
+      dialog.showModal();
+   }
+
+   public void showPublishWizard(
+         RSConnectPublishInput input,
+         ProgressOperationWithInput<RSConnectPublishResult> operation)
+   {
+      RSConnectPublishWizard wizard = new RSConnectPublishWizard(input, operation);
+      wizard.showModal();
+   }
+
+   private final RSConnectServerOperations server_;
+   private final GlobalDisplay display_;
+
+   private static final RsconnectConstants constants_ = GWT.create(RsconnectConstants.class);
+}
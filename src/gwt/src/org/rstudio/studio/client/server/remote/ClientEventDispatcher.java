@@ -16,6 +16,9 @@ package org.rstudio.studio.client.server.remote;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.rstudio.core.client.command.CommandCallbacksChangedEvent;
 import org.rstudio.core.client.events.ExecuteAppCommandEvent;
@@ -23,6 +26,7 @@ import org.rstudio.core.client.events.HighlightEvent;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.files.filedialog.events.OpenFileDialogEvent;
 import org.rstudio.core.client.js.JsObject;
+import org.rstudio.core.client.profiling.Profiler;
 import org.rstudio.studio.client.application.events.ClipboardActionEvent;
 import org.rstudio.studio.client.application.events.ComputeThemeColorsEvent;
 import org.rstudio.studio.client.application.events.DeferredInitCompletedEvent;
@@ -200,6 +204,8 @@ import org.rstudio.studio.client.workbench.views.output.data.model.DataOutputRes
 import org.rstudio.studio.client.workbench.views.output.find.events.FindOperationEndedEvent;
 import org.rstudio.studio.client.workbench.views.output.find.events.FindResultEvent;
 import org.rstudio.studio.client.workbench.views.ai.events.AiStreamDataEvent;
+import org.rstudio.studio.client.workbench.views.ai.model.AiOperationPayload;
+import org.rstudio.studio.client.workbench.views.ai.model.AiStreamPayload;
 import org.rstudio.studio.client.workbench.views.output.find.events.ReplaceProgressEvent;
 import org.rstudio.studio.client.workbench.views.output.find.events.ReplaceResultEvent;
 import org.rstudio.studio.client.workbench.views.output.lint.events.LintEvent;
@@ -290,7 +296,18 @@ public class ClientEventDispatcher
                     i++)
                {
                   ClientEvent currentEvent = pendingEvents_.remove(0);
-                  dispatchEvent(currentEvent);
+                  if (Profiler.isEnabled())
+                  {
+                     double start = Profiler.now();
+                     dispatchEvent(currentEvent);
+                     Profiler.record(Profiler.CATEGORY_CLIENT_EVENT,
+                                     currentEvent.getType(),
+                                     start);
+                  }
+                  else
+                  {
+                     dispatchEvent(currentEvent);
+                  }
                }
                return pendingEvents_.size() > 0;
             }
@@ -303,139 +320,20 @@ public class ClientEventDispatcher
       String type = event.getType();
       try
       {
-         if (type == ClientEvent.Busy)
+         // AI events arrive many times a second while a response streams, so
+         // they're handled before (and without) the chain below
+         if (type == ClientEvent.AiStreamData)
          {
-            boolean busy = event.<Bool>getData().getValue();
-            eventBus_.dispatchEvent(new BusyEvent(busy));
+            dispatchAiStreamData(event.<AiStreamPayload>getData());
          }
-         else if (type == ClientEvent.AiStreamData)
+         else if (type == ClientEvent.AiOperation)
          {
-            // Extract data using proper R/Java object handling (R sends arrays!)
-            com.google.gwt.core.client.JavaScriptObject jsData = event.getData();
-            
-            String messageId = getStringFromRData(jsData, "messageId");
-            if (messageId == null || messageId.isEmpty()) {
-               messageId = getStringFromRData(jsData, "message_id");
-            }
-            if (messageId == null || messageId.isEmpty()) {
-               throw new RuntimeException("AiStreamData event missing required messageId");
-            }
-            
-            String delta = getStringFromRData(jsData, "delta");
-            boolean isComplete = getBooleanFromRData(jsData, "isComplete");
-            if (!isComplete) {
-               isComplete = getBooleanFromRData(jsData, "is_complete");
-            }
-            
-            // Extract edit_file specific properties
-            boolean isEditFile = getBooleanFromRData(jsData, "isEditFile");
-            String filename = getStringFromRData(jsData, "filename");
-            
-            // Extract sequence number - REQUIRED for streaming event ordering
-            int sequence;
-            try {
-               sequence = getIntegerFromRData(jsData, "sequence");
-               if (sequence <= 0) {
-                  throw new RuntimeException("AiStreamData event has invalid sequence number: " + sequence);
-               }
-            } catch (Exception e) {
-               throw new RuntimeException("AiStreamData event missing required sequence number: " + e.getMessage());
-            }
-            
-            // Extract cancelled flag for partial content preservation
-            boolean isCancelled = getBooleanFromRData(jsData, "cancelled");
-            
-            // Extract function call flag
-            boolean isFunctionCall = getBooleanFromRData(jsData, "isFunctionCall");
-            
-            // Extract console/terminal command flags
-            boolean isConsoleCmd = getBooleanFromRData(jsData, "isConsoleCmd");
-            boolean isTerminalCmd = getBooleanFromRData(jsData, "isTerminalCmd");
-            
-            // Extract replaceContent flag for edit_file widgets  
-            boolean replaceContent = getBooleanFromRData(jsData, "replaceContent");
-            
-            // Extract requestId for edit_file widgets
-            String requestId = getStringFromRData(jsData, "requestId");
-            
-            // Create event with extracted data including all flags
-            AiStreamDataEvent streamEvent = new AiStreamDataEvent(messageId, delta, isComplete, isEditFile, isConsoleCmd, isTerminalCmd, filename, sequence, isCancelled, isFunctionCall, replaceContent);
-            
-            // Set the requestId if present
-            if (requestId != null && !requestId.isEmpty()) {
-               streamEvent.setRequestId(requestId);
-            }
-            eventBus_.dispatchEvent(streamEvent);
+            dispatchAiOperation(event.<AiOperationPayload>getData());
          }
-         else if (type == ClientEvent.AiOperation)
+         else if (type == ClientEvent.Busy)
          {
-            // Handle unified AI operation event using the working AiStreamData pattern
-            com.google.gwt.core.client.JavaScriptObject jsData = event.getData();
-            
-            // Extract operation type (required field)
-            String operationType = getStringFromRData(jsData, "operation_type");
-            if (operationType == null || operationType.isEmpty()) {
-               return;
-            }
-            
-            // Extract messageId with fallback patterns like AiStreamData
-            String messageId = getStringFromRData(jsData, "message_id");
-            if (messageId == null || messageId.isEmpty()) {
-               messageId = getStringFromRData(jsData, "messageId");
-            }
-            
-            // For operations that don't need messageId, generate one
-            if (messageId == null || messageId.isEmpty()) {
-               if ("clear_conversation".equals(operationType) || "revert_button".equals(operationType)) {
-                  messageId = operationType + "-" + System.currentTimeMillis();
-               } else {
-                  return;
-               }
-            }
-            
-            // Extract optional fields safely (no exceptions for missing fields)
-            String command = getStringFromRData(jsData, "command", "");
-            String explanation = getStringFromRData(jsData, "explanation", "");
-            String requestId = getStringFromRData(jsData, "request_id", "");
-            String filename = getStringFromRData(jsData, "filename", "");
-            String content = getStringFromRData(jsData, "content", "");
-            boolean skipDiffHighlighting = getBooleanFromRData(jsData, "skip_diff_highlighting");
-            com.google.gwt.core.client.JavaScriptObject diffData = getJavaScriptObjectFromRData(jsData, "diff_data");
-            
-            // Clean up filename to remove HTML diff markup
-            if (filename != null && filename.contains("<span")) {
-               // Extract just the filename part before any HTML
-               int spanIndex = filename.indexOf("<span");
-               if (spanIndex > 0) {
-                  filename = filename.substring(0, spanIndex).trim();
-               }
-            }
-            
-            // Extract sequence number from R data - MANDATORY!
-            int sequence;
-            try {
-               sequence = getIntegerFromRData(jsData, "sequence");
-            } catch (Exception e) {
-               throw new RuntimeException("SEQUENCE VIOLATION: R must provide sequence number in ai_operation events - " + e.getMessage());
-            }
-            
-            // Route to sequence-based processing
-            if ("clear_conversation".equals(operationType) || 
-                "create_user_message".equals(operationType) || 
-                "create_assistant_message".equals(operationType) ||
-                "create_console_command".equals(operationType) ||
-                "create_terminal_command".equals(operationType) ||
-                "edit_file_command".equals(operationType) ||
-                "revert_button".equals(operationType) ||
-                "hide_widget_buttons".equals(operationType) ||
-                "create_function_call_message".equals(operationType) ||
-                "start_background_recreation".equals(operationType) ||
-                "finish_background_recreation".equals(operationType)) {
-               
-               callAddOperationEvent(sequence, operationType, messageId, command, explanation, requestId, filename, content, skipDiffHighlighting, diffData);
-            } else {
-               // Unknown operation type - skip
-            }
+            boolean busy = event.<Bool>getData().getValue();
+            eventBus_.dispatchEvent(new BusyEvent(busy));
          }
          else if (type == ClientEvent.ConsoleOutput)
          {
@@ -1370,6 +1268,57 @@ public class ClientEventDispatcher
       }
    }
    
+   private void dispatchAiStreamData(AiStreamPayload payload)
+   {
+      if (payload.getMessageId().isEmpty()) {
+         throw new RuntimeException("AiStreamData event missing required messageId");
+      }
+      
+      // Sequence number is REQUIRED for streaming event ordering
+      if (!payload.hasSequence()) {
+         throw new RuntimeException("AiStreamData event missing required sequence number");
+      }
+      if (payload.getSequence() <= 0) {
+         throw new RuntimeException("AiStreamData event has invalid sequence number: " + payload.getSequence());
+      }
+      
+      eventBus_.dispatchEvent(new AiStreamDataEvent(payload));
+   }
+   
+   private void dispatchAiOperation(AiOperationPayload payload)
+   {
+      // Extract operation type (required field)
+      String operationType = payload.getOperationType();
+      if (operationType.isEmpty() || !AI_OPERATION_TYPES.contains(operationType)) {
+         return;
+      }
+      
+      // For operations that don't need messageId, generate one
+      String messageId = payload.getMessageId();
+      if (messageId.isEmpty()) {
+         if ("clear_conversation".equals(operationType) || "revert_button".equals(operationType)) {
+            messageId = operationType + "-" + System.currentTimeMillis();
+         } else {
+            return;
+         }
+      }
+      
+      // Clean up filename to remove HTML diff markup
+      String filename = payload.getFilename();
+      int spanIndex = filename.indexOf("<span");
+      if (spanIndex > 0) {
+         filename = filename.substring(0, spanIndex).trim();
+      }
+      
+      // Sequence number from R is MANDATORY
+      if (!payload.hasSequence()) {
+         throw new RuntimeException("SEQUENCE VIOLATION: R must provide sequence number in ai_operation events");
+      }
+      
+      // Route to sequence-based processing
+      callAddOperationEvent(payload.getSequence(), operationType, messageId, payload.getCommand(), payload.getExplanation(), payload.getRequestId(), filename, payload.getContent(), payload.getSkipDiffHighlighting(), payload.getDiffData());
+   }
+   
    /**
     * Extract string from R data - using the established AiOrchestrator pattern
     */
@@ -1378,14 +1327,6 @@ public class ClientEventDispatcher
       return getString(jsonObj, key, "");  // Use empty string as default instead of null
    }
    
-   /**
-    * Extract string from R data with default value - safe version for optional fields
-    */
-   private String getStringFromRData(JavaScriptObject obj, String key, String defaultValue) {
-      com.google.gwt.json.client.JSONObject jsonObj = new com.google.gwt.json.client.JSONObject(obj);
-      return getString(jsonObj, key, defaultValue);
-   }
-   
    /**
     * Extract boolean from R data - using the established AiOrchestrator pattern
     */
@@ -1394,18 +1335,6 @@ public class ClientEventDispatcher
       return getBoolean(jsonObj, key, false);
    }
    
-   /**
-    * Extract integer from R data - using the established AiOrchestrator pattern
-    */
-   private int getIntegerFromRData(JavaScriptObject obj, String key) {
-      com.google.gwt.json.client.JSONObject jsonObj = new com.google.gwt.json.client.JSONObject(obj);
-      Integer result = getInteger(jsonObj, key, null);
-      if (result == null) {
-         throw new RuntimeException("Missing required integer data from R for key: " + key);
-      }
-      return result.intValue();
-   }
-   
    /**
     * Extract string value from JSON object handling R arrays - from AiOrchestrator pattern
     */
@@ -1455,39 +1384,6 @@ public class ClientEventDispatcher
       return defaultValue;
    }
    
-   /**
-    * Extract integer value from JSON object handling R arrays - from AiOrchestrator pattern
-    */
-   private Integer getInteger(com.google.gwt.json.client.JSONObject obj, String key, Integer defaultValue)
-   {
-      com.google.gwt.json.client.JSONValue value = obj.get(key);
-      if (value != null && value.isNumber() != null) {
-         return (int) value.isNumber().doubleValue();
-      }
-      // Handle case where R returns numeric vector as array
-      if (value != null && value.isArray() != null) {
-         if (value.isArray().size() > 0) {
-            com.google.gwt.json.client.JSONValue firstElement = value.isArray().get(0);
-            if (firstElement != null && firstElement.isNumber() != null) {
-               return (int) firstElement.isNumber().doubleValue();
-            }
-         }
-      }
-      return defaultValue;
-   }
-   
-   /**
-    * Extract JavaScriptObject from R data - using the established AiOrchestrator pattern
-    */
-   private com.google.gwt.core.client.JavaScriptObject getJavaScriptObjectFromRData(JavaScriptObject obj, String key) {
-      com.google.gwt.json.client.JSONObject jsonObj = new com.google.gwt.json.client.JSONObject(obj);
-      com.google.gwt.json.client.JSONValue value = jsonObj.get(key);
-      if (value != null && value.isObject() != null) {
-         return value.isObject().getJavaScriptObject();  // Get the underlying JavaScriptObject
-      }
-      return null;
-   }
-     
    private native void callAddOperationEvent(int sequence, String operationType, String messageId, String command, String explanation, String requestId, String filename, String content, boolean skipDiffHighlighting, com.google.gwt.core.client.JavaScriptObject diffData) /*-{
       if ($wnd.aiAddOperationEvent) {
          $wnd.aiAddOperationEvent(sequence, operationType, messageId, command, explanation, requestId, filename, content, skipDiffHighlighting, diffData);
@@ -1533,5 +1429,22 @@ public class ClientEventDispatcher
    private final ArrayList<ClientEvent> pendingEvents_ = new ArrayList<>();
 
    private static final int MAX_EVENTS_AT_ONCE = 200;
+   
+   // The ai_operation types the streaming panel handles
+   private static final Set<String> AI_OPERATION_TYPES = new HashSet<>(Arrays.asList(
+         "clear_conversation",
+         "create_user_message",
+         "create_assistant_message",
+         "create_console_command",
+         "create_terminal_command",
+         "edit_file_command",
+         "revert_button",
+         "hide_widget_buttons",
+         "create_function_call_message",
+         "start_background_recreation",
+         "finish_background_recreation",
+         "older_turns_available",
+         "start_older_turns",
+         "finish_older_turns"));
 
 }
@@ -193,6 +193,7 @@ import org.rstudio.studio.client.workbench.views.console.shell.assist.SqlComplet
 import org.rstudio.studio.client.workbench.views.environment.dataimport.DataImportOptions;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportAssembleResponse;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewResponse;
+import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewSample;
 import org.rstudio.studio.client.workbench.views.environment.model.DataPreviewResult;
 import org.rstudio.studio.client.workbench.views.environment.model.DownloadInfo;
 import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentContextData;
@@ -216,6 +217,8 @@ import org.rstudio.studio.client.workbench.views.packages.model.PackratActions;
 import org.rstudio.studio.client.workbench.views.plots.model.Point;
 import org.rstudio.studio.client.workbench.views.presentation.model.PresentationRPubsSource;
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.model.ObjectExplorerInspectionResult;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.model.LargeFileLines;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.model.LargeFileSearchResult;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileOperationRequest;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileOperationResponse;
 import org.rstudio.studio.client.workbench.views.source.editors.text.IconvListResult;
@@ -1559,6 +1562,11 @@ public class RemoteServer implements Server, AiServerOperations
       sendRequest(RPC_SCOPE, "suggest_topics", prefix, requestCallback);
    }
 
+   public void listHelpTopics(ServerRequestCallback<JsArrayString> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, "list_help_topics", requestCallback);
+   }
+
    public void getHelp(String topic,
                        String packageName,
                        int type,
@@ -1941,6 +1949,13 @@ public class RemoteServer implements Server, AiServerOperations
       sendRequest(RPC_SCOPE, SWITCH_CONVERSATION, index, null);
    }
 
+   @Override
+   public void loadOlderConversationTurns(String beforeId,
+                                          ServerRequestCallback<Void> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, LOAD_OLDER_CONVERSATION_TURNS, beforeId, requestCallback);
+   }
+
    @Override
    public void stat(String path,
                     ServerRequestCallback<FileSystemItem> requestCallback)
@@ -2794,6 +2809,40 @@ public class RemoteServer implements Server, AiServerOperations
       sendRequest(RPC_SCOPE, EXPLORER_END_INSPECT, params, requestCallback);
    }
 
+   @Override
+   public void largeFileReadLines(String path,
+                                  int startLine,
+                                  int count,
+                                  ServerRequestCallback<LargeFileLines> requestCallback)
+   {
+      JSONArray params = new JSONArrayBuilder()
+            .add(path)
+            .add(startLine)
+            .add(count)
+            .get();
+
+      sendRequest(RPC_SCOPE, LARGE_FILE_READ_LINES, params, requestCallback);
+   }
+
+   @Override
+   public void largeFileSearch(String path,
+                               String pattern,
+                               boolean ignoreCase,
+                               int fromLine,
+                               int maxResults,
+                               ServerRequestCallback<LargeFileSearchResult> requestCallback)
+   {
+      JSONArray params = new JSONArrayBuilder()
+            .add(path)
+            .add(pattern)
+            .add(ignoreCase)
+            .add(fromLine)
+            .add(maxResults)
+            .get();
+
+      sendRequest(RPC_SCOPE, LARGE_FILE_SEARCH, params, requestCallback);
+   }
+
    public void createRdShell(
                         String name,
                         String type,
@@ -6538,6 +6587,17 @@ public class RemoteServer implements Server, AiServerOperations
       sendRequest(RPC_SCOPE, PREVIEW_DATA_IMPORT_CLEAN, params, requestCallback);
    }
 
+   @Override
+   public void previewDataImportSample(DataImportOptions dataImportOptions,
+                                       int maxBytes,
+                                       ServerRequestCallback<DataImportPreviewSample> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONObject(dataImportOptions));
+      params.set(1, new JSONNumber(maxBytes));
+      sendRequest(RPC_SCOPE, PREVIEW_DATA_IMPORT_SAMPLE, params, requestCallback);
+   }
+
    @Override
    public void previewDataImportAsyncAbort(ServerRequestCallback<Void> requestCallback)
    {
@@ -7366,6 +7426,9 @@ public class RemoteServer implements Server, AiServerOperations
    private static final String EXPLORER_BEGIN_INSPECT = "explorer_begin_inspect";
    private static final String EXPLORER_END_INSPECT = "explorer_end_inspect";
 
+   private static final String LARGE_FILE_READ_LINES = "large_file_read_lines";
+   private static final String LARGE_FILE_SEARCH = "large_file_search";
+
    private static final String GET_EDITOR_CONTEXT_COMPLETED = "get_editor_context_completed";
 
    private static final String GET_RECENT_HISTORY = "get_recent_history";
@@ -7615,6 +7678,7 @@ public class RemoteServer implements Server, AiServerOperations
    private static final String PREVIEW_DATA_IMPORT_ASYNC = "preview_data_import_async";
    private static final String PREVIEW_DATA_IMPORT_ASYNC_ABORT = "preview_data_import_async_abort";
    private static final String PREVIEW_DATA_IMPORT_CLEAN = "preview_data_import_clean";
+   private static final String PREVIEW_DATA_IMPORT_SAMPLE = "preview_data_import_sample";
 
    private static final String START_PROFILING = "start_profiling";
    private static final String STOP_PROFILING = "stop_profiling";
@@ -7717,6 +7781,7 @@ public class RemoteServer implements Server, AiServerOperations
    private static final String LIST_CONVERSATIONS = "list_conversations";
    private static final String GET_CURRENT_CONVERSATION_INDEX = "get_current_conversation_index";
    private static final String SWITCH_CONVERSATION = "switch_conversation";
+   private static final String LOAD_OLDER_CONVERSATION_TURNS = "load_older_conversation_turns";
    private static final String DELETE_FOLDER = "delete_folder";
 
    private static final String GET_SETTINGS = "get_settings";
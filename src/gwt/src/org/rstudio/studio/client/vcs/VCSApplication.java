@@ -17,6 +17,7 @@ package org.rstudio.studio.client.vcs;
 import org.rstudio.studio.client.application.ApplicationUncaughtExceptionHandler;
 import org.rstudio.studio.client.common.satellite.Satellite;
 import org.rstudio.studio.client.common.satellite.SatelliteApplication;
+import org.rstudio.studio.client.common.satellite.SatelliteEventFilter;
 import org.rstudio.studio.client.common.vcs.AskPassManager;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
@@ -41,5 +42,11 @@ public class VCSApplication extends SatelliteApplication
       super(NAME, view, satellite, pAceThemes, pUserPrefs, uncaughtExHandler, commands);
    }
 
+   @Override
+   protected SatelliteEventFilter getEventFilter()
+   {
+      return SatelliteEventFilter.allExceptOutputStreams();
+   }
+
    public final static String NAME = "review_changes";
 }
@@ -0,0 +1,179 @@
+/*
+ * BenchmarkAiEventDecoding.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.command.CommandBinder;
+import org.rstudio.core.client.command.Handler;
+import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.views.ai.model.AiStreamPayload;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.i18n.client.NumberFormat;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONValue;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// Reports how many AI stream events per second are decoded through the
+// AiStreamPayload overlay, and through JSONObject wrappers as the client
+// event dispatcher used to. Run from the diagnostics menu (in the browser
+// being measured) rather than as part of the unit tests.
+@Singleton
+public class BenchmarkAiEventDecoding
+{
+   interface Binder extends CommandBinder<Commands, BenchmarkAiEventDecoding>
+   {
+   }
+
+   @Inject
+   public BenchmarkAiEventDecoding(Binder binder,
+                                   Commands commands)
+   {
+      binder.bind(commands, this);
+   }
+
+   @Handler
+   public void onBenchmarkAiEventDecoding()
+   {
+      // R sends unmarked values as length-1 arrays, so time both shapes
+      JavaScriptObject[] scalarEvents = new JavaScriptObject[EVENT_COUNT];
+      JavaScriptObject[] arrayEvents = new JavaScriptObject[EVENT_COUNT];
+      for (int i = 0; i < EVENT_COUNT; i++)
+      {
+         scalarEvents[i] = scalarStreamEvent(i + 1);
+         arrayEvents[i] = arrayStreamEvent(i + 1);
+      }
+
+      // the first pass warms up the JIT and isn't reported
+      double[] rates = new double[4];
+      for (int pass = 0; pass < 2; pass++)
+      {
+         rates[0] = decodeRate(scalarEvents, false);
+         rates[1] = decodeRate(arrayEvents, false);
+         rates[2] = decodeRate(scalarEvents, true);
+         rates[3] = decodeRate(arrayEvents, true);
+      }
+
+      NumberFormat rate = NumberFormat.getFormat("#,##0");
+      Debug.log("AI stream events decoded per second:\n" +
+                "  payload overlay: " + rate.format(rates[0]) + " (scalar), " +
+                rate.format(rates[1]) + " (array)\n" +
+                "  JSONObject:      " + rate.format(rates[2]) + " (scalar), " +
+                rate.format(rates[3]) + " (array)");
+   }
+
+   private double decodeRate(JavaScriptObject[] events, boolean json)
+   {
+      int total = 0;
+      Duration duration = new Duration();
+      for (JavaScriptObject event : events)
+         total += json ? decodeWithJson(event) : decodeWithPayload(event);
+      double millis = Math.max(1, duration.elapsedMillis());
+
+      // keep the decoded values live, and check both decodings agree
+      if (total != expectedTotal(events.length))
+         Debug.log("AI event decoding mismatch (" + (json ? "JSONObject" : "payload") + ")");
+
+      return events.length / millis * 1000;
+   }
+
+   private static int expectedTotal(int count)
+   {
+      // message id "42", request id "req-1", "delta N", complete
+      int total = 0;
+      for (int i = 1; i <= count; i++)
+         total += 2 + 5 + ("delta " + i).length() + i + 1;
+      return total;
+   }
+
+   private int decodeWithPayload(JavaScriptObject event)
+   {
+      AiStreamPayload payload = event.cast();
+      return payload.getMessageId().length() +
+             payload.getDelta().length() +
+             payload.getSequence() +
+             (payload.isComplete() ? 1 : 0) +
+             (payload.isCancelled() ? 1 : 0) +
+             (payload.isEditFile() ? 1 : 0) +
+             payload.getRequestId().length();
+   }
+
+   private int decodeWithJson(JavaScriptObject event)
+   {
+      return jsonString(event, "messageId").length() +
+             jsonString(event, "delta").length() +
+             (int) jsonNumber(event, "sequence") +
+             (jsonBoolean(event, "isComplete") ? 1 : 0) +
+             (jsonBoolean(event, "cancelled") ? 1 : 0) +
+             (jsonBoolean(event, "isEditFile") ? 1 : 0) +
+             jsonString(event, "requestId").length();
+   }
+
+   private JSONValue jsonFirst(JavaScriptObject event, String key)
+   {
+      JSONValue value = new JSONObject(event).get(key);
+      if (value != null && value.isArray() != null && value.isArray().size() > 0)
+         return value.isArray().get(0);
+      return value;
+   }
+
+   private String jsonString(JavaScriptObject event, String key)
+   {
+      JSONValue value = jsonFirst(event, key);
+      if (value != null && value.isString() != null)
+         return value.isString().stringValue();
+      if (value != null && value.isNumber() != null)
+         return String.valueOf((int) value.isNumber().doubleValue());
+      return "";
+   }
+
+   private double jsonNumber(JavaScriptObject event, String key)
+   {
+      JSONValue value = jsonFirst(event, key);
+      return value != null && value.isNumber() != null ? value.isNumber().doubleValue() : 0;
+   }
+
+   private boolean jsonBoolean(JavaScriptObject event, String key)
+   {
+      JSONValue value = jsonFirst(event, key);
+      return value != null && value.isBoolean() != null && value.isBoolean().booleanValue();
+   }
+
+   private static native JavaScriptObject scalarStreamEvent(int sequence) /*-{
+      return {
+         messageId: 42,
+         delta: "delta " + sequence,
+         isComplete: true,
+         cancelled: false,
+         sequence: sequence,
+         requestId: "req-1"
+      };
+   }-*/;
+
+   private static native JavaScriptObject arrayStreamEvent(int sequence) /*-{
+      return {
+         messageId: [42],
+         delta: ["delta " + sequence],
+         isComplete: [true],
+         cancelled: [false],
+         sequence: [sequence],
+         requestId: ["req-1"]
+      };
+   }-*/;
+
+   private static final int EVENT_COUNT = 20000;
+}
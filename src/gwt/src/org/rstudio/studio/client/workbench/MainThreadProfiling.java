@@ -0,0 +1,108 @@
+/*
+ * MainThreadProfiling.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench;
+
+import java.util.Date;
+import java.util.List;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.command.CommandBinder;
+import org.rstudio.core.client.command.Handler;
+import org.rstudio.core.client.profiling.Profiler;
+import org.rstudio.core.client.profiling.Profiler.Summary;
+import org.rstudio.studio.client.workbench.commands.Commands;
+
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.i18n.client.NumberFormat;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// Starts / stops the main thread profiler, and exports what it has recorded
+// as a Chrome trace (loadable in the dev tools' Performance panel).
+@Singleton
+public class MainThreadProfiling
+{
+   interface Binder extends CommandBinder<Commands, MainThreadProfiling>
+   {
+   }
+
+   @Inject
+   public MainThreadProfiling(Binder binder,
+                              Commands commands)
+   {
+      binder.bind(commands, this);
+      commands_ = commands;
+      commands_.toggleMainThreadProfiling().setChecked(Profiler.isEnabled());
+   }
+
+   @Handler
+   public void onToggleMainThreadProfiling()
+   {
+      boolean enabled = !Profiler.isEnabled();
+      Profiler.setEnabled(enabled);
+      commands_.toggleMainThreadProfiling().setChecked(enabled);
+
+      if (!enabled)
+         logSummary();
+   }
+
+   @Handler
+   public void onExportMainThreadProfile()
+   {
+      String timestamp = DateTimeFormat.getFormat("yyyyMMdd-HHmmss").format(new Date());
+      download("rstudio-profile-" + timestamp + ".json", Profiler.toChromeTrace());
+   }
+
+   private void logSummary()
+   {
+      NumberFormat ms = NumberFormat.getFormat("0.0");
+
+      StringBuilder builder = new StringBuilder("Main thread profile (top entries by total time):\n");
+      List<Summary> summaries = Profiler.getSummaries();
+      for (int i = 0; i < Math.min(summaries.size(), MAX_SUMMARY_ENTRIES); i++)
+      {
+         Summary summary = summaries.get(i);
+         builder.append("  [")
+                .append(summary.getCategory())
+                .append("] ")
+                .append(summary.getName())
+                .append(": ")
+                .append(ms.format(summary.getTotalMs()))
+                .append(" ms total, ")
+                .append(ms.format(summary.getMaxMs()))
+                .append(" ms max, ")
+                .append(summary.getCount())
+                .append(" calls\n");
+      }
+
+      Debug.log(builder.toString());
+   }
+
+   private static native void download(String fileName, String contents) /*-{
+      var blob = new $wnd.Blob([contents], { type: "application/json" });
+      var url = $wnd.URL.createObjectURL(blob);
+      var link = $doc.createElement("a");
+      link.href = url;
+      link.download = fileName;
+      $doc.body.appendChild(link);
+      link.click();
+      $doc.body.removeChild(link);
+      $wnd.setTimeout(function() { $wnd.URL.revokeObjectURL(url); }, 0);
+   }-*/;
+
+   private final Commands commands_;
+
+   private static final int MAX_SUMMARY_ENTRIES = 25;
+}
@@ -0,0 +1,122 @@
+/*
+ * ShowBackgroundAnalysisTimings.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench;
+
+import org.rstudio.core.client.command.CommandBinder;
+import org.rstudio.core.client.command.Handler;
+import org.rstudio.core.client.widget.MiniPopupPanel;
+import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.views.source.editors.text.BackgroundAnalysisScheduler;
+import org.rstudio.studio.client.workbench.views.source.editors.text.BackgroundAnalysisScheduler.AnalyzerStats;
+
+import com.google.gwt.event.logical.shared.AttachEvent;
+import com.google.gwt.i18n.client.NumberFormat;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// Shows (and periodically refreshes) the time spent by each of the editor
+// background analyzers run by BackgroundAnalysisScheduler.
+@Singleton
+public class ShowBackgroundAnalysisTimings
+{
+   interface Binder extends CommandBinder<Commands, ShowBackgroundAnalysisTimings>
+   {
+   }
+
+   @Inject
+   public ShowBackgroundAnalysisTimings(Binder binder,
+                                        Commands commands)
+   {
+      binder.bind(commands, this);
+
+      panel_ = new MiniPopupPanel(false, false);
+      html_ = new HTML();
+      panel_.add(html_);
+
+      timer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            update();
+         }
+      };
+
+      panel_.addAttachHandler((AttachEvent event) ->
+      {
+         if (event.isAttached())
+         {
+            update();
+            timer_.scheduleRepeating(REFRESH_INTERVAL_MS);
+         }
+         else
+         {
+            timer_.cancel();
+         }
+      });
+   }
+
+   @Handler
+   public void onShowBackgroundAnalysisTimings()
+   {
+      if (panel_.isShowing())
+      {
+         panel_.hide();
+      }
+      else
+      {
+         panel_.show();
+      }
+   }
+
+   private void update()
+   {
+      NumberFormat ms = NumberFormat.getFormat("0.0");
+      NumberFormat count = NumberFormat.getFormat("#,##0");
+
+      SafeHtmlBuilder builder = new SafeHtmlBuilder();
+      builder.appendHtmlConstant("<table style='font-family: monospace; text-align: right'>");
+      builder.appendHtmlConstant(
+            "<tr><th style='text-align: left'>Analyzer</th>" +
+            "<th>Total (ms)</th><th>Max (ms)</th><th>Chunks</th><th>Rows</th></tr>");
+
+      for (AnalyzerStats stats : BackgroundAnalysisScheduler.getAnalyzerStats())
+      {
+         builder.appendHtmlConstant("<tr><td style='text-align: left'>");
+         builder.appendEscaped(stats.getName());
+         builder.appendHtmlConstant("</td><td>");
+         builder.appendEscaped(ms.format(stats.getTotalMs()));
+         builder.appendHtmlConstant("</td><td>");
+         builder.appendEscaped(ms.format(stats.getMaxMs()));
+         builder.appendHtmlConstant("</td><td>");
+         builder.appendEscaped(count.format(stats.getChunkCount()));
+         builder.appendHtmlConstant("</td><td>");
+         builder.appendEscaped(count.format(stats.getRowCount()));
+         builder.appendHtmlConstant("</td></tr>");
+      }
+
+      builder.appendHtmlConstant("</table>");
+      html_.setHTML(builder.toSafeHtml());
+   }
+
+   private final MiniPopupPanel panel_;
+   private final HTML html_;
+   private final Timer timer_;
+
+   private static final int REFRESH_INTERVAL_MS = 1000;
+}
@@ -0,0 +1,134 @@
+/*
+ * ShowEditorHibernationStats.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.command.CommandBinder;
+import org.rstudio.core.client.command.Handler;
+import org.rstudio.core.client.widget.MiniPopupPanel;
+import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.views.source.editors.text.EditorHibernationManager;
+import org.rstudio.studio.client.workbench.views.source.editors.text.EditorHibernationManager.HibernatedEditor;
+
+import com.google.gwt.event.logical.shared.AttachEvent;
+import com.google.gwt.i18n.client.NumberFormat;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+// Shows (and periodically refreshes) the editors put to sleep by
+// EditorHibernationManager, and roughly how much memory they released.
+@Singleton
+public class ShowEditorHibernationStats
+{
+   interface Binder extends CommandBinder<Commands, ShowEditorHibernationStats>
+   {
+   }
+
+   @Inject
+   public ShowEditorHibernationStats(Binder binder,
+                                     Commands commands,
+                                     Provider<EditorHibernationManager> pManager)
+   {
+      binder.bind(commands, this);
+      pManager_ = pManager;
+
+      panel_ = new MiniPopupPanel(false, false);
+      html_ = new HTML();
+      panel_.add(html_);
+
+      timer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            update();
+         }
+      };
+
+      panel_.addAttachHandler((AttachEvent event) ->
+      {
+         if (event.isAttached())
+         {
+            update();
+            timer_.scheduleRepeating(REFRESH_INTERVAL_MS);
+         }
+         else
+         {
+            timer_.cancel();
+         }
+      });
+   }
+
+   @Handler
+   public void onShowEditorHibernationStats()
+   {
+      if (panel_.isShowing())
+      {
+         panel_.hide();
+      }
+      else
+      {
+         panel_.show();
+      }
+   }
+
+   private void update()
+   {
+      EditorHibernationManager manager = pManager_.get();
+      NumberFormat count = NumberFormat.getFormat("#,##0");
+      double now = System.currentTimeMillis();
+
+      SafeHtmlBuilder builder = new SafeHtmlBuilder();
+      builder.appendHtmlConstant("<div style='font-family: monospace'>");
+      builder.appendEscaped(
+            "Hibernated: " + count.format(manager.getHibernationCount()) +
+            ", woken: " + count.format(manager.getWakeCount()) +
+            ", estimated memory released: " +
+            StringUtil.formatFileSize((long) manager.getEstimatedBytesReleased()));
+      builder.appendHtmlConstant("</div>");
+
+      builder.appendHtmlConstant("<table style='font-family: monospace; text-align: right'>");
+      builder.appendHtmlConstant(
+            "<tr><th style='text-align: left'>Document</th>" +
+            "<th>Tokens</th><th>Undo history</th><th>Asleep (min)</th></tr>");
+
+      for (HibernatedEditor editor : manager.getHibernatedEditors())
+      {
+         builder.appendHtmlConstant("<tr><td style='text-align: left'>");
+         builder.appendEscaped(editor.getName());
+         builder.appendHtmlConstant("</td><td>");
+         builder.appendEscaped(count.format(editor.getTokenCount()));
+         builder.appendHtmlConstant("</td><td>");
+         builder.appendEscaped(StringUtil.formatFileSize((long) editor.getUndoSize()));
+         builder.appendHtmlConstant("</td><td>");
+         builder.appendEscaped(count.format((now - editor.getSince()) / 60000));
+         builder.appendHtmlConstant("</td></tr>");
+      }
+
+      builder.appendHtmlConstant("</table>");
+      html_.setHTML(builder.toSafeHtml());
+   }
+
+   private final Provider<EditorHibernationManager> pManager_;
+   private final MiniPopupPanel panel_;
+   private final HTML html_;
+   private final Timer timer_;
+
+   private static final int REFRESH_INTERVAL_MS = 1000;
+}
@@ -3872,6 +3872,26 @@ public interface CmdConstants extends Constants {
     @DefaultStringValue("_Toggle Editor Token Information") // $NON-NLS-1$
     String toggleEditorTokenInfoMenuLabel();
     
+    // showBackgroundAnalysisTimings
+    @DefaultStringValue("Show _Background Analysis Timings") // $NON-NLS-1$
+    String showBackgroundAnalysisTimingsMenuLabel();
+    
+    // showEditorHibernationStats
+    @DefaultStringValue("Show Editor _Hibernation Statistics") // $NON-NLS-1$
+    String showEditorHibernationStatsMenuLabel();
+    
+    // toggleMainThreadProfiling
+    @DefaultStringValue("_Main Thread Profiling") // $NON-NLS-1$
+    String toggleMainThreadProfilingMenuLabel();
+    
+    // exportMainThreadProfile
+    @DefaultStringValue("E_xport Main Thread Profile...") // $NON-NLS-1$
+    String exportMainThreadProfileMenuLabel();
+    
+    // benchmarkAiEventDecoding
+    @DefaultStringValue("Benchmark _AI Event Decoding") // $NON-NLS-1$
+    String benchmarkAiEventDecodingMenuLabel();
+    
     // showDomElements
     @DefaultStringValue("_Show DOM Elements") // $NON-NLS-1$
     String showDomElementsMenuLabel();
@@ -4046,6 +4066,10 @@ public interface CmdConstants extends Constants {
     @DefaultStringValue("_View All Prefs") // $NON-NLS-1$
     String viewAllPrefsMenuLabel();
     
+    // logPrefReadCounts
+    @DefaultStringValue("Log _Preference Read Counts") // $NON-NLS-1$
+    String logPrefReadCountsMenuLabel();
+    
     // toggleScreenReaderSupport
     @DefaultStringValue("_Screen Reader Support") // $NON-NLS-1$
     String toggleScreenReaderSupportMenuLabel();
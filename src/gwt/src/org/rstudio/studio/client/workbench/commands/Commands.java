@@ -541,6 +541,7 @@ public abstract class
    public abstract AppCommand viewShortcuts();
    public abstract AppCommand editUserPrefs();
    public abstract AppCommand viewAllPrefs();
+   public abstract AppCommand logPrefReadCounts();
    public abstract AppCommand clearUserPrefs();
 
    // Tutorial
@@ -725,6 +726,11 @@ public abstract class
    public abstract AppCommand maximizeTabSet1();
    public abstract AppCommand maximizeTabSet2();
    public abstract AppCommand toggleEditorTokenInfo();
+   public abstract AppCommand showBackgroundAnalysisTimings();
+   public abstract AppCommand showEditorHibernationStats();
+   public abstract AppCommand toggleMainThreadProfiling();
+   public abstract AppCommand exportMainThreadProfile();
+   public abstract AppCommand benchmarkAiEventDecoding();
    public abstract AppCommand layoutZoomLeftColumn();
    public abstract AppCommand layoutZoomRightColumn();
    public abstract AppCommand focusLeftSeparator();
@@ -26,7 +26,9 @@ import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.js.JsObject;
 import org.rstudio.core.client.js.JsUtil;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 public abstract class Prefs
 {
@@ -132,41 +134,80 @@ public abstract class Prefs
       
       public boolean hasValue()
       {
-         for (PrefLayer layer: JsUtil.asReverseIterable(layers_))
-         {
-            if (layer.getValues().hasKey(name_))
-            {
-               return true;
-            }
-         }
-         return false;
+         resolve();
+         return resolvedLayer_ >= 0;
       }
       
       public T getValue()
       {
-         // Work backwards through all layers, starting with the most specific
-         // and working towards the most general.
-         for (PrefLayer layer: JsUtil.asReverseIterable(layers_))
-         {
-            if (layer.getValues().hasKey(name_))
-            {
-               return doGetValue(layer.getValues());
-            }
-         }
-         return defaultValue_;
+         resolve();
+         return resolvedValue_;
       }
 
       public T getGlobalValue()
       {
+         readCount_++;
+         if (globalGeneration_ == generation_)
+            return globalValue_;
+
          // Skip the project layer if it exists by starting at the user layer.
+         globalValue_ = defaultValue_;
          for (int i = userLayer(); i >= 0; i--)
          {
             if (layers_.get(i).getValues().hasKey(name_))
             {
-               return doGetValue(layers_.get(i).getValues());
+               globalValue_ = doGetValue(layers_.get(i).getValues());
+               break;
             }
          }
-         return defaultValue_;
+         globalGeneration_ = generation_;
+         return globalValue_;
+      }
+
+      /**
+       * @return The number of times this preference has been read since the
+       *    window was loaded.
+       */
+      public int getReadCount()
+      {
+         return readCount_;
+      }
+
+      /**
+       * Ensures resolvedValue_ reflects the current contents of the layers.
+       * Reads are served from the cached value until any layer owned by
+       * this Prefs object is written or replaced.
+       */
+      protected final void resolve()
+      {
+         readCount_++;
+         if (resolvedGeneration_ == generation_)
+            return;
+
+         // Work backwards through all layers, starting with the most specific
+         // and working towards the most general.
+         resolvedLayer_ = -1;
+         resolvedValue_ = defaultValue_;
+         for (int i = layers_.length() - 1; i >= 0; i--)
+         {
+            JsObject values = layers_.get(i).getValues();
+            if (values.hasKey(name_))
+            {
+               resolvedLayer_ = i;
+               resolvedValue_ = doGetValue(values);
+               break;
+            }
+         }
+         resolvedGeneration_ = generation_;
+         onResolved(resolvedValue_);
+      }
+
+      /**
+       * Called when the cached value is recomputed; lets typed subclasses
+       * keep an unboxed copy of the value.
+       */
+      protected void onResolved(T value)
+      {
       }
 
       public abstract T doGetValue(JsObject root);
@@ -190,7 +231,7 @@ public abstract class Prefs
             JsObject layer = layers_.get(i).getValues();
             if (layer.hasKey(name_))
             {
-               layer.unset(name_);
+               unsetLayerValue(layer);
                wasUnset = true;
             }
          }
@@ -226,7 +267,7 @@ public abstract class Prefs
          JsObject projValues = layers_.get(projectLayer()).getValues();
          if (projValues.hasKey(name_))
          {
-            projValues.unset(name_);
+            unsetLayerValue(projValues);
             if (fireEvents)
                ValueChangeEvent.fire(this, getValue());
          }
@@ -254,11 +295,25 @@ public abstract class Prefs
          if (value != null && val != null && value.equals(val))
             return;
 
-         doSetValue(root, name_, value);
+         setLayerValue(root, value);
          if (fireEvents)
             ValueChangeEvent.fire(this, getValue());
          
       }
+
+      // All writes to a layer go through these two methods, which discard
+      // the cached values of every preference.
+      private void setLayerValue(JsObject layer, T value)
+      {
+         doSetValue(layer, name_, value);
+         generation_++;
+      }
+
+      private void unsetLayerValue(JsObject layer)
+      {
+         layer.unset(name_);
+         generation_++;
+      }
       
       public String getTitle()
       {
@@ -274,6 +329,14 @@ public abstract class Prefs
       private final String description_;
       private final T defaultValue_;
       private final HandlerManager handlerManager_ = new HandlerManager(this);
+
+      // resolved-value cache; valid while the generation matches generation_
+      private T resolvedValue_;
+      private int resolvedLayer_ = -1;
+      private int resolvedGeneration_ = -1;
+      private T globalValue_;
+      private int globalGeneration_ = -1;
+      private int readCount_ = 0;
    }
 
    public class BooleanValue extends JsonValue<Boolean>
@@ -294,6 +357,20 @@ public abstract class Prefs
       {
          root.setBoolean(name, value);
       }
+
+      public boolean getBooleanValue()
+      {
+         resolve();
+         return value_;
+      }
+
+      @Override
+      protected void onResolved(Boolean value)
+      {
+         value_ = value != null && value;
+      }
+
+      private boolean value_;
    }
 
    public class IntValue extends JsonValue<Integer>
@@ -314,6 +391,20 @@ public abstract class Prefs
       {
          root.setInteger(name, value);
       }
+
+      public int getIntValue()
+      {
+         resolve();
+         return value_;
+      }
+
+      @Override
+      protected void onResolved(Integer value)
+      {
+         value_ = value == null ? 0 : value;
+      }
+
+      private int value_;
    }
 
    public class DoubleValue extends JsonValue<Double>
@@ -334,6 +425,20 @@ public abstract class Prefs
       {
          root.setDouble(name, value);
       }
+
+      public double getDoubleValue()
+      {
+         resolve();
+         return value_;
+      }
+
+      @Override
+      protected void onResolved(Double value)
+      {
+         value_ = value == null ? 0 : value;
+      }
+
+      private double value_;
    }
 
    public class StringValue extends JsonValue<String>
@@ -422,6 +527,11 @@ public abstract class Prefs
       layers_ = layers;
    }
    
+   /**
+    * @return The values of the user layer. These must not be modified
+    *    directly (which would bypass the cache of resolved values); use the
+    *    PrefValue setters instead.
+    */
    public JsObject getUserLayer()
    {
       return layers_.get(userLayer()).getValues();
@@ -432,6 +542,60 @@ public abstract class Prefs
       return values_.get(name);
    }
    
+   /**
+    * Unboxed read of a boolean preference, for use in hot paths (e.g. code
+    * run on every keystroke or render).
+    */
+   public static boolean booleanValue(PrefValue<Boolean> pref)
+   {
+      if (pref instanceof Prefs.BooleanValue)
+         return ((Prefs.BooleanValue) pref).getBooleanValue();
+      
+      Boolean value = pref.getValue();
+      return value != null && value;
+   }
+   
+   /**
+    * Unboxed read of an integer preference, for use in hot paths.
+    */
+   public static int intValue(PrefValue<Integer> pref)
+   {
+      if (pref instanceof Prefs.IntValue)
+         return ((Prefs.IntValue) pref).getIntValue();
+      
+      Integer value = pref.getValue();
+      return value == null ? 0 : value;
+   }
+   
+   /**
+    * Unboxed read of a floating point preference, for use in hot paths.
+    */
+   public static double doubleValue(PrefValue<Double> pref)
+   {
+      if (pref instanceof Prefs.DoubleValue)
+         return ((Prefs.DoubleValue) pref).getDoubleValue();
+      
+      Double value = pref.getValue();
+      return value == null ? 0 : value;
+   }
+   
+   /**
+    * Returns the preferences that have been read at least once, most
+    * frequently read first.
+    */
+   public List<JsonValue<?>> getMostReadPrefs()
+   {
+      List<JsonValue<?>> result = new ArrayList<>();
+      for (PrefValue<?> value : values_.values())
+      {
+         JsonValue<?> json = (JsonValue<?>) value;
+         if (json.getReadCount() > 0)
+            result.add(json);
+      }
+      result.sort((a, b) -> Integer.compare(b.getReadCount(), a.getReadCount()));
+      return result;
+   }
+   
    public abstract int userLayer();
    public abstract int projectLayer();
 
@@ -535,8 +699,13 @@ public abstract class Prefs
    protected void updatePrefs(JsArray<PrefLayer> layers)
    {
       layers_ = layers;
+      generation_++;
    }
    
    private JsArray<PrefLayer> layers_;
+
+   // bumped whenever a layer is written or the layers are replaced; cached
+   // values are valid only for the generation they were resolved in
+   private int generation_ = 0;
    private final HashMap<String, PrefValue<?>> values_ = new HashMap<>();
 }
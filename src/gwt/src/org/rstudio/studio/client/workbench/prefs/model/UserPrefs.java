@@ -250,6 +250,20 @@ public class UserPrefs extends UserPrefsComputed
       server_.viewPreferences(new VoidServerRequestCallback());
    }
 
+   @Handler
+   public void onLogPrefReadCounts()
+   {
+      StringBuilder builder = new StringBuilder("Preference reads (most frequent first):\n");
+      for (JsonValue<?> pref : getMostReadPrefs())
+      {
+         builder.append(pref.getReadCount())
+                .append("\t")
+                .append(pref.getId())
+                .append("\n");
+      }
+      Debug.log(builder.toString());
+   }
+
    private void setScreenReaderMenuState(boolean checked)
    {
       commands_.toggleScreenReaderSupport().setChecked(checked);
@@ -1593,6 +1593,18 @@ public class UserPrefsAccessor extends Prefs
          5000);
    }
 
+   /**
+    * The number of minutes a background editor tab without unsaved changes must go unused before its editor releases state it can rebuild, such as line tokens and undo history. Set to 0 to never hibernate editor tabs.
+    */
+   public PrefValue<Integer> editorHibernationDelay()
+   {
+      return integer(
+         "editor_hibernation_delay",
+         _constants.editorHibernationDelayTitle(), 
+         _constants.editorHibernationDelayDescription(), 
+         60);
+   }
+
    /**
     * Whether to ignore words in uppercase when spell checking.
     */
@@ -4046,6 +4058,8 @@ public class UserPrefsAccessor extends Prefs
          spellingCustomDictionaries().setValue(layer, source.getObject("spelling_custom_dictionaries"));
       if (source.hasKey("document_load_lint_delay"))
          documentLoadLintDelay().setValue(layer, source.getInteger("document_load_lint_delay"));
+      if (source.hasKey("editor_hibernation_delay"))
+         editorHibernationDelay().setValue(layer, source.getInteger("editor_hibernation_delay"));
       if (source.hasKey("ignore_uppercase_words"))
          ignoreUppercaseWords().setValue(layer, source.getBool("ignore_uppercase_words"));
       if (source.hasKey("ignore_words_with_numbers"))
@@ -4473,6 +4487,7 @@ public class UserPrefsAccessor extends Prefs
       prefs.add(spellingDictionaryLanguage());
       prefs.add(spellingCustomDictionaries());
       prefs.add(documentLoadLintDelay());
+      prefs.add(editorHibernationDelay());
       prefs.add(ignoreUppercaseWords());
       prefs.add(ignoreWordsWithNumbers());
       prefs.add(realTimeSpellchecking());
@@ -941,6 +941,14 @@ public interface UserPrefsAccessorConstants extends Constants {
    @DefaultStringValue("The number of milliseconds to wait before linting a document after it is loaded.")
    String documentLoadLintDelayDescription();
 
+   /**
+    * The number of minutes a background editor tab without unsaved changes must go unused before its editor releases state it can rebuild, such as line tokens and undo history. Set to 0 to never hibernate editor tabs.
+    */
+   @DefaultStringValue("Hibernate idle editor tabs after (minutes)")
+   String editorHibernationDelayTitle();
+   @DefaultStringValue("The number of minutes a background editor tab without unsaved changes must go unused before its editor releases state it can rebuild, such as line tokens and undo history. Set to 0 to never hibernate editor tabs.")
+   String editorHibernationDelayDescription();
+
    /**
     * Whether to ignore words in uppercase when spell checking.
     */
@@ -64,6 +64,19 @@ public class AiViewManager
       server_ = server;
       aiPane_ = aiPane;
       
+      // Older turns of long conversations are requested as the user scrolls up to them
+      streamingPanel_.setOlderTurnsLoader(beforeId ->
+         server_.loadOlderConversationTurns(beforeId, new ServerRequestCallback<Void>() {
+            @Override
+            public void onResponseReceived(Void response) {
+            }
+            
+            @Override
+            public void onError(ServerError error) {
+               streamingPanel_.onOlderTurnsFailed();
+            }
+         }));
+      
       // Create settings container and widget
       settingsContainer_ = new SimplePanel();
       settingsContainer_.setSize("100%", "100%");
@@ -308,7 +321,8 @@ public class AiViewManager
    /**
     * Load historical messages from a conversation into the streaming panel
     * @param conversationId The conversation ID
-    * @param shouldLoadLog Whether to actually load the conversation log (false for new conversations)
+    * @param shouldLoadLog Whether the conversation has a log (false for new conversations); the
+    *    log itself is sent from R, so this no longer changes what is loaded here
     */
    public void loadConversationHistory(int conversationId, boolean shouldLoadLog)
    {
@@ -318,54 +332,20 @@ public class AiViewManager
       // Switch to the target conversation (this saves/loads sequence state)
       streamingPanel_.switchToConversation(conversationId);
       
-      if (!shouldLoadLog) {
-         // Get the title
-         server_.getConversationName(conversationId, new ServerRequestCallback<String>() {
-            @Override
-            public void onResponseReceived(String name) {
-               if (name != null && !name.isEmpty()) {
-                  aiPane_.updateTitle(name);
-               }
-            }
-            
-            @Override
-            public void onError(ServerError error) {
-               // Keep default title if we can't get the conversation name
-            }
-         });
-         return;
-      }
-      
-      // For existing conversations, load conversation data from server
-      server_.getConversationLog(conversationId, new ServerRequestCallback<org.rstudio.studio.client.workbench.views.ai.model.ConversationLogResult>() {
+      // The conversation itself is sent from R as display operations (newest turns
+      // first, older turns on demand), so only the title is fetched here; the log
+      // is never needed as a whole on the client
+      server_.getConversationName(conversationId, new ServerRequestCallback<String>() {
          @Override
-         public void onResponseReceived(org.rstudio.studio.client.workbench.views.ai.model.ConversationLogResult result) {
-            if (result.getSuccess()) {
-               // Check if conversation is blank (no messages)
-               com.google.gwt.core.client.JsArray<org.rstudio.studio.client.workbench.views.ai.model.ConversationMessage> messages = result.getMessages();
-               boolean isBlankConversation = (messages == null || messages.length() == 0);
-               
-               // Update title to reflect the loaded conversation
-               server_.getConversationName(conversationId, new ServerRequestCallback<String>() {
-                  @Override
-                  public void onResponseReceived(String name) {
-                     if (name != null && !name.isEmpty()) {
-                        aiPane_.updateTitle(name);
-                     }
-                  }
-                  
-                  @Override
-                  public void onError(ServerError error) {
-                     // Keep default title if we can't get the conversation name
-                  }
-               });
+         public void onResponseReceived(String name) {
+            if (name != null && !name.isEmpty()) {
+               aiPane_.updateTitle(name);
             }
          }
          
          @Override
          public void onError(ServerError error) {
-            // If loading fails, let R-side background recreation handle clearing (treat as blank)
-            // This ensures atomic swap behavior even for error cases
+            // Keep default title if we can't get the conversation name
          }
       });
    }
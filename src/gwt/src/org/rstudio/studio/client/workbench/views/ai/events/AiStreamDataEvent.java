@@ -15,6 +15,7 @@ package org.rstudio.studio.client.workbench.views.ai.events;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
+import org.rstudio.studio.client.workbench.views.ai.model.AiStreamPayload;
 
 public class AiStreamDataEvent extends GwtEvent<AiStreamDataEvent.Handler>
 {
@@ -129,12 +130,17 @@ public class AiStreamDataEvent extends GwtEvent<AiStreamDataEvent.Handler>
       data_ = data;
    }
    
-   // Constructor with console and terminal command flags - used by ClientEventDispatcher
-   public AiStreamDataEvent(String messageId, String delta, boolean isComplete, boolean isEditFile, boolean isConsoleCmd, boolean isTerminalCmd, String filename, int sequence, boolean isCancelled, boolean isFunctionCall, boolean replaceContent)
+   // Constructor that reads the fields of an ai_stream_data event - used by ClientEventDispatcher
+   public AiStreamDataEvent(AiStreamPayload payload)
    {
-      data_ = new Data(messageId, delta, isComplete, isEditFile, isConsoleCmd, isTerminalCmd, filename, sequence, isCancelled, isFunctionCall, replaceContent);
+      data_ = new Data(payload.getMessageId(), payload.getDelta(), payload.isComplete(), payload.isEditFile(), payload.isConsoleCmd(), payload.isTerminalCmd(), payload.getFilename(), payload.getSequence(), payload.isCancelled(), payload.isFunctionCall(), payload.getReplaceContent());
+      
+      String requestId = payload.getRequestId();
+      if (!requestId.isEmpty()) {
+         data_.setRequestId(requestId);
+      }
    }
-
+   
    public String getMessageId()
    {
       return data_.getMessageId();
@@ -0,0 +1,70 @@
+/*
+ * AiEventPayload.java
+ *
+ * Copyright (C) 2025 by William Nickols
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.ai.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * The data of an AI client event, read in place. R marks the fields of these
+ * events as scalars, but a field may still arrive as a length-1 array (e.g.
+ * from an older session), so each accessor unwraps one if it finds it.
+ */
+public class AiEventPayload extends JavaScriptObject
+{
+   protected AiEventPayload()
+   {
+   }
+
+   protected final native String getScalarString(String key, String defaultValue) /*-{
+      var value = this[key];
+      if (value != null && typeof value === "object" && value.length !== undefined)
+         value = value[0];
+
+      if (typeof value === "string")
+         return value;
+
+      // R sometimes sends message ids as numbers
+      if (typeof value === "number")
+         return String(Math.trunc(value));
+
+      return defaultValue;
+   }-*/;
+
+   protected final native boolean getScalarBoolean(String key) /*-{
+      var value = this[key];
+      if (value != null && typeof value === "object" && value.length !== undefined)
+         value = value[0];
+      return value === true;
+   }-*/;
+
+   protected final native boolean hasScalarNumber(String key) /*-{
+      var value = this[key];
+      if (value != null && typeof value === "object" && value.length !== undefined)
+         value = value[0];
+      return typeof value === "number";
+   }-*/;
+
+   protected final native int getScalarInt(String key, int defaultValue) /*-{
+      var value = this[key];
+      if (value != null && typeof value === "object" && value.length !== undefined)
+         value = value[0];
+      return typeof value === "number" ? Math.trunc(value) : defaultValue;
+   }-*/;
+
+   protected final native JavaScriptObject getObject(String key) /*-{
+      var value = this[key];
+      if (value != null && typeof value === "object" && !Array.isArray(value))
+         return value;
+      return null;
+   }-*/;
+}
@@ -0,0 +1,81 @@
+/*
+ * AiOperationPayload.java
+ *
+ * Copyright (C) 2025 by William Nickols
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.ai.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * The data of an ai_operation event: an operation on the conversation display.
+ */
+public class AiOperationPayload extends AiEventPayload
+{
+   protected AiOperationPayload()
+   {
+   }
+
+   public final String getOperationType()
+   {
+      return getScalarString("operation_type", "");
+   }
+
+   public final String getMessageId()
+   {
+      String messageId = getScalarString("message_id", "");
+      return messageId.isEmpty() ? getScalarString("messageId", "") : messageId;
+   }
+
+   public final String getCommand()
+   {
+      return getScalarString("command", "");
+   }
+
+   public final String getExplanation()
+   {
+      return getScalarString("explanation", "");
+   }
+
+   public final String getRequestId()
+   {
+      return getScalarString("request_id", "");
+   }
+
+   public final String getFilename()
+   {
+      return getScalarString("filename", "");
+   }
+
+   public final String getContent()
+   {
+      return getScalarString("content", "");
+   }
+
+   public final boolean getSkipDiffHighlighting()
+   {
+      return getScalarBoolean("skip_diff_highlighting");
+   }
+
+   public final JavaScriptObject getDiffData()
+   {
+      return getObject("diff_data");
+   }
+
+   public final boolean hasSequence()
+   {
+      return hasScalarNumber("sequence");
+   }
+
+   public final int getSequence()
+   {
+      return getScalarInt("sequence", 0);
+   }
+}
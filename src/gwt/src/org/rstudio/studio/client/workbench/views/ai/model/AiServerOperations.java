@@ -70,6 +70,8 @@ public interface AiServerOperations
       
    void switchConversation(int index);
    
+   void loadOlderConversationTurns(String beforeId, ServerRequestCallback<Void> requestCallback);
+   
    void listConversations(ServerRequestCallback<JsArrayString> requestCallback);
    
    void getConversationLog(int conversationId, ServerRequestCallback<ConversationLogResult> requestCallback);
@@ -0,0 +1,89 @@
+/*
+ * AiStreamPayload.java
+ *
+ * Copyright (C) 2025 by William Nickols
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.ai.model;
+
+/**
+ * The data of an ai_stream_data event: a chunk of a streamed response.
+ */
+public class AiStreamPayload extends AiEventPayload
+{
+   protected AiStreamPayload()
+   {
+   }
+
+   public final String getMessageId()
+   {
+      String messageId = getScalarString("messageId", "");
+      return messageId.isEmpty() ? getScalarString("message_id", "") : messageId;
+   }
+
+   public final String getDelta()
+   {
+      return getScalarString("delta", "");
+   }
+
+   public final boolean isComplete()
+   {
+      return getScalarBoolean("isComplete") || getScalarBoolean("is_complete");
+   }
+
+   public final boolean isEditFile()
+   {
+      return getScalarBoolean("isEditFile");
+   }
+
+   public final String getFilename()
+   {
+      return getScalarString("filename", "");
+   }
+
+   public final boolean hasSequence()
+   {
+      return hasScalarNumber("sequence");
+   }
+
+   public final int getSequence()
+   {
+      return getScalarInt("sequence", 0);
+   }
+
+   public final boolean isCancelled()
+   {
+      return getScalarBoolean("cancelled");
+   }
+
+   public final boolean isFunctionCall()
+   {
+      return getScalarBoolean("isFunctionCall");
+   }
+
+   public final boolean isConsoleCmd()
+   {
+      return getScalarBoolean("isConsoleCmd");
+   }
+
+   public final boolean isTerminalCmd()
+   {
+      return getScalarBoolean("isTerminalCmd");
+   }
+
+   public final boolean getReplaceContent()
+   {
+      return getScalarBoolean("replaceContent");
+   }
+
+   public final String getRequestId()
+   {
+      return getScalarString("requestId", "");
+   }
+}
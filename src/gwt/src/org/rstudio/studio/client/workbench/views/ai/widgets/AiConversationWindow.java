@@ -0,0 +1,196 @@
+/*
+ * AiConversationWindow.java
+ *
+ * Copyright (C) 2025 by William Nickols
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ */
+
+package org.rstudio.studio.client.workbench.views.ai.widgets;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style.Unit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps only the messages near the visible part of a conversation in the DOM.
+ * Messages that are scrolled well out of view are swapped for empty
+ * placeholders of the same height (so the scroll position doesn't move), and
+ * swapped back when they're scrolled near the view again.
+ *
+ * Only plain messages (user, assistant and function call messages) are
+ * swapped out; console, terminal and edit file widgets are looked up by ID
+ * from elsewhere and always stay in the DOM.
+ */
+public class AiConversationWindow
+{
+   public AiConversationWindow()
+   {
+      hibernated_ = new HashMap<>();
+   }
+
+   /**
+    * Swaps messages in and out of the given conversation container, based on
+    * how far each is from the visible part of the given scroller.
+    *
+    * @param container The container whose children are the messages
+    * @param scroller The scrollable element the container is shown in
+    * @param keepLast The number of messages at the end of the conversation
+    *    that always stay in the DOM (e.g. because they're streaming)
+    */
+   public void update(Element container, Element scroller, int keepLast)
+   {
+      if (container == null || scroller == null)
+         return;
+
+      int viewHeight = scroller.getClientHeight();
+      if (viewHeight <= 0)
+         return;
+
+      // messages within this distance of the view are kept in the DOM, and
+      // those beyond twice this distance are swapped out; the gap between
+      // the two keeps messages near the edge from swapping back and forth
+      int keepDistance = viewHeight * KEEP_VIEWS;
+      int hibernateDistance = keepDistance * 2;
+
+      // measure everything before changing anything, so that the DOM is
+      // only laid out once
+      int count = container.getChildCount();
+      List<Element> toHibernate = new ArrayList<>();
+      List<Element> toRestore = new ArrayList<>();
+      for (int i = 0; i < count - keepLast; i++)
+      {
+         Element child = container.getChild(i).cast();
+         int top = getTopInView(child, scroller);
+         int bottom = top + child.getOffsetHeight();
+         int distance = bottom < 0 ? -bottom : Math.max(0, top - viewHeight);
+
+         if (isPlaceholder(child))
+         {
+            if (distance <= keepDistance)
+               toRestore.add(child);
+         }
+         else if (distance > hibernateDistance && canHibernate(child))
+         {
+            toHibernate.add(child);
+         }
+      }
+
+      for (Element placeholder : toRestore)
+         restore(placeholder);
+
+      for (Element child : toHibernate)
+      {
+         Element placeholder = Document.get().createDivElement();
+         placeholder.setClassName(PLACEHOLDER_CLASS);
+         placeholder.getStyle().setHeight(child.getOffsetHeight(), Unit.PX);
+         placeholder.setAttribute("data-sequence", child.getAttribute("data-sequence"));
+         container.replaceChild(placeholder, child);
+         hibernated_.put(placeholderId(placeholder), child);
+      }
+   }
+
+   /**
+    * Finds an element inside a message that has been swapped out, swapping
+    * the message back in if it's found.
+    *
+    * @return The element, or null if no swapped out message contains it
+    */
+   public Element restoreElementById(String id)
+   {
+      if (id == null || hibernated_.isEmpty())
+         return null;
+
+      for (Map.Entry<String, Element> entry : hibernated_.entrySet())
+      {
+         Element found = findById(entry.getValue(), id);
+         if (found != null)
+         {
+            Element placeholder = findPlaceholder(entry.getKey());
+            if (placeholder == null)
+               return null;
+            restore(placeholder);
+            return found;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Forgets all swapped out messages; used when the conversation is cleared
+    * or replaced.
+    */
+   public void reset()
+   {
+      hibernated_.clear();
+   }
+
+   private void restore(Element placeholder)
+   {
+      Element original = hibernated_.remove(placeholderId(placeholder));
+      if (original != null && placeholder.getParentElement() != null)
+         placeholder.getParentElement().replaceChild(original, placeholder);
+   }
+
+   private boolean canHibernate(Element child)
+   {
+      String className = child.getClassName();
+      return "user-container".equals(className) ||
+             "message assistant".equals(className) ||
+             "message assistant function-call-message".equals(className);
+   }
+
+   private boolean isPlaceholder(Element element)
+   {
+      return PLACEHOLDER_CLASS.equals(element.getClassName());
+   }
+
+   private String placeholderId(Element placeholder)
+   {
+      String id = placeholder.getAttribute(PLACEHOLDER_ID_ATTR);
+      if (id == null || id.isEmpty())
+      {
+         id = String.valueOf(nextPlaceholderId_++);
+         placeholder.setAttribute(PLACEHOLDER_ID_ATTR, id);
+      }
+      return id;
+   }
+
+   private Element findPlaceholder(String id)
+   {
+      return querySelector(Document.get().getBody(),
+            "[" + PLACEHOLDER_ID_ATTR + "='" + id + "']");
+   }
+
+   private static native int getTopInView(Element element, Element scroller) /*-{
+      return Math.round(element.getBoundingClientRect().top -
+                        scroller.getBoundingClientRect().top);
+   }-*/;
+
+   private static native Element findById(Element element, String id) /*-{
+      if (element.id === id)
+         return element;
+      return element.querySelector('#' + $wnd.CSS.escape(id));
+   }-*/;
+
+   private static native Element querySelector(Element element, String selector) /*-{
+      return element.querySelector(selector);
+   }-*/;
+
+   // placeholder id -> the message it stands in for
+   private final Map<String, Element> hibernated_;
+   private int nextPlaceholderId_ = 0;
+
+   private static final int KEEP_VIEWS = 2;
+   private static final String PLACEHOLDER_CLASS = "ai-message-placeholder";
+   private static final String PLACEHOLDER_ID_ATTR = "data-placeholder-id";
+}
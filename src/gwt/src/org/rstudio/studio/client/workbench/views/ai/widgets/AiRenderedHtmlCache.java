@@ -0,0 +1,70 @@
+/*
+ * AiRenderedHtmlCache.java
+ *
+ * Copyright (C) 2025 by William Nickols
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ */
+
+package org.rstudio.studio.client.workbench.views.ai.widgets;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The HTML rendered from the markdown of complete messages, kept per
+ * conversation so that switching back to a conversation (or loading its
+ * older turns again) doesn't render every message again. Both the number of
+ * messages kept per conversation and the number of conversations are
+ * bounded, dropping whatever was used least recently.
+ */
+public class AiRenderedHtmlCache
+{
+   public AiRenderedHtmlCache()
+   {
+      conversations_ = new LruMap<>(MAX_CONVERSATIONS);
+   }
+
+   public String get(int conversationId, String markdown)
+   {
+      LruMap<String, String> rendered = conversations_.get(conversationId);
+      return rendered == null ? null : rendered.get(markdown);
+   }
+
+   public void put(int conversationId, String markdown, String html)
+   {
+      LruMap<String, String> rendered = conversations_.get(conversationId);
+      if (rendered == null)
+      {
+         rendered = new LruMap<>(MAX_MESSAGES_PER_CONVERSATION);
+         conversations_.put(conversationId, rendered);
+      }
+      rendered.put(markdown, html);
+   }
+
+   private static class LruMap<K, V> extends LinkedHashMap<K, V>
+   {
+      LruMap(int capacity)
+      {
+         super(16, 0.75f, true);
+         capacity_ = capacity;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+      {
+         return size() > capacity_;
+      }
+
+      private final int capacity_;
+   }
+
+   private final LruMap<Integer, LruMap<String, String>> conversations_;
+
+   private static final int MAX_CONVERSATIONS = 8;
+   private static final int MAX_MESSAGES_PER_CONVERSATION = 200;
+}
@@ -92,6 +92,14 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
       }
    }
 
+   /**
+    * Requests the turns before a given message from the server
+    */
+   public interface OlderTurnsLoader
+   {
+      void loadOlderTurns(String beforeId);
+   }
+
    public interface Styles extends CssResource
    {
       String aiStreamingPanel();
@@ -221,6 +229,7 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
       
       // Set the HTML content
       setHTML(generatedHtml);
+      conversationWindow_.reset();
    }
    
    /**
@@ -390,6 +399,7 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
             break;
          case "clear_conversation":
             clearAllContent();
+            olderTurnsBeforeId_ = null;
             // Reset expected sequence when conversation is cleared and rebuilt
             // Set to 0 so that after increment it becomes 1, matching start_background_recreation
             expectedSequence_ = 0;
@@ -417,6 +427,17 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
          case "finish_background_recreation":
             finishBackgroundRecreation();
             break;
+         case "older_turns_available":
+            // The conversation was sent starting with this message; older turns are loaded on demand
+            olderTurnsBeforeId_ = event.messageId;
+            break;
+         case "start_older_turns":
+            startOlderTurns();
+            break;
+         case "finish_older_turns":
+            // content holds the message the next page ends before (empty if there is none)
+            finishOlderTurns(event.content);
+            break;
          default:
             // Unknown operation type - skip
             break;
@@ -620,7 +641,7 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
       insertElementInOrder(conversationElement, messageDiv, messageId, currentProcessingSequence_);
       
       // Render markdown for complete message
-      renderMarkdownContent(content, new CommandWithArg<String>() {
+      renderMarkdownContent(content, true, new CommandWithArg<String>() {
          @Override
          public void execute(String renderedHtml)
          {
@@ -699,7 +720,8 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
       if (contentElement != null)
       {
          // Always render markdown in real-time, both during streaming and when complete
-         renderMarkdownContent(newContent, new CommandWithArg<String>() {
+         // Only the final content is worth caching
+         renderMarkdownContent(newContent, isComplete && !isCancelled, new CommandWithArg<String>() {
             @Override
             public void execute(String renderedHtml)
             {
@@ -1189,9 +1211,19 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
    
    /**
     * Common method for rendering markdown with consistent cleanup
+    * @param cache Whether to keep (and reuse) the rendered HTML for this conversation
     */
-   private void renderMarkdownContent(String content, CommandWithArg<String> callback)
+   private void renderMarkdownContent(String content, boolean cache, CommandWithArg<String> callback)
    {
+      int conversationId = currentConversationId_;
+      if (cache) {
+         String cachedHtml = htmlCache_.get(conversationId, content);
+         if (cachedHtml != null) {
+            callback.execute(cachedHtml);
+            return;
+         }
+      }
+      
       Markdown.markdownToHtml(content, new CommandWithArg<String>() {
          @Override
          public void execute(String renderedHtml)
@@ -1205,6 +1237,10 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
             // Add wrapper div with proper spacing class for assistant messages
             cleanedHtml = "<div class='markdown-content'>" + cleanedHtml + "</div>";
             
+            if (cache) {
+               htmlCache_.put(conversationId, content, cleanedHtml);
+            }
+            
             callback.execute(cleanedHtml);
          }
       });
@@ -1216,6 +1252,10 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
    private Element getElementById(String id)
    {
       Element element = getElement().getOwnerDocument().getElementById(id);
+      if (element == null) {
+         // The element may belong to a message that's been scrolled out of view
+         element = conversationWindow_.restoreElementById(id);
+      }
       return element;
    }
    
@@ -1496,6 +1536,7 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
       
       // Atomic swap: move actual DOM nodes (preserves widget connections)
       foregroundContainer.removeAllChildren();
+      conversationWindow_.reset();
       while (backgroundContainer_.getChildCount() > 0) {
          com.google.gwt.dom.client.Node child = backgroundContainer_.getFirstChild();
          backgroundContainer_.removeChild(child);
@@ -1510,8 +1551,154 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
       backgroundContainer_.removeFromParent();
       backgroundContainer_ = null;
       recreationMode_ = false;
+      loadingOlderTurns_ = false;
+      
+      // Don't mistake the top of the conversation for the user having scrolled there
+      // before it's been scrolled to the bottom
+      awaitingInitialScroll_ = true;
+      attachScrollHandler();
+   }
+   
+   /**
+    * Start receiving a page of older turns; like background recreation, the turns are
+    * built in a hidden container, but the current turns are left as they are
+    */
+   private void startOlderTurns()
+   {
+      recreationMode_ = true;
+      
+      backgroundContainer_ = Document.get().createDivElement();
+      backgroundContainer_.setId("background-older-turns");
+      backgroundContainer_.setClassName("ai-streaming-panel");
+      backgroundContainer_.getStyle().setVisibility(com.google.gwt.dom.client.Style.Visibility.HIDDEN);
+      backgroundContainer_.getStyle().setPosition(com.google.gwt.dom.client.Style.Position.ABSOLUTE);
+      backgroundContainer_.getStyle().setTop(-10000, com.google.gwt.dom.client.Style.Unit.PX);
+      
+      Document.get().getBody().appendChild(backgroundContainer_);
+   }
+   
+   /**
+    * Move a page of older turns above the current ones, keeping the current turns where
+    * they are on screen
+    * @param nextBeforeId The message the next page of older turns ends before, or empty if
+    *    there are no older turns
+    */
+   private void finishOlderTurns(String nextBeforeId)
+   {
+      olderTurnsBeforeId_ = (nextBeforeId == null || nextBeforeId.isEmpty()) ? null : nextBeforeId;
+      loadingOlderTurns_ = false;
+      
+      if (!recreationMode_ || backgroundContainer_ == null) {
+         return;
+      }
+      
+      Element foregroundContainer = getElementById("streaming-conversation");
+      Element scroller = findScrollableParent();
+      if (foregroundContainer != null) {
+         int oldScrollHeight = scroller == null ? 0 : scroller.getScrollHeight();
+         
+         com.google.gwt.dom.client.Node firstChild = foregroundContainer.getFirstChild();
+         while (backgroundContainer_.getChildCount() > 0) {
+            com.google.gwt.dom.client.Node child = backgroundContainer_.getFirstChild();
+            backgroundContainer_.removeChild(child);
+            if (firstChild == null) {
+               foregroundContainer.appendChild(child);
+            } else {
+               foregroundContainer.insertBefore(child, firstChild);
+            }
+         }
+         
+         // Keep what the user was looking at in place as the page is added above it
+         if (scroller != null) {
+            scroller.setScrollTop(scroller.getScrollTop() + scroller.getScrollHeight() - oldScrollHeight);
+         }
+      }
+      
+      backgroundContainer_.removeFromParent();
+      backgroundContainer_ = null;
+      recreationMode_ = false;
+   }
+   
+   /**
+    * Set the handler used to request older turns as the user scrolls up
+    */
+   public void setOlderTurnsLoader(OlderTurnsLoader loader)
+   {
+      olderTurnsLoader_ = loader;
+   }
+   
+   /**
+    * Allow older turns to be requested again, e.g. after a request failed
+    */
+   public void onOlderTurnsFailed()
+   {
+      loadingOlderTurns_ = false;
+   }
+   
+   /**
+    * Called when the conversation is scrolled; loads older turns when the user reaches
+    * the top, and swaps messages that are far out of view for placeholders
+    */
+   private void onConversationScrolled()
+   {
+      if (scrollUpdatePending_) {
+         return;
+      }
+      scrollUpdatePending_ = true;
+      
+      Scheduler.get().scheduleDeferred(() ->
+      {
+         scrollUpdatePending_ = false;
+         if (recreationMode_ || awaitingInitialScroll_) {
+            return;
+         }
+         
+         Element scroller = findScrollableParent();
+         if (scroller == null) {
+            return;
+         }
+         
+         if (olderTurnsBeforeId_ != null && !loadingOlderTurns_ && olderTurnsLoader_ != null &&
+             streamingMessages_.isEmpty() && scroller.getScrollTop() < OLDER_TURNS_SCROLL_THRESHOLD) {
+            loadingOlderTurns_ = true;
+            olderTurnsLoader_.loadOlderTurns(olderTurnsBeforeId_);
+         }
+         
+         // The last few messages may still be streaming or about to be, so they always stay
+         conversationWindow_.update(getElementById("streaming-conversation"), scroller, KEEP_LAST_MESSAGES);
+      });
    }
    
+   /**
+    * Listen for scrolling of the element the conversation is scrolled in (once per element)
+    */
+   private native void attachScrollHandler() /*-{
+      var self = this;
+      var scroller = self.@org.rstudio.studio.client.workbench.views.ai.widgets.AiStreamingPanel::findScrollableParent()();
+      if (!scroller || scroller.__aiConversationScrollHandler)
+         return;
+      
+      scroller.__aiConversationScrollHandler = $entry(function() {
+         self.@org.rstudio.studio.client.workbench.views.ai.widgets.AiStreamingPanel::onConversationScrolled()();
+      });
+      scroller.addEventListener('scroll', scroller.__aiConversationScrollHandler, { passive: true });
+   }-*/;
+   
+   /**
+    * Find the element the conversation is scrolled in, if any
+    */
+   private native Element findScrollableParent() /*-{
+      var element = this.@com.google.gwt.user.client.ui.UIObject::getElement()();
+      while (element) {
+         var overflowY = $wnd.getComputedStyle(element).overflowY;
+         if (overflowY === 'auto' || overflowY === 'scroll') {
+            return element;
+         }
+         element = element.parentElement;
+      }
+      return null;
+   }-*/;
+   
    /**
     * Use requestAnimationFrame to ensure DOM is updated before scrolling
     */
@@ -1519,6 +1706,7 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
       var self = this;
       $wnd.requestAnimationFrame(function() {
          self.@org.rstudio.studio.client.workbench.views.ai.widgets.AiStreamingPanel::scrollToBottomNative()();
+         self.@org.rstudio.studio.client.workbench.views.ai.widgets.AiStreamingPanel::awaitingInitialScroll_ = false;
       });
    }-*/;
    
@@ -1908,6 +2096,17 @@ public class AiStreamingPanel extends HTML implements AiStreamDataEvent.Handler,
    private boolean recreationMode_;
    private Element backgroundContainer_;
    
+   // Paged loading of older turns, and keeping only the messages near the view in the DOM
+   private String olderTurnsBeforeId_;
+   private boolean loadingOlderTurns_;
+   private OlderTurnsLoader olderTurnsLoader_;
+   private boolean scrollUpdatePending_;
+   private boolean awaitingInitialScroll_;
+   private final AiConversationWindow conversationWindow_ = new AiConversationWindow();
+   private final AiRenderedHtmlCache htmlCache_ = new AiRenderedHtmlCache();
+   private static final int OLDER_TURNS_SCROLL_THRESHOLD = 200;
+   private static final int KEEP_LAST_MESSAGES = 4;
+   
    // Function call buffering for parallel function calls (rao 0.2.3+)
    private List<QueuedEvent> functionCallBuffer_;
    private boolean processingFunctionCall_;
@@ -63,6 +63,7 @@ import org.rstudio.studio.client.workbench.views.connections.events.PerformConne
 import org.rstudio.studio.client.workbench.views.connections.events.ViewConnectionDatasetEvent;
 import org.rstudio.studio.client.workbench.views.connections.model.Connection;
 import org.rstudio.studio.client.workbench.views.connections.model.ConnectionId;
+import org.rstudio.studio.client.workbench.views.connections.model.ConnectionObjectCache;
 import org.rstudio.studio.client.workbench.views.connections.model.ConnectionOptions;
 import org.rstudio.studio.client.workbench.views.connections.model.ConnectionUpdateResult;
 import org.rstudio.studio.client.workbench.views.connections.model.ConnectionsServerOperations;
@@ -120,7 +121,8 @@ public class ConnectionsPresenter extends BasePresenter
                                final Commands commands,
                                WorkbenchListManager listManager,
                                Session session,
-                               ApplicationInterrupt applicationInterrupt)
+                               ApplicationInterrupt applicationInterrupt,
+                               ConnectionObjectCache objectCache)
    {
       super(display);
       binder.bind(commands, this);
@@ -132,6 +134,7 @@ public class ConnectionsPresenter extends BasePresenter
       globalDisplay_ = globalDisplay;
       eventBus_ = eventBus;
       applicationInterrupt_ = applicationInterrupt;
+      objectCache_ = objectCache;
          
       // search filter
       display_.addSearchFilterChangeHandler(new ValueChangeHandler<String>() {
@@ -250,6 +253,10 @@ public class ConnectionsPresenter extends BasePresenter
    
    public void onConnectionUpdated(ConnectionUpdatedEvent event)
    {  
+      // the connection's objects changed on the server side; drop its cached
+      // listings whether or not it's the one being explored
+      objectCache_.invalidate(event.getConnectionId());
+      
       if (exploredConnection_ == null)
          return;
       
@@ -470,6 +477,7 @@ public class ConnectionsPresenter extends BasePresenter
          @Override
          public void execute()
          {
+            objectCache_.invalidate(exploredConnection_.getId());
             server_.connectionDisconnect(exploredConnection_.getId(), 
                   new VoidServerRequestCallback());
          }  
@@ -499,6 +507,7 @@ public class ConnectionsPresenter extends BasePresenter
       if (exploredConnection_ == null)
          return;
       
+      objectCache_.invalidate(exploredConnection_.getId());
       display_.updateExploredConnection("");
    }
    
@@ -510,6 +519,22 @@ public class ConnectionsPresenter extends BasePresenter
    
    private void updateConnections(JsArray<Connection> connections)
    {
+      // drop cached listings for connections that were removed
+      for (Connection connection : allConnections_)
+      {
+         boolean found = false;
+         for (int i = 0; i<connections.length(); i++)
+         {
+            if (connections.get(i).getId().equalTo(connection.getId()))
+            {
+               found = true;
+               break;
+            }
+         }
+         if (!found)
+            objectCache_.invalidate(connection.getId());
+      }
+      
       // update all connections
       allConnections_.clear();
       for (int i = 0; i<connections.length(); i++)
@@ -535,6 +560,22 @@ public class ConnectionsPresenter extends BasePresenter
    
    private void updateActiveConnections(JsArray<ConnectionId> connections)
    {
+      // drop cached listings for connections that were closed
+      for (ConnectionId id : activeConnections_)
+      {
+         boolean found = false;
+         for (int i = 0; i<connections.length(); i++)
+         {
+            if (connections.get(i).equalTo(id))
+            {
+               found = true;
+               break;
+            }
+         }
+         if (!found)
+            objectCache_.invalidate(id);
+      }
+      
       activeConnections_.clear();
       for (int i = 0; i<connections.length(); i++)
          activeConnections_.add(connections.get(i));  
@@ -607,6 +648,7 @@ public class ConnectionsPresenter extends BasePresenter
    private UserPrefs userPrefs_;
    private final ConnectionsServerOperations server_;
    @SuppressWarnings("unused") private final ApplicationInterrupt applicationInterrupt_;
+   private final ConnectionObjectCache objectCache_;
    
    // client state
    public static final String MODULE_CONNECTIONS = "connections-pane";
@@ -0,0 +1,328 @@
+/*
+ * ConnectionObjectCache.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.connections.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Caches the object and field listings of open connections, so expanding,
+ * filtering, and re-rendering the object browser doesn't go back to the
+ * (potentially slow) database driver each time.
+ *
+ * Entries are keyed by connection and object path, expire after a fixed
+ * time-to-live, and are dropped explicitly when the connection reports that
+ * it has changed, is refreshed by the user, or is closed or removed. Expired
+ * entries are removed whenever a listing is added, and the least recently
+ * used are evicted beyond a fixed count. Concurrent requests for the same
+ * listing share a single server call. Once a level has been listed, the
+ * first few of its children are listed in the background (one request at a
+ * time) so that expanding them is instant.
+ */
+@Singleton
+public class ConnectionObjectCache
+{
+   @Inject
+   public ConnectionObjectCache(ConnectionsServerOperations server)
+   {
+      server_ = server;
+   }
+
+   public void listObjects(Connection connection,
+                           DatabaseObject parent,
+                           ServerRequestCallback<JsArray<DatabaseObject>> callback)
+   {
+      final ConnectionObjectSpecifier specifier = parent == null ?
+            new ConnectionObjectSpecifier() : parent.createSpecifier();
+
+      this.<DatabaseObject>lookup(
+            cacheKey(connection.getId(), KIND_OBJECTS, specifier),
+            callback,
+            (entryCallback) -> server_.connectionListObjects(
+                  connection.getId(), specifier, entryCallback));
+   }
+
+   public void listFields(Connection connection,
+                          DatabaseObject table,
+                          ServerRequestCallback<JsArray<Field>> callback)
+   {
+      final ConnectionObjectSpecifier specifier = table.createSpecifier();
+
+      this.<Field>lookup(
+            cacheKey(connection.getId(), KIND_FIELDS, specifier),
+            callback,
+            (entryCallback) -> server_.connectionListFields(
+                  connection.getId(), specifier, entryCallback));
+   }
+
+   /**
+    * Queues background listings for the first children of a container that
+    * was just listed.
+    */
+   public void prefetchChildren(Connection connection,
+                                JsArray<DatabaseObject> objects)
+   {
+      int count = Math.min(objects.length(), MAX_PREFETCH_PER_LEVEL);
+      for (int i = 0; i < count; i++)
+      {
+         DatabaseObject object = objects.get(i);
+
+         // only containers and data objects have children to list
+         if (connection.getObjectType(object.getType()) == null)
+            continue;
+
+         prefetchQueue_.add(new PrefetchRequest(connection, object));
+      }
+
+      prefetchNext();
+   }
+
+   /**
+    * Drops all cached listings (and pending prefetches) for a connection.
+    */
+   public void invalidate(ConnectionId id)
+   {
+      String prefix = id.asString() + KEY_SEPARATOR;
+
+      Iterator<Map.Entry<String, Entry<?>>> entries = entries_.entrySet().iterator();
+      while (entries.hasNext())
+      {
+         Map.Entry<String, Entry<?>> entry = entries.next();
+
+         // keep entries with requests in flight so their callers still
+         // get an answer; they'll be treated as stale once they land
+         if (entry.getKey().startsWith(prefix))
+         {
+            if (entry.getValue().isPending())
+               entry.getValue().invalidated = true;
+            else
+               entries.remove();
+         }
+      }
+
+      Iterator<PrefetchRequest> requests = prefetchQueue_.iterator();
+      while (requests.hasNext())
+      {
+         if (requests.next().connection.getId().equalTo(id))
+            requests.remove();
+      }
+   }
+
+   private interface Fetcher<T extends JavaScriptObject>
+   {
+      void fetch(ServerRequestCallback<JsArray<T>> callback);
+   }
+
+   private static class Entry<T extends JavaScriptObject>
+   {
+      boolean isPending()
+      {
+         return callbacks != null;
+      }
+
+      boolean isFresh()
+      {
+         return data != null &&
+                !invalidated &&
+                !isExpired(System.currentTimeMillis());
+      }
+
+      boolean isExpired(double now)
+      {
+         return now - timestamp >= TTL_MS;
+      }
+
+      JsArray<T> data;
+      double timestamp;
+      boolean invalidated;
+      List<ServerRequestCallback<JsArray<T>>> callbacks;
+   }
+
+   private static class PrefetchRequest
+   {
+      PrefetchRequest(Connection connection, DatabaseObject object)
+      {
+         this.connection = connection;
+         this.object = object;
+      }
+
+      final Connection connection;
+      final DatabaseObject object;
+   }
+
+   @SuppressWarnings("unchecked")
+   private <T extends JavaScriptObject> void lookup(
+         final String key,
+         ServerRequestCallback<JsArray<T>> callback,
+         Fetcher<T> fetcher)
+   {
+      Entry<T> entry = (Entry<T>) entries_.get(key);
+
+      // serve directly from the cache if we can
+      if (entry != null && entry.isFresh())
+      {
+         callback.onResponseReceived(entry.data);
+         return;
+      }
+
+      // if someone else is already asking for this, wait with them
+      if (entry != null && entry.isPending())
+      {
+         entry.callbacks.add(callback);
+         return;
+      }
+
+      removeExpired();
+
+      final Entry<T> pending = new Entry<>();
+      pending.callbacks = new ArrayList<>();
+      pending.callbacks.add(callback);
+      entries_.put(key, pending);
+
+      fetcher.fetch(new ServerRequestCallback<JsArray<T>>()
+      {
+         @Override
+         public void onResponseReceived(JsArray<T> data)
+         {
+            List<ServerRequestCallback<JsArray<T>>> callbacks = pending.callbacks;
+            pending.callbacks = null;
+            pending.data = data;
+            pending.timestamp = System.currentTimeMillis();
+            if (pending.invalidated && entries_.get(key) == pending)
+               entries_.remove(key);
+
+            for (ServerRequestCallback<JsArray<T>> cb : callbacks)
+            {
+               try
+               {
+                  cb.onResponseReceived(data);
+               }
+               catch (Exception e)
+               {
+                  Debug.logException(e);
+               }
+            }
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            List<ServerRequestCallback<JsArray<T>>> callbacks = pending.callbacks;
+            pending.callbacks = null;
+            if (entries_.get(key) == pending)
+               entries_.remove(key);
+
+            for (ServerRequestCallback<JsArray<T>> cb : callbacks)
+               cb.onError(error);
+         }
+      });
+   }
+
+   private void removeExpired()
+   {
+      double now = System.currentTimeMillis();
+      Iterator<Entry<?>> entries = entries_.values().iterator();
+      while (entries.hasNext())
+      {
+         Entry<?> entry = entries.next();
+         if (!entry.isPending() && entry.isExpired(now))
+            entries.remove();
+      }
+   }
+
+   private void prefetchNext()
+   {
+      if (prefetching_ || prefetchQueue_.isEmpty())
+         return;
+
+      PrefetchRequest request = prefetchQueue_.removeFirst();
+      prefetching_ = true;
+
+      if (request.connection.isDataType(request.object.getType()))
+      {
+         listFields(request.connection, request.object,
+               new PrefetchCallback<>());
+      }
+      else
+      {
+         // only prefetch one level ahead; the children of the listed
+         // objects are queued when the user expands them
+         listObjects(request.connection, request.object,
+               new PrefetchCallback<>());
+      }
+   }
+
+   private class PrefetchCallback<T> extends ServerRequestCallback<T>
+   {
+      @Override
+      public void onResponseReceived(T response)
+      {
+         prefetching_ = false;
+         prefetchNext();
+      }
+
+      @Override
+      public void onError(ServerError error)
+      {
+         // prefetching is opportunistic; errors are reported when the
+         // user actually expands the node
+         prefetching_ = false;
+         prefetchNext();
+      }
+   }
+
+   private static String cacheKey(ConnectionId id,
+                                  String kind,
+                                  ConnectionObjectSpecifier specifier)
+   {
+      return id.asString() + KEY_SEPARATOR + kind + KEY_SEPARATOR + specifier.getPathKey();
+   }
+
+   private final ConnectionsServerOperations server_;
+   // in least recently used order
+   private final LinkedHashMap<String, Entry<?>> entries_ =
+         new LinkedHashMap<String, Entry<?>>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<?>> eldest)
+      {
+         // entries with requests in flight stay until they land
+         return size() > MAX_ENTRIES && !eldest.getValue().isPending();
+      }
+   };
+   private final LinkedList<PrefetchRequest> prefetchQueue_ = new LinkedList<>();
+   private boolean prefetching_ = false;
+
+   private static final String KIND_OBJECTS = "objects";
+   private static final String KIND_FIELDS = "fields";
+   private static final String KEY_SEPARATOR = "\u001F";
+
+   private static final double TTL_MS = 5 * 60 * 1000;
+   private static final int MAX_PREFETCH_PER_LEVEL = 25;
+   private static final int MAX_ENTRIES = 500;
+}
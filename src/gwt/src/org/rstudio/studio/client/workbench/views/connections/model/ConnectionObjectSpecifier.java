@@ -48,5 +48,22 @@ public class ConnectionObjectSpecifier
       return JsArrayUtil.toJsArray(containers_);
    }
    
+   /**
+    * @return A string uniquely identifying this object path (used as a
+    *    cache key)
+    */
+   public String getPathKey()
+   {
+      StringBuilder builder = new StringBuilder();
+      for (ConnectionPathEntry entry : containers_)
+      {
+         builder.append(entry.getType())
+                .append(':')
+                .append(entry.getName())
+                .append('/');
+      }
+      return builder.toString();
+   }
+   
    private final ArrayList<ConnectionPathEntry> containers_;
 }
@@ -22,7 +22,6 @@ import java.util.Set;
 import com.google.gwt.core.client.GWT;
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.Debug;
-import org.rstudio.core.client.JsArrayUtil;
 import org.rstudio.core.client.SafeHtmlUtil;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.js.JsObject;
@@ -34,9 +33,8 @@ import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.workbench.views.connections.ConnectionsConstants;
 import org.rstudio.studio.client.workbench.views.connections.events.ViewConnectionDatasetEvent;
 import org.rstudio.studio.client.workbench.views.connections.model.Connection;
-import org.rstudio.studio.client.workbench.views.connections.model.ConnectionObjectSpecifier;
+import org.rstudio.studio.client.workbench.views.connections.model.ConnectionObjectCache;
 import org.rstudio.studio.client.workbench.views.connections.model.ConnectionObjectType;
-import org.rstudio.studio.client.workbench.views.connections.model.ConnectionsServerOperations;
 import org.rstudio.studio.client.workbench.views.connections.model.DatabaseObject;
 import org.rstudio.studio.client.workbench.views.connections.model.Field;
 
@@ -52,6 +50,7 @@ import com.google.gwt.user.client.Command;
 import com.google.gwt.view.client.AsyncDataProvider;
 import com.google.gwt.view.client.HasData;
 import com.google.gwt.view.client.NoSelectionModel;
+import com.google.gwt.view.client.Range;
 import com.google.gwt.view.client.TreeViewModel;
 import com.google.inject.Inject;
 
@@ -63,10 +62,10 @@ public class ObjectBrowserModel implements TreeViewModel
    }
    
    @Inject
-   public void initialize(ConnectionsServerOperations server,
+   public void initialize(ConnectionObjectCache cache,
                           EventBus eventBus)
    {
-      server_ = server;
+      cache_ = cache;
       eventBus_ = eventBus;
    }
   
@@ -322,8 +321,20 @@ public class ObjectBrowserModel implements TreeViewModel
       private void updateData(JsArray<DatabaseObject> objects)
       {
          updateRowCount(objects.length(), true);
-         ArrayList<DatabaseObject> data = JsArrayUtil.toArrayList(objects);
-         updateRowData(0, data);
+         
+         // only hand each display the page it's showing; the CellTree's
+         // "Show more" link widens the range and is served from the list
+         // we already have
+         for (HasData<DatabaseObject> display : getDataDisplays())
+         {
+            Range range = display.getVisibleRange();
+            int start = Math.min(range.getStart(), objects.length());
+            int end = Math.min(start + range.getLength(), objects.length());
+            ArrayList<DatabaseObject> data = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++)
+               data.add(objects.get(i));
+            updateRowData(display, start, data);
+         }
          fireUpdateCompleted();
       }
       
@@ -336,16 +347,10 @@ public class ObjectBrowserModel implements TreeViewModel
             return;
          }
          
-         // create the specifier
-         ConnectionObjectSpecifier specifier = null;
-         if (parent_ == null)
-            specifier = new ConnectionObjectSpecifier();
-         else
-            specifier = parent_.createSpecifier();
-         
-         server_.connectionListObjects(
-            connection_.getId(), 
-            specifier,
+         final Connection connection = connection_;
+         cache_.listObjects(
+            connection, 
+            parent_,
             new SimpleRequestCallback<JsArray<DatabaseObject>>() {
                @Override
                public void onResponseReceived(JsArray<DatabaseObject> objects)
@@ -374,6 +379,9 @@ public class ObjectBrowserModel implements TreeViewModel
                   // clear completed continuations
                   objectListContinuations_.clear();
                   dequeNodeExpansion(parent_);
+                  
+                  // list the next level down while the user looks at this one
+                  cache_.prefetchChildren(connection, objects);
                }
                
                @Override
@@ -434,9 +442,9 @@ public class ObjectBrowserModel implements TreeViewModel
             return;
          }
 
-         server_.connectionListFields(
-               connection_.getId(),
-               table_.createSpecifier(),
+         cache_.listFields(
+               connection_,
+               table_,
                new SimpleRequestCallback<JsArray<Field>>() {
                   @Override
                   public void onResponseReceived(JsArray<Field> fields)
@@ -547,7 +555,7 @@ public class ObjectBrowserModel implements TreeViewModel
    private Command onTableUpdateCompleted_ = null;
    private Command onNodeExpansionCompleted_ = null;
    
-   private ConnectionsServerOperations server_;
+   private ConnectionObjectCache cache_;
    private EventBus eventBus_;
 
    private final ArrayList<CommandWithArg<JsArray<DatabaseObject>>> objectListContinuations_ =
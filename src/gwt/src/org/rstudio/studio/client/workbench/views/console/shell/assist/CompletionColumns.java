@@ -0,0 +1,191 @@
+/*
+ * CompletionColumns.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.console.shell.assist;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.common.codetools.Completions;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.QualifiedName;
+
+import com.google.gwt.core.client.JsArrayBoolean;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayString;
+
+/**
+ * Completions stored as columns (one array per field) rather than as an
+ * object per completion. The server's arrays are used as they are; the few
+ * completions found on the client (scoped variables, snippets, and so on)
+ * are appended after them. Completions are identified by their index, and a
+ * QualifiedName is only created when a completion is displayed or selected.
+ */
+public class CompletionColumns
+{
+   public interface IndexComparator
+   {
+      int compare(int lhs, int rhs);
+   }
+
+   public CompletionColumns(Completions response)
+   {
+      names_ = response.getCompletions();
+      display_ = response.getCompletionsDisplay();
+      packages_ = response.getPackages();
+      quote_ = response.getQuote();
+      types_ = response.getType();
+      suggestOnAccept_ = response.getSuggestOnAccept();
+      replaceToEnd_ = response.getReplaceToEnd();
+      meta_ = response.getMeta();
+      contexts_ = response.getContext();
+      helpHandler_ = response.getHelpHandler();
+      language_ = response.getLanguage();
+      serverCount_ = names_.length();
+      cache_ = new QualifiedName[serverCount_];
+   }
+
+   /**
+    * Appends a completion.
+    *
+    * @return The index of the completion
+    */
+   public int add(QualifiedName name)
+   {
+      extras_.add(name);
+      return serverCount_ + extras_.size() - 1;
+   }
+
+   public int size()
+   {
+      return serverCount_ + extras_.size();
+   }
+
+   public String getName(int index)
+   {
+      return index < serverCount_ ? names_.get(index) : extra(index).name;
+   }
+
+   public String getSource(int index)
+   {
+      return index < serverCount_ ? packages_.get(index) : extra(index).source;
+   }
+
+   public int getType(int index)
+   {
+      return index < serverCount_ ? types_.get(index) : extra(index).type;
+   }
+
+   public int getContext(int index)
+   {
+      return index < serverCount_ ? contexts_.get(index) : extra(index).context;
+   }
+
+   public String getMeta(int index)
+   {
+      return index < serverCount_ ? meta_.get(index) : extra(index).meta;
+   }
+
+   /**
+    * Gets the completion at the given index, creating its QualifiedName the
+    * first time it's requested.
+    */
+   public QualifiedName get(int index)
+   {
+      if (index >= serverCount_)
+         return extra(index);
+
+      QualifiedName name = cache_[index];
+      if (name == null)
+      {
+         name = new QualifiedName(
+               names_.get(index),
+               display_.get(index),
+               packages_.get(index),
+               quote_.get(index),
+               types_.get(index),
+               suggestOnAccept_.get(index),
+               replaceToEnd_.get(index),
+               meta_.get(index),
+               helpHandler_,
+               language_,
+               contexts_.get(index));
+         cache_[index] = name;
+      }
+      return name;
+   }
+
+   /**
+    * Compares two completions in the same order as QualifiedName.compareTo().
+    */
+   public int compare(int lhs, int rhs)
+   {
+      return QualifiedName.compare(getName(lhs), getSource(lhs),
+                                   getName(rhs), getSource(rhs));
+   }
+
+   /**
+    * Sorts the first 'length' entries of an array of completion indices.
+    * The sort is stable, like List.sort(), and doesn't box the indices.
+    */
+   public static void sort(int[] indices, int length, IndexComparator comparator)
+   {
+      if (length < 2)
+         return;
+
+      int[] scratch = new int[length];
+      for (int width = 1; width < length; width *= 2)
+      {
+         for (int lo = 0; lo < length - width; lo += 2 * width)
+         {
+            int mid = lo + width;
+            int hi = Math.min(lo + 2 * width, length);
+
+            // already in order; nothing to merge
+            if (comparator.compare(indices[mid - 1], indices[mid]) <= 0)
+               continue;
+
+            System.arraycopy(indices, lo, scratch, lo, hi - lo);
+            int i = lo;
+            int j = mid;
+            for (int k = lo; k < hi; k++)
+            {
+               if (i < mid && (j >= hi || comparator.compare(scratch[i], scratch[j]) <= 0))
+                  indices[k] = scratch[i++];
+               else
+                  indices[k] = scratch[j++];
+            }
+         }
+      }
+   }
+
+   private QualifiedName extra(int index)
+   {
+      return extras_.get(index - serverCount_);
+   }
+
+   private final JsArrayString names_;
+   private final JsArrayString display_;
+   private final JsArrayString packages_;
+   private final JsArrayBoolean quote_;
+   private final JsArrayInteger types_;
+   private final JsArrayBoolean suggestOnAccept_;
+   private final JsArrayBoolean replaceToEnd_;
+   private final JsArrayString meta_;
+   private final JsArrayInteger contexts_;
+   private final String helpHandler_;
+   private final String language_;
+   private final int serverCount_;
+
+   private final QualifiedName[] cache_;
+   private final ArrayList<QualifiedName> extras_ = new ArrayList<>();
+}
@@ -19,7 +19,9 @@ import com.google.gwt.event.logical.shared.HasSelectionHandlers;
 import com.google.gwt.event.logical.shared.SelectionEvent;
 import com.google.gwt.event.logical.shared.SelectionHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.HTML;
 import com.google.gwt.user.client.ui.HTMLTable.Cell;
 import com.google.gwt.user.client.ui.HTMLTable.CellFormatter;
@@ -32,6 +34,11 @@ import org.rstudio.core.client.events.SelectionCommitEvent;
 import org.rstudio.core.client.widget.FontSizer;
 import org.rstudio.studio.client.workbench.views.console.ConsoleResources;
 
+/**
+ * A scrolling list of completion items. Only a window of rows around the
+ * visible ones is rendered (and only those items are requested from the
+ * item list), so long lists cost no more to show than short ones.
+ */
 class CompletionList<TItem> extends Composite
          implements HasSelectionCommitHandlers<TItem>,
                     HasSelectionHandlers<TItem>
@@ -43,8 +50,8 @@ class CompletionList<TItem> extends Composite
          Cell cell = grid_.getCellForEvent(event);
          if (cell != null)
          {
-            int rowClicked = cell.getRowIndex();
-            SelectionCommitEvent.fire(CompletionList.this, items_[rowClicked]);
+            int rowClicked = windowStart_ + cell.getRowIndex();
+            SelectionCommitEvent.fire(CompletionList.this, items_.get(rowClicked));
          }
       }
 
@@ -73,7 +80,7 @@ class CompletionList<TItem> extends Composite
          int mousedOverRow = grid_.getRowForEvent(event);
          if (mousedOverRow >= 0)
          {
-            setSelectedIndex(mousedOverRow);
+            setSelectedIndex(windowStart_ + mousedOverRow);
          }
       }
 
@@ -81,41 +88,77 @@ class CompletionList<TItem> extends Composite
       private Point lastMouseMoveCoordinates_;
    }
 
-   public CompletionList(TItem[] items,
+   public CompletionList(final TItem[] items,
+                         int visibleItems,
+                         boolean asHtml,
+                         boolean allowVerticalShrink)
+   {
+      this(new CompletionItems<TItem>()
+           {
+              @Override
+              public int size()
+              {
+                 return items.length;
+              }
+
+              @Override
+              public TItem get(int index)
+              {
+                 return items[index];
+              }
+           },
+           visibleItems,
+           asHtml,
+           allowVerticalShrink);
+   }
+
+   public CompletionList(CompletionItems<TItem> items,
                          int visibleItems,
                          boolean asHtml,
                          boolean allowVerticalShrink)
    {
       allowVerticalShrink_ = allowVerticalShrink;
+      asHtml_ = asHtml;
       styles_ = ConsoleResources.INSTANCE.consoleStyles();
-      GridEx grid = new GridEx(items.length, 1);
-      for (int i = 0; i < items.length; i++)
-      {
-         if (asHtml)
-            grid.setHTML(i, 0, items[i].toString());
-         else
-            grid.setText(i, 0, items[i].toString());
-      }
+      items_ = items;
+
+      GridEx grid = new GridEx(0, 1);
       grid.addClickHandler(new GridMouseHandler());
       grid.addMouseMoveHandler(new GridMouseHandler());
       grid.setStylePrimaryName(styles_.completionGrid());
+      grid_ = grid;
 
       FontSizer.applyNormalFontSize(grid);
 
+      // the grid holds the rendered window; its container is sized (once
+      // the row height is known) as though all rows were rendered
+      content_ = new FlowPanel();
+      content_.add(grid);
+
       scrollPanel_ = new ScrollPanel();
       scrollPanel_.getElement().getStyle().setProperty("overflowX", "hidden");
-      scrollPanel_.add(grid);
+      scrollPanel_.add(content_);
       scrollPanel_.setHeight((visibleItems * 22) + "px");
+      scrollPanel_.addScrollHandler(event -> onScroll());
+
+      renderWindow(0);
 
       initWidget(scrollPanel_);
-      grid_ = grid;
-      items_ = items;
    }
 
    @Override
    protected void onLoad()
    {
       super.onLoad();
+
+      if (grid_.getRowCount() > 0)
+      {
+         int rowHeight = grid_.getRowFormatter().getElement(0).getOffsetHeight();
+         if (rowHeight > 0)
+            rowHeight_ = rowHeight;
+      }
+      layoutWindow();
+
       int width = grid_.getOffsetWidth() + 20;
       if (maxWidthInPixels_ != null
           && maxWidthInPixels_ > 0
@@ -133,10 +176,7 @@ class CompletionList<TItem> extends Composite
 
    public int getItemCount()
    {
-      if (grid_ != null)
-         return grid_.getRowCount();
-      else
-         return 0;
+      return items_.size();
    }
 
    public TItem getSelectedItem()
@@ -144,7 +184,7 @@ class CompletionList<TItem> extends Composite
       int index = getSelectedIndex();
       if (index < 0)
          return null;
-      return items_[index];
+      return items_.get(index);
    }
 
    public boolean selectNext()
@@ -220,16 +260,19 @@ class CompletionList<TItem> extends Composite
       if (selectedIndex_ != index)
       {
          CellFormatter cf = grid_.getCellFormatter();
-         if (selectedIndex_ >= 0)
-            cf.removeStyleName(selectedIndex_, 0, styles_.selected());
+         if (isRendered(selectedIndex_))
+            cf.removeStyleName(selectedIndex_ - windowStart_, 0, styles_.selected());
 
          selectedIndex_ = index;
 
          if (index >= 0)
          {
-            cf.addStyleName(selectedIndex_, 0, styles_.selected());
+            if (!isRendered(index))
+               renderWindow(index - WINDOW_SIZE / 2);
+
+            cf.addStyleName(selectedIndex_ - windowStart_, 0, styles_.selected());
             com.google.gwt.dom.client.Element el =
-                  DomUtils.getTableCell(grid_.getElement(), index, 0);
+                  DomUtils.getTableCell(grid_.getElement(), index - windowStart_, 0);
             DomUtils.ensureVisibleVert(scrollPanel_.getElement(), el, 2);
             SelectionEvent.fire(this, getSelectedItem());
          }
@@ -246,8 +289,16 @@ class CompletionList<TItem> extends Composite
       if (index < 0)
          return null;
 
+      if (!isRendered(index))
+      {
+         return new Rectangle(grid_.getAbsoluteLeft(),
+                              content_.getAbsoluteTop() + index * rowHeight_,
+                              grid_.getOffsetWidth(),
+                              rowHeight_);
+      }
+
       com.google.gwt.dom.client.Element el =
-            DomUtils.getTableCell(grid_.getElement(), index, 0);
+            DomUtils.getTableCell(grid_.getElement(), index - windowStart_, 0);
       return new Rectangle(el.getAbsoluteLeft(),
                       el.getAbsoluteTop(),
                       el.getOffsetWidth(),
@@ -259,17 +310,97 @@ class CompletionList<TItem> extends Composite
       maxWidthInPixels_ = maxWidthInPixels;
    }
 
-   public TItem[] getItems()
+   public CompletionItems<TItem> getItems()
    {
       return items_;
    }
 
+   private boolean isRendered(int index)
+   {
+      return index >= windowStart_ && index < windowStart_ + grid_.getRowCount();
+   }
+
+   private void onScroll()
+   {
+      if (getItemCount() <= WINDOW_SIZE)
+         return;
+
+      // re-render once the visible rows get close to either end of the
+      // rendered window
+      int first = scrollPanel_.getVerticalScrollPosition() / rowHeight_;
+      int last = (scrollPanel_.getVerticalScrollPosition() +
+                  scrollPanel_.getOffsetHeight()) / rowHeight_;
+      int windowEnd = windowStart_ + grid_.getRowCount();
+      if ((first < windowStart_ + WINDOW_MARGIN && windowStart_ > 0) ||
+          (last > windowEnd - WINDOW_MARGIN && windowEnd < getItemCount()))
+      {
+         renderWindow((first + last - WINDOW_SIZE) / 2);
+      }
+   }
+
+   // renders the items from the given index (adjusted to fit) onwards
+   private void renderWindow(int start)
+   {
+      int count = Math.min(WINDOW_SIZE, getItemCount());
+      start = Math.max(0, Math.min(start, getItemCount() - count));
+
+      windowStart_ = start;
+      grid_.resizeRows(count);
+      CellFormatter cf = grid_.getCellFormatter();
+      for (int i = 0; i < count; i++)
+      {
+         String value = items_.get(start + i).toString();
+         if (asHtml_)
+            grid_.setHTML(i, 0, value);
+         else
+            grid_.setText(i, 0, value);
+
+         if (start + i == selectedIndex_)
+            cf.addStyleName(i, 0, styles_.selected());
+         else
+            cf.removeStyleName(i, 0, styles_.selected());
+      }
+
+      if (isAttached())
+      {
+         layoutWindow();
+
+         // rows further down the list may be wider than the ones that were
+         // shown first; widen the list (up to its maximum) to fit them
+         int width = grid_.getOffsetWidth() + 20;
+         if (maxWidthInPixels_ != null && maxWidthInPixels_ > 0)
+            width = Math.min(width, maxWidthInPixels_);
+         if (width > scrollPanel_.getOffsetWidth())
+            scrollPanel_.setWidth(width + "px");
+      }
+   }
+
+   // positions the rendered window within a container as tall as the list
+   private void layoutWindow()
+   {
+      if (getItemCount() <= WINDOW_SIZE)
+         return;
+
+      content_.getElement().getStyle().setPaddingTop(windowStart_ * rowHeight_, Unit.PX);
+      content_.getElement().getStyle().setHeight(
+            (getItemCount() - windowStart_) * rowHeight_, Unit.PX);
+   }
+
    private int selectedIndex_ = -1;
+   private int windowStart_ = 0;
+   private int rowHeight_ = 22;
 
    private final GridEx grid_;
-   private final TItem[] items_;
+   private final FlowPanel content_;
+   private final CompletionItems<TItem> items_;
    private final ScrollPanel scrollPanel_;
    private final ConsoleResources.ConsoleStyles styles_;
    private final boolean allowVerticalShrink_;
+   private final boolean asHtml_;
    private Integer maxWidthInPixels_;
+
+   // the number of rows rendered at once, and how close the visible rows can
+   // get to either end of them before a new window is rendered
+   private static final int WINDOW_SIZE = 100;
+   private static final int WINDOW_MARGIN = 20;
 }
@@ -708,8 +708,9 @@ public abstract class CompletionManagerBase
          String token = completionToken_ + " ";
          if (popup_.hasCompletions())
          {
-            for (QualifiedName item : popup_.getItems())
-               if (StringUtil.isSubsequence(item.name, token, false))
+            CompletionItems<QualifiedName> items = popup_.getItems();
+            for (int i = 0; i < items.size(); i++)
+               if (StringUtil.isSubsequence(items.get(i).name, token, false))
                   return true;
          }
          
@@ -39,6 +39,9 @@ public interface CompletionPopupDisplay
    void showCompletionValues(QualifiedName[] results,
                              PositionCallback callback,
                              boolean truncated);
+   void showCompletionValues(CompletionItems<QualifiedName> results,
+                             PositionCallback callback,
+                             boolean truncated);
    
    void showErrorMessage(String userMessage, PositionCallback callback);
    void hide();
@@ -82,5 +85,5 @@ public interface CompletionPopupDisplay
    boolean hasCompletions();
    int numAvailableCompletions();
    
-   QualifiedName[] getItems();
+   CompletionItems<QualifiedName> getItems();
 }
@@ -14,10 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.console.shell.assist;
 
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -128,7 +125,28 @@ public class CompletionPopupPanel extends ThemedPopupPanel
    }
 
    @Override
-   public void showCompletionValues(QualifiedName[] values,
+   public void showCompletionValues(final QualifiedName[] values,
+                                    PositionCallback callback,
+                                    boolean truncated)
+   {
+      showCompletionValues(new CompletionItems<QualifiedName>()
+      {
+         @Override
+         public int size()
+         {
+            return values.length;
+         }
+
+         @Override
+         public QualifiedName get(int index)
+         {
+            return values[index];
+         }
+      }, callback, truncated);
+   }
+
+   @Override
+   public void showCompletionValues(CompletionItems<QualifiedName> completions,
                                     PositionCallback callback,
                                     boolean truncated)
    {
@@ -143,11 +161,23 @@ public class CompletionPopupPanel extends ThemedPopupPanel
          isShowingOnBottom = positioner.getPreferBottom();
       }
       
+      CompletionItems<QualifiedName> values = completions;
       if (!isShowingOnBottom)
       {
-         List<QualifiedName> names = Arrays.asList(values);
-         Collections.reverse(names);
-         values = names.toArray(new QualifiedName[0]);
+         values = new CompletionItems<QualifiedName>()
+         {
+            @Override
+            public int size()
+            {
+               return completions.size();
+            }
+
+            @Override
+            public QualifiedName get(int index)
+            {
+               return completions.get(completions.size() - 1 - index);
+            }
+         };
       }
       
       // Since completion popups are usually displayed from the Source pane,
@@ -446,7 +476,7 @@ public class CompletionPopupPanel extends ThemedPopupPanel
       return contents;
    }
 
-   public QualifiedName[] getItems()
+   public CompletionItems<QualifiedName> getItems()
    {
       return list_.getItems();
    }
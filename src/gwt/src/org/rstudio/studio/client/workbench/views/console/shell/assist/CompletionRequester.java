@@ -17,7 +17,6 @@ package org.rstudio.studio.client.workbench.views.console.shell.assist;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 
 import org.rstudio.core.client.SafeHtmlUtil;
@@ -53,7 +52,6 @@ import org.rstudio.studio.client.workbench.views.source.model.RnwChunkOptions.Rn
 import org.rstudio.studio.client.workbench.views.source.model.RnwCompletionContext;
 
 import com.google.gwt.core.client.JsArray;
-import com.google.gwt.core.client.JsArrayBoolean;
 import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.resources.client.ImageResource;
@@ -159,8 +157,10 @@ public class CompletionRequester
                                    final String diff,
                                    CompletionResult cachedResult)
    {
-      ArrayList<QualifiedName> newCompletions = new ArrayList<>();
-      newCompletions.ensureCapacity(cachedResult.completions.size());
+      CompletionColumns columns = cachedResult.columns;
+      int[] candidates = cachedResult.order;
+      int[] matches = new int[candidates.length];
+      int count = 0;
 
       // For completions that are files or directories, we need to post-process
       // the token and the qualified name to strip out just the basename (filename).
@@ -172,65 +172,66 @@ public class CompletionRequester
       final String tokenSub   = StringUtil.substring(token, token.lastIndexOf('/') + 1);
       final String tokenFuzzy = fuzzy(tokenSub);
 
-      for (QualifiedName qname : cachedResult.completions)
+      for (int index : candidates)
       {
+         String name = columns.getName(index);
+         int type = columns.getType(index);
+
          // File types are narrowed only by the file name
-         if (RCompletionType.isFileType(qname.type))
+         if (RCompletionType.isFileType(type))
          {
-            if (StringUtil.isSubsequence(basename(qname.name), tokenFuzzy, true))
-               newCompletions.add(qname);
+            if (StringUtil.isSubsequence(basename(name), tokenFuzzy, true))
+               matches[count++] = index;
          }
          else
          {
             String value;
-            if (qname.type == RCompletionType.ROXYGEN)
+            if (type == RCompletionType.ROXYGEN)
             {
-               value = qname.name.replaceAll("\\s.*", "");
+               value = name.replaceAll("\\s.*", "");
             }
             else
             {
-               String displayMeta = StringUtil.truncate(qname.meta, META_DISPLAY_LIMIT_CHARACTERS, " <...>");
-               value = qname.name + displayMeta;
+               String displayMeta = StringUtil.truncate(columns.getMeta(index), META_DISPLAY_LIMIT_CHARACTERS, " <...>");
+               value = name + displayMeta;
             }
             
             if (StringUtil.isSubsequence(value, tokenFuzzy, true) &&
                 filterStartsWithDot(value, token))
-               newCompletions.add(qname);
+               matches[count++] = index;
          }
       }
 
-      newCompletions.sort(new Comparator<QualifiedName>()
+      // score each match once, rather than on every comparison
+      final int[] typeScores = new int[columns.size()];
+      final int[] matchScores = new int[columns.size()];
+      for (int i = 0; i < count; i++)
       {
-         @Override
-         public int compare(QualifiedName lhs, QualifiedName rhs)
-         {
-            // compare completion type first
-            int lhsTypeScore = RCompletionType.score(lhs.type, lhs.context);
-            int rhsTypeScore = RCompletionType.score(rhs.type, rhs.context);
-            if (lhsTypeScore < rhsTypeScore)
-               return -1;
-            else if (lhsTypeScore > rhsTypeScore)
-               return 1;
-
-            // when type score is equal: calculate score with scoreMatch()
-            int lhsScore = RCompletionType.isFileType(lhs.type)
-                  ? CodeSearchOracle.scoreMatch(basename(lhs.name), tokenSub, true)
-                  : CodeSearchOracle.scoreMatch(lhs.name, token, false);
-            
-            int rhsScore = RCompletionType.isFileType(rhs.type)
-               ? CodeSearchOracle.scoreMatch(basename(rhs.name), tokenSub, true)
-               : CodeSearchOracle.scoreMatch(rhs.name, token, false);
+         int index = matches[i];
+         int type = columns.getType(index);
+         typeScores[index] = RCompletionType.score(type, columns.getContext(index));
+         matchScores[index] = RCompletionType.isFileType(type)
+               ? CodeSearchOracle.scoreMatch(basename(columns.getName(index)), tokenSub, true)
+               : CodeSearchOracle.scoreMatch(columns.getName(index), token, false);
+      }
 
-            if (lhsScore == rhsScore)
-               return lhs.compareTo(rhs);
+      CompletionColumns.sort(matches, count, (lhs, rhs) ->
+      {
+         // compare completion type first
+         if (typeScores[lhs] != typeScores[rhs])
+            return typeScores[lhs] < typeScores[rhs] ? -1 : 1;
 
-            return lhsScore < rhsScore ? -1 : 1;
-         }
+         // when type score is equal: compare the scoreMatch() scores
+         if (matchScores[lhs] == matchScores[rhs])
+            return columns.compare(lhs, rhs);
+
+         return matchScores[lhs] < matchScores[rhs] ? -1 : 1;
       });
 
       CompletionResult result = new CompletionResult(
             token,
-            newCompletions,
+            columns,
+            Arrays.copyOf(matches, count),
             cachedResult.guessedFunctionName,
             cachedResult.dontInsertParens);
 
@@ -238,54 +239,6 @@ public class CompletionRequester
       return result;
    }
 
-   private void fillCompletionResult(
-         Completions response,
-         boolean implicit,
-         ServerRequestCallback<CompletionResult> callback)
-   {
-      JsArrayString comp = response.getCompletions();
-      JsArrayString display = response.getCompletionsDisplay();
-      JsArrayString pkgs = response.getPackages();
-      JsArrayBoolean quote = response.getQuote();
-      JsArrayInteger type = response.getType();
-      JsArrayBoolean suggestOnAccept = response.getSuggestOnAccept();
-      JsArrayBoolean replaceToEnd = response.getReplaceToEnd();
-      JsArrayString meta = response.getMeta();
-      ArrayList<QualifiedName> newComp = new ArrayList<>();
-      for (int i = 0; i < comp.length(); i++)
-      {
-         newComp.add(new QualifiedName(
-            comp.get(i), 
-            display.get(i),
-            pkgs.get(i), 
-            quote.get(i), 
-            type.get(i), 
-            suggestOnAccept.get(i),  
-            replaceToEnd.get(i),
-            meta.get(i), 
-            response.getHelpHandler(), 
-            response.getLanguage(),
-            response.getContext().get(i)
-            )
-         );
-      }
-
-      CompletionResult result = new CompletionResult(
-            response.getToken(),
-            newComp,
-            response.getGuessedFunctionName(),
-            response.getOverrideInsertParens());
-
-      if (response.isCacheable())
-      {
-         cachedCompletions_.put("", result);
-      }
-
-      if (!implicit || result.completions.size() != 0)
-         callback.onResponseReceived(result);
-
-   }
-
    private static final Pattern RE_EXTRACTION = Pattern.create("[$@:]", "");
    private boolean isTopLevelCompletionRequest()
    {
@@ -338,77 +291,28 @@ public class CompletionRequester
             cachedLinePrefix_ = token;
             String token = response.getToken();
 
-            JsArrayString comp = response.getCompletions();
-            JsArrayString display = response.getCompletionsDisplay();
-            JsArrayString pkgs = response.getPackages();
-            JsArrayBoolean quote = response.getQuote();
+            CompletionColumns columns = new CompletionColumns(response);
             JsArrayInteger type = response.getType();
-            JsArrayBoolean suggestOnAccept = response.getSuggestOnAccept();
-            JsArrayBoolean replaceToEnd = response.getReplaceToEnd();
-            JsArrayString meta = response.getMeta();
-            ArrayList<QualifiedName> newComp = new ArrayList<>();
+            int serverCount = columns.size();
 
-            // Add higher-priority completions first
-            for (int i = 0; i < comp.length(); i++)
-            {
-               if (isPriorityCompletion(type.get(i)))
-               {
-                  newComp.add(new QualifiedName(
-                     comp.get(i), 
-                     display.get(i),
-                     pkgs.get(i), 
-                     quote.get(i), 
-                     type.get(i), 
-                     suggestOnAccept.get(i), 
-                     replaceToEnd.get(i),
-                     meta.get(i), 
-                     response.getHelpHandler(), 
-                     response.getLanguage(), 
-                     response.getContext().get(i)
-                  ));
-               }
-            }
-            
-            // Try getting our own function argument completions
+            // Try getting our own function argument completions, and
+            // variable completions from the current scope
+            ArrayList<QualifiedName> scoped = new ArrayList<>();
             if (!response.getExcludeOtherArgumentCompletions() && !response.getExcludeOtherCompletions())
             {
-               addFunctionArgumentCompletions(token, newComp);
+               addFunctionArgumentCompletions(token, scoped);
             }
 
             if (!response.getExcludeOtherCompletions())
             {
-               addScopedArgumentCompletions(token, newComp);
+               addScopedArgumentCompletions(token, scoped);
+               addScopedCompletions(token, scoped, "variable");
+               addScopedCompletions(token, scoped, "function");
             }
 
-            // Get variable completions from the current scope
-            if (!response.getExcludeOtherCompletions())
-            {
-               addScopedCompletions(token, newComp, "variable");
-               addScopedCompletions(token, newComp, "function");
-            }
-
-            // Add lower-priority completions next
-            for (int i = 0; i < comp.length(); i++)
-            {
-               if (!isPriorityCompletion(type.get(i)))
-               {
-                  newComp.add(new QualifiedName(
-                     comp.get(i), 
-                     display.get(i),
-                     pkgs.get(i), 
-                     quote.get(i), 
-                     type.get(i), 
-                     suggestOnAccept.get(i),
-                     replaceToEnd.get(i),
-                     meta.get(i), 
-                     response.getHelpHandler(), 
-                     response.getLanguage(), 
-                     response.getContext().get(i)
-                  ));
-               }
-            }
-         
             // Get snippet completions. Bail if this isn't a top-level completion
+            ArrayList<QualifiedName> snippets = new ArrayList<>();
+            boolean snippetsLast = true;
             if (isTopLevelCompletionRequest())
             {
                // disable snippets if Python REPL is active for now
@@ -421,18 +325,52 @@ public class CompletionRequester
                   // de-emphasize snippet completions in function calls
                   String line = docDisplay_.getCurrentLineUpToCursor();
                   Pattern pattern = Pattern.create("[\\(\\[]", "");
-                  boolean back = pattern.test(line);
+                  snippetsLast = pattern.test(line);
                      
-                  addSnippetCompletions(token, back, newComp);
+                  addSnippetCompletions(token, snippets);
                }
             }
 
+            // Order the completions: snippets (unless de-emphasized, in
+            // which case they come last), then higher-priority completions,
+            // then the ones found in the current scope, then the rest
+            int[] order = new int[serverCount + scoped.size() + snippets.size()];
+            int count = 0;
+
+            if (!snippetsLast)
+            {
+               for (int i = snippets.size() - 1; i >= 0; i--)
+                  order[count++] = columns.add(snippets.get(i));
+            }
+
+            for (int i = 0; i < serverCount; i++)
+            {
+               if (isPriorityCompletion(type.get(i)))
+                  order[count++] = i;
+            }
+
+            for (QualifiedName name : scoped)
+               order[count++] = columns.add(name);
+
+            for (int i = 0; i < serverCount; i++)
+            {
+               if (!isPriorityCompletion(type.get(i)))
+                  order[count++] = i;
+            }
+
+            if (snippetsLast)
+            {
+               for (QualifiedName name : snippets)
+                  order[count++] = columns.add(name);
+            }
+
             // Remove duplicates
-            newComp = resolveDuplicates(newComp);
+            order = resolveDuplicates(columns, order);
 
             CompletionResult result = new CompletionResult(
                   response.getToken(),
-                  newComp,
+                  columns,
+                  order,
                   response.getGuessedFunctionName(),
                   response.getOverrideInsertParens());
 
@@ -446,39 +384,61 @@ public class CompletionRequester
       });
    }
 
-   private ArrayList<QualifiedName>
-   resolveDuplicates(ArrayList<QualifiedName> completions)
+   static int[] resolveDuplicates(final CompletionColumns columns, int[] order)
    {
-      ArrayList<QualifiedName> result = new ArrayList<>(completions);
-
       // sort the results by name and type for efficient processing
-      completions.sort(new Comparator<QualifiedName>()
+      int[] sorted = Arrays.copyOf(order, order.length);
+      CompletionColumns.sort(sorted, sorted.length, (lhs, rhs) ->
       {
-         @Override
-         public int compare(QualifiedName o1, QualifiedName o2)
-         {
-            int name = o1.name.compareTo(o2.name);
-            if (name != 0)
-               return name;
-            return o1.type - o2.type;
-         }
+         int name = columns.getName(lhs).compareTo(columns.getName(rhs));
+         if (name != 0)
+            return name;
+         return columns.getType(lhs) - columns.getType(rhs);
       });
 
-      // walk backwards through the list and remove elements which have the
-      // same name and type
-      for (int i = completions.size() - 1; i > 0; i--)
+      // walk backwards through the list and find elements which have the
+      // same name and type; we remove the first of those in the result (of
+      // each name and type), as many times as duplicates were found
+      HashMap<String, Integer> removals = null;
+      for (int i = sorted.length - 1; i > 0; i--)
       {
-         QualifiedName o1 = completions.get(i);
-         QualifiedName o2 = completions.get(i - 1);
+         int o1 = sorted[i];
+         int o2 = sorted[i - 1];
 
          // remove qualified names which have the same name and type (allow
          // shadowing of contextual results to reduce confusion)
-         if (o1.name == o2.name &&
-             (o1.type == o2.type || o1.type == RCompletionType.CONTEXT))
-            result.remove(o1);
+         int type = columns.getType(o1);
+         if (columns.getName(o1).equals(columns.getName(o2)) &&
+             (type == columns.getType(o2) || type == RCompletionType.CONTEXT))
+         {
+            if (removals == null)
+               removals = new HashMap<>();
+            String key = duplicateKey(columns, o1);
+            Integer count = removals.get(key);
+            removals.put(key, count == null ? 1 : count + 1);
+         }
       }
 
-      return result;
+      if (removals == null)
+         return order;
+
+      int[] result = new int[order.length];
+      int count = 0;
+      for (int index : order)
+      {
+         String key = duplicateKey(columns, index);
+         Integer remaining = removals.get(key);
+         if (remaining != null && remaining > 0)
+            removals.put(key, remaining - 1);
+         else
+            result[count++] = index;
+      }
+      return Arrays.copyOf(result, count);
+   }
+
+   private static String duplicateKey(CompletionColumns columns, int index)
+   {
+      return columns.getType(index) + ":" + columns.getName(index);
    }
 
    private void addScopedArgumentCompletions(
@@ -625,7 +585,6 @@ public class CompletionRequester
 
    private void addSnippetCompletions(
          String token,
-         boolean back,
          ArrayList<QualifiedName> completions)
    {
       if (StringUtil.isNullOrEmpty(token))
@@ -638,16 +597,7 @@ public class CompletionRequester
          for (String snippet : snippets)
          {
             if (snippet.toLowerCase().startsWith(tokenLower))
-            {
-               if (back)
-               {
-                  completions.add(QualifiedName.createSnippet(snippet));
-               }
-               else
-               {
-                  completions.add(0, QualifiedName.createSnippet(snippet));
-               }
-            }
+               completions.add(QualifiedName.createSnippet(snippet));
          }
       }
    }
@@ -768,21 +718,41 @@ public class CompletionRequester
       cachedCompletions_.clear();
    }
 
-   public static class CompletionResult
+   /**
+    * The result of a completion request: the completions' columns and the
+    * order in which they're displayed (which for a narrowed result includes
+    * only the completions that still match).
+    */
+   public static class CompletionResult implements CompletionItems<QualifiedName>
    {
       public CompletionResult(String token,
-                              ArrayList<QualifiedName> completions,
+                              CompletionColumns columns,
+                              int[] order,
                               String guessedFunctionName,
                               boolean dontInsertParens)
       {
          this.token = token;
-         this.completions = completions;
+         this.columns = columns;
+         this.order = order;
          this.guessedFunctionName = guessedFunctionName;
          this.dontInsertParens = dontInsertParens;
       }
 
+      @Override
+      public int size()
+      {
+         return order.length;
+      }
+
+      @Override
+      public QualifiedName get(int index)
+      {
+         return columns.get(order[index]);
+      }
+
       public final String token;
-      public final ArrayList<QualifiedName> completions;
+      public final CompletionColumns columns;
+      public final int[] order;
       public final String guessedFunctionName;
       public final boolean dontInsertParens;
 
@@ -1100,15 +1070,21 @@ public class CompletionRequester
 
       public int compareTo(QualifiedName o)
       {
-         if (name.endsWith("=") ^ o.name.endsWith("="))
+         return compare(name, source, o.name, o.source);
+      }
+
+      public static int compare(String name, String source,
+                                String otherName, String otherSource)
+      {
+         if (name.endsWith("=") ^ otherName.endsWith("="))
             return name.endsWith("=") ? -1 : 1;
 
-         int result = String.CASE_INSENSITIVE_ORDER.compare(name, o.name);
+         int result = String.CASE_INSENSITIVE_ORDER.compare(name, otherName);
          if (result != 0)
             return result;
 
          String pkg = source == null ? "" : source;
-         String opkg = o.source == null ? "" : o.source;
+         String opkg = otherSource == null ? "" : otherSource;
          return pkg.compareTo(opkg);
       }
 
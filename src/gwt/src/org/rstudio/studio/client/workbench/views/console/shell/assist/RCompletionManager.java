@@ -726,10 +726,10 @@ public class RCompletionManager implements CompletionManager
             // Find prefix matches -- there should only be one if we really
             // want this behaviour (ie the current selection)
             int prefixMatchCount = 0;
-            QualifiedName[] items = popup_.getItems();
-            for (QualifiedName item : items)
+            CompletionItems<QualifiedName> items = popup_.getItems();
+            for (int i = 0; i < items.size(); i++)
             {
-               if (item.name.startsWith(fullToken))
+               if (items.get(i).name.startsWith(fullToken))
                {
                   ++prefixMatchCount;
                   if (prefixMatchCount > 1)
@@ -1809,10 +1809,9 @@ public class RCompletionManager implements CompletionManager
          context_ = this;
          
          // Only display the top completions
-         final QualifiedName[] results =
-               completions.completions.toArray(new QualifiedName[0]);
+         final CompletionResult results = completions;
          
-         if (results.length == 0)
+         if (results.size() == 0)
          {
             popup_.clearCompletions();
             boolean lastInputWasTab =
@@ -1848,13 +1847,13 @@ public class RCompletionManager implements CompletionManager
          // current token, then implicitly accept that completion. we hide
          // the popup to ensure that backspace can re-load completions from
          // the cache
-         if (results.length == 1 &&
-             completions.token == results[0].name.replaceAll(":*", ""))
+         if (results.size() == 1 &&
+             completions.token == results.get(0).name.replaceAll(":*", ""))
          {
             // For snippets we need to apply the completion if explicitly requested
-            if (results[0].type == RCompletionType.SNIPPET && canAutoAccept_)
+            if (results.get(0).type == RCompletionType.SNIPPET && canAutoAccept_)
             {
-               snippets_.applySnippet(completions.token, results[0].name);
+               snippets_.applySnippet(completions.token, results.get(0).name);
                return;
             }
             
@@ -1871,12 +1870,12 @@ public class RCompletionManager implements CompletionManager
          token_ = token;
          overrideInsertParens_ = completions.dontInsertParens;
 
-         if (results.length == 1
+         if (results.size() == 1
                && canAutoAccept_
                && completions.canAutoAccept()
-               && results[0].type != RCompletionType.DIRECTORY)
+               && results.get(0).type != RCompletionType.DIRECTORY)
          {
-            onSelection(results[0]);
+            onSelection(results.get(0));
          }
          else
          {
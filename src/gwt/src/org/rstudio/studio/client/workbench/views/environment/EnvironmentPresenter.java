@@ -157,7 +157,7 @@ public class EnvironmentPresenter extends BasePresenter
                                Source source,
                                DebugCommander debugCommander,
                                FileTypeRegistry fileTypeRegistry,
-                               DataImportPresenter dataImportPresenter)
+                               DataImportPresenter.Shim dataImportPresenter)
    {
       super(view);
       binder.bind(commands, this);
@@ -1234,7 +1234,7 @@ public class EnvironmentPresenter extends BasePresenter
    private final DebugCommander debugCommander_;
    private final Session session_;
    private final FileTypeRegistry fileTypeRegistry_;
-   private final DataImportPresenter dataImportPresenter_;
+   private final DataImportPresenter.Shim dataImportPresenter_;
 
    private int contextDepth_;
    private boolean refreshingView_;
@@ -38,6 +38,7 @@ import org.rstudio.studio.client.workbench.model.WorkbenchServerOperations;
 import org.rstudio.studio.client.workbench.views.environment.ViewEnvironmentConstants;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportAssembleResponse;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewResponse;
+import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewSample;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportServerOperations;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.res.DataImportResources;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditorWidget;
@@ -93,6 +94,14 @@ public class DataImport extends Composite
 
    private int assembleCount_ = 0;
    
+   private int previewCount_ = 0;
+   
+   // a sample of the current text file, re-parsed on the client as parsing
+   // options change
+   private DataImportSampleParser sampleParser_;
+   private boolean sampleRequested_;
+   private static final int SAMPLE_BYTES = 256 * 1024;
+   
    interface DataImportUiBinder extends UiBinder<Widget, DataImport>
    {
    }
@@ -224,6 +233,7 @@ public class DataImport extends Composite
    {
       // Invalidate cached files, click update to refresh stale files
       cleanPreviewResources();
+      sampleParser_ = null;
       
       if (dataImportFileChooser_.getText() != importOptions_.getImportLocation())
       {
@@ -544,6 +554,11 @@ public class DataImport extends Composite
             
             previewImportOptions.setMaxRows(maxRows_);
             
+            if (previewFromSample(previewImportOptions))
+               return;
+            
+            final int previewIndex = ++previewCount_;
+            
             progressIndicator_.onProgress(constants_.retrievingPreviewDataEllipses(), new Operation()
             {
                @Override
@@ -575,6 +590,14 @@ public class DataImport extends Composite
                @Override
                public void onResponseReceived(DataImportPreviewResponse response)
                {
+                  // a newer preview (e.g. one parsed from the sample) has
+                  // already been shown
+                  if (previewIndex != previewCount_)
+                  {
+                     progressIndicator_.onCompleted();
+                     return;
+                  }
+                  
                   if (response == null || response.getErrorMessage() != null)
                   {
                      if (response != null)
@@ -588,31 +611,11 @@ public class DataImport extends Composite
                      return;
                   }
                   
-                  // Set the column definitions to allow subsequent calls to assemble
-                  // generate preview code based on data.
-                  importOptions_.setBaseColumnDefinitions(response);
-                  
-                  lastSuccessfulResponse_ = response;
-                  
-                  dataImportOptionsUi_.setPreviewResponse(response);
-
-                  if (response.getLocalFiles() != null)
-                  {
-                     localFiles_ = response.getLocalFiles();
-                  }
-                  
-                  gridViewer_.setOption("status",
-                          response.getParsingErrors() > 0 ?
-                                  constants_.previewingFirstEntriesMultiple(toLocaleString(maxRows_),
-                                          Integer.toString(response.getParsingErrors())) :
-                                  constants_.previewingFirstEntriesNone(toLocaleString(maxRows_))
-                        );
-                  
-                  assignColumnDefinitions(response, importOptions_.getColumnDefinitions());
-                  
-                  setGridViewerData(response);
+                  showPreview(response);
                   
                   progressIndicator_.onCompleted();
+                  
+                  requestPreviewSample(previewImportOptions);
                }
                
                @Override
@@ -630,6 +633,93 @@ public class DataImport extends Composite
       assembleDataImport(previewDataImportOperation);
    }
    
+   private void showPreview(DataImportPreviewResponse response)
+   {
+      // Set the column definitions to allow subsequent calls to assemble
+      // generate preview code based on data.
+      importOptions_.setBaseColumnDefinitions(response);
+      
+      lastSuccessfulResponse_ = response;
+      
+      dataImportOptionsUi_.setPreviewResponse(response);
+
+      if (response.getLocalFiles() != null)
+      {
+         localFiles_ = response.getLocalFiles();
+      }
+      
+      gridViewer_.setOption("status",
+              response.getParsingErrors() > 0 ?
+                      constants_.previewingFirstEntriesMultiple(toLocaleString(maxRows_),
+                              Integer.toString(response.getParsingErrors())) :
+                      constants_.previewingFirstEntriesNone(toLocaleString(maxRows_))
+            );
+      
+      assignColumnDefinitions(response, importOptions_.getColumnDefinitions());
+      
+      setGridViewerData(response);
+   }
+   
+   // Shows a preview parsed from the sample of the current file, if there
+   // is one and the options can be applied on the client.
+   private boolean previewFromSample(DataImportOptions options)
+   {
+      if (dataImportMode_ != DataImportModes.Text ||
+          sampleParser_ == null ||
+          lastSuccessfulResponse_ == null)
+      {
+         return false;
+      }
+      
+      DataImportOptionsCsv csvOptions = options.cast();
+      if (!sampleParser_.isSampleFor(csvOptions))
+         return false;
+      
+      DataImportPreviewResponse response = sampleParser_.parse(
+            csvOptions, maxRows_, maxCols_, lastSuccessfulResponse_);
+      if (response == null)
+         return false;
+      
+      // supersede any preview still running on the server
+      previewCount_++;
+      
+      showPreview(response);
+      return true;
+   }
+   
+   private void requestPreviewSample(DataImportOptions options)
+   {
+      if (dataImportMode_ != DataImportModes.Text || sampleRequested_)
+         return;
+      
+      DataImportOptionsCsv csvOptions = options.cast();
+      if (sampleParser_ != null && sampleParser_.isSampleFor(csvOptions))
+         return;
+      
+      final String sampleKey = DataImportSampleParser.sampleKey(csvOptions);
+      sampleRequested_ = true;
+      server_.previewDataImportSample(options, SAMPLE_BYTES,
+            new ServerRequestCallback<DataImportPreviewSample>()
+      {
+         @Override
+         public void onResponseReceived(DataImportPreviewSample sample)
+         {
+            sampleRequested_ = false;
+            
+            // null if the file can't be sampled (e.g. a remote URL)
+            if (sample != null)
+               sampleParser_ = new DataImportSampleParser(sampleKey, sample);
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            sampleRequested_ = false;
+            Debug.logError(error);
+         }
+      });
+   }
+   
    private void setCodeAreaDefaults()
    {
       codeArea_.getEditor().getSession().setEditorMode(
@@ -100,6 +100,19 @@ public class DataImportOptions extends JavaScriptObject
       this.columnDefinitions[name].parseString = parseString;
    }-*/;
    
+   // true when any column has been given a type, or marked as the only
+   // column(s) to import
+   public final native boolean hasAssignedColumnTypes() /*-{
+      var definitions = this.columnDefinitions;
+      if (!definitions) {
+         return false;
+      }
+      
+      return Object.keys(definitions).some(function(key) {
+         return !!definitions[key].assignedType || !!definitions[key].only;
+      });
+   }-*/;
+   
    public final native String getColumnType(String name) /*-{
       if (!this.columnDefinitions || !this.columnDefinitions[name]) {
          return null;
@@ -49,4 +49,44 @@ public class DataImportOptionsCsv extends DataImportOptions
          "openDataViewer": openDataViewer
       }
    }-*/;
+   
+   public final native String getDelimiter() /*-{
+      return this.delimiter ? this.delimiter : ",";
+   }-*/;
+   
+   public final native String getQuotes() /*-{
+      return this.quotes;
+   }-*/;
+   
+   public final native boolean getEscapeBackslash() /*-{
+      return this.escapeBackslash == true;
+   }-*/;
+   
+   public final native boolean getEscapeDouble() /*-{
+      return this.escapeDouble == true;
+   }-*/;
+   
+   public final native boolean getColumnNames() /*-{
+      return this.columnNames == true;
+   }-*/;
+   
+   public final native boolean getTrimSpaces() /*-{
+      return this.trimSpaces == true;
+   }-*/;
+   
+   public final native DataImportOptionsCsvLocale getLocale() /*-{
+      return this.locale;
+   }-*/;
+   
+   public final native String getNa() /*-{
+      return this.na;
+   }-*/;
+   
+   public final native String getComments() /*-{
+      return this.comments;
+   }-*/;
+   
+   public final native int getSkip() /*-{
+      return this.skip ? this.skip : 0;
+   }-*/;
 }
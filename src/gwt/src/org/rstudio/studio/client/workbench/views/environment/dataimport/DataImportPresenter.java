@@ -20,6 +20,7 @@ import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+import org.rstudio.core.client.AsyncShim;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.dependencies.DependencyManager;
@@ -29,6 +30,18 @@ import org.rstudio.studio.client.workbench.views.environment.ViewEnvironmentCons
 @Singleton
 public class DataImportPresenter
 {
+   // the import dialogs (and the readr/readxl/haven preview machinery behind
+   // them) are only needed once the user actually imports a dataset, so
+   // callers go through this shim to keep them out of the initial download
+   public abstract static class Shim extends AsyncShim<DataImportPresenter>
+   {
+      public abstract void openImportDatasetFromCSV(String path);
+      public abstract void openImportDatasetFromSAV(String path);
+      public abstract void openImportDatasetFromSAS(String path);
+      public abstract void openImportDatasetFromStata(String path);
+      public abstract void openImportDatasetFromXLS(String path);
+   }
+
    @Inject
    public DataImportPresenter(EventBus eventBus,
                               DependencyManager dependencyManager)
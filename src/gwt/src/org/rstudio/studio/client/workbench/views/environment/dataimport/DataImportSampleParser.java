@@ -0,0 +1,381 @@
+/*
+ * DataImportSampleParser.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.dataimport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import org.rstudio.core.client.CsvReader;
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewResponse;
+import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewSample;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+
+/**
+ * Builds text import previews from a sample of the file's leading lines, so
+ * that changes to the delimiter, quote, header, skip, NA, and whitespace
+ * options don't require the server to read and parse the file again. Mirrors
+ * the parts of readr's behavior that are visible in the preview (column
+ * naming, type guessing, empty row skipping, and problem counts); anything it
+ * can't reproduce makes parse() return null, and the caller falls back to
+ * the server.
+ */
+public class DataImportSampleParser
+{
+   public DataImportSampleParser(String sampleKey, DataImportPreviewSample sample)
+   {
+      sampleKey_ = sampleKey;
+      sample_ = sample.getSample();
+      complete_ = sample.isComplete();
+   }
+
+   // identifies the file (and the encoding used to decode it) a sample
+   // was taken from
+   public static String sampleKey(DataImportOptionsCsv options)
+   {
+      DataImportOptionsCsvLocale locale = options.getLocale();
+      return StringUtil.notNull(options.getImportLocation()) + "\n" +
+             StringUtil.notNull(locale != null ? locale.getEncoding() : null);
+   }
+
+   public boolean isSampleFor(DataImportOptionsCsv options)
+   {
+      return sampleKey_.equals(sampleKey(options));
+   }
+
+   /**
+    * Parses the sample with the given options. The server's most recent
+    * response supplies the options that don't depend on the data (e.g. the
+    * supported column types). Returns null if the options require the server
+    * (column types, comments, escapes, locale-specific numbers, whitespace
+    * delimited files) or if the sample is too short for the preview.
+    */
+   public DataImportPreviewResponse parse(DataImportOptionsCsv options,
+                                          int maxRows,
+                                          int maxCols,
+                                          DataImportPreviewResponse serverResponse)
+   {
+      if (!canParse(options))
+         return null;
+
+      char delimiter = options.getDelimiter().charAt(0);
+      char quote = quoteFromOptions(options);
+      boolean header = options.getColumnNames();
+
+      int needed = maxRows + (header ? 1 : 0);
+      if (!tokenize(delimiter, quote, options.getSkip(), needed))
+         return null;
+
+      if (records_.isEmpty())
+         return createResponse(createColumns(0), createData(), 0, serverResponse);
+
+      int rowCount = Math.min(maxRows, records_.size() - (header ? 1 : 0));
+
+      String[] names = columnNames(records_.get(0), header);
+      int columnCount = Math.min(names.length, maxCols);
+
+      // gather the (trimmed) fields for each column, with nulls for NAs
+      boolean trim = options.getTrimSpaces();
+      String na = options.getNa();
+      int parsingErrors = 0;
+      String[][] values = new String[columnCount][rowCount];
+      for (int row = 0; row < rowCount; row++)
+      {
+         String[] record = records_.get(row + (header ? 1 : 0));
+         if (record.length != names.length)
+            parsingErrors++;
+
+         for (int col = 0; col < columnCount; col++)
+         {
+            String value = col < record.length ? record[col] : null;
+            if (value != null && trim)
+               value = value.trim();
+            if (value != null && isNA(value, na))
+               value = null;
+            values[col][row] = value;
+         }
+      }
+
+      JsArray<JavaScriptObject> columns = createColumns(names.length);
+      JsArray<JsArrayString> data = createData();
+      for (int col = 0; col < columnCount; col++)
+      {
+         int type = guessType(values[col]);
+         columns.push(createColumn(names[col], type, values[col]));
+         data.push(formatColumn(values[col], type));
+      }
+
+      return createResponse(columns, data, parsingErrors, serverResponse);
+   }
+
+   private boolean canParse(DataImportOptionsCsv options)
+   {
+      if (options.hasAssignedColumnTypes())
+         return false;
+
+      // read_table() splits on runs of whitespace, which CsvReader doesn't
+      String delimiter = options.getDelimiter();
+      if (delimiter.length() != 1 || delimiter.equals(" "))
+         return false;
+
+      if (options.getEscapeBackslash() || !options.getEscapeDouble())
+         return false;
+
+      if (!StringUtil.isNullOrEmpty(options.getComments()))
+         return false;
+
+      DataImportOptionsCsvLocale locale = options.getLocale();
+      if (locale != null && !StringUtil.isNullOrEmpty(locale.getDecimalMark()) &&
+          !locale.getDecimalMark().equals("."))
+      {
+         return false;
+      }
+
+      return true;
+   }
+
+   private char quoteFromOptions(DataImportOptionsCsv options)
+   {
+      String quotes = options.getQuotes();
+      if (quotes != null && quotes.indexOf('\'') != -1)
+         return '\'';
+      return '"';
+   }
+
+   // Tokenizes records until 'count' are available. The records are kept
+   // between calls, so changing the header, NA, or whitespace options only
+   // re-reads what's already been tokenized. Returns false if the sample
+   // holds too few records and doesn't contain the whole file.
+   private boolean tokenize(char delimiter, char quote, int skip, int count)
+   {
+      String key = delimiter + ":" + quote + ":" + skip;
+      if (!key.equals(tokenizedKey_))
+      {
+         tokenizedKey_ = key;
+         records_.clear();
+         reader_ = new CsvReader(skipLines(sample_, skip), delimiter, quote).iterator();
+      }
+
+      // when the sample is truncated its last record may be incomplete (e.g.
+      // a quoted field spanning lines), so read one extra; parse() only
+      // uses the first 'count' records
+      int target = complete_ ? count : count + 1;
+      while (records_.size() < target && reader_.hasNext())
+      {
+         String[] record = reader_.next();
+
+         // readr skips empty rows
+         if (record.length == 1 && record[0].trim().isEmpty())
+            continue;
+
+         records_.add(record);
+      }
+
+      return complete_ || records_.size() >= target;
+   }
+
+   private static String skipLines(String sample, int skip)
+   {
+      int pos = 0;
+      for (int i = 0; i < skip; i++)
+      {
+         int newline = sample.indexOf('\n', pos);
+         if (newline == -1)
+            return "";
+         pos = newline + 1;
+      }
+      return sample.substring(pos);
+   }
+
+   // column names as readr assigns them: X1, X2, ... without a header, and
+   // unique, non-empty names otherwise
+   private static String[] columnNames(String[] first, boolean header)
+   {
+      String[] names = new String[first.length];
+      HashMap<String, Integer> counts = new HashMap<>();
+      for (int i = 0; i < first.length; i++)
+      {
+         names[i] = header ? first[i].trim() : "X" + (i + 1);
+         counts.put(names[i], counts.containsKey(names[i]) ? counts.get(names[i]) + 1 : 1);
+      }
+
+      if (!header)
+         return names;
+
+      for (int i = 0; i < names.length; i++)
+      {
+         if (names[i].isEmpty() || counts.get(names[i]) > 1)
+            names[i] = names[i] + "..." + (i + 1);
+      }
+      return names;
+   }
+
+   private static boolean isNA(String value, String na)
+   {
+      if (na == null)
+         return value.isEmpty() || value.equals("NA");
+      return value.equals(na);
+   }
+
+   // the type readr would guess for a column; a column with no values is
+   // logical
+   private static int guessType(String[] values)
+   {
+      boolean logical = true, number = true, date = true, time = true, dateTime = true;
+      for (String value : values)
+      {
+         if (value == null)
+            continue;
+
+         logical = logical && LOGICAL.test(value);
+         number = number && NUMBER.test(value);
+         date = date && DATE.test(value);
+         time = time && TIME.test(value);
+         dateTime = dateTime && DATE_TIME.test(value);
+      }
+
+      if (logical)
+         return TYPE_LOGICAL;
+      else if (number)
+         return TYPE_DOUBLE;
+      else if (date || time || dateTime)
+         return TYPE_TEMPORAL;
+      else
+         return TYPE_CHARACTER;
+   }
+
+   private static JsArrayString formatColumn(String[] values, int type)
+   {
+      JsArrayString column = JsArrayString.createArray().cast();
+      for (String value : values)
+      {
+         if (value == null)
+            column.push(null);
+         else if (type == TYPE_LOGICAL)
+            column.push(value.substring(0, 1).equalsIgnoreCase("t") ? "TRUE" : "FALSE");
+         else if (type == TYPE_DOUBLE)
+            column.push(formatNumber(value));
+         else
+            column.push(value);
+      }
+      return column;
+   }
+
+   // mirrors .rs.describeCols(): the R type, plus the grid's notion of the
+   // column type, which is only numeric if there's something to plot
+   private static JavaScriptObject createColumn(String name, int type, String[] values)
+   {
+      switch (type)
+      {
+      case TYPE_LOGICAL:
+         return createColumnNative(name, "boolean", "boolean", "logical");
+      case TYPE_DOUBLE:
+         int finite = 0;
+         for (String value : values)
+         {
+            if (value != null)
+               finite++;
+         }
+         return finite > 1 ?
+               createColumnNative(name, "numeric", "numeric", "double") :
+               createColumnNative(name, "unknown", "", "double");
+      case TYPE_TEMPORAL:
+         return createColumnNative(name, "unknown", "", "double");
+      default:
+         return createColumnNative(name, "character", "character", "character");
+      }
+   }
+
+   private static native JavaScriptObject createColumnNative(String name,
+                                                                   String type,
+                                                                   String searchType,
+                                                                   String rType) /*-{
+      return {
+         col_name: name,
+         col_type: type,
+         col_breaks: [],
+         col_counts: [],
+         col_search_type: searchType,
+         col_label: "",
+         col_vals: "",
+         col_type_r: rType
+      };
+   }-*/;
+
+   // the first column always describes the row names
+   private static native JsArray<JavaScriptObject> createColumns(int totalCols) /*-{
+      return [{
+         col_name: "",
+         col_type: "rownames",
+         col_min: 0,
+         col_max: 0,
+         col_search_type: "none",
+         col_label: "",
+         col_vals: "",
+         col_type_r: "",
+         total_cols: totalCols
+      }];
+   }-*/;
+
+   private static native JsArray<JsArrayString> createData() /*-{
+      return [];
+   }-*/;
+
+   private static native DataImportPreviewResponse createResponse(
+      JsArray<JavaScriptObject> columns,
+      JsArray<JsArrayString> data,
+      int parsingErrors,
+      DataImportPreviewResponse serverResponse) /*-{
+      return {
+         data: data,
+         columns: columns,
+         options: serverResponse ? serverResponse.options : null,
+         parsingErrors: parsingErrors
+      };
+   }-*/;
+
+   private static native String formatNumber(String value) /*-{
+      return String(Number(value));
+   }-*/;
+
+   private final String sampleKey_;
+   private final String sample_;
+   private final boolean complete_;
+
+   private String tokenizedKey_;
+   private Iterator<String[]> reader_;
+   private final ArrayList<String[]> records_ = new ArrayList<>();
+
+   private static final int TYPE_LOGICAL = 0;
+   private static final int TYPE_DOUBLE = 1;
+   private static final int TYPE_TEMPORAL = 2;
+   private static final int TYPE_CHARACTER = 3;
+
+   private static final Pattern LOGICAL = Pattern.create(
+         "^(T|F|TRUE|FALSE|True|False|true|false)$", "");
+   private static final Pattern NUMBER = Pattern.create(
+         "^[-+]?([0-9]+\\.?[0-9]*|\\.[0-9]+)([eE][-+]?[0-9]+)?$", "");
+   private static final Pattern DATE = Pattern.create(
+         "^[0-9]{4}[-/][0-9]{1,2}[-/][0-9]{1,2}$", "");
+   private static final Pattern TIME = Pattern.create(
+         "^[0-9]{1,2}:[0-9]{2}(:[0-9]{2}(\\.[0-9]+)?)?( ?[AaPp][Mm])?$", "");
+   private static final Pattern DATE_TIME = Pattern.create(
+         "^[0-9]{4}-[0-9]{2}-[0-9]{2}[T ][0-9]{2}:[0-9]{2}(:[0-9]{2}(\\.[0-9]+)?)?(Z|[-+][0-9]{2}:?[0-9]{2})?$", "");
+}
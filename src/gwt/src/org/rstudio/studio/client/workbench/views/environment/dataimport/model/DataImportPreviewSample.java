@@ -0,0 +1,34 @@
+/*
+ * DataImportPreviewSample.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.dataimport.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+public class DataImportPreviewSample extends JavaScriptObject
+{
+   protected DataImportPreviewSample()
+   {
+   }
+   
+   // the leading lines of the file, decoded to UTF-8
+   public final native String getSample() /*-{
+      return this.sample || "";
+   }-*/;
+   
+   // true when the sample contains the whole file
+   public final native boolean isComplete() /*-{
+      return this.complete == true;
+   }-*/;
+}
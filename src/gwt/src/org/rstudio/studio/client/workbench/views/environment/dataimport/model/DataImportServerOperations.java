@@ -39,4 +39,8 @@ public interface DataImportServerOperations
    void previewDataImportAsyncAbort(ServerRequestCallback<Void> requestCallback);
    
    void previewDataImportClean(DataImportOptions dataImportOptions, ServerRequestCallback<Void> requestCallback);
+   
+   void previewDataImportSample(DataImportOptions dataImportOptions,
+                                int maxBytes,
+                                ServerRequestCallback<DataImportPreviewSample> requestCallback);
 }
@@ -15,6 +15,8 @@
 
 package org.rstudio.studio.client.workbench.views.help;
 
+import java.util.ArrayList;
+
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.ElementIds;
 import org.rstudio.core.client.Point;
@@ -61,6 +63,7 @@ import org.rstudio.studio.client.workbench.ui.WorkbenchPane;
 import org.rstudio.studio.client.workbench.views.console.events.SendToConsoleEvent;
 import org.rstudio.studio.client.workbench.views.help.Help.LinkMenu;
 import org.rstudio.studio.client.workbench.views.help.events.HelpNavigateEvent;
+import org.rstudio.studio.client.workbench.views.help.model.HelpPageCache;
 import org.rstudio.studio.client.workbench.views.help.model.VirtualHistory;
 import org.rstudio.studio.client.workbench.views.help.search.HelpSearch;
 
@@ -109,11 +112,13 @@ public class HelpPane extends WorkbenchPane
                    GlobalDisplay globalDisplay,
                    Commands commands,
                    EventBus events,
-                   UserPrefs prefs)
+                   UserPrefs prefs,
+                   HelpPageCache pageCache)
    {
       super(constants_.helpText(), events);
 
       searchProvider_ = searchProvider;
+      pageCache_ = pageCache;
       globalDisplay_ = globalDisplay;
       commands_ = commands;
       server_ = RStudioGinjector.INSTANCE.getServer();
@@ -181,7 +186,12 @@ public class HelpPane extends WorkbenchPane
          }
       };
 
-      prefs_.helpFontSizePoints().bind((Double value) -> refresh());
+      prefs_.helpFontSizePoints().bind((Double value) ->
+      {
+         // cached pages have the old font size baked into their styles
+         pageCache_.clear();
+         refresh();
+      });
       
       ensureWidget();
    }
@@ -504,6 +514,9 @@ public class HelpPane extends WorkbenchPane
 
    private void helpNavigated(Document doc)
    {
+      String docUrl = getDocUrl(doc);
+      ArrayList<String> links = new ArrayList<>();
+
       NodeList<Element> elements = doc.getElementsByTagName("a");
       for (int i = 0; i < elements.getLength(); i++)
       {
@@ -527,17 +540,34 @@ public class HelpPane extends WorkbenchPane
             a.setAttribute(
                   "onclick",
                   "window.parent.helpNavigate(this.href); return false");
+
+            AnchorElement aElement = a.cast();
+            links.add(aElement.getHref());
          }
       }
 
+      // cache this page, and warm up the pages it links to once R is idle
+      if (HelpPageCache.isCacheable(docUrl))
+         pageCache_.onPageLoaded(docUrl, doc, links);
+
       String effectiveTitle = getDocTitle(doc);
       title_.setText(effectiveTitle);
-      this.fireEvent(new HelpNavigateEvent(doc.getURL(), effectiveTitle));
+      this.fireEvent(new HelpNavigateEvent(docUrl, effectiveTitle));
    }
 
-   private String getDocTitle(Document doc)
+   // pages served from the cache are loaded from a blob URL, so their
+   // document URL doesn't reflect the page being displayed
+   private String getDocUrl(Document doc)
    {
       String docUrl = StringUtil.notNull(doc.getURL());
+      if (docUrl.equals(cachedPageUrl_))
+         return cachedUrl_;
+      return docUrl;
+   }
+
+   private String getDocTitle(Document doc)
+   {
+      String docUrl = getDocUrl(doc);
       String docTitle = doc.getTitle();
 
       String previewPrefix = new String("/help/preview?file=");
@@ -813,6 +843,9 @@ public class HelpPane extends WorkbenchPane
       {
          if (getIFrameEx() != null && getIFrameEx().getContentWindow() != null)
             url = getIFrameEx().getContentWindow().getLocationHref();
+
+         if (url != null && url.equals(cachedPageUrl_))
+            url = cachedUrl_;
       }
       catch (Exception e)
       {
@@ -848,6 +881,13 @@ public class HelpPane extends WorkbenchPane
 
    private void setLocation(final String url,
                             final Point scrollPos)
+   {
+      setLocation(url, scrollPos, true);
+   }
+
+   private void setLocation(final String url,
+                            final Point scrollPos,
+                            final boolean allowCached)
    {
       // allow subsequent calls to setLocation to override any previous
       // call (necessary so two consecutive calls like we get during
@@ -881,6 +921,29 @@ public class HelpPane extends WorkbenchPane
             if (getIFrameEx().getContentWindow() == null)
                return true;
 
+            // serve previously visited pages from memory (but let the frame
+            // handle links to anchors, so it scrolls to them)
+            String cached = null;
+            if (allowCached && !targetUrl_.contains("#"))
+               cached = pageCache_.get(targetUrl_);
+
+            if (cachedPageUrl_ != null)
+            {
+               revokeObjectUrl(cachedPageUrl_);
+               cachedPageUrl_ = null;
+               cachedUrl_ = null;
+            }
+
+            if (cached != null)
+            {
+               // replaced like any other page, so as not to add an entry
+               // to the session history
+               cachedUrl_ = targetUrl_;
+               cachedPageUrl_ = createObjectUrl(cached);
+               replaceFrameUrl(frame_.getIFrame().cast(), cachedPageUrl_);
+               return false;
+            }
+
             if (targetUrl_ == getUrl())
             {
                getIFrameEx().getContentWindow().reload();
@@ -906,7 +969,11 @@ public class HelpPane extends WorkbenchPane
    {
       String url = getUrl();
       if (url != null)
-         setLocation(url, Point.create(0, 0));
+      {
+         // an explicit refresh always goes back to R
+         pageCache_.remove(url);
+         setLocation(url, Point.create(0, 0), false);
+      }
    }
 
    private WindowEx getContentWindow()
@@ -1000,6 +1067,14 @@ public class HelpPane extends WorkbenchPane
       }, 0);
    }-*/;
 
+   private static final native String createObjectUrl(String html) /*-{
+      return $wnd.URL.createObjectURL(new $wnd.Blob([html], { type: "text/html" }));
+   }-*/;
+
+   private static final native void revokeObjectUrl(String url) /*-{
+      $wnd.URL.revokeObjectURL(url);
+   }-*/;
+
    private final native void setWindowScrollHandler(WindowEx window)
    /*-{
       var self = this;
@@ -1056,6 +1131,9 @@ public class HelpPane extends WorkbenchPane
    private SearchDisplay searchWidget_;
    private static final HelpConstants constants_ = GWT.create(HelpConstants.class);
    private Server server_;
+   private final HelpPageCache pageCache_;
+   private String cachedUrl_;
+   private String cachedPageUrl_;
    HyperlinkPopupPanel popup_;
    Timer popupTimer_;
    boolean popupCancelled_;
@@ -0,0 +1,404 @@
+/*
+ * HelpPageCache.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.help.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.workbench.events.BusyEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageInfo;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.user.client.Timer;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * An LRU cache of package help pages, so that revisiting a page (e.g. with
+ * back / forward) doesn't have to wait on a busy R session.
+ *
+ * A page is cached from the document the help pane loaded, and a handful
+ * of the pages it links to are fetched in the background, but only while R
+ * is idle. Stylesheets are inlined into the cached page so it can be
+ * rendered without any further requests. Entries are dropped when the version of the
+ * package they document changes.
+ */
+@Singleton
+public class HelpPageCache
+{
+   @Inject
+   public HelpPageCache(EventBus events)
+   {
+      events.addHandler(BusyEvent.TYPE, event ->
+      {
+         busy_ = event.isBusy();
+         if (!busy_)
+            scheduleFetch();
+      });
+
+      events.addHandler(PackageStateChangedEvent.TYPE, event ->
+      {
+         JsArray<PackageInfo> packages = event.getPackageState().getPackageList();
+         onPackageVersionsChanged(packages);
+      });
+
+      fetchTimer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            fetchNext();
+         }
+      };
+   }
+
+   /**
+    * Returns the cached page for the URL as a complete HTML document, or null
+    * if the page isn't cached.
+    */
+   public String get(String url)
+   {
+      Entry entry = entries_.get(normalize(url));
+      return entry != null ? entry.html : null;
+   }
+
+   public void remove(String url)
+   {
+      entries_.remove(normalize(url));
+   }
+
+   public void clear()
+   {
+      entries_.clear();
+      stylesheets_.clear();
+   }
+
+   public static boolean isCacheable(String url)
+   {
+      return url != null && PAGE_PATTERN.match(url, 0) != null;
+   }
+
+   /**
+    * Called when a help page has been displayed; caches it from the loaded
+    * document, and queues (some of) the pages it links to for fetching the
+    * next time R is idle.
+    */
+   public void onPageLoaded(String url, JavaScriptObject doc, List<String> links)
+   {
+      String key = normalize(url);
+      if (isCacheable(url) && !entries_.containsKey(key) && isCompletePage(doc))
+      {
+         queue_.remove(key);
+
+         // work on a copy, as inlining stylesheets changes the document
+         cachePage(key, url, copyDocument(doc), () -> {});
+      }
+
+      int count = 0;
+      for (String link : links)
+      {
+         if (count >= MAX_PREFETCH_LINKS)
+            break;
+
+         if (enqueue(link))
+            count++;
+      }
+
+      scheduleFetch();
+   }
+
+   private boolean enqueue(String url)
+   {
+      if (!isCacheable(url))
+         return false;
+
+      String key = normalize(url);
+      if (entries_.containsKey(key) || queue_.contains(key) || key.equals(inFlight_))
+         return false;
+
+      queue_.addLast(key);
+
+      // don't let speculative fetches pile up
+      while (queue_.size() > MAX_QUEUE)
+         queue_.removeLast();
+
+      return true;
+   }
+
+   private void scheduleFetch()
+   {
+      if (!busy_ && inFlight_ == null && !queue_.isEmpty() && !fetchTimer_.isRunning())
+         fetchTimer_.schedule(FETCH_DELAY_MS);
+   }
+
+   private void fetchNext()
+   {
+      // skip pages cached (from the help pane) since they were queued
+      while (!queue_.isEmpty() && entries_.containsKey(queue_.getFirst()))
+         queue_.removeFirst();
+
+      if (busy_ || inFlight_ != null || queue_.isEmpty())
+         return;
+
+      inFlight_ = queue_.removeFirst();
+      fetchPage(inFlight_, this);
+   }
+
+   private void onPageFetched(String url, String finalUrl, JavaScriptObject doc)
+   {
+      if (doc == null)
+      {
+         onFetchDone();
+         return;
+      }
+
+      cachePage(url, finalUrl, doc, () -> onFetchDone());
+   }
+
+   private void cachePage(String key,
+                          String finalUrl,
+                          JavaScriptObject doc,
+                          Runnable onDone)
+   {
+      // fetch any stylesheets we haven't seen before, then inline them all
+      JsArrayString sheets = getStylesheetUrls(doc, finalUrl);
+      List<String> missing = new ArrayList<>();
+      for (int i = 0; i < sheets.length(); i++)
+      {
+         if (!stylesheets_.containsKey(sheets.get(i)))
+            missing.add(sheets.get(i));
+      }
+
+      fetchStylesheets(missing.iterator(), () ->
+      {
+         String html = renderPage(doc, finalUrl, stylesheetsObject());
+         Match match = PAGE_PATTERN.match(finalUrl, 0);
+         String pkg = match != null ? match.getGroup(1) : null;
+         entries_.put(key, new Entry(html, pkg, versions_.get(pkg)));
+         onDone.run();
+      });
+   }
+
+   private void fetchStylesheets(Iterator<String> urls, Runnable onDone)
+   {
+      if (!urls.hasNext())
+      {
+         onDone.run();
+         return;
+      }
+
+      String url = urls.next();
+      fetchText(url, (String css) ->
+      {
+         stylesheets_.put(url, StringUtil.notNull(css));
+         fetchStylesheets(urls, onDone);
+      });
+   }
+
+   private void onFetchDone()
+   {
+      inFlight_ = null;
+      scheduleFetch();
+   }
+
+   private void onPackageVersionsChanged(JsArray<PackageInfo> packages)
+   {
+      HashMap<String, String> versions = new HashMap<>();
+      for (int i = 0; i < packages.length(); i++)
+      {
+         PackageInfo info = packages.get(i);
+         if (info.isLoaded() || !versions.containsKey(info.getName()))
+            versions.put(info.getName(), info.getVersion());
+      }
+
+      Iterator<Map.Entry<String, Entry>> it = entries_.entrySet().iterator();
+      while (it.hasNext())
+      {
+         Entry entry = it.next().getValue();
+         if (entry.pkg == null)
+            continue;
+
+         String version = versions.get(entry.pkg);
+         if (entry.version == null)
+            entry.version = version;
+         else if (!entry.version.equals(version))
+            it.remove();
+      }
+
+      versions_ = versions;
+   }
+
+   private JavaScriptObject stylesheetsObject()
+   {
+      JavaScriptObject result = JavaScriptObject.createObject();
+      for (Map.Entry<String, String> entry : stylesheets_.entrySet())
+         setProperty(result, entry.getKey(), entry.getValue());
+      return result;
+   }
+
+   private static String normalize(String url)
+   {
+      // fragments don't change the page
+      int hash = url.indexOf('#');
+      return hash == -1 ? url : url.substring(0, hash);
+   }
+
+   private interface TextCallback
+   {
+      void onText(String text);
+   }
+
+   private static native void fetchPage(String url, HelpPageCache cache) /*-{
+      var xhr = new $wnd.XMLHttpRequest();
+      xhr.open("GET", url, true);
+      xhr.onload = $entry(function() {
+         var type = xhr.getResponseHeader("Content-Type") || "";
+         var doc = null;
+         if (xhr.status === 200 && type.indexOf("text/html") !== -1)
+            doc = new $wnd.DOMParser().parseFromString(xhr.responseText, "text/html");
+         cache.@org.rstudio.studio.client.workbench.views.help.model.HelpPageCache::onPageFetched(*)(
+            url, xhr.responseURL || url, doc);
+      });
+      xhr.onerror = $entry(function() {
+         cache.@org.rstudio.studio.client.workbench.views.help.model.HelpPageCache::onPageFetched(*)(
+            url, url, null);
+      });
+      xhr.send();
+   }-*/;
+
+   private static native void fetchText(String url, TextCallback callback) /*-{
+      var xhr = new $wnd.XMLHttpRequest();
+      xhr.open("GET", url, true);
+      xhr.onload = $entry(function() {
+         var text = xhr.status === 200 ? xhr.responseText : null;
+         callback.@org.rstudio.studio.client.workbench.views.help.model.HelpPageCache.TextCallback::onText(*)(text);
+      });
+      xhr.onerror = $entry(function() {
+         callback.@org.rstudio.studio.client.workbench.views.help.model.HelpPageCache.TextCallback::onText(*)(null);
+      });
+      xhr.send();
+   }-*/;
+
+   // whether the document is a successfully loaded HTML page (rather than,
+   // say, the help server's error page for a missing topic)
+   private static native boolean isCompletePage(JavaScriptObject doc) /*-{
+      if (doc.contentType !== "text/html")
+         return false;
+
+      var view = doc.defaultView;
+      var entries = view && view.performance && view.performance.getEntriesByType
+         ? view.performance.getEntriesByType("navigation")
+         : [];
+      if (entries.length > 0 && typeof entries[0].responseStatus === "number")
+         return entries[0].responseStatus === 200;
+
+      return true;
+   }-*/;
+
+   private static native JavaScriptObject copyDocument(JavaScriptObject doc) /*-{
+      return new $wnd.DOMParser().parseFromString(doc.documentElement.outerHTML, "text/html");
+   }-*/;
+
+   private static native JsArrayString getStylesheetUrls(JavaScriptObject doc,
+                                                         String baseUrl) /*-{
+      var result = [];
+      var links = doc.querySelectorAll("link[rel='stylesheet'][href]");
+      for (var i = 0; i < links.length; i++)
+         result.push(new $wnd.URL(links[i].getAttribute("href"), baseUrl).href);
+      return result;
+   }-*/;
+
+   // Serializes the page with a <base> (so relative links resolve as they
+   // would have from the page's own URL) and its stylesheets inlined.
+   private static native String renderPage(JavaScriptObject doc,
+                                           String baseUrl,
+                                           JavaScriptObject stylesheets) /*-{
+      var links = doc.querySelectorAll("link[rel='stylesheet'][href]");
+      for (var i = 0; i < links.length; i++) {
+         var href = new $wnd.URL(links[i].getAttribute("href"), baseUrl).href;
+         var css = stylesheets[href];
+         if (typeof css !== "string" || css.length === 0)
+            continue;
+         var style = doc.createElement("style");
+         style.textContent = css;
+         links[i].parentNode.replaceChild(style, links[i]);
+      }
+
+      var base = doc.createElement("base");
+      base.setAttribute("href", baseUrl);
+      doc.head.insertBefore(base, doc.head.firstChild);
+
+      return "<!DOCTYPE html>\n" + doc.documentElement.outerHTML;
+   }-*/;
+
+   private static native void setProperty(JavaScriptObject object,
+                                          String key,
+                                          String value) /*-{
+      object[key] = value;
+   }-*/;
+
+   private static class Entry
+   {
+      Entry(String html, String pkg, String version)
+      {
+         this.html = html;
+         this.pkg = pkg;
+         this.version = version;
+      }
+
+      final String html;
+      final String pkg;
+      String version;
+   }
+
+   private final LinkedHashMap<String, Entry> entries_ =
+         new LinkedHashMap<String, Entry>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+      {
+         return size() > MAX_ENTRIES;
+      }
+   };
+
+   private final HashMap<String, String> stylesheets_ = new HashMap<>();
+   private final LinkedList<String> queue_ = new LinkedList<>();
+   private final Timer fetchTimer_;
+
+   private HashMap<String, String> versions_ = new HashMap<>();
+   private String inFlight_;
+   private boolean busy_ = false;
+
+   private static final int MAX_ENTRIES = 50;
+   private static final int MAX_QUEUE = 40;
+   private static final int MAX_PREFETCH_LINKS = 10;
+   private static final int FETCH_DELAY_MS = 250;
+
+   // rendered package help pages (and topic links that redirect to them)
+   private static final Pattern PAGE_PATTERN =
+         Pattern.create("/help/library/([^/]+)/(?:html|help)/[^?]+$", "");
+}
@@ -22,6 +22,9 @@ public interface HelpServerOperations
    void suggestTopics(String prefix,
                       ServerRequestCallback<JsArrayString> requestCallback);
 
+   // all help topics for the currently attached packages
+   void listHelpTopics(ServerRequestCallback<JsArrayString> requestCallback);
+
    void getHelp(String topic, 
                 String packageName,
                 int type,
@@ -14,46 +14,30 @@
  */
 package org.rstudio.studio.client.workbench.views.help.search;
 
-import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.user.client.ui.SuggestOracle;
 import com.google.inject.Inject;
-import org.rstudio.studio.client.server.ServerError;
-import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
 
 import java.util.ArrayList;
 
 public class HelpSearchOracle extends SuggestOracle
 {
    @Inject
-   public HelpSearchOracle(HelpServerOperations server)
+   public HelpSearchOracle(HelpTopicIndex index)
    {
-      server_ = server;
+      index_ = index;
    }
 
    @Override
    public void requestSuggestions(final Request request, 
                                   final Callback callback)
    {
-      String query = request.getQuery();
-      server_.suggestTopics(query,
-                             new ServerRequestCallback<JsArrayString>() {
-         @Override
-         public void onError(ServerError error)
-         {
-         }
-
-         @Override
-         public void onResponseReceived(JsArrayString suggestions)
-         {
-            int maxCount = Math.min(suggestions.length(), request.getLimit());
+      index_.match(request.getQuery(), request.getLimit(), topics ->
+      {
+         ArrayList<SearchSuggestion> results = new ArrayList<>();
+         for (String topic : topics)
+            results.add(new SearchSuggestion(topic));
 
-            ArrayList<SearchSuggestion> results = new ArrayList<>();
-            for (int i = 0; i< maxCount; i++)
-               results.add(new SearchSuggestion(suggestions.get(i)));
-            
-            callback.onSuggestionsReady(request, new Response(results));
-         }
+         callback.onSuggestionsReady(request, new Response(results));
       });
    }
    
@@ -77,5 +61,5 @@ public class HelpSearchOracle extends SuggestOracle
       private final String value_;
    }
 
-   private final HelpServerOperations server_;
+   private final HelpTopicIndex index_;
 }
@@ -0,0 +1,281 @@
+/*
+ * HelpTopicIndex.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.help.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+
+import com.google.gwt.core.client.JsArrayString;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Client-side index of the help topics of the attached packages, used to
+ * answer help search suggestions without a round trip to a (possibly busy)
+ * R session. The index is fetched on first use and re-fetched the next time
+ * it's needed after the set of packages changes.
+ *
+ * Matching follows suggest_topics on the server: the query must be a
+ * (case-insensitive) subsequence of the topic, and its first character must
+ * match the topic's first character (ignoring leading dots), or, for a query
+ * starting with a dot, the topic must start with a dot. Topics are bucketed
+ * by that first character, and the matches for the previous query are reused
+ * when the user extends it.
+ *
+ * If the index can't be loaded, queries are answered by suggest_topics.
+ */
+@Singleton
+public class HelpTopicIndex
+{
+   public interface MatchCallback
+   {
+      void onMatches(List<String> topics);
+   }
+
+   @Inject
+   public HelpTopicIndex(HelpServerOperations server,
+                         EventBus events)
+   {
+      server_ = server;
+
+      events.addHandler(PackageStateChangedEvent.TYPE, event -> invalidate());
+   }
+
+   /**
+    * Reports up to 'limit' topics matching the query, best first.
+    */
+   public void match(String query, int limit, MatchCallback callback)
+   {
+      if (failed_)
+      {
+         suggestFromServer(query, limit, callback);
+         return;
+      }
+
+      if (buckets_ != null)
+      {
+         callback.onMatches(matchNow(query, limit));
+         return;
+      }
+
+      // answer the most recent query once the index arrives
+      pendingQuery_ = query;
+      pendingLimit_ = limit;
+      pendingCallback_ = callback;
+      load();
+   }
+
+   public void invalidate()
+   {
+      // keep serving the old index until the new one arrives
+      stale_ = true;
+      failed_ = false;
+   }
+
+   private List<String> matchNow(String query, int limit)
+   {
+      // refresh in the background if packages have changed
+      if (stale_)
+         load();
+
+      List<String> candidates;
+      String queryLower = query.toLowerCase();
+      if (queryLower.isEmpty())
+      {
+         candidates = allTopics_;
+      }
+      else if (lastQuery_ != null &&
+               !lastQuery_.isEmpty() &&
+               queryLower.startsWith(lastQuery_) &&
+               candidatesFor(lastQuery_) == candidatesFor(queryLower))
+      {
+         // both queries draw on the same candidates, so anything matching
+         // the extended query matched the shorter one
+         candidates = lastMatches_;
+      }
+      else
+      {
+         candidates = candidatesFor(queryLower);
+      }
+
+      List<String> matches = new ArrayList<>();
+      for (String topic : candidates)
+      {
+         if (queryLower.isEmpty() || StringUtil.isSubsequence(topic.toLowerCase(), queryLower))
+            matches.add(topic);
+      }
+
+      lastQuery_ = queryLower;
+      lastMatches_ = matches;
+
+      // score only what we'll sort; order by score, then by length
+      final HashMap<String, Integer> scores = new HashMap<>();
+      for (String topic : matches)
+         scores.put(topic, CodeSearchOracle.scoreMatch(topic, query, false));
+
+      List<String> sorted = new ArrayList<>(matches);
+      Collections.sort(sorted, (a, b) ->
+      {
+         int result = scores.get(a) - scores.get(b);
+         return result != 0 ? result : a.length() - b.length();
+      });
+
+      return sorted.size() > limit ? sorted.subList(0, limit) : sorted;
+   }
+
+   private void load()
+   {
+      if (loading_)
+         return;
+
+      loading_ = true;
+      stale_ = false;
+      server_.listHelpTopics(new ServerRequestCallback<JsArrayString>()
+      {
+         @Override
+         public void onResponseReceived(JsArrayString topics)
+         {
+            loading_ = false;
+            build(topics);
+
+            if (pendingCallback_ != null)
+            {
+               MatchCallback callback = pendingCallback_;
+               pendingCallback_ = null;
+               callback.onMatches(matchNow(pendingQuery_, pendingLimit_));
+            }
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            loading_ = false;
+
+            // fall back to server-side suggestions until packages change
+            if (buckets_ == null)
+               failed_ = true;
+
+            // the query waiting for the index still needs an answer
+            if (pendingCallback_ != null)
+            {
+               MatchCallback callback = pendingCallback_;
+               pendingCallback_ = null;
+               suggestFromServer(pendingQuery_, pendingLimit_, callback);
+            }
+         }
+      });
+   }
+
+   private void suggestFromServer(String query,
+                                  int limit,
+                                  MatchCallback callback)
+   {
+      server_.suggestTopics(query, new ServerRequestCallback<JsArrayString>()
+      {
+         @Override
+         public void onResponseReceived(JsArrayString suggestions)
+         {
+            int count = Math.min(suggestions.length(), limit);
+            List<String> topics = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+               topics.add(suggestions.get(i));
+            callback.onMatches(topics);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+         }
+      });
+   }
+
+   private void build(JsArrayString topics)
+   {
+      allTopics_ = new ArrayList<>(topics.length());
+      dotTopics_ = new ArrayList<>();
+      buckets_ = new HashMap<>();
+      for (int i = 0; i < topics.length(); i++)
+      {
+         String topic = topics.get(i);
+         if (StringUtil.isNullOrEmpty(topic))
+            continue;
+
+         allTopics_.add(topic);
+         if (topic.charAt(0) == '.')
+            dotTopics_.add(topic);
+
+         char key = firstChar(topic.toLowerCase());
+         List<String> bucket = buckets_.get(key);
+         if (bucket == null)
+         {
+            bucket = new ArrayList<>();
+            buckets_.put(key, bucket);
+         }
+         bucket.add(topic);
+      }
+
+      lastQuery_ = null;
+      lastMatches_ = null;
+   }
+
+   // the topics a (non-empty, lowercased) query can match: those whose first
+   // character after any leading dots is the query's first character (so
+   // 'libpaths' finds '.libPaths'), or, for a query starting with a dot,
+   // those starting with a dot
+   private List<String> candidatesFor(String queryLower)
+   {
+      char first = queryLower.charAt(0);
+      if (first == '.')
+         return dotTopics_;
+
+      List<String> bucket = buckets_.get(first);
+      return bucket == null ? Collections.emptyList() : bucket;
+   }
+
+   // first character, ignoring leading dots
+   private static char firstChar(String value)
+   {
+      int i = 0;
+      while (i < value.length() - 1 && value.charAt(i) == '.')
+         i++;
+      return value.charAt(i);
+   }
+
+   private final HelpServerOperations server_;
+
+   private List<String> allTopics_;
+   private List<String> dotTopics_;
+   private HashMap<Character, List<String>> buckets_;
+   private String lastQuery_;
+   private List<String> lastMatches_;
+
+   private boolean loading_ = false;
+   private boolean stale_ = false;
+   private boolean failed_ = false;
+
+   private String pendingQuery_;
+   private int pendingLimit_;
+   private MatchCallback pendingCallback_;
+}
@@ -81,6 +81,7 @@ public class JobManager implements JobRefreshEvent.Handler,
       pSession_ = pSession;
       pUserPrefs_ = pUserPerfs;
       state_ = JobState.create();
+      progress_ = new JobProgressTracker();
       server_ = server;
       display_ = display;
       pSourceManager_ = pSourceManager;
@@ -117,14 +118,17 @@ public class JobManager implements JobRefreshEvent.Handler,
       {
          case JobConstants.JOB_ADDED:
             state_.addJob(job);
+            progress_.updateJob(job);
             break;
 
          case JobConstants.JOB_REMOVED:
             state_.removeJob(job);
+            progress_.removeJob(job);
             break;
 
          case JobConstants.JOB_UPDATED:
             state_.updateJob(job);
+            progress_.updateJob(job);
             break;
 
          default:
@@ -216,23 +220,35 @@ public class JobManager implements JobRefreshEvent.Handler,
     */
    public static LocalJobProgress summarizeProgress(JobState state)
    {
-      boolean showProgress = false;
-
-      // flatten job list to an array while looking for a running job
+      // flatten job list to an array of session jobs
       ArrayList<Job> jobs = new ArrayList<>();
       for (String id: state.iterableKeys())
       {
          Job job = state.getJob(id);
+         if (job.type == JobConstants.JOB_TYPE_SESSION)
+            jobs.add(job);
+      }
+      return summarizeProgress(jobs);
+   }
 
-         if (job.type != JobConstants.JOB_TYPE_SESSION)
-            continue;
-
-         // push session jobs into array
-         jobs.add(job);
-
-         // remember if we found a running job that has progress
+   /**
+    * Creates a progress event summarizing progress for a list of session
+    * jobs; see summarizeProgress(JobState).
+    *
+    * @param jobs The session jobs to summarize; the list is reordered
+    * @return Progress of running jobs, or null if no progress.
+    */
+   static LocalJobProgress summarizeProgress(List<Job> jobs)
+   {
+      // look for a running job that has progress
+      boolean showProgress = false;
+      for (Job job: jobs)
+      {
          if (job.state == JobConstants.STATE_RUNNING && job.max > 0)
+         {
             showProgress = true;
+            break;
+         }
       }
 
       // if we didn't find any jobs with reportable progress, then we have no progress to report
@@ -422,13 +438,14 @@ public class JobManager implements JobRefreshEvent.Handler,
 
    private void emitJobProgress()
    {
-      LocalJobProgress progress = summarizeProgress(state_);
+      LocalJobProgress progress = progress_.summarize();
       events_.fireEvent(new JobProgressEvent(progress));
    }
 
    private void setJobState(JobState state)
    {
       state_ = state;
+      progress_.reset(state_);
       events_.fireEvent(new JobInitEvent(state_));
 
       // start timing jobs and emitting progress
@@ -439,10 +456,11 @@ public class JobManager implements JobRefreshEvent.Handler,
    private void syncTimer()
    {
       // start or stop updating job elapsed times based on whether we have any
-      // jobs running
-      if (state_.keys().length() > 0 && !elapsed_.isRunning())
+      // jobs running; the elapsed time of jobs in any other state doesn't
+      // change
+      if (progress_.hasRunningJobs() && !elapsed_.isRunning())
          elapsed_.scheduleRepeating(1000);
-      else if (state_.keys().length() == 0 && elapsed_.isRunning())
+      else if (!progress_.hasRunningJobs() && elapsed_.isRunning())
          elapsed_.cancel();
    }
 
@@ -480,6 +498,7 @@ public class JobManager implements JobRefreshEvent.Handler,
    }
 
    private JobState state_;
+   private final JobProgressTracker progress_;
 
    // injected
    private final EventBus events_;
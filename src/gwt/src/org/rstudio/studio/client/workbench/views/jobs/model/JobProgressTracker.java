@@ -0,0 +1,120 @@
+/*
+ * JobProgressTracker.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.jobs.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the counts needed to decide whether there is any job progress to
+ * report, updated as each job is added, updated, or removed, so that a
+ * session with thousands of (mostly finished, mostly launcher) jobs doesn't
+ * rescan all of them on every job update.
+ */
+public class JobProgressTracker
+{
+   public JobProgressTracker()
+   {
+      flags_ = new HashMap<>();
+      sessionJobs_ = new LinkedHashMap<>();
+   }
+
+   /**
+    * Replaces all tracked jobs with the jobs in the given state.
+    */
+   public void reset(JobState state)
+   {
+      flags_.clear();
+      sessionJobs_.clear();
+      running_ = 0;
+      runningWithProgress_ = 0;
+
+      for (String id: state.iterableKeys())
+         updateJob(state.getJob(id));
+   }
+
+   /**
+    * Adds a job, or replaces the job with the same ID.
+    */
+   public void updateJob(Job job)
+   {
+      removeJob(job);
+
+      // remember what the job counted towards rather than the job itself,
+      // since the job object may be changed after it's been tracked
+      int flags = 0;
+      if (job.state == JobConstants.STATE_RUNNING)
+      {
+         flags |= FLAG_RUNNING;
+         running_++;
+      }
+      if (job.type == JobConstants.JOB_TYPE_SESSION)
+      {
+         sessionJobs_.put(job.id, job);
+         if (job.state == JobConstants.STATE_RUNNING && job.max > 0)
+         {
+            flags |= FLAG_PROGRESS;
+            runningWithProgress_++;
+         }
+      }
+      flags_.put(job.id, flags);
+   }
+
+   public void removeJob(Job job)
+   {
+      Integer flags = flags_.remove(job.id);
+      if (flags == null)
+         return;
+
+      sessionJobs_.remove(job.id);
+      if ((flags & FLAG_RUNNING) != 0)
+         running_--;
+      if ((flags & FLAG_PROGRESS) != 0)
+         runningWithProgress_--;
+   }
+
+   /**
+    * @return Whether any job (of any type) is currently running
+    */
+   public boolean hasRunningJobs()
+   {
+      return running_ > 0;
+   }
+
+   /**
+    * Summarizes the progress of the tracked session jobs; see
+    * JobManager.summarizeProgress().
+    *
+    * @return Progress of running jobs, or null if no progress.
+    */
+   public LocalJobProgress summarize()
+   {
+      // the common case: nothing is reporting progress
+      if (runningWithProgress_ == 0)
+         return null;
+
+      return JobManager.summarizeProgress(new ArrayList<>(sessionJobs_.values()));
+   }
+
+   private final Map<String, Integer> flags_;
+   private final Map<String, Job> sessionJobs_;
+   private int running_;
+   private int runningWithProgress_;
+
+   private static final int FLAG_RUNNING = 1;
+   private static final int FLAG_PROGRESS = 2;
+}
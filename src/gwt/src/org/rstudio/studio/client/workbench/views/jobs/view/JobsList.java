@@ -14,6 +14,8 @@
  */
 package org.rstudio.studio.client.workbench.views.jobs.view;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -24,6 +26,7 @@ import com.google.gwt.core.client.GWT;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.VerticalPanel;
@@ -44,7 +47,7 @@ public class JobsList extends Composite
       jobItemFactory_ = jobItemFactory;
       initWidget(uiBinder.createAndBindUi(this));
    
-      listImpl_ = new JobsListViewImpl(list_);
+      listImpl_ = new JobsListViewImpl(scroll_, content_, list_, jobItemFactory_);
       
       updateVisibility();
    }
@@ -55,7 +58,7 @@ public class JobsList extends Composite
       if (listImpl_.hasJob(job.id))
          return false;
    
-      listImpl_.addJob(jobItemFactory_.create(job)); 
+      listImpl_.addJob(job);
       updateVisibility();
       return true;
    }
@@ -66,7 +69,7 @@ public class JobsList extends Composite
       if (listImpl_.hasJob(job.id))
          return false;
       
-      listImpl_.insertJob(jobItemFactory_.create(job));
+      listImpl_.insertJob(job);
       updateVisibility();
       return true;
    }
@@ -121,18 +124,15 @@ public class JobsList extends Composite
    @Override
    public void setInitialJobs(List<Job> jobs)
    {
-       // clear any current state
-      clear();
-     
       // sort jobs by most recently recorded first
-      List<Job> sortedJobs = jobs;
+      List<Job> sortedJobs = new ArrayList<>(jobs);
       sortedJobs.sort(Comparator.comparingInt(j -> j.recorded));
-      
-      // add each to the panel
-      for (Job job: sortedJobs)
-      {
-         addJob(job);
-      }
+      Collections.reverse(sortedJobs);
+
+      // replace the current jobs; only the jobs that are scrolled into view
+      // get a widget
+      listImpl_.setJobs(sortedJobs);
+      updateVisibility();
    }
    
    private void updateVisibility()
@@ -141,6 +141,7 @@ public class JobsList extends Composite
       empty_.setVisible(jobCount() == 0);
    }
   
+   @UiField FlowPanel content_;
    @UiField VerticalPanel list_;
    @UiField Label empty_;
    @UiField ScrollPanel scroll_;
@@ -14,117 +14,156 @@
  */
 package org.rstudio.studio.client.workbench.views.jobs.view;
 
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.VerticalPanel;
 
 import org.rstudio.core.client.ElementIds;
 import org.rstudio.studio.client.workbench.views.jobs.model.Job;
+import org.rstudio.studio.client.workbench.views.jobs.model.JobConstants;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * The jobs shown in a JobsList. Every job is kept in the list, but a
+ * JobItem widget is only created for the jobs in a window around the
+ * visible part of the list; the space taken by the jobs outside the window
+ * is padding in the scrolled content.
+ */
 public class JobsListViewImpl
 {
-   JobsListViewImpl(VerticalPanel list)
+   JobsListViewImpl(ScrollPanel scroll,
+                    FlowPanel content,
+                    VerticalPanel list,
+                    JobItemFactory factory)
    {
+      ids_ = new ArrayList<>();
       jobs_ = new HashMap<>();
+      items_ = new HashMap<>();
+      scroll_ = scroll;
+      content_ = content;
       list_ = list;
+      factory_ = factory;
+
+      scroll_.addScrollHandler(event -> onScroll());
    }
-   
-   public boolean addJob(JobItemView item)
-   {
-      if (hasJob(item.getJob().id))
-         return false;
 
-      ElementIds.assignElementId(item.asWidget(),
-         ElementIds.JOB_LAUNCHER_JOB_VIEW + "_" + item.getJob().id);
-      jobs_.put(item.getJob().id, item);
-      list_.insert(item, 0);
-      return true;
+   public boolean addJob(Job job)
+   {
+      return insertJobAt(job, 0);
    }
-   
-   public boolean insertJob(JobItemView item)
+
+   public boolean insertJob(Job job)
    {
-      if (hasJob(item.getJob().id))
+      if (hasJob(job.id))
          return false;
-      
-      // keep list sorted with most recently recorded jobs first
-      int i;
-      for (i = 0; i < list_.getWidgetCount(); i++)
+
+      // keep list sorted with most recently recorded jobs first; find the
+      // first job recorded no later than this one
+      int lo = 0;
+      int hi = ids_.size();
+      while (lo < hi)
       {
-         if (((JobItemView)list_.getWidget(i)).getJob().recorded <= item.getJob().recorded)
-            break;
+         int mid = (lo + hi) >>> 1;
+         if (jobs_.get(ids_.get(mid)).recorded <= job.recorded)
+            hi = mid;
+         else
+            lo = mid + 1;
       }
-      ElementIds.assignElementId(item.asWidget(),
-         ElementIds.JOB_LAUNCHER_JOB_VIEW + "_" + item.getJob().id);
-      insertJobAt(item, i);
-      return true;
+      return insertJobAt(job, lo);
    }
-   
-   public boolean insertJobAt(JobItemView item, int position)
+
+   public boolean insertJobAt(Job job, int position)
    {
-      if (hasJob(item.getJob().id))
+      if (hasJob(job.id))
          return false;
-      
-      jobs_.put(item.getJob().id, item);
-      list_.insert(item, position);
+
+      jobs_.put(job.id, job);
+      ids_.add(position, job.id);
+      renderWindow(windowStart_);
       return true;
    }
-   
+
+   /**
+    * Replaces all the jobs in the list.
+    *
+    * @param jobs The jobs, in the order they're to be displayed
+    */
+   public void setJobs(List<Job> jobs)
+   {
+      ids_.clear();
+      jobs_.clear();
+      for (Job job: jobs)
+      {
+         if (jobs_.containsKey(job.id))
+            continue;
+         jobs_.put(job.id, job);
+         ids_.add(job.id);
+      }
+      renderWindow(0);
+   }
+
    public boolean removeJob(Job job)
    {
       if (!jobs_.containsKey(job.id))
          return false;
-      
-      list_.remove(jobs_.get(job.id));
+
       jobs_.remove(job.id);
+      ids_.remove(job.id);
+      renderWindow(windowStart_);
       return true;
    }
-   
+
    public void updateJob(Job job)
    {
       if (!jobs_.containsKey(job.id))
          return;
-      jobs_.get(job.id).update(job);
+      jobs_.put(job.id, job);
+
+      // jobs outside the window are brought up to date when they're rendered
+      JobItemView item = items_.get(job.id);
+      if (item != null)
+         item.update(job);
    }
-   
+
    public void clear()
    {
-      list_.clear();
+      ids_.clear();
       jobs_.clear();
+      renderWindow(0);
    }
-   
+
    public void syncElapsedTime(int timestamp)
    {
-      for (JobItemView item: jobs_.values())
+      // only the elapsed time of running jobs changes, and only rendered
+      // jobs need to show it
+      for (JobItemView item: items_.values())
       {
-         item.syncTime(timestamp);
+         if (item.getJob().state == JobConstants.STATE_RUNNING)
+            item.syncTime(timestamp);
       }
    }
-   
+
    public Job getJob(String id)
    {
-      if (jobs_.containsKey(id))
-         return jobs_.get(id).getJob();
-      return null;
+      return jobs_.get(id);
    }
-   
+
    public int jobCount()
    {
       return jobs_.size();
    }
-   
+
    public List<Job> getJobs()
    {
-      ArrayList<Job> jobList = new ArrayList<>();
-
       // return jobs in same order they are displayed
-      for (int i = 0; i < list_.getWidgetCount(); i++)
-      {
-         JobItemView jobItem = (JobItemView)list_.getWidget(i);
-         jobList.add(jobItem.getJob());
-      }
+      ArrayList<Job> jobList = new ArrayList<>();
+      for (String id: ids_)
+         jobList.add(jobs_.get(id));
       return jobList;
    }
 
@@ -132,7 +171,75 @@ public class JobsListViewImpl
    {
       return jobs_.containsKey(id);
    }
-   
-   private final Map<String, JobItemView> jobs_;
+
+   private void onScroll()
+   {
+      if (ids_.size() <= WINDOW_SIZE)
+         return;
+
+      // re-render once the visible jobs get close to either end of the
+      // rendered window
+      int first = scroll_.getVerticalScrollPosition() / rowHeight_;
+      int last = (scroll_.getVerticalScrollPosition() +
+                  scroll_.getOffsetHeight()) / rowHeight_;
+      int windowEnd = windowStart_ + list_.getWidgetCount();
+      if ((first < windowStart_ + WINDOW_MARGIN && windowStart_ > 0) ||
+          (last > windowEnd - WINDOW_MARGIN && windowEnd < ids_.size()))
+      {
+         renderWindow((first + last - WINDOW_SIZE) / 2);
+      }
+   }
+
+   // renders the jobs from the given index (adjusted to fit) onwards, reusing
+   // the widgets of any jobs that were already rendered
+   private void renderWindow(int start)
+   {
+      int count = Math.min(WINDOW_SIZE, ids_.size());
+      start = Math.max(0, Math.min(start, ids_.size() - count));
+      windowStart_ = start;
+
+      Map<String, JobItemView> items = new HashMap<>();
+      list_.clear();
+      for (int i = start; i < start + count; i++)
+      {
+         Job job = jobs_.get(ids_.get(i));
+         JobItemView item = items_.get(job.id);
+         if (item == null)
+         {
+            item = factory_.create(job);
+            ElementIds.assignElementId(item.asWidget(),
+               ElementIds.JOB_LAUNCHER_JOB_VIEW + "_" + job.id);
+         }
+         else if (item.getJob() != job)
+         {
+            item.update(job);
+         }
+         items.put(job.id, item);
+         list_.add(item);
+      }
+      items_ = items;
+
+      // job rows are all the same height, but that depends on the font size;
+      // measure them once something has been rendered
+      if (count > 0 && list_.getOffsetHeight() > 0)
+         rowHeight_ = Math.max(1, list_.getOffsetHeight() / count);
+
+      content_.getElement().getStyle().setPaddingTop(windowStart_ * rowHeight_, Unit.PX);
+      content_.getElement().getStyle().setHeight(
+            (ids_.size() - windowStart_) * rowHeight_, Unit.PX);
+   }
+
+   private final ArrayList<String> ids_;
+   private final Map<String, Job> jobs_;
+   private Map<String, JobItemView> items_;
+   private int windowStart_ = 0;
+   private int rowHeight_ = 48;
+
+   private final ScrollPanel scroll_;
+   private final FlowPanel content_;
    private final VerticalPanel list_;
+   private final JobItemFactory factory_;
+
+   private static final int WINDOW_SIZE = 60;
+   private static final int WINDOW_MARGIN = 15;
 }
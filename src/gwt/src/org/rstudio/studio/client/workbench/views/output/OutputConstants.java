@@ -215,13 +215,13 @@ public interface OutputConstants extends com.google.gwt.i18n.client.Messages {
     String customFilterPatterValue();
 
     /**
-     * Translated "More than 1000 matching lines were found. Only the first 1000 lines are shown.".
+     * Translated "More than {0} matching lines were found. Only the first {0} lines are shown.".
      *
-     * @return translated "More than 1000 matching lines were found. Only the first 1000 lines are shown."
+     * @return translated "More than {0} matching lines were found. Only the first {0} lines are shown."
      */
-    @DefaultMessage("More than 1000 matching lines were found. Only the first 1000 lines are shown.")
+    @DefaultMessage("More than {0} matching lines were found. Only the first {0} lines are shown.")
     @Key("overFlowMessage")
-    String overFlowMessage();
+    String overFlowMessage(int maxCount);
 
     /**
      * Translated "Find Results".
@@ -637,4 +637,12 @@ public interface OutputConstants extends com.google.gwt.i18n.client.Messages {
     @Key("replaceCannotBeUndoneText")
     String replaceCannotBeUndoneText(String replaceText);
 
+    /**
+     * Translated "Refine results".
+     *
+     * @return translated "Refine results"
+     */
+    @DefaultMessage("Refine results")
+    @Key("refineResultsLabel")
+    String refineResultsLabel();
 }
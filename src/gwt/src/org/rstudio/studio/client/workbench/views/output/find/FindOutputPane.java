@@ -15,20 +15,17 @@
 package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.core.client.GWT;
-import com.google.gwt.dom.client.NativeEvent;
-import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.user.client.ui.Label;
-import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.SimplePanel;
+import com.google.gwt.user.client.ui.SuggestOracle;
 import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.core.client.DebouncedCommand;
-import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.events.EnsureVisibleEvent;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
 import org.rstudio.core.client.events.SelectionCommitEvent;
@@ -67,6 +64,23 @@ public class FindOutputPane extends WorkbenchPane
       searchLabel_ = new Label();
       toolbar.addLeftWidget(searchLabel_);
 
+      refineWidget_ = new SearchWidget(constants_.refineResultsLabel(), new SuggestOracle()
+      {
+         @Override
+         public void requestSuggestions(Request request, Callback callback)
+         {
+            // no suggestions
+            callback.onSuggestionsReady(
+                  request,
+                  new Response(new ArrayList<>()));
+         }
+      });
+      refineWidget_.addValueChangeHandler(event ->
+      {
+         tree_.setRefine(event.getValue().trim());
+      });
+      toolbar.addRightWidget(refineWidget_);
+
       stopSearch_ = new ToolbarButton(
             ToolbarButton.NoText,
             constants_.stopFindInFilesTitle(),
@@ -144,44 +158,20 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    protected Widget createMainWidget()
    {
-      context_ = new FindResultContext();
+      store_ = new FindResultStore();
 
       FindOutputResources resources = GWT.create(FindOutputResources.class);
       resources.styles().ensureInjected();
 
-      table_ = new FastSelectTable<>(
-            new FindOutputCodec(resources),
-            resources.styles().selectedRow(),
-            true,
-            false,
+      tree_ = new FindResultsTree(
+            store_,
+            resources,
             constants_.findInFilesResultsTitle());
-      FontSizer.applyNormalFontSize(table_);
-      table_.addStyleName(resources.styles().findOutput());
-      table_.addClickHandler(new ClickHandler()
+      tree_.setSize("100%", "100%");
+      FontSizer.applyNormalFontSize(tree_);
+      tree_.addSelectionCommitHandler(event ->
       {
-         @Override
-         public void onClick(ClickEvent event)
-         {
-            if (event.getNativeButton() != NativeEvent.BUTTON_LEFT)
-               return;
-
-            if (dblClick_.checkForDoubleClick(event.getNativeEvent()))
-               fireSelectionCommitted();
-         }
-
-         private final DoubleClickState dblClick_ = new DoubleClickState();
-      });
-
-      table_.addKeyDownHandler(new KeyDownHandler()
-      {
-         @Override
-         public void onKeyDown(KeyDownEvent event)
-         {
-            if (event.getNativeKeyCode() == KeyCodes.KEY_ENTER)
-               fireSelectionCommitted();
-            event.stopPropagation();
-            event.preventDefault();
-         }
+         SelectionCommitEvent.fire(this, event.getSelectedItem());
       });
 
       replaceMode_ = false;
@@ -192,9 +182,7 @@ public class FindOutputPane extends WorkbenchPane
       container_.setSize("100%", "100%");
       statusPanel_ = new StatusPanel();
       statusPanel_.setSize("100%", "100%");
-      scrollPanel_ = new ScrollPanel(table_);
-      scrollPanel_.setSize("100%", "100%");
-      container_.setWidget(scrollPanel_);
+      container_.setWidget(tree_);
       return container_;
    }
 
@@ -209,10 +197,10 @@ public class FindOutputPane extends WorkbenchPane
    {
       FindOutputResources resources = GWT.create(FindOutputResources.class);
       if (value)
-         table_.addStyleName(resources.styles().findOutputReplace());
+         tree_.addStyleName(resources.styles().findOutputReplace());
       else
       {
-         table_.removeStyleName(resources.styles().findOutputReplace());
+         tree_.removeStyleName(resources.styles().findOutputReplace());
          addReplaceMatches("");
       }
       // this needs to be done after addReplaceMatches is called
@@ -222,39 +210,31 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void addMatches(ArrayList<FindResult> findResults)
    {
-      int matchesToAdd = Math.min(findResults.size(), MAX_COUNT - matchCount_);
-
-      if (matchesToAdd > 0)
-      {
-         matchCount_ += matchesToAdd;
+      for (FindResult result : findResults)
+         store_.add(result);
 
-         if (matchCount_ > 0 && container_.getWidget() != scrollPanel_)
-            container_.setWidget(scrollPanel_);
+      if (store_.size() > 0 && container_.getWidget() != tree_)
+         container_.setWidget(tree_);
+      tree_.scheduleRefresh();
 
-         if (!replaceMode_ || regexPreviewMode_)
-            context_.addMatches(findResults.subList(0, matchesToAdd));
-         table_.addItems(findResults.subList(0, matchesToAdd), false);
-      }
-
-      if (matchCount_ >= MAX_COUNT)
+      if (store_.isFull())
          showOverflow();
    }
 
    public void addReplaceMatches(String value)
    {
-      table_.clear();
-      matchCount_ = 0;
-      context_.updateFileMatches(value);
-      addMatches(context_.getFindResults());
+      store_.setReplace(value);
+      tree_.refresh();
    }
 
    @Override
    public void clearMatches()
    {
-      context_.reset();
-      table_.clear();
+      store_.clear();
+      refineWidget_.setText("");
+      tree_.setRefine("");
+      tree_.clear();
       overflow_ = false;
-      matchCount_ = 0;
       statusPanel_.setStatusText("");
       container_.setWidget(statusPanel_);
    }
@@ -262,7 +242,7 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void showSearchCompleted()
    {
-      if (matchCount_ == 0)
+      if (store_.size() == 0)
          statusPanel_.setStatusText(constants_.noResultsFoundText());
    }
 
@@ -273,10 +253,9 @@ public class FindOutputPane extends WorkbenchPane
 
       if (!regexPreviewMode_)
       {
-         table_.focus();
-         ArrayList<Integer> indices = table_.getSelectedRowIndexes();
-         if (indices.isEmpty())
-            table_.selectNextRow();
+         tree_.focus();
+         if (!tree_.hasSelection())
+            tree_.selectFirst();
       }
    }
 
@@ -304,19 +283,13 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void ensureSelectedRowIsVisible()
    {
-      ArrayList<TableRowElement> rows = table_.getSelectedRows();
-      if (rows.size() > 0)
-      {
-         DomUtils.ensureVisibleVert(scrollPanel_.getElement(),
-                                    rows.get(0),
-                                    20);
-      }
+      tree_.ensureSelectedRowIsVisible();
    }
 
    @Override
    public HandlerRegistration addSelectionChangedHandler(SelectionChangedEvent.Handler handler)
    {
-      return table_.addSelectionChangedHandler(handler);
+      return tree_.addSelectionChangedHandler(handler);
    }
 
    @Override
@@ -325,9 +298,7 @@ public class FindOutputPane extends WorkbenchPane
       if (overflow_)
          return;
       overflow_ = true;
-      ArrayList<FindResult> items = new ArrayList<>();
-      items.add(null);
-      table_.addItems(items, false);
+      tree_.setOverflowMessage(constants_.overFlowMessage(FindResultStore.MAX_COUNT));
    }
 
    @Override
@@ -509,13 +480,6 @@ public class FindOutputPane extends WorkbenchPane
       };
    }
 
-   private void fireSelectionCommitted()
-   {
-      ArrayList<CodeNavigationTarget> values = table_.getSelectedValues();
-      if (values.size() == 1)
-         SelectionCommitEvent.fire(this, values.get(0));
-   }
-
    private class StatusPanel extends HorizontalCenterPanel
    {
       public StatusPanel()
@@ -532,18 +496,17 @@ public class FindOutputPane extends WorkbenchPane
       private final Label label_;
    }
 
-   private FastSelectTable<FindResult, CodeNavigationTarget, Object> table_;
-   private FindResultContext context_;
+   private FindResultsTree tree_;
+   private FindResultStore store_;
    private final Commands commands_;
    private final EventBus eventBus_;
    private Label searchLabel_;
+   private SearchWidget refineWidget_;
    private ToolbarButton stopSearch_;
    private ToolbarButton refreshButton_;
    private SimplePanel container_;
-   private ScrollPanel scrollPanel_;
    private StatusPanel statusPanel_;
    private boolean overflow_ = false;
-   private int matchCount_;
 
    private LeftRightToggleButton showFindButton_;
    private LeftRightToggleButton showReplaceButton_;
@@ -559,7 +522,5 @@ public class FindOutputPane extends WorkbenchPane
 
    private DebouncedCommand displayPreview_;
 
-   // This must be the same as MAX_COUNT in SessionFind.cpp
-   private static final int MAX_COUNT = 1000;
    private static final OutputConstants constants_ = GWT.create(OutputConstants.class);
 }
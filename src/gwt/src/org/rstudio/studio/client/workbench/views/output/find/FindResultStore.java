@@ -0,0 +1,343 @@
+/*
+ * FindResultStore.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
+
+/**
+ * Find in Files results, stored as columns (file id, line, match spans,
+ * line text) rather than as an object per matching line, so that searches
+ * with tens of thousands of matches stay cheap to hold and to filter. Rows
+ * are numbered in the order they arrive, and are grouped by file; a
+ * FindResult is only created when a row is displayed.
+ */
+public class FindResultStore
+{
+   public FindResultStore()
+   {
+      clear();
+   }
+
+   public void clear()
+   {
+      count_ = 0;
+      fileIds_ = new int[INITIAL_CAPACITY];
+      lines_ = new int[INITIAL_CAPACITY];
+      lineValues_ = new String[INITIAL_CAPACITY];
+      lowerLineValues_ = new String[INITIAL_CAPACITY];
+      flags_ = new byte[INITIAL_CAPACITY];
+      matches_ = new Spans();
+      replaceMatches_ = new Spans();
+      errors_ = new HashMap<>();
+      replace_ = "";
+
+      files_ = new ArrayList<>();
+      lowerFiles_ = new ArrayList<>();
+      fileRows_ = new ArrayList<>();
+      fileIdsByPath_ = new HashMap<>();
+
+      lastRefine_ = null;
+      lastRefined_ = null;
+   }
+
+   public void add(FindResult result)
+   {
+      ensureCapacity(count_ + 1);
+
+      int row = count_++;
+      int fileId = fileIdFor(result.getFile());
+      fileIds_[row] = fileId;
+      lines_[row] = result.getLine();
+      lineValues_[row] = result.getLineValue();
+      lowerLineValues_[row] = null;
+      flags_[row] = (byte)
+            ((result.getReplaceIndicator() ? FLAG_REPLACE : 0) |
+             (result.getRegexPreviewIndicator() ? FLAG_REGEX_PREVIEW : 0));
+      matches_.add(result.getMatchOns(), result.getMatchOffs());
+      replaceMatches_.add(result.getReplaceMatchOns(), result.getReplaceMatchOffs());
+
+      String errors = result.getErrors();
+      if (errors != null && !errors.isEmpty())
+         errors_.put(row, errors);
+
+      fileRows_.get(fileId).add(row);
+
+      // results arriving for a search would only ever widen the previous
+      // refinement, so it can't be reused
+      lastRefine_ = null;
+      lastRefined_ = null;
+   }
+
+   public int size()
+   {
+      return count_;
+   }
+
+   /**
+    * Whether the store holds as many results as the server will send for a
+    * single search.
+    */
+   public boolean isFull()
+   {
+      return count_ >= MAX_COUNT;
+   }
+
+   public int getFileCount()
+   {
+      return files_.size();
+   }
+
+   public String getFile(int fileId)
+   {
+      return files_.get(fileId);
+   }
+
+   public int getFileId(int row)
+   {
+      return fileIds_[row];
+   }
+
+   public String getFileForRow(int row)
+   {
+      return files_.get(fileIds_[row]);
+   }
+
+   public int getLine(int row)
+   {
+      return lines_[row];
+   }
+
+   /**
+    * Replaces the text previewed for every match, as FindResult.setReplace()
+    * does for a single result.
+    */
+   public void setReplace(String replace)
+   {
+      replace_ = replace == null ? "" : replace;
+      for (int i = 0; i < count_; i++)
+         flags_[i] &= ~FLAG_REGEX_PREVIEW;
+   }
+
+   /**
+    * Creates a FindResult for displaying the given row.
+    */
+   public FindResult getFindResult(int row)
+   {
+      String errors = errors_.get(row);
+      return FindResult.create(
+            getFileForRow(row),
+            lines_[row],
+            lineValues_[row],
+            matches_.getStarts(row),
+            matches_.getEnds(row),
+            replaceMatches_.getStarts(row),
+            replaceMatches_.getEnds(row),
+            replace_,
+            (flags_[row] & FLAG_REPLACE) != 0,
+            (flags_[row] & FLAG_REGEX_PREVIEW) != 0,
+            errors == null ? "" : errors);
+   }
+
+   /**
+    * Finds the rows whose line or file path contains the given text,
+    * ignoring case.
+    *
+    * @param refine The text to look for; all rows match when it's empty
+    *
+    * @return For each file (indexed by file id), its matching rows in the
+    *    order they arrived
+    */
+   public int[][] refine(String refine)
+   {
+      String needle = refine == null ? "" : refine.toLowerCase();
+
+      // text that only extends the previous refinement can only match a
+      // subset of the rows that matched before
+      int[][] candidates = null;
+      if (lastRefine_ != null && !lastRefine_.isEmpty() &&
+          needle.startsWith(lastRefine_))
+      {
+         candidates = lastRefined_;
+      }
+
+      int[][] result = new int[files_.size()][];
+      for (int fileId = 0; fileId < files_.size(); fileId++)
+      {
+         int[] rows = candidates == null ?
+               fileRows_.get(fileId).toArray() :
+               candidates[fileId];
+
+         if (needle.isEmpty() || lowerFiles_.get(fileId).contains(needle))
+         {
+            result[fileId] = rows;
+            continue;
+         }
+
+         int[] matching = new int[rows.length];
+         int count = 0;
+         for (int row : rows)
+         {
+            if (getLowerLineValue(row).contains(needle))
+               matching[count++] = row;
+         }
+         result[fileId] = count == rows.length ? rows : Arrays.copyOf(matching, count);
+      }
+
+      lastRefine_ = needle;
+      lastRefined_ = result;
+      return result;
+   }
+
+   private int fileIdFor(String file)
+   {
+      Integer fileId = fileIdsByPath_.get(file);
+      if (fileId == null)
+      {
+         fileId = files_.size();
+         files_.add(file);
+         lowerFiles_.add(file.toLowerCase());
+         fileRows_.add(new IntVector());
+         fileIdsByPath_.put(file, fileId);
+      }
+      return fileId;
+   }
+
+   private String getLowerLineValue(int row)
+   {
+      String lower = lowerLineValues_[row];
+      if (lower == null)
+      {
+         lower = lineValues_[row] == null ? "" : lineValues_[row].toLowerCase();
+         lowerLineValues_[row] = lower;
+      }
+      return lower;
+   }
+
+   private void ensureCapacity(int capacity)
+   {
+      if (capacity <= lines_.length)
+         return;
+
+      int newCapacity = Math.max(capacity, lines_.length * 2);
+      fileIds_ = Arrays.copyOf(fileIds_, newCapacity);
+      lines_ = Arrays.copyOf(lines_, newCapacity);
+      lineValues_ = Arrays.copyOf(lineValues_, newCapacity);
+      lowerLineValues_ = Arrays.copyOf(lowerLineValues_, newCapacity);
+      flags_ = Arrays.copyOf(flags_, newCapacity);
+   }
+
+   private static class IntVector
+   {
+      void add(int value)
+      {
+         if (count_ == values_.length)
+            values_ = Arrays.copyOf(values_, count_ * 2);
+         values_[count_++] = value;
+      }
+
+      int get(int index)
+      {
+         return values_[index];
+      }
+
+      int size()
+      {
+         return count_;
+      }
+
+      int[] toArray()
+      {
+         return Arrays.copyOf(values_, count_);
+      }
+
+      private int[] values_ = new int[4];
+      private int count_ = 0;
+   }
+
+   // the [start, end) spans of each row, stored one after the other; a row's
+   // spans begin at offsets_[row] and end where the next row's begin
+   private static class Spans
+   {
+      void add(ArrayList<Integer> starts, ArrayList<Integer> ends)
+      {
+         offsets_.add(spans_.size());
+         int count = Math.min(starts.size(), ends.size());
+         for (int i = 0; i < count; i++)
+         {
+            spans_.add(starts.get(i));
+            spans_.add(ends.get(i));
+         }
+      }
+
+      JsArrayInteger getStarts(int row)
+      {
+         return column(row, 0);
+      }
+
+      JsArrayInteger getEnds(int row)
+      {
+         return column(row, 1);
+      }
+
+      private JsArrayInteger column(int row, int which)
+      {
+         JsArrayInteger result = JavaScriptObject.createArray().cast();
+         for (int i = offsets_.get(row); i < end(row); i += 2)
+            result.push(spans_.get(i + which));
+         return result;
+      }
+
+      private int end(int row)
+      {
+         return row + 1 < offsets_.size() ? offsets_.get(row + 1) : spans_.size();
+      }
+
+      private final IntVector offsets_ = new IntVector();
+      private final IntVector spans_ = new IntVector();
+   }
+
+   private int count_;
+   private int[] fileIds_;
+   private int[] lines_;
+   private String[] lineValues_;
+   private String[] lowerLineValues_;
+   private byte[] flags_;
+   private Spans matches_;
+   private Spans replaceMatches_;
+   private HashMap<Integer, String> errors_;
+   private String replace_;
+
+   private ArrayList<String> files_;
+   private ArrayList<String> lowerFiles_;
+   private ArrayList<IntVector> fileRows_;
+   private HashMap<String, Integer> fileIdsByPath_;
+
+   private String lastRefine_;
+   private int[][] lastRefined_;
+
+   // This must be the same as MAX_COUNT in SessionFind.cpp
+   public static final int MAX_COUNT = 100000;
+
+   private static final int INITIAL_CAPACITY = 256;
+   private static final byte FLAG_REPLACE = 1;
+   private static final byte FLAG_REGEX_PREVIEW = 2;
+}
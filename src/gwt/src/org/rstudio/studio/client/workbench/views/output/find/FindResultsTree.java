@@ -0,0 +1,562 @@
+/*
+ * FindResultsTree.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find;
+
+import java.util.HashSet;
+
+import org.rstudio.core.client.CodeNavigationTarget;
+import org.rstudio.core.client.FilePosition;
+import org.rstudio.core.client.events.HasSelectionCommitHandlers;
+import org.rstudio.core.client.events.SelectionCommitEvent;
+import org.rstudio.core.client.widget.events.SelectionChangedEvent;
+import org.rstudio.studio.client.workbench.views.output.find.FindOutputResources.Styles;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+
+import com.google.gwt.aria.client.Roles;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.dom.client.TableCellElement;
+import com.google.gwt.dom.client.TableElement;
+import com.google.gwt.dom.client.TableRowElement;
+import com.google.gwt.dom.client.TableSectionElement;
+import com.google.gwt.event.dom.client.DoubleClickEvent;
+import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.event.dom.client.KeyDownEvent;
+import com.google.gwt.event.dom.client.MouseDownEvent;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+/**
+ * Shows the results in a FindResultStore grouped by file, with a header row
+ * for each file that collapses or expands its results. Only a window of rows
+ * around the visible ones is rendered, inside a container sized as though
+ * every row were rendered, so the number of results doesn't affect how long
+ * it takes to display or scroll them.
+ */
+public class FindResultsTree extends Composite
+      implements HasSelectionCommitHandlers<CodeNavigationTarget>
+{
+   public FindResultsTree(FindResultStore store,
+                          FindOutputResources resources,
+                          String title)
+   {
+      store_ = store;
+      styles_ = resources.styles();
+
+      table_ = Document.get().createTableElement();
+      table_.setTabIndex(0);
+      table_.setCellPadding(0);
+      table_.setCellSpacing(0);
+      table_.setBorder(0);
+      Roles.getTreeRole().set(table_);
+      Roles.getTreeRole().setAriaLabelProperty(table_, title);
+      tbody_ = Document.get().createTBodyElement();
+      table_.appendChild(tbody_);
+
+      content_ = new FlowPanel();
+      content_.getElement().appendChild(table_);
+
+      scrollPanel_ = new ScrollPanel(content_);
+      scrollPanel_.addStyleName(styles_.findOutput());
+      scrollPanel_.addScrollHandler(event -> onScroll());
+      initWidget(scrollPanel_);
+
+      addDomHandler(event -> onMouseDown(event), MouseDownEvent.getType());
+      addDomHandler(event -> commitSelection(), DoubleClickEvent.getType());
+      addDomHandler(event -> onKeyDown(event), KeyDownEvent.getType());
+   }
+
+   public void clear()
+   {
+      collapsed_.clear();
+      overflowMessage_ = null;
+      selected_ = NONE;
+      selectedIndex_ = -1;
+      windowStart_ = 0;
+      refresh();
+      scrollPanel_.setVerticalScrollPosition(0);
+   }
+
+   /**
+    * Shows only the results whose line or file path contains the given text.
+    */
+   public void setRefine(String refine)
+   {
+      refine_ = refine;
+      scheduleRefresh();
+   }
+
+   /**
+    * Shows a message after the results, e.g. to explain that not all results
+    * are shown; pass null to remove it.
+    */
+   public void setOverflowMessage(String message)
+   {
+      overflowMessage_ = message;
+      scheduleRefresh();
+   }
+
+   /**
+    * Refreshes the tree once the current event has been handled, so that
+    * several batches of results added together are only laid out once.
+    */
+   public void scheduleRefresh()
+   {
+      if (refreshPending_)
+         return;
+
+      refreshPending_ = true;
+      Scheduler.get().scheduleDeferred(() ->
+      {
+         if (refreshPending_)
+            refresh();
+      });
+   }
+
+   /**
+    * Lays out the tree from the store's current results, keeping the
+    * selection, the collapsed files, and the scroll position.
+    */
+   public void refresh()
+   {
+      refreshPending_ = false;
+
+      int[][] refined = store_.refine(refine_);
+      int count = overflowMessage_ == null ? 0 : 1;
+      for (int fileId = 0; fileId < refined.length; fileId++)
+      {
+         if (refined[fileId].length > 0)
+            count += 1 + (collapsed_.contains(fileId) ? 0 : refined[fileId].length);
+      }
+
+      int[] entries = new int[count];
+      int[] matchCounts = new int[refined.length];
+      int index = 0;
+      for (int fileId = 0; fileId < refined.length; fileId++)
+      {
+         int[] rows = refined[fileId];
+         matchCounts[fileId] = rows.length;
+         if (rows.length == 0)
+            continue;
+
+         entries[index++] = header(fileId);
+         if (!collapsed_.contains(fileId))
+         {
+            System.arraycopy(rows, 0, entries, index, rows.length);
+            index += rows.length;
+         }
+      }
+      if (overflowMessage_ != null)
+         entries[index++] = OVERFLOW;
+
+      entries_ = entries;
+      matchCounts_ = matchCounts;
+
+      // keep the selection where it is; a result that's been collapsed or
+      // refined away hands the selection to its file
+      selectedIndex_ = indexOf(selected_);
+      if (selectedIndex_ == -1 && selected_ >= 0)
+      {
+         selected_ = header(store_.getFileId(selected_));
+         selectedIndex_ = indexOf(selected_);
+      }
+      if (selectedIndex_ == -1)
+         selected_ = NONE;
+
+      renderWindow(windowStart_);
+   }
+
+   public int getVisibleResultCount()
+   {
+      int count = 0;
+      for (int matchCount : matchCounts_)
+         count += matchCount;
+      return count;
+   }
+
+   public boolean hasSelection()
+   {
+      return selectedIndex_ != -1;
+   }
+
+   // selects the first result, or the first file if it's collapsed
+   public void selectFirst()
+   {
+      for (int i = 0; i < entries_.length && entries_[i] != OVERFLOW; i++)
+      {
+         if (entries_[i] >= 0 || i + 1 == entries_.length || entries_[i + 1] < 0)
+         {
+            setSelectedIndex(i);
+            return;
+         }
+      }
+   }
+
+   /**
+    * The location of the selected result, or null if a file (or nothing)
+    * is selected.
+    */
+   public CodeNavigationTarget getSelectedTarget()
+   {
+      if (selected_ < 0)
+         return null;
+
+      return new CodeNavigationTarget(
+            store_.getFileForRow(selected_),
+            FilePosition.create(store_.getLine(selected_), 1));
+   }
+
+   public void focus()
+   {
+      table_.focus();
+   }
+
+   public void ensureSelectedRowIsVisible()
+   {
+      if (selectedIndex_ == -1)
+         return;
+
+      int top = selectedIndex_ * rowHeight_;
+      int scrollTop = scrollPanel_.getVerticalScrollPosition();
+      int height = scrollPanel_.getOffsetHeight();
+      if (top < scrollTop)
+         scrollPanel_.setVerticalScrollPosition(top);
+      else if (top + rowHeight_ > scrollTop + height)
+         scrollPanel_.setVerticalScrollPosition(top + rowHeight_ - height);
+   }
+
+   public HandlerRegistration addSelectionChangedHandler(SelectionChangedEvent.Handler handler)
+   {
+      return addHandler(handler, SelectionChangedEvent.TYPE);
+   }
+
+   @Override
+   public HandlerRegistration addSelectionCommitHandler(
+         SelectionCommitEvent.Handler<CodeNavigationTarget> handler)
+   {
+      return addHandler(handler, SelectionCommitEvent.getType());
+   }
+
+   private void onMouseDown(MouseDownEvent event)
+   {
+      if (event.getNativeButton() != NativeEvent.BUTTON_LEFT)
+         return;
+
+      event.preventDefault();
+      table_.focus();
+
+      int index = getEventIndex(event.getNativeEvent());
+      if (index == -1 || entries_[index] == OVERFLOW)
+         return;
+
+      setSelectedIndex(index);
+      if (isHeader(entries_[index]))
+         toggle(fileId(entries_[index]));
+   }
+
+   private void onKeyDown(KeyDownEvent event)
+   {
+      int entry = selectedIndex_ == -1 ? NONE : entries_[selectedIndex_];
+      switch (event.getNativeKeyCode())
+      {
+         case KeyCodes.KEY_UP:
+            moveSelection(-1);
+            break;
+         case KeyCodes.KEY_DOWN:
+            moveSelection(1);
+            break;
+         case KeyCodes.KEY_PAGEUP:
+            moveSelection(-getPageSize());
+            break;
+         case KeyCodes.KEY_PAGEDOWN:
+            moveSelection(getPageSize());
+            break;
+         case KeyCodes.KEY_HOME:
+            moveSelection(-entries_.length);
+            break;
+         case KeyCodes.KEY_END:
+            moveSelection(entries_.length);
+            break;
+         case KeyCodes.KEY_LEFT:
+            // collapse the file, or go from a result to its file
+            if (isHeader(entry) && !collapsed_.contains(fileId(entry)))
+               toggle(fileId(entry));
+            else if (entry >= 0)
+               setSelectedIndex(indexOf(header(store_.getFileId(entry))));
+            break;
+         case KeyCodes.KEY_RIGHT:
+            // expand the file, or go from an expanded file to its first result
+            if (isHeader(entry) && collapsed_.contains(fileId(entry)))
+               toggle(fileId(entry));
+            else if (isHeader(entry))
+               moveSelection(1);
+            break;
+         case KeyCodes.KEY_ENTER:
+            if (isHeader(entry))
+               toggle(fileId(entry));
+            else
+               commitSelection();
+            break;
+      }
+
+      event.stopPropagation();
+      event.preventDefault();
+   }
+
+   private void moveSelection(int offset)
+   {
+      int last = entries_.length - 1;
+      if (last >= 0 && entries_[last] == OVERFLOW)
+         last--;
+      if (last < 0)
+         return;
+
+      int index = selectedIndex_ == -1 ? 0 : selectedIndex_ + offset;
+      setSelectedIndex(Math.max(0, Math.min(index, last)));
+   }
+
+   private void setSelectedIndex(int index)
+   {
+      if (index == selectedIndex_ || index == -1)
+         return;
+
+      TableRowElement row = getRenderedRow(selectedIndex_);
+      if (row != null)
+         setRowSelected(row, false);
+
+      selectedIndex_ = index;
+      selected_ = entries_[index];
+
+      row = getRenderedRow(index);
+      if (row != null)
+         setRowSelected(row, true);
+      else
+         renderWindow(index - WINDOW_SIZE / 2);
+
+      fireEvent(new SelectionChangedEvent());
+   }
+
+   private void toggle(int fileId)
+   {
+      if (!collapsed_.remove(fileId))
+         collapsed_.add(fileId);
+      refresh();
+      ensureSelectedRowIsVisible();
+   }
+
+   private void commitSelection()
+   {
+      CodeNavigationTarget target = getSelectedTarget();
+      if (target != null)
+         SelectionCommitEvent.fire(this, target);
+   }
+
+   private void onScroll()
+   {
+      if (entries_.length <= WINDOW_SIZE)
+         return;
+
+      // re-render once the visible rows get close to either end of the
+      // rendered window
+      int first = scrollPanel_.getVerticalScrollPosition() / rowHeight_;
+      int last = (scrollPanel_.getVerticalScrollPosition() +
+                  scrollPanel_.getOffsetHeight()) / rowHeight_;
+      int windowEnd = windowStart_ + tbody_.getChildCount();
+      if ((first < windowStart_ + WINDOW_MARGIN && windowStart_ > 0) ||
+          (last > windowEnd - WINDOW_MARGIN && windowEnd < entries_.length))
+      {
+         renderWindow((first + last - WINDOW_SIZE) / 2);
+      }
+   }
+
+   // renders the entries from the given index (adjusted to fit) onwards
+   private void renderWindow(int start)
+   {
+      int count = Math.min(WINDOW_SIZE, entries_.length);
+      start = Math.max(0, Math.min(start, entries_.length - count));
+      windowStart_ = start;
+
+      tbody_.removeAllChildren();
+      for (int i = start; i < start + count; i++)
+         tbody_.appendChild(createRow(i));
+
+      // rows are a fixed height in the stylesheet, but that can grow with
+      // the font size; measure them once something has been rendered
+      if (count > 0 && table_.getOffsetHeight() > 0)
+         rowHeight_ = Math.max(1, table_.getOffsetHeight() / count);
+
+      content_.getElement().getStyle().setPaddingTop(windowStart_ * rowHeight_, Unit.PX);
+      content_.getElement().getStyle().setHeight(
+            (entries_.length - windowStart_) * rowHeight_, Unit.PX);
+   }
+
+   private TableRowElement createRow(int index)
+   {
+      int entry = entries_[index];
+      TableRowElement tr = Document.get().createTRElement();
+      tr.setAttribute(DATA_INDEX, index + "");
+
+      if (entry == OVERFLOW)
+      {
+         TableCellElement td = Document.get().createTDElement();
+         td.setClassName(styles_.overflowWarning());
+         td.setColSpan(2);
+         td.setInnerText(overflowMessage_);
+         tr.appendChild(td);
+         return tr;
+      }
+
+      Roles.getTreeitemRole().set(tr);
+      if (isHeader(entry))
+      {
+         int fileId = fileId(entry);
+         boolean collapsed = collapsed_.contains(fileId);
+         tr.setClassName(styles_.headerRow());
+         tr.setAttribute("aria-expanded", collapsed ? "false" : "true");
+
+         TableCellElement td = Document.get().createTDElement();
+         td.setColSpan(2);
+         td.setInnerText((collapsed ? COLLAPSED : EXPANDED) + store_.getFile(fileId) +
+                         " (" + matchCounts_[fileId] + ")");
+         tr.appendChild(td);
+      }
+      else
+      {
+         FindResult result = store_.getFindResult(entry);
+
+         TableCellElement td1 = Document.get().createTDElement();
+         td1.setClassName(styles_.line());
+         td1.setInnerText(result.getLine() + ": ");
+         tr.appendChild(td1);
+
+         TableCellElement td2 = Document.get().createTDElement();
+         td2.setClassName(styles_.lineValue());
+         if (!result.getReplaceIndicator())
+            td2.setInnerHTML(result.getLineHTML().asString());
+         else
+            td2.setInnerHTML(result.getLineReplaceHTML().asString());
+         tr.appendChild(td2);
+      }
+
+      if (index == selectedIndex_)
+         setRowSelected(tr, true);
+      return tr;
+   }
+
+   private void setRowSelected(TableRowElement row, boolean selected)
+   {
+      if (selected)
+      {
+         row.addClassName(styles_.selectedRow());
+         row.setAttribute("aria-selected", "true");
+      }
+      else
+      {
+         row.removeClassName(styles_.selectedRow());
+         row.removeAttribute("aria-selected");
+      }
+   }
+
+   private TableRowElement getRenderedRow(int index)
+   {
+      int offset = index - windowStart_;
+      if (index == -1 || offset < 0 || offset >= tbody_.getChildCount())
+         return null;
+      return tbody_.getChild(offset).cast();
+   }
+
+   private int getEventIndex(NativeEvent event)
+   {
+      Element el = event.getEventTarget().cast();
+      while (el != null && el != table_)
+      {
+         if (el.hasAttribute(DATA_INDEX))
+            return Integer.parseInt(el.getAttribute(DATA_INDEX));
+         el = el.getParentElement();
+      }
+      return -1;
+   }
+
+   private int getPageSize()
+   {
+      return Math.max(1, scrollPanel_.getOffsetHeight() / rowHeight_ - 1);
+   }
+
+   private int indexOf(int entry)
+   {
+      if (entry == NONE)
+         return -1;
+
+      for (int i = 0; i < entries_.length; i++)
+      {
+         if (entries_[i] == entry)
+            return i;
+      }
+      return -1;
+   }
+
+   // entries are either a row in the store, or (when negative) a file's
+   // header or the overflow message
+   private static int header(int fileId)
+   {
+      return -2 - fileId;
+   }
+
+   private static boolean isHeader(int entry)
+   {
+      return entry < NONE && entry != OVERFLOW;
+   }
+
+   private static int fileId(int entry)
+   {
+      return -2 - entry;
+   }
+
+   private final FindResultStore store_;
+   private final Styles styles_;
+   private final TableElement table_;
+   private final TableSectionElement tbody_;
+   private final FlowPanel content_;
+   private final ScrollPanel scrollPanel_;
+
+   private final HashSet<Integer> collapsed_ = new HashSet<>();
+   private String refine_ = "";
+   private String overflowMessage_;
+   private boolean refreshPending_;
+
+   private int[] entries_ = new int[0];
+   private int[] matchCounts_ = new int[0];
+   private int selected_ = NONE;
+   private int selectedIndex_ = -1;
+   private int windowStart_ = 0;
+   private int rowHeight_ = 20;
+
+   private static final int NONE = -1;
+   private static final int OVERFLOW = Integer.MIN_VALUE;
+
+   // the number of rows rendered at once, and how close the visible rows can
+   // get to either end of them before a new window is rendered
+   private static final int WINDOW_SIZE = 200;
+   private static final int WINDOW_MARGIN = 40;
+
+   private static final String DATA_INDEX = "data-index";
+   private static final String EXPANDED = "▾ ";
+   private static final String COLLAPSED = "▸ ";
+}
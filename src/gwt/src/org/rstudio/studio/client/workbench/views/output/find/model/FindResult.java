@@ -41,6 +41,32 @@ public class FindResult extends JavaScriptObject
       });
    }-*/;
 
+   public static native FindResult create(String file,
+                                          int line,
+                                          String lineValue,
+                                          JsArrayInteger matchOn,
+                                          JsArrayInteger matchOff,
+                                          JsArrayInteger replaceMatchOn,
+                                          JsArrayInteger replaceMatchOff,
+                                          String replace,
+                                          boolean replaceIndicator,
+                                          boolean regexPreviewIndicator,
+                                          String errors) /*-{
+      return ({
+         file: file,
+         line: line,
+         lineValue: lineValue,
+         matchOn: matchOn,
+         matchOff: matchOff,
+         replaceMatchOn: replaceMatchOn,
+         replaceMatchOff: replaceMatchOff,
+         replace: replace,
+         replaceIndicator: replaceIndicator,
+         regexPreviewIndicator: regexPreviewIndicator,
+         errors: errors ? [errors] : []
+      });
+   }-*/;
+
    protected FindResult() {}
 
    public native final FindResult clone() /*-{
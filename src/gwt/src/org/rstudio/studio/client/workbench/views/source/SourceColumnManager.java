@@ -93,6 +93,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.codebrowser.Code
 import org.rstudio.studio.client.workbench.views.source.editors.data.DataEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.ObjectExplorerEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.model.ObjectExplorerHandle;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.LargeFileEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
 import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
 import org.rstudio.studio.client.workbench.views.source.editors.text.TextEditingTarget;
@@ -2129,8 +2130,8 @@ public class SourceColumnManager implements CommandPaletteEntrySource,
    // top-level wrapper for opening files. takes care of:
    //  - making sure the view is visible
    //  - checking whether it is already open and re-selecting its tab
-   //  - prohibit opening very large files (>500KB)
-   //  - confirmation of opening large files (>100KB)
+   //  - showing very large files (>5MB) in the read-only large file viewer
+   //  - confirmation of opening large files (>2MB)
    //  - finally, actually opening the file from the server
    //    via the call to the lower level openFile method
    public void openFile(final FileSystemItem file,
@@ -2160,9 +2161,7 @@ public class SourceColumnManager implements CommandPaletteEntrySource,
       
       if (file.getLength() > fileSizeLimit)
       {
-         if (resultCallback != null)
-            resultCallback.onCancelled();
-         showFileTooLargeWarning(file, fileSizeLimit);
+         openLargeFileViewer(file, fileType, targetColumn, resultCallback);
       }
       else if (file.getLength() > largeFileSize)
       {
@@ -2646,14 +2645,34 @@ public class SourceColumnManager implements CommandPaletteEntrySource,
       return false;
    }
 
-   private void showFileTooLargeWarning(FileSystemItem file,
-                                        long sizeLimit)
+   private void openLargeFileViewer(final FileSystemItem file,
+                                    final TextFileType fileType,
+                                    final SourceColumn targetColumn,
+                                    final ResultCallback<EditingTarget, ServerError> resultCallback)
    {
-      globalDisplay_.showMessage(GlobalDisplay.MSG_WARNING,
-                                 constants_.selectedFileTooLarge(),
-                                 constants_.showFileTooLargeWarningMsg(file.getName(),
-                                         StringUtil.formatFileSize(file.getLength()),
-                                                 StringUtil.formatFileSize(sizeLimit)));
+      server_.newDocument(
+         FileTypeRegistry.LARGE_FILE.getTypeId(),
+         null,
+         LargeFileEditingTarget.createProperties(file, fileType),
+         new SimpleRequestCallback<SourceDocument>(constants_.errorCapitalized())
+         {
+            @Override
+            public void onResponseReceived(SourceDocument response)
+            {
+               pMruList_.get().add(file.getPath());
+               EditingTarget target = targetColumn.addTab(response, Source.OPEN_INTERACTIVE);
+               if (resultCallback != null)
+                  resultCallback.onSuccess(target);
+            }
+
+            @Override
+            public void onError(ServerError error)
+            {
+               super.onError(error);
+               if (resultCallback != null)
+                  resultCallback.onFailure(error);
+            }
+         });
    }
 
    private void confirmOpenLargeFile(FileSystemItem file,
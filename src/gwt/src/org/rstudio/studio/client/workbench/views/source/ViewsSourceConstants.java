@@ -2294,6 +2294,15 @@ public interface ViewsSourceConstants extends com.google.gwt.i18n.client.Message
     @Key("unableToActivateVisualModeDocumentContains")
     String unableToActivateVisualModeDocumentContains();
 
+    /**
+     * Translated "Unable to activate visual mode (the visual editor could not be loaded)".
+     *
+     * @return translated "Unable to activate visual mode (the visual editor could not be loaded)"
+     */
+    @DefaultMessage("Unable to activate visual mode (the visual editor could not be loaded)")
+    @Key("unableToActivateVisualModeLoadFailed")
+    String unableToActivateVisualModeLoadFailed();
+
     /**
      * Translated "Unrecognized Pandoc token(s); {0}".
      *
@@ -2744,4 +2753,139 @@ public interface ViewsSourceConstants extends com.google.gwt.i18n.client.Message
     @DefaultMessage("The options use syntax that is not currently supported by the editing UI. Please edit manually.")
     @Key("unableToEditMessage")
     String unableToEditMessage();
+
+    /**
+     * Translated "Go to line".
+     *
+     * @return translated "Go to line"
+     */
+    @DefaultMessage("Go to line")
+    @Key("largeFileGoToLine")
+    String largeFileGoToLine();
+
+    /**
+     * Translated "Search (regular expression)".
+     *
+     * @return translated "Search (regular expression)"
+     */
+    @DefaultMessage("Search (regular expression)")
+    @Key("largeFileSearchLabel")
+    String largeFileSearchLabel();
+
+    /**
+     * Translated "Ignore case".
+     *
+     * @return translated "Ignore case"
+     */
+    @DefaultMessage("Ignore case")
+    @Key("largeFileIgnoreCase")
+    String largeFileIgnoreCase();
+
+    /**
+     * Translated "{0} lines (read-only)".
+     *
+     * @return translated "{0} lines (read-only)"
+     */
+    @DefaultMessage("{0} lines (read-only)")
+    @Key("largeFileLineCount")
+    String largeFileLineCount(String count);
+
+    /**
+     * Translated "Indexing file...".
+     *
+     * @return translated "Indexing file..."
+     */
+    @DefaultMessage("Indexing file...")
+    @Key("largeFileIndexing")
+    String largeFileIndexing();
+
+    /**
+     * Translated "Searching... {0} matches".
+     *
+     * @return translated "Searching... {0} matches"
+     */
+    @DefaultMessage("Searching... {0} matches")
+    @Key("largeFileSearching")
+    String largeFileSearching(int count);
+
+    /**
+     * Translated "{0} matches".
+     *
+     * @return translated "{0} matches"
+     */
+    @DefaultMessage("{0} matches")
+    @Key("largeFileSearchComplete")
+    String largeFileSearchComplete(int count);
+
+    /**
+     * Translated "Showing the first {0} matches".
+     *
+     * @return translated "Showing the first {0} matches"
+     */
+    @DefaultMessage("Showing the first {0} matches")
+    @Key("largeFileSearchLimited")
+    String largeFileSearchLimited(int count);
+
+    /**
+     * Translated "Invalid search pattern: {0}".
+     *
+     * @return translated "Invalid search pattern: {0}"
+     */
+    @DefaultMessage("Invalid search pattern: {0}")
+    @Key("largeFileInvalidPattern")
+    String largeFileInvalidPattern(String message);
+
+    /**
+     * Translated "Search results".
+     *
+     * @return translated "Search results"
+     */
+    @DefaultMessage("Search results")
+    @Key("largeFileSearchResults")
+    String largeFileSearchResults();
+
+    /**
+     * Translated "Large file viewer displayed".
+     *
+     * @return translated "Large file viewer displayed"
+     */
+    @DefaultMessage("Large file viewer displayed")
+    @Key("largeFileViewerDisplayed")
+    String largeFileViewerDisplayed();
+
+    /**
+     * Translated "{0} of {1}".
+     *
+     * @return translated "{0} of {1}"
+     */
+    @DefaultMessage("{0} of {1}")
+    @Key("findMatchOrdinal")
+    String findMatchOrdinal(int current, int total);
+
+    /**
+     * Translated "{0} results".
+     *
+     * @return translated "{0} results"
+     */
+    @DefaultMessage("{0} results")
+    @Key("findMatchCount")
+    String findMatchCount(int total);
+
+    /**
+     * Translated "1 result".
+     *
+     * @return translated "1 result"
+     */
+    @DefaultMessage("1 result")
+    @Key("findMatchCountOne")
+    String findMatchCountOne();
+
+    /**
+     * Translated "No results".
+     *
+     * @return translated "No results"
+     */
+    @DefaultMessage("No results")
+    @Key("findNoMatches")
+    String findNoMatches();
 }
@@ -23,6 +23,7 @@ import org.rstudio.studio.client.workbench.views.source.SourceColumn;
 import org.rstudio.studio.client.workbench.views.source.editors.codebrowser.CodeBrowserEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.data.DataEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.ObjectExplorerEditingTarget;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.LargeFileEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.ProfilerEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.text.TextEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.urlcontent.UrlContentEditingTarget;
@@ -62,7 +63,8 @@ public interface EditingTargetSource
                   Provider<UrlContentEditingTarget> pUrlContentEditingTarget,
                   Provider<CodeBrowserEditingTarget> pCodeBrowserEditingTarget,
                   Provider<ProfilerEditingTarget> pProfilerEditingTarget,
-                  Provider<ObjectExplorerEditingTarget> pObjectExplorerEditingTarget)
+                  Provider<ObjectExplorerEditingTarget> pObjectExplorerEditingTarget,
+                  Provider<LargeFileEditingTarget> pLargeFileEditingTarget)
       {
          registry_ = registry;
          pTextEditingTarget_ = pTextEditingTarget;
@@ -71,6 +73,7 @@ public interface EditingTargetSource
          pCodeBrowserEditingTarget_ = pCodeBrowserEditingTarget;
          pProfilerEditingTarget_ = pProfilerEditingTarget;
          pObjectExplorerEditingTarget_ = pObjectExplorerEditingTarget;
+         pLargeFileEditingTarget_ = pLargeFileEditingTarget;
       }
 
       public EditingTarget getEditingTarget(FileType type)
@@ -87,6 +90,8 @@ public interface EditingTargetSource
             return pProfilerEditingTarget_.get();
          else if (type instanceof ObjectExplorerFileType)
             return pObjectExplorerEditingTarget_.get();
+         else if (type instanceof LargeFileType)
+            return pLargeFileEditingTarget_.get();
          else
             return null;
       }
@@ -114,5 +119,6 @@ public interface EditingTargetSource
       private final Provider<CodeBrowserEditingTarget> pCodeBrowserEditingTarget_;
       private final Provider<ProfilerEditingTarget> pProfilerEditingTarget_;
       private final Provider<ObjectExplorerEditingTarget> pObjectExplorerEditingTarget_;
+      private final Provider<LargeFileEditingTarget> pLargeFileEditingTarget_;
    }
 }
@@ -48,6 +48,7 @@ public class DataEditingTarget extends UrlContentEditingTarget
    enum QueuedRefreshType
    {
       NoRefresh,
+      DataRefresh,
       StructureRefresh
    }
 
@@ -109,9 +110,16 @@ public class DataEditingTarget extends UrlContentEditingTarget
          return;
       }
 
+      // if only the values changed, the table can keep its columns, sorting,
+      // filters and scroll position; don't downgrade a structural refresh
+      // that's already queued, though
+      if (eventData.getTypeChanged() || eventData.getColumnsChanged())
+         queuedRefresh_ = QueuedRefreshType.StructureRefresh;
+      else if (queuedRefresh_ != QueuedRefreshType.StructureRefresh)
+         queuedRefresh_ = QueuedRefreshType.DataRefresh;
+
       // perform the refresh immediately if the tab is active; otherwise,
       // leave it in the queue and it'll be run when the tab is activated
-      queuedRefresh_ = QueuedRefreshType.StructureRefresh;
       if (isActive_)
       {
          doQueuedRefresh();
@@ -161,7 +169,10 @@ public class DataEditingTarget extends UrlContentEditingTarget
    
    private void doQueuedRefresh()
    {
-      view_.refreshData();
+      if (queuedRefresh_ == QueuedRefreshType.DataRefresh)
+         view_.refreshValues();
+      else
+         view_.refreshData();
       queuedRefresh_ = QueuedRefreshType.NoRefresh;
    }
 
@@ -234,6 +234,12 @@ public class DataEditingTargetWidget extends Composite
       if (table_ != null)
          table_.refreshData();
    }
+
+   public void refreshValues()
+   {
+      if (table_ != null)
+         table_.refreshValues();
+   }
    
    public void onActivate()
    {
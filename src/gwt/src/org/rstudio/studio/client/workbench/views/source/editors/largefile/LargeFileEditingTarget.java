@@ -0,0 +1,229 @@
+/*
+ * LargeFileEditingTarget.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.largefile;
+
+import java.util.HashSet;
+
+import com.google.gwt.aria.client.Roles;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.ui.Widget;
+import com.google.inject.Inject;
+
+import org.rstudio.core.client.command.AppCommand;
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.core.client.js.JsObject;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.common.GlobalDisplay;
+import org.rstudio.studio.client.common.filetypes.FileIcon;
+import org.rstudio.studio.client.common.filetypes.FileType;
+import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
+import org.rstudio.studio.client.common.filetypes.TextFileType;
+import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.views.source.ViewsSourceConstants;
+import org.rstudio.studio.client.workbench.views.source.editors.urlcontent.UrlContentEditingTarget;
+import org.rstudio.studio.client.workbench.views.source.events.PopoutDocEvent;
+import org.rstudio.studio.client.workbench.views.source.model.SourcePosition;
+import org.rstudio.studio.client.workbench.views.source.model.SourceServerOperations;
+
+/**
+ * A read-only editing target for text files too large to open in the source
+ * editor; see LargeFileViewer.
+ */
+public class LargeFileEditingTarget
+      extends UrlContentEditingTarget
+{
+   @Inject
+   public LargeFileEditingTarget(SourceServerOperations server,
+                                 Commands commands,
+                                 GlobalDisplay globalDisplay,
+                                 EventBus events,
+                                 FileTypeRegistry fileTypeRegistry)
+   {
+      super(server, commands, globalDisplay, events);
+      events_ = events;
+      fileTypeRegistry_ = fileTypeRegistry;
+   }
+
+   /**
+    * Creates the properties for a large file document.
+    *
+    * @param file The file to view
+    * @param textType The type of the file, used for syntax highlighting
+    */
+   public static JsObject createProperties(FileSystemItem file, TextFileType textType)
+   {
+      JsObject properties = JsObject.createJsObject();
+      properties.setString(PROPERTY_PATH, file.getPath());
+      properties.setString(PROPERTY_TEXT_TYPE, textType.getTypeId());
+      return properties;
+   }
+
+   // Implementation ----
+
+   @Override
+   protected Display createDisplay()
+   {
+      view_ = new LargeFileViewer(server_, getPath(), getTextFileType(), commands_, column_);
+      view_.setSize("100%", "100%");
+      Roles.getTabpanelRole().set(view_.getElement());
+      return new Display()
+      {
+         public void print()
+         {
+         }
+
+         public void setAccessibleName(String name)
+         {
+            Roles.getTabpanelRole().setAriaLabelProperty(view_.getElement(), name);
+         }
+
+         public Widget asWidget()
+         {
+            return view_;
+         }
+      };
+   }
+
+   @Override
+   public HashSet<AppCommand> getSupportedCommands()
+   {
+      // there's nothing to print; only a window of the file is ever loaded
+      HashSet<AppCommand> commands = super.getSupportedCommands();
+      commands.remove(commands_.printSourceDoc());
+      return commands;
+   }
+
+   @Override
+   public void onDismiss(int dismissType)
+   {
+      // explicitly avoid calling super method as we don't
+      // have an associated content URL to clean up
+      view_.onDismiss();
+   }
+
+   @Override
+   public void focus()
+   {
+      view_.focus();
+   }
+
+   @Override
+   public String getPath()
+   {
+      return doc_.getProperties().getString(PROPERTY_PATH);
+   }
+
+   @Override
+   public FileIcon getIcon()
+   {
+      return fileTypeRegistry_.getIconForFile(FileSystemItem.createFile(getPath()));
+   }
+
+   @Override
+   public String getTabTooltip()
+   {
+      return getPath();
+   }
+
+   @Override
+   protected String getContentTitle()
+   {
+      return FileSystemItem.getNameFromPath(getPath());
+   }
+
+   @Override
+   protected String getContentUrl()
+   {
+      return getPath();
+   }
+
+   @Override
+   public void popoutDoc()
+   {
+      events_.fireEvent(new PopoutDocEvent(getId(), currentPosition(), null));
+   }
+
+   @Override
+   public FileType getFileType()
+   {
+      return FileTypeRegistry.LARGE_FILE;
+   }
+
+   @Override
+   public TextFileType getTextFileType()
+   {
+      FileType type = fileTypeRegistry_.getTypeByTypeName(
+            doc_.getProperties().getString(PROPERTY_TEXT_TYPE));
+      return type instanceof TextFileType ? (TextFileType) type : FileTypeRegistry.TEXT;
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent)
+   {
+      navigateToPosition(position, recordCurrent, false);
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent,
+                                  boolean highlightLine)
+   {
+      navigateToPosition(position, recordCurrent, highlightLine, false, null);
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent,
+                                  boolean highlightLine,
+                                  boolean moveCursor,
+                                  Command onNavigationCompleted)
+   {
+      if (recordCurrent)
+         recordCurrentNavigationPosition();
+
+      view_.scrollToLine(position.getRow(), highlightLine);
+      if (onNavigationCompleted != null)
+         onNavigationCompleted.execute();
+   }
+
+   @Override
+   public void restorePosition(SourcePosition position)
+   {
+      view_.scrollToLine(position.getRow(), false);
+   }
+
+   @Override
+   public SourcePosition currentPosition()
+   {
+      return SourcePosition.create(view_.getFirstVisibleLine(), 0);
+   }
+
+   @Override
+   public String getCurrentStatus()
+   {
+      return constants_.largeFileViewerDisplayed();
+   }
+
+   private LargeFileViewer view_;
+   private final EventBus events_;
+   private final FileTypeRegistry fileTypeRegistry_;
+
+   public static final String PROPERTY_PATH = "path";
+   public static final String PROPERTY_TEXT_TYPE = "text_type";
+
+   private static final ViewsSourceConstants constants_ = GWT.create(ViewsSourceConstants.class);
+}
@@ -0,0 +1,164 @@
+/*
+ * LargeFilePageCache.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.largefile;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.model.LargeFileLines;
+
+import com.google.gwt.core.client.JsArrayString;
+
+/**
+ * The lines of a large file, read from the server a page at a time as they're
+ * needed. Only the most recently used pages are kept, so memory use doesn't
+ * grow with the size of the file.
+ */
+public class LargeFilePageCache
+{
+   public interface Listener
+   {
+      // called when a page of lines has arrived (or the file changed)
+      void onLinesLoaded(int lineCount);
+      void onLoadError(ServerError error);
+   }
+
+   public LargeFilePageCache(LargeFileServerOperations server,
+                             String path,
+                             Listener listener)
+   {
+      server_ = server;
+      path_ = path;
+      listener_ = listener;
+   }
+
+   /**
+    * @return The number of lines in the file, or -1 if it isn't known yet
+    */
+   public int getLineCount()
+   {
+      return lineCount_;
+   }
+
+   /**
+    * @return The text of the given (zero-based) line, or null if the page
+    *   containing it hasn't been loaded
+    */
+   public String getLine(int line)
+   {
+      JsArrayString page = pages_.get(line / PAGE_LINES);
+      if (page == null)
+         return null;
+
+      int index = line % PAGE_LINES;
+      return index < page.length() ? page.get(index) : null;
+   }
+
+   /**
+    * Requests the pages containing lines [firstLine, lastLine), along with
+    * the pages either side of them so that scrolling a short distance doesn't
+    * have to wait on the server.
+    */
+   public void ensureLoaded(int firstLine, int lastLine)
+   {
+      int firstPage = Math.max(0, firstLine / PAGE_LINES - 1);
+      int lastPage = Math.max(firstLine, lastLine - 1) / PAGE_LINES + 1;
+      if (lineCount_ >= 0)
+         lastPage = Math.min(lastPage, Math.max(0, (lineCount_ - 1) / PAGE_LINES));
+
+      for (int page = firstPage; page <= lastPage; page++)
+      {
+         // make sure the pages in view are the ones kept longest
+         if (pages_.get(page) == null && !pending_.contains(page))
+            requestPage(page);
+      }
+   }
+
+   /**
+    * Discards all loaded pages, e.g. when the file has changed on disk.
+    */
+   public void clear()
+   {
+      generation_++;
+      pages_.clear();
+      pending_.clear();
+   }
+
+   private void requestPage(final int page)
+   {
+      final int generation = generation_;
+      pending_.add(page);
+      server_.largeFileReadLines(
+            path_,
+            page * PAGE_LINES,
+            PAGE_LINES,
+            new ServerRequestCallback<LargeFileLines>()
+            {
+               @Override
+               public void onResponseReceived(LargeFileLines lines)
+               {
+                  if (generation != generation_)
+                     return;
+
+                  pending_.remove(page);
+
+                  // the server re-indexes a file that has changed; the pages
+                  // we have no longer line up with it
+                  if (lineCount_ >= 0 && lines.getLineCount() != lineCount_)
+                     clear();
+
+                  lineCount_ = lines.getLineCount();
+                  pages_.put(page, lines.getLines());
+                  listener_.onLinesLoaded(lineCount_);
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  if (generation != generation_)
+                     return;
+
+                  pending_.remove(page);
+                  listener_.onLoadError(error);
+               }
+            });
+   }
+
+   private final LargeFileServerOperations server_;
+   private final String path_;
+   private final Listener listener_;
+
+   private int lineCount_ = -1;
+   private int generation_ = 0;
+   private final Set<Integer> pending_ = new HashSet<>();
+
+   // least recently used pages are evicted first
+   private final Map<Integer, JsArrayString> pages_ =
+         new LinkedHashMap<Integer, JsArrayString>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, JsArrayString> eldest)
+      {
+         return size() > MAX_PAGES;
+      }
+   };
+
+   public static final int PAGE_LINES = 1000;
+   private static final int MAX_PAGES = 40;
+}
@@ -0,0 +1,40 @@
+/*
+ * LargeFileServerOperations.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.largefile;
+
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.model.LargeFileLines;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.model.LargeFileSearchResult;
+
+public interface LargeFileServerOperations
+{
+   // reads up to 'count' lines starting at (zero-based) 'startLine'
+   void largeFileReadLines(
+         String path,
+         int startLine,
+         int count,
+         ServerRequestCallback<LargeFileLines> requestCallback);
+
+   // searches from (zero-based) 'fromLine', returning after 'maxResults'
+   // matches or a chunk of the file; the result gives the line to continue
+   // the search from
+   void largeFileSearch(
+         String path,
+         String pattern,
+         boolean ignoreCase,
+         int fromLine,
+         int maxResults,
+         ServerRequestCallback<LargeFileSearchResult> requestCallback);
+}
@@ -0,0 +1,656 @@
+/*
+ * LargeFileViewer.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.largefile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.dom.DomUtils;
+import org.rstudio.core.client.widget.FontSizer;
+import org.rstudio.core.client.widget.FormLabel;
+import org.rstudio.core.client.widget.NumericTextBox;
+import org.rstudio.core.client.widget.Toolbar;
+import org.rstudio.studio.client.common.filetypes.TextFileType;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.views.source.PanelWithToolbars;
+import org.rstudio.studio.client.workbench.views.source.SourceColumn;
+import org.rstudio.studio.client.workbench.views.source.ViewsSourceConstants;
+import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetToolbar;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.model.LargeFileSearchResult;
+import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+
+import com.google.gwt.aria.client.Roles;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.resources.client.ClientBundle;
+import com.google.gwt.resources.client.CssResource;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.ui.CheckBox;
+import com.google.gwt.user.client.ui.DockLayoutPanel;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.LayoutPanel;
+import com.google.gwt.user.client.ui.ResizeComposite;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.SimplePanel;
+import com.google.gwt.user.client.ui.TextBox;
+
+/**
+ * A read-only view of a file too large for the source editor. Only the lines
+ * in view are held by the (Ace) editor, so syntax highlighting only ever
+ * applies to a screenful of text; a separate scrollbar spans the whole file
+ * and decides which lines those are. Lines are read from the server a page at
+ * a time, and searches run on the server, returning a page of matches at a
+ * time until the end of the file is reached.
+ */
+public class LargeFileViewer extends ResizeComposite
+                             implements LargeFilePageCache.Listener
+{
+   public LargeFileViewer(LargeFileServerOperations server,
+                          String path,
+                          TextFileType textType,
+                          Commands commands,
+                          SourceColumn column)
+   {
+      server_ = server;
+      path_ = path;
+      pages_ = new LargeFilePageCache(server, path, this);
+
+      editor_ = new AceEditor();
+      editor_.setReadOnly(true);
+      editor_.setShowPrintMargin(false);
+      editor_.setUseWrapMode(false);
+      if (textType != null)
+         editor_.setFileType(textType, true);
+
+      // the scrollbar scrolls a spacer as tall as the whole file would be
+      scrollbar_ = new SimplePanel();
+      scrollbar_.setStyleName(RES.styles().scrollbar());
+      spacer_ = Document.get().createDivElement();
+      spacer_.getStyle().setWidth(1, Unit.PX);
+      scrollbar_.getElement().appendChild(spacer_);
+      scrollbar_.addDomHandler(event -> onScrollbarScrolled(), ScrollEvent.getType());
+
+      viewport_ = new LayoutPanel();
+      viewport_.add(editor_.getWidget());
+      viewport_.setWidgetLeftRight(editor_.getWidget(), 0, Unit.PX, SCROLLBAR_WIDTH, Unit.PX);
+      viewport_.add(scrollbar_);
+      viewport_.setWidgetRightWidth(scrollbar_, 0, Unit.PX, SCROLLBAR_WIDTH, Unit.PX);
+      addWheelHandler(viewport_.getElement());
+
+      results_ = new HTML();
+      results_.setStyleName(RES.styles().results());
+      results_.addDomHandler(event -> onResultClicked(event), ClickEvent.getType());
+      FontSizer.applyNormalFontSize(results_);
+      resultsPanel_ = new ScrollPanel(results_);
+      Roles.getRegionRole().set(resultsPanel_.getElement());
+      Roles.getRegionRole().setAriaLabelProperty(resultsPanel_.getElement(),
+            constants_.largeFileSearchResults());
+
+      body_ = new DockLayoutPanel(Unit.PX);
+      body_.addSouth(resultsPanel_, RESULTS_HEIGHT);
+      body_.setWidgetHidden(resultsPanel_, true);
+      body_.add(viewport_);
+
+      initWidget(new PanelWithToolbars(createToolbar(commands, column), body_));
+
+      // reading the first page has the server index the file, which also
+      // tells us how many lines there are
+      status_.setText(constants_.largeFileIndexing());
+      pages_.ensureLoaded(0, 1);
+   }
+
+   @Override
+   public void onResize()
+   {
+      super.onResize();
+      Scheduler.get().scheduleDeferred(() ->
+      {
+         updateMetrics();
+         render();
+      });
+   }
+
+   @Override
+   public void onLinesLoaded(int lineCount)
+   {
+      if (lineCount != lineCount_)
+      {
+         lineCount_ = lineCount;
+         status_.setText(constants_.largeFileLineCount(
+               StringUtil.formatGeneralNumber(lineCount)));
+         updateMetrics();
+
+         if (pendingLine_ >= 0)
+         {
+            int line = pendingLine_;
+            pendingLine_ = -1;
+            scrollToLine(line, true);
+            return;
+         }
+      }
+
+      render();
+   }
+
+   @Override
+   public void onLoadError(ServerError error)
+   {
+      status_.setText(error.getUserMessage());
+   }
+
+   /**
+    * Scrolls the given (zero-based) line to the middle of the view.
+    */
+   public void scrollToLine(int line, boolean highlight)
+   {
+      if (lineCount_ < 0)
+      {
+         pendingLine_ = line;
+         return;
+      }
+
+      line = Math.max(0, Math.min(line, lineCount_ - 1));
+      if (highlight)
+         setHighlight(line, 0, -1);
+
+      setFirstLine(line - visibleRows_ / 2, true);
+   }
+
+   /**
+    * @return The (zero-based) line at the top of the view
+    */
+   public int getFirstVisibleLine()
+   {
+      return firstLine_;
+   }
+
+   public void focus()
+   {
+      editor_.focus();
+   }
+
+   public void onDismiss()
+   {
+      // abandon any search in progress
+      searchGeneration_++;
+      pages_.clear();
+   }
+
+   private Toolbar createToolbar(Commands commands, SourceColumn column)
+   {
+      Toolbar toolbar = new EditingTargetToolbar(commands, true, column);
+
+      goToLine_ = new NumericTextBox(1, null);
+      goToLine_.setWidth("80px");
+      goToLine_.addKeyDownHandler(event ->
+      {
+         if (event.getNativeKeyCode() == KeyCodes.KEY_ENTER)
+         {
+            event.preventDefault();
+            onGoToLine();
+         }
+      });
+      toolbar.addLeftWidget(new FormLabel(constants_.largeFileGoToLine(), goToLine_));
+      toolbar.addLeftWidget(goToLine_);
+      toolbar.addLeftSeparator();
+
+      search_ = new TextBox();
+      search_.setWidth("200px");
+      DomUtils.setPlaceholder(search_, constants_.largeFileSearchLabel());
+      Roles.getTextboxRole().setAriaLabelProperty(search_.getElement(),
+            constants_.largeFileSearchLabel());
+      search_.addKeyDownHandler(event ->
+      {
+         if (event.getNativeKeyCode() == KeyCodes.KEY_ENTER)
+         {
+            event.preventDefault();
+            onSearch(event.isShiftKeyDown());
+         }
+         else if (event.getNativeKeyCode() == KeyCodes.KEY_ESCAPE)
+         {
+            event.preventDefault();
+            clearSearch();
+         }
+      });
+      toolbar.addLeftWidget(search_);
+
+      ignoreCase_ = new CheckBox(constants_.largeFileIgnoreCase());
+      ignoreCase_.setValue(true);
+      toolbar.addLeftWidget(ignoreCase_);
+
+      status_ = new Label();
+      toolbar.addRightWidget(status_);
+      return toolbar;
+   }
+
+   // Scrolling ----
+
+   private void updateMetrics()
+   {
+      int lineHeight = editor_.getWidget().getEditor().getRenderer().getLineHeight();
+      if (lineHeight > 0)
+         lineHeight_ = lineHeight;
+
+      // only whole lines are shown, so the editor never has anything to scroll
+      int height = viewport_.getOffsetHeight();
+      visibleRows_ = Math.max(1, height / lineHeight_);
+
+      // browsers limit how tall an element can be, so very long files get a
+      // scrollbar that's scaled down rather than one that's truncated
+      double fileHeight = (double) Math.max(lineCount_, 0) * lineHeight_;
+      spacerHeight_ = (int) Math.max(height, Math.min(fileHeight, MAX_SPACER_HEIGHT));
+      spacer_.getStyle().setHeight(spacerHeight_, Unit.PX);
+
+      setFirstLine(firstLine_, true);
+   }
+
+   private int getMaxFirstLine()
+   {
+      return Math.max(0, lineCount_ - visibleRows_);
+   }
+
+   private void setFirstLine(int line, boolean updateScrollbar)
+   {
+      firstLine_ = Math.max(0, Math.min(line, getMaxFirstLine()));
+
+      if (updateScrollbar)
+      {
+         int maxScroll = spacerHeight_ - scrollbar_.getElement().getClientHeight();
+         int maxFirstLine = getMaxFirstLine();
+         int scrollTop = (maxScroll <= 0 || maxFirstLine == 0)
+               ? 0
+               : (int) Math.round((double) firstLine_ / maxFirstLine * maxScroll);
+
+         if (scrollbar_.getElement().getScrollTop() != scrollTop)
+         {
+            // remember where we put it so the resulting scroll event is
+            // recognized as ours
+            programmaticScrollTop_ = scrollTop;
+            scrollbar_.getElement().setScrollTop(scrollTop);
+         }
+      }
+
+      render();
+   }
+
+   private void onScrollbarScrolled()
+   {
+      int scrollTop = scrollbar_.getElement().getScrollTop();
+      if (Math.abs(scrollTop - programmaticScrollTop_) <= 1)
+         return;
+      programmaticScrollTop_ = -1;
+
+      int maxScroll = spacerHeight_ - scrollbar_.getElement().getClientHeight();
+      int line = maxScroll <= 0
+            ? 0
+            : (int) Math.round((double) scrollTop / maxScroll * getMaxFirstLine());
+      setFirstLine(line, false);
+   }
+
+   private void onWheel(double delta, int deltaMode)
+   {
+      // delta is in pixels, lines, or pages depending on the mode
+      double lines = deltaMode == 0
+            ? delta / lineHeight_
+            : deltaMode == 1 ? delta : delta * visibleRows_;
+
+      wheelLines_ += lines;
+      int whole = (int) wheelLines_;
+      if (whole == 0)
+         return;
+
+      wheelLines_ -= whole;
+      setFirstLine(firstLine_ + whole, true);
+   }
+
+   private native void addWheelHandler(Element element) /*-{
+      var self = this;
+      element.addEventListener("wheel", $entry(function(event) {
+         if (event.deltaY === 0)
+            return;
+         event.preventDefault();
+         event.stopPropagation();
+         self.@org.rstudio.studio.client.workbench.views.source.editors.largefile.LargeFileViewer::onWheel(DI)(event.deltaY, event.deltaMode);
+      }), { capture: true, passive: false });
+   }-*/;
+
+   // Rendering ----
+
+   private void render()
+   {
+      if (lineCount_ < 0)
+         return;
+
+      int lastLine = Math.min(firstLine_ + visibleRows_, lineCount_);
+      pages_.ensureLoaded(firstLine_, lastLine);
+
+      // lines that haven't arrived yet are shown as blank until they do
+      StringBuilder builder = new StringBuilder();
+      for (int i = firstLine_; i < lastLine; i++)
+      {
+         if (i > firstLine_)
+            builder.append('\n');
+         String line = pages_.getLine(i);
+         if (line != null)
+            builder.append(line);
+      }
+
+      String code = builder.toString();
+      if (firstLine_ == renderedFirstLine_ && code.equals(renderedCode_))
+         return;
+
+      renderedFirstLine_ = firstLine_;
+      renderedCode_ = code;
+      editor_.setFirstLineNumber(firstLine_ + 1);
+      editor_.setCode(code, false);
+      applyHighlight();
+      editor_.scrollToY(0, 0);
+   }
+
+   private void setHighlight(int line, int start, int end)
+   {
+      highlightLine_ = line;
+      highlightStart_ = start;
+      highlightEnd_ = end;
+
+      // re-render so the highlight is applied
+      renderedCode_ = null;
+   }
+
+   private void applyHighlight()
+   {
+      int row = highlightLine_ - firstLine_;
+      if (highlightLine_ < 0 || row < 0 || row >= visibleRows_)
+      {
+         editor_.setSelectionRange(Range.create(0, 0, 0, 0));
+         return;
+      }
+
+      String line = StringUtil.notNull(pages_.getLine(highlightLine_));
+      int end = highlightEnd_ < 0 ? line.length() : Math.min(highlightEnd_, line.length());
+      int start = Math.min(highlightStart_, end);
+      editor_.setSelectionRange(Range.create(row, start, row, end));
+   }
+
+   // Go to line ----
+
+   private void onGoToLine()
+   {
+      String value = goToLine_.getValue().trim();
+      if (value.isEmpty())
+         return;
+
+      try
+      {
+         scrollToLine(Integer.parseInt(value) - 1, true);
+      }
+      catch (NumberFormatException e)
+      {
+         return;
+      }
+   }
+
+   // Search ----
+
+   private void onSearch(boolean backwards)
+   {
+      String pattern = search_.getValue();
+      if (pattern.isEmpty())
+      {
+         clearSearch();
+         return;
+      }
+
+      // repeating a search moves through its results
+      boolean ignoreCase = ignoreCase_.getValue();
+      if (StringUtil.equals(pattern, searchPattern_) &&
+          ignoreCase == searchIgnoreCase_ &&
+          !matches_.isEmpty())
+      {
+         int index = selectedMatch_ + (backwards ? -1 : 1);
+         showMatch((index + matches_.size()) % matches_.size());
+         return;
+      }
+
+      clearSearch();
+      searchPattern_ = pattern;
+      searchIgnoreCase_ = ignoreCase;
+      body_.setWidgetHidden(resultsPanel_, false);
+      requestSearchPage(searchGeneration_, 0);
+   }
+
+   private void clearSearch()
+   {
+      searchGeneration_++;
+      searchPattern_ = null;
+      matches_.clear();
+      selectedMatch_ = -1;
+      results_.setHTML("");
+      body_.setWidgetHidden(resultsPanel_, true);
+      if (lineCount_ >= 0)
+         status_.setText(constants_.largeFileLineCount(
+               StringUtil.formatGeneralNumber(lineCount_)));
+   }
+
+   private void requestSearchPage(final int generation, int fromLine)
+   {
+      status_.setText(constants_.largeFileSearching(matches_.size()));
+      server_.largeFileSearch(
+            path_,
+            searchPattern_,
+            searchIgnoreCase_,
+            fromLine,
+            SEARCH_PAGE_SIZE,
+            new ServerRequestCallback<LargeFileSearchResult>()
+            {
+               @Override
+               public void onResponseReceived(LargeFileSearchResult result)
+               {
+                  if (generation != searchGeneration_)
+                     return;
+
+                  if (result.getError() != null)
+                  {
+                     status_.setText(constants_.largeFileInvalidPattern(result.getError()));
+                     return;
+                  }
+
+                  addMatches(result.getMatches());
+                  if (selectedMatch_ < 0 && !matches_.isEmpty())
+                     showMatch(0);
+
+                  // keep going until the end of the file, or until there are
+                  // more results than anyone would page through
+                  if (matches_.size() >= MAX_SEARCH_RESULTS)
+                     status_.setText(constants_.largeFileSearchLimited(matches_.size()));
+                  else if (result.getNextLine() >= 0)
+                     requestSearchPage(generation, result.getNextLine());
+                  else
+                     status_.setText(constants_.largeFileSearchComplete(matches_.size()));
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  if (generation == searchGeneration_)
+                     status_.setText(error.getUserMessage());
+               }
+            });
+   }
+
+   private void addMatches(JsArray<LargeFileSearchResult.Match> matches)
+   {
+      SafeHtmlBuilder builder = new SafeHtmlBuilder();
+      for (int i = 0; i < matches.length() && matches_.size() < MAX_SEARCH_RESULTS; i++)
+      {
+         LargeFileSearchResult.Match match = matches.get(i);
+         String text = match.getText();
+         int start = Math.min(match.getStart(), text.length());
+         int end = Math.max(start, Math.min(match.getEnd(), text.length()));
+
+         // show the match along with a little of its context
+         int from = Math.max(0, start - RESULT_CONTEXT);
+         int to = Math.min(text.length(), end + RESULT_CONTEXT);
+
+         builder.appendHtmlConstant("<div class=\"" + RES.styles().result() +
+                                    "\" data-index=\"" + matches_.size() + "\">");
+         builder.appendHtmlConstant("<span class=\"" + RES.styles().resultLine() + "\">");
+         builder.append(match.getLine() + 1);
+         builder.appendHtmlConstant("</span>");
+         if (from > 0)
+            builder.appendEscaped("...");
+         builder.appendEscaped(text.substring(from, start));
+         builder.appendHtmlConstant("<mark>");
+         builder.appendEscaped(text.substring(start, end));
+         builder.appendHtmlConstant("</mark>");
+         builder.appendEscaped(text.substring(end, to));
+         builder.appendHtmlConstant("</div>");
+
+         matches_.add(match);
+      }
+
+      // append rather than re-render, so earlier results aren't rebuilt for
+      // every page that arrives
+      DivElement page = Document.get().createDivElement();
+      page.setInnerSafeHtml(builder.toSafeHtml());
+      results_.getElement().appendChild(page);
+   }
+
+   private void onResultClicked(ClickEvent event)
+   {
+      EventTarget target = event.getNativeEvent().getEventTarget();
+      if (!Element.is(target))
+         return;
+
+      Element element = Element.as(target);
+      while (element != null && !element.hasAttribute("data-index"))
+         element = element.getParentElement();
+      if (element == null)
+         return;
+
+      showMatch(StringUtil.parseInt(element.getAttribute("data-index"), -1));
+   }
+
+   private void showMatch(int index)
+   {
+      if (index < 0 || index >= matches_.size())
+         return;
+
+      Element previous = getResultElement(selectedMatch_);
+      if (previous != null)
+         previous.removeClassName(RES.styles().selectedResult());
+
+      Element current = getResultElement(index);
+      if (current != null)
+      {
+         current.addClassName(RES.styles().selectedResult());
+         DomUtils.ensureVisibleVert(resultsPanel_.getElement(), current, 0);
+      }
+      selectedMatch_ = index;
+
+      LargeFileSearchResult.Match match = matches_.get(index);
+      setHighlight(match.getLine(), match.getStart(), match.getEnd());
+      setFirstLine(match.getLine() - visibleRows_ / 2, true);
+   }
+
+   private Element getResultElement(int index)
+   {
+      if (index < 0)
+         return null;
+      return DomUtils.querySelector(results_.getElement(), "[data-index=\"" + index + "\"]");
+   }
+
+   // Resources ----
+
+   public interface Styles extends CssResource
+   {
+      String scrollbar();
+      String results();
+      String result();
+      String resultLine();
+      String selectedResult();
+   }
+
+   public interface Resources extends ClientBundle
+   {
+      @Source("LargeFileViewer.css")
+      Styles styles();
+   }
+
+   private final LargeFileServerOperations server_;
+   private final String path_;
+   private final LargeFilePageCache pages_;
+
+   private final AceEditor editor_;
+   private final SimplePanel scrollbar_;
+   private final DivElement spacer_;
+   private final LayoutPanel viewport_;
+   private final HTML results_;
+   private final ScrollPanel resultsPanel_;
+   private final DockLayoutPanel body_;
+   private NumericTextBox goToLine_;
+   private TextBox search_;
+   private CheckBox ignoreCase_;
+   private Label status_;
+
+   private int lineCount_ = -1;
+   private int firstLine_ = 0;
+   private int visibleRows_ = 1;
+   private int lineHeight_ = 16;
+   private int spacerHeight_ = 0;
+   private int programmaticScrollTop_ = -1;
+   private int pendingLine_ = -1;
+   private double wheelLines_ = 0;
+
+   private int renderedFirstLine_ = -1;
+   private String renderedCode_ = null;
+   private int highlightLine_ = -1;
+   private int highlightStart_ = 0;
+   private int highlightEnd_ = -1;
+
+   private String searchPattern_;
+   private boolean searchIgnoreCase_;
+   private int searchGeneration_ = 0;
+   private int selectedMatch_ = -1;
+   private final List<LargeFileSearchResult.Match> matches_ = new ArrayList<>();
+
+   private static final int SCROLLBAR_WIDTH = 14;
+   private static final int RESULTS_HEIGHT = 160;
+   private static final double MAX_SPACER_HEIGHT = 4000000;
+   private static final int SEARCH_PAGE_SIZE = 200;
+   private static final int MAX_SEARCH_RESULTS = 2000;
+   private static final int RESULT_CONTEXT = 80;
+
+   private static final Resources RES = GWT.create(Resources.class);
+   static
+   {
+      RES.styles().ensureInjected();
+   }
+   private static final ViewsSourceConstants constants_ = GWT.create(ViewsSourceConstants.class);
+}
@@ -0,0 +1,66 @@
+/*
+ * LargeFileSearchResult.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.largefile.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+
+public class LargeFileSearchResult extends JavaScriptObject
+{
+   protected LargeFileSearchResult()
+   {
+   }
+
+   public static class Match extends JavaScriptObject
+   {
+      protected Match()
+      {
+      }
+
+      public final native int getLine() /*-{
+         return this.line;
+      }-*/;
+
+      public final native String getText() /*-{
+         return this.text;
+      }-*/;
+
+      public final native int getStart() /*-{
+         return this.start;
+      }-*/;
+
+      public final native int getEnd() /*-{
+         return this.end;
+      }-*/;
+   }
+
+   // set (instead of the other fields) when the pattern isn't valid
+   public final native String getError() /*-{
+      return this.error || null;
+   }-*/;
+
+   public final native int getLineCount() /*-{
+      return this.line_count;
+   }-*/;
+
+   public final native JsArray<Match> getMatches() /*-{
+      return this.matches;
+   }-*/;
+
+   // the line to continue searching from, or -1 when the search is complete
+   public final native int getNextLine() /*-{
+      return this.next_line;
+   }-*/;
+}
@@ -355,6 +355,7 @@ public class AceEditor implements DocDisplay,
 
       backgroundTokenizer_ = new BackgroundTokenizer(this);
       vim_ = new Vim(this);
+      backgroundAnalysis_ = new BackgroundAnalysisScheduler(this);
       bgLinkHighlighter_ = new AceEditorBackgroundLinkHighlighter(this);
       bgChunkHighlighter_ = new AceBackgroundHighlighter(this);
       persistentDiffManager_ = null;
@@ -2416,7 +2417,7 @@ public class AceEditor implements DocDisplay,
    {
       Scheduler.get().scheduleFinally(() ->
       {
-         widget_.onResize();
+         widget_.resizeNow();
          widget_.onActivate();
          return false;
       });
@@ -2430,7 +2431,7 @@ public class AceEditor implements DocDisplay,
 
    public void onResize()
    {
-      widget_.onResize();
+      widget_.resizeNow();
    }
    
    public void setLineHeight(double heightPct)
@@ -2458,6 +2459,11 @@ public class AceEditor implements DocDisplay,
       widget_.getEditor().setRelativeLineNumbers(relative);
    }
 
+   public void setFirstLineNumber(int line)
+   {
+      widget_.getEditor().setFirstLineNumber(line);
+   }
+
    public void setEnableKeyboardAccessibility(boolean keyboardAccessible)
    {
       widget_.getEditor().setEnableKeyboardAccessibility(keyboardAccessible);
@@ -4417,6 +4423,60 @@ public class AceEditor implements DocDisplay,
       return lastCursorChangedTime_;
    }
 
+   public BackgroundAnalysisScheduler getBackgroundAnalysisScheduler()
+   {
+      return backgroundAnalysis_;
+   }
+
+   /**
+    * Releases the editor state that can be rebuilt when it's next needed: the
+    * tokens of each line, which are tokenized again as they're shown, and the
+    * undo history, which is kept as a single string until wake() is called.
+    *
+    * @return The number of tokens released
+    */
+   public int hibernate()
+   {
+      if (hibernatedUndo_ != null)
+         return 0;
+
+      EditSession session = getSession();
+      hibernatedUndo_ = session.getUndoManager().serialize();
+      session.getUndoManager().reset();
+      return session.releaseTokens();
+   }
+
+   /**
+    * Restores the undo history released by hibernate(), and starts
+    * tokenizing the document again.
+    *
+    * @return Whether the document was edited while hibernated; if not, the
+    *    entries of the undo history are new objects, so any clean state token
+    *    taken before hibernating no longer matches
+    */
+   public boolean wake()
+   {
+      if (hibernatedUndo_ == null)
+         return false;
+
+      EditSession session = getSession();
+      boolean edited = session.getUndoManager().restore(hibernatedUndo_);
+      hibernatedUndo_ = null;
+      session.restartTokenizer();
+      return edited;
+   }
+
+   public boolean isHibernated()
+   {
+      return hibernatedUndo_ != null;
+   }
+
+   // the size of the serialized undo history kept while hibernated
+   public int getHibernatedUndoSize()
+   {
+      return hibernatedUndo_ == null ? 0 : hibernatedUndo_.length();
+   }
+
    public int getFirstVisibleRow()
    {
       return widget_.getEditor().getFirstVisibleRow();
@@ -4893,6 +4953,8 @@ public class AceEditor implements DocDisplay,
    private boolean showChunkOutputInline_ = false;
    private BackgroundTokenizer backgroundTokenizer_;
    private final Vim vim_;
+   private final BackgroundAnalysisScheduler backgroundAnalysis_;
+   private String hibernatedUndo_ = null;
    private final AceBackgroundHighlighter bgChunkHighlighter_;
    private final AceEditorBackgroundLinkHighlighter bgLinkHighlighter_;
    private int scrollTarget_ = 0;
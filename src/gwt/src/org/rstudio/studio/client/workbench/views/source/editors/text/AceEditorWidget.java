@@ -26,6 +26,7 @@ import org.rstudio.core.client.JsVector;
 import org.rstudio.core.client.JsVectorString;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.dom.WindowEx;
+import org.rstudio.core.client.layout.LayoutScheduler;
 import org.rstudio.core.client.js.JsMap;
 import org.rstudio.core.client.widget.CanSetControlId;
 import org.rstudio.core.client.widget.FontSizer;
@@ -189,14 +190,18 @@ public class AceEditorWidget extends Composite
                updateAnnotations(event);
 
                // Immediately re-render on change if we have markers, to
-               // ensure they're re-drawn in the correct locations.
-               if (editor_.getSession().getMarkers(true).size() > 0)
+               // ensure they're re-drawn in the correct locations. A batch of
+               // edits (e.g. Replace All) only needs a single re-render.
+               if (!markerRenderPending_ &&
+                   editor_.getSession().getMarkers(true).size() > 0)
                {
+                  markerRenderPending_ = true;
                   Scheduler.get().scheduleDeferred(new ScheduledCommand()
                   {
                      @Override
                      public void execute()
                      {
+                        markerRenderPending_ = false;
                         editor_.getRenderer().renderMarkers();
                      }
                   });
@@ -669,6 +674,7 @@ public class AceEditorWidget extends Composite
 
       editor_.getRenderer().updateFontSize();
       onResize();
+      aceEventHandlers_.add(LayoutScheduler.get().observe(getElement(), resizer_));
 
       fireEvent(new EditorLoadedEvent(editor_));
       events_.fireEvent(new EditorLoadedEvent(editor_));
@@ -691,10 +697,45 @@ public class AceEditorWidget extends Composite
    }
 
    public void onResize()
+   {
+      // resized along with everything else in the next frame
+      LayoutScheduler.get().schedule(resizer_);
+   }
+
+   /**
+    * Resizes the editor right away, for callers that need its new size
+    * before the next frame.
+    */
+   public void resizeNow()
    {
       editor_.resize();
    }
 
+   private class Resizer implements LayoutScheduler.Participant
+   {
+      @Override
+      public boolean measure()
+      {
+         Element el = getElement();
+         width_ = el.getClientWidth();
+         height_ = el.getClientHeight();
+         gutterWidth_ = editor_.getRenderer().getGutterWidth();
+
+         // a hidden editor is resized when it's shown again
+         return width_ > 0 && height_ > 0;
+      }
+
+      @Override
+      public void mutate()
+      {
+         editor_.getRenderer().onResize(width_, height_, gutterWidth_);
+      }
+
+      private int width_;
+      private int height_;
+      private int gutterWidth_;
+   }
+
    public void onActivate()
    {
       if (editor_ != null)
@@ -1469,8 +1510,10 @@ public class AceEditorWidget extends Composite
    private final AceEditorNative editor_;
    private final HandlerManager capturingHandlers_;
    private final List<HandlerRegistration> aceEventHandlers_;
+   private final Resizer resizer_ = new Resizer();
    private boolean initToEmptyString_ = true;
    private boolean inOnChangeHandler_ = false;
+   private boolean markerRenderPending_ = false;
    private boolean isRendered_ = false;
    private final ArrayList<Breakpoint> breakpoints_ = new ArrayList<>();
    private ArrayList<AnchoredAceAnnotation> annotations_ = new ArrayList<>();
@@ -0,0 +1,445 @@
+/*
+ * BackgroundAnalysisScheduler.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.Debug;
+
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.ui.Widget;
+
+// Coordinates the row-by-row background work (scope tree building, chunk
+// highlighting, link detection, ...) done for a document, so that these
+// analyzers don't each run their own timers and compete for the main thread.
+//
+// Each analyzer tracks a single dirty region (all rows from some row onward)
+// via its Task. Work is handed out in chunks during browser idle time, with
+// the dirty rows of visible editors served first, and all editors share a
+// single per-frame time budget.
+public class BackgroundAnalysisScheduler
+{
+   public interface Analyzer
+   {
+      // Analyze rows in the range [startRow, endRow), returning the row at
+      // which analysis should resume. Returning a row at or past the end of
+      // the document signals that the analyzer is up to date.
+      int analyze(int startRow, int endRow);
+   }
+
+   public class Task
+   {
+      private Task(String name, Analyzer analyzer, boolean rowLocal)
+      {
+         name_ = name;
+         analyzer_ = analyzer;
+         rowLocal_ = rowLocal;
+      }
+
+      // Mark all rows from 'row' onward as needing analysis.
+      public void invalidateFrom(int row)
+      {
+         invalidateFrom(row, 0);
+      }
+
+      // As above, but don't start work for at least 'delayMs' milliseconds;
+      // used to debounce analyzers that are expensive to run while typing.
+      public void invalidateFrom(int row, int delayMs)
+      {
+         dirtyFrom_ = Math.max(0, Math.min(dirtyFrom_, row));
+         if (row < visibleDoneEnd_)
+            visibleDoneStart_ = visibleDoneEnd_ = -1;
+
+         notBefore_ = delayMs > 0 ? now() + delayMs : 0;
+         driver().schedule(BackgroundAnalysisScheduler.this, delayMs);
+      }
+
+      public void cancel()
+      {
+         dirtyFrom_ = Integer.MAX_VALUE;
+         visibleDoneStart_ = visibleDoneEnd_ = -1;
+      }
+
+      public void remove()
+      {
+         cancel();
+         tasks_.remove(this);
+      }
+
+      public boolean isDirty()
+      {
+         return dirtyFrom_ < docDisplay_.getRowCount();
+      }
+
+      private boolean isReady(double now)
+      {
+         return isDirty() && now >= notBefore_;
+      }
+
+      private int run(int firstVisibleRow, int lastVisibleRow)
+      {
+         int rowCount = docDisplay_.getRowCount();
+
+         // row-local analyzers can jump ahead and handle the visible part of
+         // the dirty region first; we remember what was done so the
+         // sequential sweep can skip over it later
+         if (rowLocal_ && lastVisibleRow >= dirtyFrom_ && visibleDoneEnd_ < 0)
+         {
+            int start = Math.max(dirtyFrom_, firstVisibleRow);
+            int end = Math.min(rowCount, lastVisibleRow + 1);
+            if (start < end)
+            {
+               analyzer_.analyze(start, end);
+               visibleDoneStart_ = start;
+               visibleDoneEnd_ = end;
+               return end - start;
+            }
+         }
+
+         int start = dirtyFrom_;
+         if (visibleDoneEnd_ >= 0 && start >= visibleDoneStart_ && start < visibleDoneEnd_)
+            start = visibleDoneEnd_;
+
+         int end = Math.min(rowCount, start + CHUNK_SIZE);
+         if (visibleDoneEnd_ >= 0 && start < visibleDoneStart_)
+            end = Math.min(end, visibleDoneStart_);
+
+         int next = end > start ? analyzer_.analyze(start, end) : end;
+
+         // guard against analyzers that make no progress
+         dirtyFrom_ = Math.max(next, start + 1);
+         if (dirtyFrom_ >= rowCount)
+         {
+            dirtyFrom_ = Integer.MAX_VALUE;
+            visibleDoneStart_ = visibleDoneEnd_ = -1;
+         }
+
+         return Math.max(0, end - start);
+      }
+
+      private final String name_;
+      private final Analyzer analyzer_;
+      private final boolean rowLocal_;
+
+      private int dirtyFrom_ = Integer.MAX_VALUE;
+      private int visibleDoneStart_ = -1;
+      private int visibleDoneEnd_ = -1;
+      private double notBefore_ = 0;
+   }
+
+   public static class AnalyzerStats
+   {
+      private AnalyzerStats(String name)
+      {
+         name_ = name;
+      }
+
+      public String getName()
+      {
+         return name_;
+      }
+
+      public double getTotalMs()
+      {
+         return totalMs_;
+      }
+
+      public double getMaxMs()
+      {
+         return maxMs_;
+      }
+
+      public int getChunkCount()
+      {
+         return chunks_;
+      }
+
+      public double getRowCount()
+      {
+         return rows_;
+      }
+
+      private void record(double elapsedMs, int rows)
+      {
+         totalMs_ += elapsedMs;
+         maxMs_ = Math.max(maxMs_, elapsedMs);
+         chunks_++;
+         rows_ += rows;
+      }
+
+      private final String name_;
+      private double totalMs_;
+      private double maxMs_;
+      private int chunks_;
+      private double rows_;
+   }
+
+   public BackgroundAnalysisScheduler(DocDisplay docDisplay)
+   {
+      docDisplay_ = docDisplay;
+      tasks_ = new ArrayList<>();
+   }
+
+   // Register an analyzer. Row-local analyzers (where each row can be analyzed
+   // independently of the rows before it) have visible rows served first;
+   // other analyzers are always run front-to-back.
+   public Task addAnalyzer(String name, Analyzer analyzer, boolean rowLocal)
+   {
+      Task task = new Task(name, analyzer, rowLocal);
+      tasks_.add(task);
+      return task;
+   }
+
+   // Time spent per analyzer (summed over all documents) since startup,
+   // ordered from most to least expensive.
+   public static List<AnalyzerStats> getAnalyzerStats()
+   {
+      List<AnalyzerStats> stats = new ArrayList<>(STATS.values());
+      Collections.sort(stats, (a, b) -> Double.compare(b.getTotalMs(), a.getTotalMs()));
+      return stats;
+   }
+
+   public static void resetAnalyzerStats()
+   {
+      STATS.clear();
+   }
+
+   private int getPriority()
+   {
+      Widget widget = docDisplay_.asWidget();
+      if (!widget.isAttached() || widget.getOffsetHeight() == 0)
+         return PRIORITY_HIDDEN;
+
+      int lastVisibleRow = docDisplay_.getLastVisibleRow();
+      for (Task task : tasks_)
+         if (task.isDirty() && task.dirtyFrom_ <= lastVisibleRow)
+            return PRIORITY_VISIBLE_ROWS;
+
+      return PRIORITY_VISIBLE;
+   }
+
+   private Task nextReadyTask(double now)
+   {
+      // round-robin between analyzers, so one slow analyzer
+      // can't starve the others
+      int n = tasks_.size();
+      for (int i = 0; i < n; i++)
+      {
+         Task task = tasks_.get((nextTask_ + i) % n);
+         if (task.isReady(now))
+         {
+            nextTask_ = (nextTask_ + i + 1) % n;
+            return task;
+         }
+      }
+      return null;
+   }
+
+   private double nextReadyTime()
+   {
+      double time = Double.MAX_VALUE;
+      for (Task task : tasks_)
+         if (task.isDirty())
+            time = Math.min(time, task.notBefore_);
+      return time;
+   }
+
+   private static Driver driver()
+   {
+      if (driver_ == null)
+         driver_ = new Driver();
+      return driver_;
+   }
+
+   // Shared across all editors: owns the idle callback and the frame budget.
+   private static class Driver
+   {
+      void schedule(BackgroundAnalysisScheduler scheduler, int delayMs)
+      {
+         if (!pending_.contains(scheduler))
+            pending_.add(scheduler);
+
+         if (delayMs > 0)
+            requestIdleAfter(delayMs);
+         else
+            requestIdle();
+      }
+
+      private void requestIdleAfter(int delayMs)
+      {
+         if (idleRequested_)
+            return;
+
+         // keep an earlier wakeup if one is already scheduled
+         double due = now() + delayMs;
+         if (delayTimer_.isRunning() && delayDue_ <= due)
+            return;
+
+         delayDue_ = due;
+         delayTimer_.schedule(delayMs);
+      }
+
+      private void requestIdle()
+      {
+         if (idleRequested_)
+            return;
+
+         idleRequested_ = true;
+         delayTimer_.cancel();
+         requestIdleCallback(this, IDLE_TIMEOUT_MS);
+      }
+
+      private void onIdle(double timeRemaining)
+      {
+         idleRequested_ = false;
+
+         double now = now();
+         double deadline = now + Math.max(MIN_SLICE_MS, Math.min(timeRemaining, FRAME_BUDGET_MS));
+
+         try
+         {
+            // editors are ranked once per frame; visibility doesn't
+            // change while we're running
+            final Map<BackgroundAnalysisScheduler, Integer> priorities = new LinkedHashMap<>();
+            for (BackgroundAnalysisScheduler scheduler : pending_)
+               priorities.put(scheduler, scheduler.getPriority());
+
+            List<BackgroundAnalysisScheduler> ranked = new ArrayList<>(priorities.keySet());
+            Collections.sort(ranked, (a, b) -> priorities.get(a) - priorities.get(b));
+
+            for (BackgroundAnalysisScheduler scheduler : ranked)
+            {
+               int firstVisibleRow = -1;
+               int lastVisibleRow = -1;
+               if (priorities.get(scheduler) != PRIORITY_HIDDEN)
+               {
+                  firstVisibleRow = scheduler.docDisplay_.getFirstVisibleRow();
+                  lastVisibleRow = scheduler.docDisplay_.getLastVisibleRow();
+               }
+
+               while (now < deadline)
+               {
+                  Task task = scheduler.nextReadyTask(now);
+                  if (task == null)
+                     break;
+
+                  double start = now;
+                  int rows = task.run(firstVisibleRow, lastVisibleRow);
+                  now = now();
+                  stats(task.name_).record(now - start, rows);
+               }
+
+               if (now >= deadline)
+                  break;
+            }
+         }
+         catch (Exception e)
+         {
+            Debug.logException(e);
+         }
+
+         // drop editors that are caught up, then decide when to run again
+         double nextReady = Double.MAX_VALUE;
+         for (int i = pending_.size() - 1; i >= 0; i--)
+         {
+            double ready = pending_.get(i).nextReadyTime();
+            if (ready == Double.MAX_VALUE)
+               pending_.remove(i);
+            else
+               nextReady = Math.min(nextReady, ready);
+         }
+
+         if (nextReady == Double.MAX_VALUE)
+            return;
+
+         int delayMs = (int) Math.ceil(nextReady - now());
+         if (delayMs > 0)
+            requestIdleAfter(delayMs);
+         else
+            requestIdle();
+      }
+
+      private static native void requestIdleCallback(Driver driver, int timeoutMs) /*-{
+         var callback = $entry(function(deadline) {
+            // if we were forced to run by the timeout, take a normal slice
+            var remaining = (deadline && !deadline.didTimeout) ?
+               deadline.timeRemaining() :
+               @org.rstudio.studio.client.workbench.views.source.editors.text.BackgroundAnalysisScheduler::FRAME_BUDGET_MS;
+            driver.@org.rstudio.studio.client.workbench.views.source.editors.text.BackgroundAnalysisScheduler.Driver::onIdle(D)(remaining);
+         });
+
+         if (typeof $wnd.requestIdleCallback === "function")
+            $wnd.requestIdleCallback(callback, { timeout: timeoutMs });
+         else
+            $wnd.setTimeout(callback, 0);
+      }-*/;
+
+      private final List<BackgroundAnalysisScheduler> pending_ = new ArrayList<>();
+      private final Timer delayTimer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            requestIdle();
+         }
+      };
+      private double delayDue_ = 0;
+      private boolean idleRequested_ = false;
+   }
+
+   private static AnalyzerStats stats(String name)
+   {
+      AnalyzerStats stats = STATS.get(name);
+      if (stats == null)
+      {
+         stats = new AnalyzerStats(name);
+         STATS.put(name, stats);
+      }
+      return stats;
+   }
+
+   private static native double now() /*-{
+      return $wnd.performance.now();
+   }-*/;
+
+   private final DocDisplay docDisplay_;
+   private final List<Task> tasks_;
+   private int nextTask_ = 0;
+
+   private static Driver driver_;
+   private static final Map<String, AnalyzerStats> STATS = new LinkedHashMap<>();
+
+   private static final int PRIORITY_VISIBLE_ROWS = 0;
+   private static final int PRIORITY_VISIBLE = 1;
+   private static final int PRIORITY_HIDDEN = 2;
+
+   // rows handed to an analyzer at a time; matches the chunk size the
+   // individual workers used before they were moved onto the scheduler
+   private static final int CHUNK_SIZE = 200;
+
+   // at most this much work per frame across all editors, even if the
+   // browser reports more idle time
+   private static final double FRAME_BUDGET_MS = 8;
+
+   // always make some progress, even if the browser reports no idle time
+   private static final double MIN_SLICE_MS = 1;
+
+   // make sure analysis still happens eventually on a busy main thread
+   private static final int IDLE_TIMEOUT_MS = 500;
+}
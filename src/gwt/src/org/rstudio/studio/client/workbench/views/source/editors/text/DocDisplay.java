@@ -466,6 +466,11 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    void forceImmediateRender();
    boolean isPositionVisible(Position position);
 
+   BackgroundAnalysisScheduler getBackgroundAnalysisScheduler();
+   int hibernate();
+   boolean wake();
+   boolean isHibernated();
+   int getHibernatedUndoSize();
    int getFirstVisibleRow();
    int getLastVisibleRow();
 
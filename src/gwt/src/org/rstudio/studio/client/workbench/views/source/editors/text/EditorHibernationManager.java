@@ -0,0 +1,215 @@
+/*
+ * EditorHibernationManager.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
+
+import com.google.gwt.user.client.Timer;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Puts the editors of text documents to sleep when their tabs have been in
+ * the background for a while. A hibernating editor releases the state it can
+ * rebuild (see AceEditor.hibernate()), and wakes when its tab is activated
+ * again. Only documents without unsaved changes hibernate.
+ *
+ * The idle period is set by the editor_hibernation_delay preference, in
+ * minutes; 0 turns hibernation off.
+ */
+@Singleton
+public class EditorHibernationManager
+{
+   public static class HibernatedEditor
+   {
+      private HibernatedEditor(String name, int tokens, int undoSize, double since)
+      {
+         name_ = name;
+         tokens_ = tokens;
+         undoSize_ = undoSize;
+         since_ = since;
+      }
+
+      public String getName()
+      {
+         return name_;
+      }
+
+      // the number of tokens released
+      public int getTokenCount()
+      {
+         return tokens_;
+      }
+
+      // the size of the serialized undo history kept in place of the original
+      public int getUndoSize()
+      {
+         return undoSize_;
+      }
+
+      // when the editor went to sleep, in milliseconds since the epoch
+      public double getSince()
+      {
+         return since_;
+      }
+
+      private final String name_;
+      private final int tokens_;
+      private final int undoSize_;
+      private final double since_;
+   }
+
+   @Inject
+   public EditorHibernationManager(UserPrefs prefs)
+   {
+      prefs_ = prefs;
+      timer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            hibernateIdleEditors();
+         }
+      };
+   }
+
+   public void register(TextEditingTarget target)
+   {
+      lastUsed_.put(target, now());
+      if (!timer_.isRunning())
+         timer_.scheduleRepeating(CHECK_INTERVAL_MS);
+   }
+
+   public void unregister(TextEditingTarget target)
+   {
+      lastUsed_.remove(target);
+      hibernated_.remove(target);
+      if (lastUsed_.isEmpty())
+         timer_.cancel();
+   }
+
+   /**
+    * Wakes the target's editor, if it's hibernating; called before the
+    * target does anything else to activate.
+    */
+   public void onActivate(TextEditingTarget target)
+   {
+      lastUsed_.put(target, now());
+      if (hibernated_.remove(target) == null)
+         return;
+
+      // without edits made in the meantime, the restored undo history has
+      // new entries, so the document's clean state has to be marked again
+      boolean wasDirty = target.dirtyState().getValue();
+      if (!target.getDocDisplay().wake() && !wasDirty)
+         target.markDocumentClean();
+      wakeCount_++;
+   }
+
+   public void onDeactivate(TextEditingTarget target)
+   {
+      lastUsed_.put(target, now());
+   }
+
+   public List<HibernatedEditor> getHibernatedEditors()
+   {
+      return new ArrayList<>(hibernated_.values());
+   }
+
+   public int getHibernationCount()
+   {
+      return hibernationCount_;
+   }
+
+   public int getWakeCount()
+   {
+      return wakeCount_;
+   }
+
+   /**
+    * @return An estimate of the memory currently released by hibernating
+    *    editors, in bytes
+    */
+   public double getEstimatedBytesReleased()
+   {
+      double bytes = 0;
+      for (HibernatedEditor editor : hibernated_.values())
+         bytes += (double) editor.getTokenCount() * BYTES_PER_TOKEN;
+      return bytes;
+   }
+
+   private void hibernateIdleEditors()
+   {
+      int delayMinutes = prefs_.editorHibernationDelay().getValue();
+      if (delayMinutes <= 0)
+         return;
+
+      double cutoff = now() - delayMinutes * 60000.0;
+      for (Map.Entry<TextEditingTarget, Double> entry : lastUsed_.entrySet())
+      {
+         TextEditingTarget target = entry.getKey();
+         if (entry.getValue() > cutoff ||
+             hibernated_.containsKey(target) ||
+             !canHibernate(target))
+         {
+            continue;
+         }
+
+         DocDisplay display = target.getDocDisplay();
+         int tokens = display.hibernate();
+         hibernated_.put(target, new HibernatedEditor(
+               target.getName().getValue(),
+               tokens,
+               display.getHibernatedUndoSize(),
+               now()));
+         hibernationCount_++;
+      }
+   }
+
+   private boolean canHibernate(TextEditingTarget target)
+   {
+      // the visual editor keeps its own copy of the document, and a tab
+      // showing in another source column is still in view
+      return !target.isActivated() &&
+             !target.dirtyState().getValue() &&
+             !target.isVisualModeActivated() &&
+             !target.getDocDisplay().isHibernated() &&
+             target.asWidget().getOffsetHeight() == 0;
+   }
+
+   private static double now()
+   {
+      return System.currentTimeMillis();
+   }
+
+   private final UserPrefs prefs_;
+   private final Timer timer_;
+
+   // each registered target -> when it was last activated or deactivated
+   private final Map<TextEditingTarget, Double> lastUsed_ = new HashMap<>();
+   private final Map<TextEditingTarget, HibernatedEditor> hibernated_ = new HashMap<>();
+   private int hibernationCount_ = 0;
+   private int wakeCount_ = 0;
+
+   private static final int CHECK_INTERVAL_MS = 60000;
+
+   // the rough size of an Ace token object, with its type and value strings
+   private static final int BYTES_PER_TOKEN = 64;
+}
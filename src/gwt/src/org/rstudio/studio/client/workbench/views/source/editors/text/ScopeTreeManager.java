@@ -27,7 +27,6 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.logical.shared.AttachEvent;
 import com.google.gwt.event.shared.HandlerRegistration;
-import com.google.gwt.user.client.Timer;
 
 // NOTE: Historically, scope tree management was implemented as part of
 // an accompanying code model, written as part of our JavaScript Ace
@@ -47,7 +46,8 @@ public abstract class ScopeTreeManager
       RStudioGinjector.INSTANCE.injectMembers(this);
       
       docDisplay_ = docDisplay;
-      worker_ = new Worker();
+      task_ = docDisplay.getBackgroundAnalysisScheduler().addAnalyzer(
+            "Scope Tree", new Worker(), false);
       scopeManager_ = new ScopeManager();
       
       handlers_ = new HandlerRegistration[] {
@@ -65,7 +65,7 @@ public abstract class ScopeTreeManager
                   if (rebuildPos == null)
                      rebuildPos = position;
                      
-                  worker_.rebuildScopeTreeFromRow(rebuildPos.getRow());
+                  task_.invalidateFrom(rebuildPos.getRow());
                });
             }),
             
@@ -102,32 +102,16 @@ public abstract class ScopeTreeManager
    {
       for (HandlerRegistration handler : handlers_)
          handler.removeHandler();
+      
+      task_.remove();
    }
    
-   private class Worker
+   private class Worker implements BackgroundAnalysisScheduler.Analyzer
    {
-      private Worker()
-      {
-         timer_ = new Timer()
-         {
-            @Override
-            public void run()
-            {
-               work();
-            }
-         };
-      }
-      
-      public void rebuildScopeTreeFromRow(int row)
-      {
-         startRow_ = row;
-         endRow_ = Math.min(docDisplay_.getRowCount(), startRow_ + ROWS_TOKENIZED_PER_ITERATION);
-         work();
-      }
-      
-      private int work()
+      @Override
+      public int analyze(int startRow, int endRow)
       {
-         Position position = Position.create(startRow_ - 1, 0);
+         Position position = Position.create(startRow - 1, 0);
          
          // if editing near the start of the document, the token iterator may fail
          // to find any initial token. in that case, just step forward (this should
@@ -158,7 +142,7 @@ public abstract class ScopeTreeManager
             
             // if we've walked past the end row, bail
             int row = it.getCurrentTokenRow();
-            if (row >= endRow_)
+            if (row >= endRow)
                break;
             
             // let subclass respond to current token, and move forward
@@ -169,31 +153,15 @@ public abstract class ScopeTreeManager
          // save the parse position (needed when invalidating rows as the document mutates)
          scopeManager_.setParsePosition(Position.create(it.getCurrentTokenRow(), -1));
          
-         // if there are still rows to be tokenized in the document,
-         // schedule more work
-         if (startRow_ < docDisplay_.getRowCount())
-         {
-            startRow_ = it.getCurrentTokenRow();
-            endRow_ = Math.min(docDisplay_.getRowCount(), startRow_ + ROWS_TOKENIZED_PER_ITERATION);
-            timer_.schedule(DELAY_MS);
-         }
-         
+         // let the scheduler know where to pick up from next time
          return it.getCurrentTokenRow();
       }
-      
-      private int startRow_;
-      private int endRow_;
-      
-      private final Timer timer_;
-      
-      private static final int DELAY_MS = 5;
-      private static final int ROWS_TOKENIZED_PER_ITERATION = 200;
    }
    
    protected Scope lastActiveScope_;
    
    protected final DocDisplay docDisplay_;
-   private final Worker worker_;
+   private final BackgroundAnalysisScheduler.Task task_;
    private final ScopeManager scopeManager_;
    private final HandlerRegistration[] handlers_;
 }
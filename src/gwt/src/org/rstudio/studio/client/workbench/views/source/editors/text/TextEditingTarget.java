@@ -565,7 +565,8 @@ public class TextEditingTarget implements
                             UserState state,
                             BreakpointManager breakpointManager,
                             Source source,
-                            DependencyManager dependencyManager)
+                            DependencyManager dependencyManager,
+                            EditorHibernationManager hibernationManager)
    {
       commands_ = commands;
       server_ = server;
@@ -582,6 +583,7 @@ public class TextEditingTarget implements
       breakpointManager_ = breakpointManager;
       source_ = source;
       dependencyManager_ = dependencyManager;
+      hibernationManager_ = hibernationManager;
 
       docDisplay_ = docDisplay;
       dirtyState_ = new DirtyState(docDisplay_, false);
@@ -2329,6 +2331,7 @@ public class TextEditingTarget implements
       syncPublishPath(document.getPath());
       initStatusBar();
       lintManager_.relintAfterDelay(prefs_.documentLoadLintDelay().getValue());
+      hibernationManager_.register(this);
    }
 
    private void updateBreakpointWarningBar()
@@ -2982,6 +2985,9 @@ public class TextEditingTarget implements
       // CodeBrowserEditingTarget (no straightforward way to create a
       // re-usable implementation) so changes here need to be synced
 
+      // wake the editor first if it was put to sleep while in the background
+      hibernationManager_.onActivate(this);
+
       // If we're already hooked up for some reason, unhook.
       // This shouldn't happen though.
       if (commandHandlerReg_ != null)
@@ -3066,6 +3072,8 @@ public class TextEditingTarget implements
       }
 
       visualMode_.unmanageCommands();
+
+      hibernationManager_.onDeactivate(this);
    }
 
    @Override
@@ -3684,6 +3692,8 @@ public class TextEditingTarget implements
    {
       isClosing_ = true;
 
+      hibernationManager_.unregister(this);
+
       docUpdateSentinel_.stop();
 
       if (spelling_ != null)
@@ -9543,6 +9553,7 @@ public class TextEditingTarget implements
    private final FontSizeManager fontSizeManager_;
    private final Source source_;
    private final DependencyManager dependencyManager_;
+   private final EditorHibernationManager hibernationManager_;
    private DocUpdateSentinel docUpdateSentinel_;
    private final Value<String> name_ = new Value<>(null);
    private TextFileType fileType_;
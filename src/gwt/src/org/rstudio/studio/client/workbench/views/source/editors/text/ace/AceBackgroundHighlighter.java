@@ -28,6 +28,7 @@ import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
+import org.rstudio.studio.client.workbench.views.source.editors.text.BackgroundAnalysisScheduler;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorModeChangedEvent;
 
@@ -35,7 +36,6 @@ import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
-import com.google.gwt.user.client.Timer;
 import com.google.inject.Inject;
 
 public class AceBackgroundHighlighter
@@ -86,29 +86,13 @@ public class AceBackgroundHighlighter
       private int matchLength_;
    }
   
-   private class Worker
+   private class Worker implements BackgroundAnalysisScheduler.Analyzer
    {
-      public Worker()
-      {
-         timer_ = new Timer()
-         {
-            @Override
-            public void run()
-            {
-               work();
-            }
-         };
-      }
-      
-      private void work()
+      @Override
+      public int analyze(int startRow, int endRow)
       {
          if (!enabled_)
-            return;
-         
-         // determine range to update
-         int n = editor_.getRowCount();
-         int startRow = row_;
-         int endRow = Math.min(startRow + CHUNK_SIZE, editor_.getRowCount());
+            return editor_.getRowCount();
          
          activeHighlightPattern_ = findActiveHighlightPattern(startRow);
          
@@ -167,24 +151,8 @@ public class AceBackgroundHighlighter
             }
          }
          
-         // update worker state and reschedule if there's
-         // more work to be done
-         row_ = endRow;
-         if (endRow != n)
-            timer_.schedule(DELAY_MS);
-      }
-      
-      public void start(int row)
-      {
-         row_ = Math.min(row, row_);
-         timer_.schedule(0);
+         return endRow;
       }
-      
-      private final Timer timer_;
-      private int row_;
-      
-      private static final int DELAY_MS = 5;
-      private static final int CHUNK_SIZE = 200;
    }
    
    public AceBackgroundHighlighter(AceEditor editor)
@@ -201,7 +169,8 @@ public class AceBackgroundHighlighter
       rowStates_ = JavaScriptObject.createArray(n).cast();
       rowPatterns_ = JavaScriptObject.createArray(n).cast();
       markerIds_ = JavaScriptObject.createArray(n).cast();
-      worker_ = new Worker();
+      task_ = editor.getBackgroundAnalysisScheduler().addAnalyzer(
+            "Chunk Highlighter", new Worker(), false);
       
       enabled_ = prefs_.highlightCodeChunks().getGlobalValue();
       prefs_.highlightCodeChunks().addValueChangeHandler(new ValueChangeHandler<Boolean>()
@@ -387,8 +356,8 @@ public class AceBackgroundHighlighter
       while (startRow > 0 && !rowStates_.isSet(startRow - 1))
          startRow--;
       
-      // start the worker that will update ace
-      worker_.start(startRow);
+      // queue the worker that will update ace
+      task_.invalidateFrom(startRow);
    }
    
    private void refreshHighlighters()
@@ -481,7 +450,7 @@ public class AceBackgroundHighlighter
    private final JsVectorInteger markerIds_;
    private final JsVector<HighlightPattern> rowPatterns_;
    
-   private final Worker worker_;
+   private final BackgroundAnalysisScheduler.Task task_;
    
    private static final String MARKER_CLASS = "ace_foreign_line background_highlight";
    private static final String MARKER_TYPE = "fullLine";
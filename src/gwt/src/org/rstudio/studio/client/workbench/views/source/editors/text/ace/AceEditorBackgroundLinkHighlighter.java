@@ -45,6 +45,7 @@ import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.views.files.model.FilesServerOperations;
 import org.rstudio.studio.client.workbench.views.source.ViewsSourceConstants;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
+import org.rstudio.studio.client.workbench.views.source.editors.text.BackgroundAnalysisScheduler;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorModeChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CommandClickEvent;
@@ -60,7 +61,6 @@ import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.CssResource;
 import com.google.gwt.user.client.Event;
-import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.Event.NativePreviewEvent;
 import com.google.gwt.user.client.Event.NativePreviewHandler;
 import com.google.inject.Inject;
@@ -99,24 +99,17 @@ public class AceEditorBackgroundLinkHighlighter
       editor_ = editor;
       activeMarkers_ = new SafeMap<>();
 
-      nextHighlightStart_ = 0;
-      timer_ = new Timer()
-      {
-         @Override
-         public void run()
-         {
-            int n = editor_.getCurrentLineCount();
-            int startRow = nextHighlightStart_;
-            int endRow   = Math.min(nextHighlightStart_ + N_HIGHLIGHT_ROWS, n);
-
-            for (int row = startRow; row < endRow; row++)
-               highlightRow(row);
-
-            nextHighlightStart_ = endRow;
-            if (endRow != n)
-               timer_.schedule(5);
-         }
-      };
+      // each row is highlighted independently, so the scheduler
+      // is free to handle the visible rows first
+      task_ = editor_.getBackgroundAnalysisScheduler().addAnalyzer(
+            "Link Highlighter",
+            (int startRow, int endRow) ->
+            {
+               for (int row = startRow; row < endRow; row++)
+                  highlightRow(row);
+               return endRow;
+            },
+            true);
 
 
       highlighters_ = new ArrayList<>();
@@ -160,8 +153,7 @@ public class AceEditorBackgroundLinkHighlighter
                highlighters_.add(markdownLinkHighlighter());
             }
             
-            nextHighlightStart_ = 0;
-            timer_.schedule(100);
+            task_.invalidateFrom(0, 100);
          }
       });
    }
@@ -610,8 +602,7 @@ public class AceEditorBackgroundLinkHighlighter
 
       // prepare highlighter
       int row = event.getEvent().getRange().getStart().getRow();
-      nextHighlightStart_ = Math.min(nextHighlightStart_, row);
-      timer_.schedule(700);
+      task_.invalidateFrom(row, 700);
 
       // update marker positions (deferred so that anchors update)
       Scheduler.get().scheduleDeferred(new ScheduledCommand()
@@ -751,12 +742,10 @@ public class AceEditorBackgroundLinkHighlighter
 
    private final AceEditor editor_;
    private final List<Highlighter> highlighters_;
-   private final Timer timer_;
+   private final BackgroundAnalysisScheduler.Task task_;
    private final List<HandlerRegistration> handlers_;
 
    private SafeMap<Integer, List<MarkerRegistration>> activeMarkers_;
-   private int nextHighlightStart_;
-   private static final int N_HIGHLIGHT_ROWS = 200;
 
    private HandlerRegistration previewHandler_;
    
@@ -85,6 +85,10 @@ public class AceEditorNative extends JavaScriptObject
       this.setOption("relativeLineNumbers", relative);
    }-*/;
 
+   public native final void setFirstLineNumber(int line) /*-{
+      this.setOption("firstLineNumber", line);
+   }-*/;
+
     public native final void setEnableKeyboardAccessibility(boolean keyboardAccessible) /*-{
       this.setOption("enableKeyboardAccessibility", keyboardAccessible);
    }-*/;
@@ -175,6 +175,40 @@ public class EditSession extends JavaScriptObject
       return this.getUndoManager();
    }-*/;
 
+   // ends the current undo group, so that subsequent edits are undone
+   // separately from the ones before them
+   public native final void markUndoGroup() /*-{
+      this.markUndoGroup();
+   }-*/;
+
+   // drops the cached tokens of every line; lines are tokenized again as
+   // they're needed. Returns the number of tokens dropped.
+   public native final int releaseTokens() /*-{
+      var tokenizer = this.bgTokenizer;
+      if (tokenizer == null)
+         return 0;
+
+      var count = 0;
+      var lines = tokenizer.lines;
+      for (var i = 0; i < lines.length; i++)
+         if (lines[i])
+            count += lines[i].length;
+
+      tokenizer.stop();
+      tokenizer.lines = [];
+      tokenizer.states = [];
+      tokenizer.contexts = [];
+      tokenizer.currentLine = 0;
+      return count;
+   }-*/;
+
+   // tokenizes the document again in the background, from the first line
+   public native final void restartTokenizer() /*-{
+      var tokenizer = this.bgTokenizer;
+      if (tokenizer != null)
+         tokenizer.start(0);
+   }-*/;
+
    public native final Document getDocument() /*-{
       return this.getDocument();
    }-*/;
@@ -75,6 +75,15 @@ public class Renderer extends JavaScriptObject
       this.onResize(force);
    }-*/;
 
+   // resizes to a size already measured, so that no layout is read here
+   public native final void onResize(int width, int height, int gutterWidth) /*-{
+      this.onResize(false, gutterWidth, width, height);
+   }-*/;
+
+   public native final int getGutterWidth() /*-{
+      return this.$showGutter ? this.$gutter.offsetWidth : 0;
+   }-*/;
+
    public native final void setHScrollBarAlwaysVisible(boolean on) /*-{
       this.setHScrollBarAlwaysVisible(on);
    }-*/;
@@ -28,4 +28,35 @@ public class UndoManager extends JavaScriptObject
    public native final void markClean() /*-{
       this.markClean();
    }-*/;
+
+   // the undo and redo history as a single JSON string, for restore()
+   public native final String serialize() /*-{
+      return JSON.stringify({
+         undo: this.$undoStack,
+         redo: this.$redoStack,
+         rev: this.$rev,
+         mark: this.mark,
+         redoBaseRev: this.$redoStackBaseRev
+      });
+   }-*/;
+
+   public native final void reset() /*-{
+      this.reset();
+   }-*/;
+
+   // restores the history from serialize(), keeping any edits made since
+   // as the most recent ones; returns whether there were any such edits
+   public native final boolean restore(String json) /*-{
+      var saved = JSON.parse(json);
+      var edited = this.$undoStack.length > 0 || this.$redoStack.length > 0;
+      this.$undoStack = saved.undo.concat(this.$undoStack);
+      if (!edited)
+      {
+         this.$redoStack = saved.redo;
+         this.$rev = saved.rev;
+         this.mark = saved.mark;
+         this.$redoStackBaseRev = saved.redoBaseRev;
+      }
+      return edited;
+   }-*/;
 }
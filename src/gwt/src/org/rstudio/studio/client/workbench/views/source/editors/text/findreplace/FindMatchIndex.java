@@ -0,0 +1,524 @@
+/*
+ * FindMatchIndex.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.findreplace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.core.client.regex.Pattern.ReplaceOperation;
+
+/**
+ * The matches of a find pattern in a document, stored per line. The index is
+ * built in chunks (so large documents don't block the UI) and then kept up to
+ * date as the document changes by rescanning only the lines that changed.
+ *
+ * Only patterns that can't match across a line break can be indexed this way;
+ * see isLineLocal(). The index also computes the edits for Replace All, as one
+ * replacement per changed line rather than a rewrite of the whole document.
+ */
+public class FindMatchIndex
+{
+   public interface Lines
+   {
+      int getLength();
+      String getLine(int row);
+   }
+
+   /**
+    * A document that Replace All edits can be applied to.
+    */
+   public interface Editor
+   {
+      void markUndoGroup();
+      void replace(Replacement replacement);
+   }
+
+   /**
+    * A replacement of the text between two document positions.
+    */
+   public static class Replacement
+   {
+      public Replacement(int startRow, int startColumn,
+                         int endRow, int endColumn,
+                         String text,
+                         int matches)
+      {
+         this.startRow = startRow;
+         this.startColumn = startColumn;
+         this.endRow = endRow;
+         this.endColumn = endColumn;
+         this.text = text;
+         this.matches = matches;
+      }
+
+      public final int startRow;
+      public final int startColumn;
+      public final int endRow;
+      public final int endColumn;
+      public final String text;
+
+      // the number of matches replaced by this edit
+      public final int matches;
+   }
+
+   /**
+    * @param pattern The pattern to index; must be created with the 'g' flag
+    * @param regex Whether the replacement text may refer to the match (e.g.
+    *    $1 or \n), as it can when searching with a regular expression
+    */
+   public FindMatchIndex(Pattern pattern, boolean regex)
+   {
+      pattern_ = pattern;
+      regex_ = regex;
+   }
+
+   /**
+    * Whether the matches of the query are confined to a single line, so that
+    * each line can be searched independently.
+    */
+   public static boolean isLineLocal(String query, boolean regex)
+   {
+      if (query.indexOf('\n') != -1 || query.indexOf('\r') != -1)
+         return false;
+      if (!regex)
+         return true;
+
+      for (String token : MULTILINE_TOKENS)
+      {
+         if (query.contains(token))
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Indexes up to maxRows more rows of the document.
+    *
+    * @return Whether the whole document has now been indexed
+    */
+   public boolean indexRows(Lines lines, int maxRows)
+   {
+      int end = lines.getLength();
+      if (maxRows < end - indexedRows_)
+         end = indexedRows_ + maxRows;
+      for (int row = indexedRows_; row < end; row++)
+      {
+         int[] matches = scan(lines.getLine(row));
+         rows_.add(matches);
+         count_ += size(matches);
+      }
+      indexedRows_ = end;
+      return isComplete(lines);
+   }
+
+   public boolean isComplete(Lines lines)
+   {
+      return indexedRows_ >= lines.getLength();
+   }
+
+   public int getMatchCount()
+   {
+      return count_;
+   }
+
+   /**
+    * Updates the index after text was inserted between startRow and endRow
+    * (the rows of the change's start and end positions).
+    */
+   public void onInsert(Lines lines, int startRow, int endRow)
+   {
+      if (startRow >= indexedRows_)
+         return;
+
+      for (int row = startRow; row < endRow; row++)
+         rows_.add(row + 1, null);
+      indexedRows_ += endRow - startRow;
+
+      for (int row = startRow; row <= endRow; row++)
+         rescan(lines, row);
+   }
+
+   /**
+    * Updates the index after the text between startRow and endRow was
+    * removed.
+    */
+   public void onRemove(Lines lines, int startRow, int endRow)
+   {
+      if (startRow >= indexedRows_)
+         return;
+
+      if (endRow >= indexedRows_)
+      {
+         // the change reaches into the part of the document that hasn't
+         // been indexed yet; resume indexing from the start of the change
+         truncate(startRow);
+         return;
+      }
+
+      for (int row = endRow; row > startRow; row--)
+         count_ -= size(rows_.remove(row));
+      indexedRows_ -= endRow - startRow;
+
+      rescan(lines, startRow);
+   }
+
+   /**
+    * @return The number of matches starting before the given position
+    */
+   public int countBefore(int row, int column)
+   {
+      int count = 0;
+      int end = Math.min(row, indexedRows_);
+      for (int i = 0; i < end; i++)
+         count += size(rows_.get(i));
+
+      if (row < indexedRows_)
+      {
+         int[] matches = rows_.get(row);
+         if (matches != null)
+         {
+            for (int i = 0; i < matches.length && matches[i] < column; i += 2)
+               count++;
+         }
+      }
+      return count;
+   }
+
+   /**
+    * @return Whether there is a match spanning exactly the given columns
+    */
+   public boolean isMatch(int row, int startColumn, int endColumn)
+   {
+      if (row >= indexedRows_)
+         return false;
+
+      int[] matches = rows_.get(row);
+      if (matches == null)
+         return false;
+
+      for (int i = 0; i < matches.length && matches[i] <= startColumn; i += 2)
+      {
+         if (matches[i] == startColumn && matches[i + 1] == endColumn)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Computes the edits that replace every match between the given
+    * positions, in document order and with at most one edit per row. Only
+    * valid once the index is complete.
+    */
+   public List<Replacement> getReplacements(Lines lines,
+                                            int startRow, int startColumn,
+                                            int endRow, int endColumn,
+                                            String replacement)
+   {
+      List<Replacement> result = new ArrayList<>();
+      int lastRow = Math.min(endRow, indexedRows_ - 1);
+      for (int row = startRow; row <= lastRow; row++)
+      {
+         int[] matches = rows_.get(row);
+         if (matches == null)
+            continue;
+
+         int from = row == startRow ? startColumn : 0;
+         int to = row == endRow ? endColumn : Integer.MAX_VALUE;
+
+         String line = lines.getLine(row);
+         StringBuilder text = new StringBuilder();
+         int first = -1;
+         int pos = -1;
+         int count = 0;
+         Match match = regex_ ? pattern_.match(line, 0) : null;
+         for (int i = 0; i < matches.length; i += 2)
+         {
+            int start = matches[i];
+            int end = matches[i + 1];
+            if (regex_)
+               match = advance(match, line, start);
+            if (start < from || end > to)
+               continue;
+
+            if (first == -1)
+               first = start;
+            else
+               text.append(line, pos, start);
+
+            text.append(regex_ && match != null
+                  ? substitute(match, replacement, line)
+                  : replacement);
+            pos = end;
+            count++;
+         }
+
+         if (first != -1)
+            result.add(new Replacement(row, first, row, pos, text.toString(), count));
+      }
+      return result;
+   }
+
+   /**
+    * Computes the edits that replace every match in a block of text, for
+    * patterns that aren't line local and so can't be indexed. Positions are
+    * relative to the start of the text, which begins at the given row.
+    */
+   public static List<Replacement> getReplacements(Pattern pattern,
+                                                   boolean regex,
+                                                   String code,
+                                                   int startRow,
+                                                   int startColumn,
+                                                   String replacement)
+   {
+      List<Replacement> result = new ArrayList<>();
+
+      // track the row and column of the scan position incrementally, rather
+      // than converting each match's offset from the start of the text
+      int row = startRow;
+      int lineStart = -startColumn;
+      int scanned = 0;
+
+      int next = 0;
+      while (next <= code.length())
+      {
+         Match m = pattern.match(code, next);
+         if (m == null)
+            break;
+
+         int index = m.getIndex();
+         int end = index + m.getValue().length();
+
+         for ( ; scanned < index; scanned++)
+         {
+            if (code.charAt(scanned) == '\n')
+            {
+               row++;
+               lineStart = scanned + 1;
+            }
+         }
+         int matchRow = row;
+         int matchColumn = index - lineStart;
+
+         for ( ; scanned < end; scanned++)
+         {
+            if (code.charAt(scanned) == '\n')
+            {
+               row++;
+               lineStart = scanned + 1;
+            }
+         }
+
+         result.add(new Replacement(
+               matchRow, matchColumn,
+               row, end - lineStart,
+               regex ? substitute(m, replacement, code) : replacement,
+               1));
+
+         next = end > index ? end : index + 1;
+      }
+      return result;
+   }
+
+   /**
+    * Applies the edits as individual changes (last first, so that earlier
+    * positions stay valid) within a single undo group, so that the whole
+    * batch can be undone in one step.
+    */
+   public static void applyReplacements(Editor editor,
+                                        List<Replacement> replacements)
+   {
+      if (replacements.isEmpty())
+         return;
+
+      editor.markUndoGroup();
+      try
+      {
+         for (int i = replacements.size() - 1; i >= 0; i--)
+            editor.replace(replacements.get(i));
+      }
+      finally
+      {
+         editor.markUndoGroup();
+      }
+   }
+
+   /**
+    * Expands references to the match (e.g. $1, $&) and escapes (e.g. \n)
+    * in the replacement text.
+    */
+   public static String substitute(final Match match,
+                                   String replacement,
+                                   final String data)
+   {
+      if (replacement.indexOf('$') == -1 && replacement.indexOf('\\') == -1)
+         return replacement;
+
+      return SUBSTITUTION.replaceAll(replacement, new ReplaceOperation()
+      {
+         public String replace(Match m)
+         {
+            char p = m.getValue().charAt(0);
+            char c = m.getValue().charAt(1);
+            switch (p)
+            {
+               case '\\':
+                  switch (c)
+                  {
+                     case '\\':
+                        return "\\";
+                     case 'n':
+                        return "\n";
+                     case 'r':
+                        return "\r";
+                     case 't':
+                        return "\t";
+                  }
+                  break;
+               case '$':
+                  switch (c)
+                  {
+                     case '$':
+                        return "$";
+                     case '&':
+                        return match.getValue();
+                     case '`':
+                        String prefix = data.substring(0, match.getIndex());
+                        int lastLF = prefix.lastIndexOf("\n");
+                        if (lastLF >= 0)
+                           prefix = prefix.substring(lastLF + 1);
+                        return prefix;
+                     case '\'':
+                        String suffix = data.substring(match.getIndex() + match.getValue().length());
+                        int firstBreak = suffix.indexOf("\r");
+                        if (firstBreak < 0)
+                           firstBreak = suffix.indexOf("\n");
+                        if (firstBreak >= 0)
+                           suffix = suffix.substring(0, firstBreak);
+                        return suffix;
+                  }
+                  break;
+            }
+
+            switch (c)
+            {
+               case '1':
+               case '2':
+               case '3':
+               case '4':
+               case '5':
+               case '6':
+               case '7':
+               case '8':
+               case '9':
+                  int index = Integer.parseInt(m.getGroup(1));
+                  String group = match.getGroup(index);
+                  return group == null ? "" : group;
+            }
+            return m.getValue();
+         }
+      });
+   }
+
+   /**
+    * Finds the matches in a line, as pairs of start and end columns, or null
+    * if there are none.
+    */
+   private int[] scan(String line)
+   {
+      int[] matches = null;
+      int size = 0;
+      int next = 0;
+      while (next <= line.length())
+      {
+         Match m = pattern_.match(line, next);
+         if (m == null)
+            break;
+
+         int start = m.getIndex();
+         int end = start + m.getValue().length();
+         if (matches == null)
+            matches = new int[4];
+         else if (size == matches.length)
+            matches = grow(matches);
+         matches[size++] = start;
+         matches[size++] = end;
+
+         // step over empty matches (e.g. for ^ or $) so we don't loop forever
+         next = end > start ? end : start + 1;
+      }
+
+      if (matches != null && size < matches.length)
+      {
+         int[] trimmed = new int[size];
+         System.arraycopy(matches, 0, trimmed, 0, size);
+         matches = trimmed;
+      }
+      return matches;
+   }
+
+   private void rescan(Lines lines, int row)
+   {
+      int[] matches = scan(lines.getLine(row));
+      count_ += size(matches) - size(rows_.set(row, matches));
+   }
+
+   private void truncate(int row)
+   {
+      while (rows_.size() > row)
+         count_ -= size(rows_.remove(rows_.size() - 1));
+      indexedRows_ = row;
+   }
+
+   // re-runs the pattern to find the match at the given column, so that the
+   // replacement can refer to its groups
+   private Match advance(Match match, String line, int column)
+   {
+      while (match != null && match.getIndex() < column)
+      {
+         int end = match.getIndex() + match.getValue().length();
+         match = pattern_.match(line, end > match.getIndex() ? end : match.getIndex() + 1);
+      }
+      return match;
+   }
+
+   private static int size(int[] matches)
+   {
+      return matches == null ? 0 : matches.length / 2;
+   }
+
+   private static int[] grow(int[] matches)
+   {
+      int[] grown = new int[matches.length * 2];
+      System.arraycopy(matches, 0, grown, 0, matches.length);
+      return grown;
+   }
+
+   private final Pattern pattern_;
+   private final boolean regex_;
+   private final ArrayList<int[]> rows_ = new ArrayList<>();
+   private int indexedRows_ = 0;
+   private int count_ = 0;
+
+   private static final Pattern SUBSTITUTION = Pattern.create("[$\\\\]([1-9][0-9]?|.)");
+
+   // regular expression constructs that can match a line break
+   private static final String[] MULTILINE_TOKENS = {
+         "\\n", "\\r", "\\s", "\\S", "\\W", "\\D", "[^",
+         "\\x0a", "\\x0A", "\\x0d", "\\x0D",
+         "\\u000a", "\\u000A", "\\u000d", "\\u000D"
+   };
+}
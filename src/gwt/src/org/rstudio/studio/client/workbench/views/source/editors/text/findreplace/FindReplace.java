@@ -14,7 +14,10 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.text.findreplace;
 
+import java.util.List;
+
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.dom.client.HasClickHandlers;
@@ -22,6 +25,7 @@ import com.google.gwt.event.dom.client.KeyUpEvent;
 import com.google.gwt.event.dom.client.KeyUpHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.HasValue;
 import com.google.gwt.user.client.ui.Widget;
 
@@ -29,14 +33,16 @@ import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.command.KeyboardHelper;
 import org.rstudio.core.client.regex.Match;
 import org.rstudio.core.client.regex.Pattern;
-import org.rstudio.core.client.regex.Pattern.ReplaceOperation;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.workbench.views.source.ViewsSourceConstants;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
 import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay.AnchoredSelection;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.EditSession;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Search;
+import org.rstudio.studio.client.workbench.views.source.editors.text.findreplace.FindMatchIndex.Replacement;
 
 // TODO: For regex mode, stop using Ace's search code and do our own, in order
 //    to avoid bugs with context directives (lookahead/lookbehind, ^, $)
@@ -60,6 +66,7 @@ public class FindReplace
                     boolean inSelection);
 
       void focusFindField(boolean selectAll);
+      void setMatchCount(String text);
       Widget getUnderlyingWidget();
    }
 
@@ -79,6 +86,7 @@ public class FindReplace
          public void onValueChange(ValueChangeEvent<Boolean> event)
          {
             defaultCaseSensitive_ = event.getValue();
+            updateMatchIndex();
          }
       });
 
@@ -88,6 +96,7 @@ public class FindReplace
          public void onValueChange(ValueChangeEvent<Boolean> event)
          {
             defaultWholeWord_ = event.getValue();
+            updateMatchIndex();
          }
       });
 
@@ -97,6 +106,7 @@ public class FindReplace
          public void onValueChange(ValueChangeEvent<Boolean> event)
          {
             defaultRegex_ = event.getValue();
+            updateMatchIndex();
          }
       });
 
@@ -120,6 +130,7 @@ public class FindReplace
             }
             else
                clearTargetSelection();
+            scheduleMatchCountUpdate();
          }
       });
 
@@ -145,9 +156,27 @@ public class FindReplace
             }
             // perform incremental search
             find(defaultForward_ ? FindType.Forward : FindType.Reverse, true);
+            updateMatchIndex();
          }
 
       });
+
+      documentChangedHandler_ = editor_.addDocumentChangedHandler(event ->
+      {
+         if (matchIndex_ == null || replacingAll_)
+            return;
+
+         AceDocumentChangeEventNative change = event.getEvent();
+         int startRow = change.start.getRow();
+         int endRow = change.end.getRow();
+         if (StringUtil.equals(change.getAction(), "insert"))
+            matchIndex_.onInsert(lines_, startRow, endRow);
+         else
+            matchIndex_.onRemove(lines_, startRow, endRow);
+
+         indexMatches();
+         scheduleMatchCountUpdate();
+      });
    }
 
    public void activate(String searchText,
@@ -157,6 +186,7 @@ public class FindReplace
       defaultForward_ = defaultForward;
       incrementalSearchPosition_ = null;
       display_.activate(searchText, defaultForward, inSelection);
+      updateMatchIndex();
    }
 
    public void findNext()
@@ -182,6 +212,8 @@ public class FindReplace
    public void notifyClosing()
    {
       clearTargetSelection();
+      documentChangedHandler_.removeHandler();
+      matchIndex_ = null;
    }
 
    private void addClickHandler(HasClickHandlers hasClickHandlers,
@@ -312,6 +344,7 @@ public class FindReplace
          else
          {
             editor_.revealRange(resultRange, false);
+            scheduleMatchCountUpdate();
             return true;
          }
       }
@@ -341,7 +374,7 @@ public class FindReplace
       {
          String replacement = display_.getReplaceValue().getValue();
          editor_.replaceSelection(display_.getRegex().getValue()
-                                  ? substitute(m, replacement, line)
+                                  ? FindMatchIndex.substitute(m, replacement, line)
                                   : replacement);
 
          if (targetSelection_ != null)
@@ -368,150 +401,230 @@ public class FindReplace
 
    private void replaceAll()
    {
-      String code = null;
-      if (targetSelection_ != null)
-      {
-         Range range = targetSelection_.getRange();
-         code = editor_.getCode(range.getStart(), range.getEnd());
-      }
-      else
-      {
-         code = editor_.getCode();
-      }
-
-      boolean regex = display_.getRegex().getValue();
       String find = display_.getFindValue().getValue();
       String repl = display_.getReplaceValue().getValue();
 
       int occurrences = 0;
       if (find.length() > 0)
       {
-         Pattern pattern = createPattern();
-         StringBuilder result = new StringBuilder();
+         Range range = null;
+         if (targetSelection_ != null)
+            range = targetSelection_.getRange();
 
-         int pos = 0; // pointer into original string
-         for (Match m = pattern.match(code, 0);
-              m != null;
-              m = m.nextMatch())
-         {
-            occurrences++;
+         List<Replacement> replacements = getReplacements(range, repl);
+         for (Replacement replacement : replacements)
+            occurrences += replacement.matches;
 
-            // Add everything between the end of the last match, and this one
-            int index = m.getIndex();
-            result.append(code, pos, index);
+         applyReplacements(replacements);
 
-            // Add the replacement value
-            if (regex)
-               result.append(substitute(m, repl, code));
-            else
-               result.append(repl);
-
-            // Point to the end of this match
-            pos = index + m.getValue().length();
+         if (targetSelection_ != null)
+            targetSelection_.syncMarker();
+      }
+      globalDisplay_.showMessage(GlobalDisplay.MSG_INFO,
+                                 errorCaption_,
+                                 constants_.numberOfOccurrencesReplaced(occurrences));
+   }
 
-            // If the data matched is an empty string (which can happen for
-            // regexps that don't consume characters such as ^ or $), then we
-            // didn't advance the state of the underlying RegExp object, and
-            // we'll loop forever (see case 4191). Bail out.
-            if (m.getValue().length() == 0)
-            {
-               break;
-            }
-         }
-         result.append(code, pos, code.length());
+   // computes the edits for Replace All within the given range (or the
+   // whole document, if it's null)
+   private List<Replacement> getReplacements(Range range, String repl)
+   {
+      boolean regex = display_.getRegex().getValue();
 
-         String newCode = result.toString();
+      updateMatchIndex();
+      if (matchIndex_ != null)
+      {
+         // finish indexing now if it's still in progress
+         matchIndex_.indexRows(lines_, Integer.MAX_VALUE);
 
-         // either replace all or replace just the target range
-         if (targetSelection_ != null)
+         if (range == null)
          {
-            // restore and then replace the selection
-            editor_.setSelectionRange(targetSelection_.getRange());
-            editor_.replaceSelection(newCode, false);
-
-            // reset the target selection
-            resetTargetSelection();
+            return matchIndex_.getReplacements(
+                  lines_, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, repl);
          }
          else
          {
-            editor_.replaceCode(newCode);
+            return matchIndex_.getReplacements(
+                  lines_,
+                  range.getStart().getRow(), range.getStart().getColumn(),
+                  range.getEnd().getRow(), range.getEnd().getColumn(),
+                  repl);
          }
       }
-      globalDisplay_.showMessage(GlobalDisplay.MSG_INFO,
-                                 errorCaption_,
-                                 constants_.numberOfOccurrencesReplaced(occurrences));
+
+      // the pattern may match across lines, so search the text as a whole
+      Pattern pattern = createPattern();
+      if (range == null)
+      {
+         return FindMatchIndex.getReplacements(
+               pattern, regex, editor_.getCode(), 0, 0, repl);
+      }
+      else
+      {
+         return FindMatchIndex.getReplacements(
+               pattern,
+               regex,
+               editor_.getCode(range.getStart(), range.getEnd()),
+               range.getStart().getRow(),
+               range.getStart().getColumn(),
+               repl);
+      }
    }
 
-   private String substitute(final Match match,
-                             String replacement,
-                             final String data)
+   // applies the edits as individual changes rather than replacing the
+   // document's contents; this keeps folds, markers, and breakpoints on
+   // unchanged lines, and lets the whole batch be undone in one step
+   private void applyReplacements(List<Replacement> replacements)
    {
-      Pattern pattern = Pattern.create("[$\\\\]([1-9][0-9]?|.)");
-      return pattern.replaceAll(replacement, new ReplaceOperation()
+      if (replacements.isEmpty())
+         return;
+
+      final EditSession session = editor_.getSession();
+      replacingAll_ = true;
+      try
       {
-         public String replace(Match m)
+         FindMatchIndex.applyReplacements(new FindMatchIndex.Editor()
          {
-            char p = m.getValue().charAt(0);
-            char c = m.getValue().charAt(1);
-            switch (p)
+            @Override
+            public void markUndoGroup()
             {
-               case '\\':
-                  switch (c)
-                  {
-                     case '\\':
-                        return "\\";
-                     case 'n':
-                        return "\n";
-                     case 'r':
-                        return "\r";
-                     case 't':
-                        return "\t";
-                  }
-                  break;
-               case '$':
-                  switch (c)
-                  {
-                     case '$':
-                        return "$";
-                     case '&':
-                        return match.getValue();
-                     case '`':
-                        String prefix = StringUtil.substring(data, 0, match.getIndex());
-                        int lastLF = prefix.lastIndexOf("\n");
-                        if (lastLF > 0)
-                           prefix = StringUtil.substring(prefix, lastLF + 1);
-                        return prefix;
-                     case '\'':
-                        String suffix = StringUtil.substring(data, match.getIndex() + match.getValue().length());
-                        int firstBreak = suffix.indexOf("\r");
-                        if (firstBreak < 0)
-                           firstBreak = suffix.indexOf("\n");
-                        if (firstBreak >= 0)
-                           suffix = StringUtil.substring(suffix, 0, firstBreak);
-                        return suffix;
-                  }
-                  break;
+               session.markUndoGroup();
             }
 
-            switch (c)
+            @Override
+            public void replace(Replacement replacement)
+            {
+               session.replace(Range.create(replacement.startRow,
+                                            replacement.startColumn,
+                                            replacement.endRow,
+                                            replacement.endColumn),
+                               replacement.text);
+            }
+         }, replacements);
+      }
+      finally
+      {
+         replacingAll_ = false;
+      }
+
+      // the index wasn't updated for each edit; rebuild it
+      matchIndexKey_ = null;
+      updateMatchIndex();
+   }
+
+   /**
+    * Rebuilds the match index if the search text or options changed since it
+    * was built.
+    */
+   private void updateMatchIndex()
+   {
+      String find = display_.getFindValue().getValue();
+      boolean regex = display_.getRegex().getValue();
+
+      String key = null;
+      if (find.length() > 0)
+      {
+         key = find + "\n" + regex +
+               "\n" + display_.getCaseSensitive().getValue() +
+               "\n" + display_.getWholeWord().getValue();
+      }
+
+      if (!StringUtil.equals(key, matchIndexKey_))
+      {
+         matchIndexKey_ = key;
+         matchIndex_ = null;
+         if (key != null && FindMatchIndex.isLineLocal(find, regex))
+         {
+            try
             {
-               case '1':
-               case '2':
-               case '3':
-               case '4':
-               case '5':
-               case '6':
-               case '7':
-               case '8':
-               case '9':
-                  int index = Integer.parseInt(m.getGroup(1));
-                  return StringUtil.notNull(match.getGroup(index));
+               matchIndex_ = new FindMatchIndex(createPattern(), regex);
             }
-            return m.getValue();
+            catch (Throwable e)
+            {
+               // invalid regular expression; find() reports the error
+            }
+         }
+         indexMatches();
+      }
+
+      scheduleMatchCountUpdate();
+   }
+
+   // indexes the document in chunks, so large documents don't block the UI
+   private void indexMatches()
+   {
+      if (matchIndex_ == null || indexing_)
+         return;
+
+      indexing_ = true;
+      Scheduler.get().scheduleIncremental(() ->
+      {
+         if (matchIndex_ != null &&
+             !matchIndex_.indexRows(lines_, ROWS_INDEXED_PER_ITERATION))
+         {
+            return true;
          }
+
+         indexing_ = false;
+         scheduleMatchCountUpdate();
+         return false;
       });
    }
 
+   private void scheduleMatchCountUpdate()
+   {
+      if (matchCountPending_)
+         return;
+
+      matchCountPending_ = true;
+      Scheduler.get().scheduleDeferred(() ->
+      {
+         matchCountPending_ = false;
+         updateMatchCount();
+      });
+   }
+
+   private void updateMatchCount()
+   {
+      if (matchIndex_ == null || !matchIndex_.isComplete(lines_))
+      {
+         display_.setMatchCount(null);
+         return;
+      }
+
+      int before = 0;
+      int total = matchIndex_.getMatchCount();
+      if (targetSelection_ != null)
+      {
+         Range range = targetSelection_.getRange();
+         before = matchIndex_.countBefore(range.getStart().getRow(),
+                                          range.getStart().getColumn());
+         total = matchIndex_.countBefore(range.getEnd().getRow(),
+                                         range.getEnd().getColumn()) - before;
+      }
+
+      // if the selection is a match, show which one it is
+      int current = 0;
+      Position start = editor_.getSelectionStart();
+      Position end = editor_.getSelectionEnd();
+      if (start.getRow() == end.getRow() &&
+          matchIndex_.isMatch(start.getRow(), start.getColumn(), end.getColumn()))
+      {
+         current = matchIndex_.countBefore(start.getRow(), start.getColumn()) - before + 1;
+         if (current > total)
+            current = 0;
+      }
+
+      if (total == 0)
+         display_.setMatchCount(constants_.findNoMatches());
+      else if (current > 0)
+         display_.setMatchCount(constants_.findMatchOrdinal(current, total));
+      else if (total == 1)
+         display_.setMatchCount(constants_.findMatchCountOne());
+      else
+         display_.setMatchCount(constants_.findMatchCount(total));
+   }
+
    private final AceEditor editor_;
    private final Display display_;
    private final GlobalDisplay globalDisplay_;
@@ -519,6 +632,27 @@ public class FindReplace
    private boolean defaultForward_ = true;
    private Position incrementalSearchPosition_ = null;
 
+   private final HandlerRegistration documentChangedHandler_;
+   private final FindMatchIndex.Lines lines_ = new FindMatchIndex.Lines()
+   {
+      @Override
+      public int getLength()
+      {
+         return editor_.getSession().getLength();
+      }
+
+      @Override
+      public String getLine(int row)
+      {
+         return editor_.getSession().getLine(row);
+      }
+   };
+   private FindMatchIndex matchIndex_ = null;
+   private String matchIndexKey_ = null;
+   private boolean indexing_ = false;
+   private boolean matchCountPending_ = false;
+   private boolean replacingAll_ = false;
+
    private class TargetSelectionTracker
    {
       public TargetSelectionTracker()
@@ -586,5 +720,6 @@ public class FindReplace
    private static boolean defaultWrapSearch_ = true;
    private static boolean defaultRegex_ = false;
    private static boolean defaultWholeWord_ = false;
+   private static final int ROWS_INDEXED_PER_ITERATION = 2000;
    private static final ViewsSourceConstants constants_ = GWT.create(ViewsSourceConstants.class);
 }
\ No newline at end of file
@@ -59,6 +59,7 @@ public class FindReplaceBar extends Composite implements Display, RequiresResize
       String findPanel();
       String optionsPanel();
       String checkboxLabel();
+      String matchCount();
       String closeButton();
    }
 
@@ -135,6 +136,9 @@ public class FindReplaceBar extends Composite implements Display, RequiresResize
       wrapSearchLabel.addStyleName(RES.styles().checkboxLabel());
       optionsPanel.add(wrapSearchLabel);
 
+      optionsPanel.add(lblMatchCount_ = new Label());
+      lblMatchCount_.addStyleName(RES.styles().matchCount());
+
       panel.add(optionsPanel);
 
       shelf.addLeftWidget(panel);
@@ -325,6 +329,11 @@ public class FindReplaceBar extends Composite implements Display, RequiresResize
       chkInSelection_.setValue(inSelection, true);
    }
 
+   public void setMatchCount(String text)
+   {
+      lblMatchCount_.setText(text == null ? "" : text);
+   }
+
    public void focusFindField(boolean selectAll)
    {
       WindowEx.get().focus();
@@ -387,6 +396,7 @@ public class FindReplaceBar extends Composite implements Display, RequiresResize
    private final CheckBox chkRegEx_;
    private final CheckBox chkWrapSearch_;
    private final CheckBox chkInSelection_;
+   private final Label lblMatchCount_;
    private final Button btnClose_;
    private static final Resources RES = GWT.create(Resources.class);
    private boolean defaultForward_;
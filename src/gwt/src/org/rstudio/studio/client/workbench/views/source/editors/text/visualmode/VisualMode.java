@@ -1553,6 +1553,14 @@ public class VisualMode implements VisualModeEditorSync,
          PanmirrorWidget.create(context, formatSource, options, widgetOptions, view_.getMarkdownToolbar(), kCreationProgressDelayMs, 
             (panmirror) -> {
          
+            // the editor couldn't be loaded; return to source mode
+            if (panmirror == null)
+            {
+               progress_.endProgressOperation();
+               deactivateWithMessage(constants_.unableToActivateVisualModeLoadFailed());
+               return;
+            }
+            
             // save reference to panmirror
             panmirror_ = panmirror;
             
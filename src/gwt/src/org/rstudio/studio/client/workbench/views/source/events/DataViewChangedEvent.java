@@ -28,6 +28,9 @@ public class DataViewChangedEvent extends GwtEvent<DataViewChangedEvent.Handler>
       public final native String getCacheKey()            /*-{ return this.cache_key; }-*/;
       public final native boolean getTypeChanged()        /*-{ return this.type_changed || false; }-*/;
       public final native boolean getStructureChanged()   /*-{ return this.structure_changed || false; }-*/;
+      // whether columns were added, removed, renamed or changed type (rather
+      // than only their values changing); assumed when not reported
+      public final native boolean getColumnsChanged()     /*-{ return this.columns_changed !== false; }-*/;
       public final native boolean getObjectExists()       /*-{ return this.object_exists || false; }-*/;
       public final native JsArrayString getObjectClass()  /*-{ return this.object_class; }-*/;
    }
@@ -35,6 +35,7 @@ import org.rstudio.studio.client.workbench.views.files.model.FilesServerOperatio
 import org.rstudio.studio.client.workbench.views.output.lint.model.LintServerOperations;
 import org.rstudio.studio.client.workbench.views.presentation.model.PresentationServerOperations;
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.ObjectExplorerServerOperations;
+import org.rstudio.studio.client.workbench.views.source.editors.largefile.LargeFileServerOperations;
 import org.rstudio.studio.client.workbench.views.source.editors.text.IconvListResult;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkDefinition;
 import org.rstudio.studio.client.workbench.views.source.events.AvailablePackagesReadyEvent;
@@ -60,6 +61,7 @@ public interface SourceServerOperations extends FilesServerOperations,
                                                 LintServerOperations,
                                                 RSConnectServerOperations,
                                                 ObjectExplorerServerOperations,
+                                                LargeFileServerOperations,
                                                 TestServerOperations,
                                                 QuartoServerOperations,
                                                 CryptoServerOperations,
@@ -28,6 +28,8 @@ import com.google.gwt.text.shared.SafeHtmlRenderer;
 import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
+import com.google.gwt.user.cellview.client.ColumnSortList;
+import com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.LayoutPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
@@ -41,8 +43,11 @@ import org.rstudio.studio.client.workbench.views.vcs.ViewVcsConstants;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
 public abstract class ChangelistTable extends Composite
    implements HasKeyDownHandlers, HasClickHandlers, HasMouseDownHandlers,
@@ -315,6 +320,133 @@ public abstract class ChangelistTable extends Composite
       }
    }
 
+   /**
+    * Updates the rows of the given items, rather than replacing all the items
+    * as setItems does. Items that aren't in the table yet are inserted where
+    * the current sort order puts them.
+    *
+    * @param changed Items to add, or to replace the items with the same path
+    * @param removed Items to remove
+    */
+   public void patchItems(List<StatusAndPath> changed,
+                          List<StatusAndPath> removed)
+   {
+      List<StatusAndPath> list = dataProvider_.getList();
+
+      // with many changes it's cheaper to sort everything once
+      if (changed.size() + removed.size() > MAX_PATCHED_ITEMS)
+      {
+         HashMap<String, StatusAndPath> changedByPath = new HashMap<>();
+         for (StatusAndPath item : changed)
+            changedByPath.put(item.getPath(), item);
+         HashSet<String> removedPaths = new HashSet<>();
+         for (StatusAndPath item : removed)
+            removedPaths.add(item.getPath());
+
+         ArrayList<StatusAndPath> items = new ArrayList<>(list.size() + changed.size());
+         for (StatusAndPath item : list)
+         {
+            if (removedPaths.contains(item.getPath()))
+               continue;
+            StatusAndPath update = changedByPath.remove(item.getPath());
+            items.add(update == null ? item : update);
+         }
+         items.addAll(changedByPath.values());
+         setItems(items);
+         return;
+      }
+
+      HashMap<String, Integer> indexes = new HashMap<>();
+      for (int i = 0; i < list.size(); i++)
+         indexes.put(list.get(i).getPath(), i);
+
+      // replace rows in place where that keeps the sort order; anything else
+      // is removed and inserted again
+      Comparator<StatusAndPath> comparator = getSortComparator();
+      TreeSet<Integer> toRemove = new TreeSet<>();
+      ArrayList<StatusAndPath> toInsert = new ArrayList<>();
+      for (StatusAndPath item : changed)
+      {
+         Integer index = indexes.get(item.getPath());
+         if (index == null)
+         {
+            toInsert.add(item);
+         }
+         else if (isInOrder(list, index, item, comparator))
+         {
+            list.set(index, item);
+         }
+         else
+         {
+            toRemove.add(index);
+            toInsert.add(item);
+         }
+      }
+      for (StatusAndPath item : removed)
+      {
+         Integer index = indexes.get(item.getPath());
+         if (index != null)
+            toRemove.add(index);
+      }
+
+      // remove from the end, so the remaining indexes stay valid
+      for (Integer index : toRemove.descendingSet())
+         list.remove(index.intValue());
+
+      for (StatusAndPath item : toInsert)
+         list.add(getInsertionIndex(list, item, comparator), item);
+
+      table_.setPageSize(list.size());
+   }
+
+   // the comparator for the table's current sort order, or null if unsorted
+   @SuppressWarnings("unchecked")
+   private Comparator<StatusAndPath> getSortComparator()
+   {
+      ColumnSortList sortList = table_.getColumnSortList();
+      if (sortList.size() == 0)
+         return null;
+
+      ColumnSortInfo info = sortList.get(0);
+      final Comparator<StatusAndPath> comparator = sortHandler_.getComparator(
+            (Column<StatusAndPath, ?>) info.getColumn());
+      if (comparator == null || info.isAscending())
+         return comparator;
+      return (a, b) -> comparator.compare(b, a);
+   }
+
+   private static boolean isInOrder(List<StatusAndPath> list,
+                                    int index,
+                                    StatusAndPath item,
+                                    Comparator<StatusAndPath> comparator)
+   {
+      if (comparator == null)
+         return true;
+      return (index == 0 || comparator.compare(list.get(index - 1), item) <= 0) &&
+             (index == list.size() - 1 || comparator.compare(item, list.get(index + 1)) <= 0);
+   }
+
+   // the index after the last item that sorts no later than the given one
+   private static int getInsertionIndex(List<StatusAndPath> list,
+                                        StatusAndPath item,
+                                        Comparator<StatusAndPath> comparator)
+   {
+      if (comparator == null)
+         return list.size();
+
+      int lo = 0;
+      int hi = list.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (comparator.compare(list.get(mid), item) <= 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
    public ArrayList<StatusAndPath> getSelectedItems()
    {
       SelectionModel<? super StatusAndPath> selectionModel = table_.getSelectionModel();
@@ -432,6 +564,9 @@ public abstract class ChangelistTable extends Composite
    private ScrollPanel scrollPanel_;
    private ChangelistInfoBar infoBar_;
    private boolean selectFirstItemByDefault_;
+
+   // beyond this many changed items, patchItems replaces all the items
+   private static final int MAX_PATCHED_ITEMS = 200;
    private static final ChangelistTableCellTableResources resources_ = GWT.<ChangelistTableCellTableResources>create(ChangelistTableCellTableResources.class);
    private static final ViewVcsConstants constants_ = GWT.create(ViewVcsConstants.class);
 }
\ No newline at end of file
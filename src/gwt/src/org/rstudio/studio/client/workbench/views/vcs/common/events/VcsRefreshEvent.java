@@ -16,6 +16,9 @@ package org.rstudio.studio.client.workbench.views.vcs.common.events;
 
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
+import org.rstudio.studio.client.common.vcs.StatusAndPath;
+
+import java.util.List;
 
 public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
 {
@@ -23,6 +26,8 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
 
    private final Reason reason_;
    private final int delayMs_;
+   private final List<StatusAndPath> changed_;
+   private final List<StatusAndPath> removed_;
 
    public static final Type<Handler> TYPE = new Type<>();
 
@@ -40,6 +45,24 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
    {
       reason_ = reason;
       delayMs_ = delayMs;
+      changed_ = null;
+      removed_ = null;
+   }
+
+   /**
+    * Creates an event reporting a batch of changes to the statuses of
+    * individual files.
+    *
+    * @param changed The statuses that were added or changed
+    * @param removed The statuses that were removed (the files are unmodified)
+    */
+   public VcsRefreshEvent(List<StatusAndPath> changed,
+                          List<StatusAndPath> removed)
+   {
+      reason_ = Reason.FileChange;
+      delayMs_ = 0;
+      changed_ = changed;
+      removed_ = removed;
    }
 
    public Reason getReason()
@@ -52,6 +75,25 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
       return delayMs_;
    }
 
+   /**
+    * @return Whether this event reports which statuses changed; if not, any
+    *    of them may have changed
+    */
+   public boolean hasChanges()
+   {
+      return changed_ != null;
+   }
+
+   public List<StatusAndPath> getChanged()
+   {
+      return changed_;
+   }
+
+   public List<StatusAndPath> getRemoved()
+   {
+      return removed_;
+   }
+
    @Override
    public Type<Handler> getAssociatedType()
    {
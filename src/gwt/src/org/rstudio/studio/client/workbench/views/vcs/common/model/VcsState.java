@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.common.model;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
@@ -35,6 +36,8 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 public abstract class VcsState
 {
@@ -102,27 +105,7 @@ public abstract class VcsState
             }
 
             if (status_ != null && status != null)
-            {
-               for (int i = 0; i < status_.size(); i++)
-               {
-                  if (status.getRawPath() == status_.get(i).getRawPath())
-                  {
-                     if (StringUtil.notNull(status.getStatus()).trim().length() == 0)
-                        status_.remove(i);
-                     else
-                        status_.set(i, status);
-                     handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
-                     return;
-                  }
-               }
-
-               if (status.getStatus().trim().length() != 0)
-               {
-                  status_.add(status);
-                  handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
-                  return;
-               }
-            }
+               onFileStatusChanged(status);
          }
       }));
    }
@@ -162,6 +145,88 @@ public abstract class VcsState
       return status_;
    }
 
+   /**
+    * Replaces the statuses of all files, e.g. after a full refresh. Any file
+    * changes not yet reported are dropped, since the new statuses include
+    * them.
+    */
+   protected void setStatus(ArrayList<StatusAndPath> status)
+   {
+      status_ = status;
+      statusIndex_.clear();
+      pendingChanged_.clear();
+      pendingRemoved_.clear();
+      if (status_ != null)
+      {
+         for (int i = 0; i < status_.size(); i++)
+            statusIndex_.put(status_.get(i).getRawPath(), i);
+      }
+   }
+
+   private void onFileStatusChanged(StatusAndPath status)
+   {
+      String key = status.getRawPath();
+      boolean clean = StringUtil.notNull(status.getStatus()).trim().length() == 0;
+      Integer index = statusIndex_.get(key);
+
+      if (index == null)
+      {
+         if (clean)
+            return;
+
+         statusIndex_.put(key, status_.size());
+         status_.add(status);
+         pendingRemoved_.remove(key);
+         pendingChanged_.put(key, status);
+      }
+      else if (clean)
+      {
+         StatusAndPath removed = status_.get(index);
+
+         // move the last status into the removed one's place, so that no
+         // other index needs updating
+         int last = status_.size() - 1;
+         StatusAndPath moved = status_.remove(last);
+         statusIndex_.remove(key);
+         if (index != last)
+         {
+            status_.set(index, moved);
+            statusIndex_.put(moved.getRawPath(), index);
+         }
+
+         pendingChanged_.remove(key);
+         pendingRemoved_.put(key, removed);
+      }
+      else
+      {
+         status_.set(index, status);
+         pendingRemoved_.remove(key);
+         pendingChanged_.put(key, status);
+      }
+
+      // a burst of file changes (e.g. from a checkout or a build) is reported
+      // as a single refresh, once per frame
+      if (!flushScheduled_)
+      {
+         flushScheduled_ = true;
+         AnimationScheduler.get().requestAnimationFrame(timestamp -> flushFileChanges());
+      }
+   }
+
+   private void flushFileChanges()
+   {
+      flushScheduled_ = false;
+      if (pendingChanged_.isEmpty() && pendingRemoved_.isEmpty())
+         return;
+
+      VcsRefreshEvent event = new VcsRefreshEvent(
+            new ArrayList<>(pendingChanged_.values()),
+            new ArrayList<>(pendingRemoved_.values()));
+      pendingChanged_.clear();
+      pendingRemoved_.clear();
+      handlers_.fireEvent(event);
+   }
+
    public void refresh()
    {
       if (session_.getSessionInfo().isVcsEnabled())
@@ -178,6 +243,15 @@ public abstract class VcsState
 
    protected final HandlerManager handlers_ = new HandlerManager(this);
    protected ArrayList<StatusAndPath> status_;
+
+   // raw path -> index of its status in status_
+   private final HashMap<String, Integer> statusIndex_ = new HashMap<>();
+
+   // file changes not yet reported to handlers, keyed by raw path
+   private final LinkedHashMap<String, StatusAndPath> pendingChanged_ = new LinkedHashMap<>();
+   private final LinkedHashMap<String, StatusAndPath> pendingRemoved_ = new LinkedHashMap<>();
+   private boolean flushScheduled_ = false;
+
    protected final EventBus eventBus_;
    protected final GlobalDisplay globalDisplay_;
    protected final Session session_;
@@ -68,6 +68,13 @@ public class GitChangelistTablePresenter
          @Override
          public void onVcsRefresh(VcsRefreshEvent event)
          {
+            // when only some files changed, only their rows need updating
+            if (event.hasChanges())
+            {
+               view_.patchItems(event.getChanged(), event.getRemoved());
+               return;
+            }
+
             view_.setItems(gitState_.getStatus());
 
             RemoteBranchInfo remote = gitState_.getRemoteBranchInfo();
@@ -98,6 +98,11 @@ public class GitPresenter extends BaseVcsPresenter implements IsWidget
          @Override
          public void onVcsRefresh(VcsRefreshEvent event)
          {
+            // the changelist table presenter patches the rows of files whose
+            // status changed, so there's no need to replace them all here
+            if (event.hasChanges())
+               return;
+
             view_.setItems(gitState_.getStatus());
          }
       });
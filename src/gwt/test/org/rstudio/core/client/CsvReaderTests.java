@@ -0,0 +1,112 @@
+/*
+ * CsvReaderTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class CsvReaderTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testDefaults()
+   {
+      List<String[]> records = read(new CsvReader("a,b,c\n1,,3\n"));
+      assertEquals(2, records.size());
+      assertRecord(records.get(0), "a", "b", "c");
+      assertRecord(records.get(1), "1", "", "3");
+   }
+
+   public void testNoTrailingNewline()
+   {
+      List<String[]> records = read(new CsvReader("a,b\n1,2"));
+      assertEquals(2, records.size());
+      assertRecord(records.get(1), "1", "2");
+   }
+
+   public void testCarriageReturns()
+   {
+      List<String[]> records = read(new CsvReader("a,b\r\n1,2\r\n"));
+      assertEquals(2, records.size());
+      assertRecord(records.get(0), "a", "b");
+      assertRecord(records.get(1), "1", "2");
+   }
+
+   public void testQuotedFields()
+   {
+      // quoted fields may contain delimiters, newlines, and doubled quotes
+      List<String[]> records = read(new CsvReader(
+            "\"Smith, J\",\"line 1\nline 2\",\"said \"\"hi\"\"\"\n"));
+      assertEquals(1, records.size());
+      assertRecord(records.get(0), "Smith, J", "line 1\nline 2", "said \"hi\"");
+   }
+
+   public void testQuoteInsideUnquotedField()
+   {
+      // a quote only opens a quoted field at the start of the field
+      List<String[]> records = read(new CsvReader("5\"2,x\n"));
+      assertRecord(records.get(0), "5\"2", "x");
+   }
+
+   public void testDelimiter()
+   {
+      List<String[]> records = read(new CsvReader("a;b\n1,5;\"x;y\"\n", ';', '"'));
+      assertRecord(records.get(0), "a", "b");
+      assertRecord(records.get(1), "1,5", "x;y");
+
+      records = read(new CsvReader("a\tb\n1\t2\n", '\t', '"'));
+      assertRecord(records.get(0), "a", "b");
+      assertRecord(records.get(1), "1", "2");
+   }
+
+   public void testSingleQuote()
+   {
+      List<String[]> records = read(new CsvReader("'x,y','it''s',\"z\"\n", ',', '\''));
+      assertRecord(records.get(0), "x,y", "it's", "\"z\"");
+   }
+
+   public void testNoQuote()
+   {
+      // with quoting disabled, quote characters are ordinary characters and
+      // delimiters and newlines always separate
+      List<String[]> records = read(new CsvReader(
+            "\"a,b\",\"c\"\n\"x\ny\"\n", ',', CsvReader.NO_QUOTE));
+      assertEquals(3, records.size());
+      assertRecord(records.get(0), "\"a", "b\"", "\"c\"");
+      assertRecord(records.get(1), "\"x");
+      assertRecord(records.get(2), "y\"");
+   }
+
+   private static List<String[]> read(CsvReader reader)
+   {
+      List<String[]> records = new ArrayList<>();
+      for (String[] record : reader)
+         records.add(record);
+      return records;
+   }
+
+   private static void assertRecord(String[] record, String... expected)
+   {
+      assertEquals(expected.length, record.length);
+      for (int i = 0; i < expected.length; i++)
+         assertEquals(expected[i], record[i]);
+   }
+}
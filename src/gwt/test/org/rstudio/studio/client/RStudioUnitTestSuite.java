@@ -16,6 +16,7 @@ package org.rstudio.studio.client;
 
 import org.rstudio.core.client.AnsiCodeTests;
 import org.rstudio.core.client.ConsoleOutputWriterTests;
+import org.rstudio.core.client.CsvReaderTests;
 import org.rstudio.core.client.ElementIdsTests;
 import org.rstudio.core.client.SafeHtmlUtilTests;
 import org.rstudio.core.client.StringUtilTests;
@@ -26,10 +27,18 @@ import org.rstudio.core.client.dom.DomUtilsTests;
 import org.rstudio.studio.client.application.ApplicationUtilsTests;
 import org.rstudio.studio.client.application.model.SessionScopeTests;
 import org.rstudio.studio.client.common.r.RTokenizerTests;
+import org.rstudio.studio.client.palette.model.CommandPaletteIndexTests;
+import org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCacheTests;
 import org.rstudio.studio.client.projects.model.ProjectMRUEntryTests;
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeployManifestTests;
+import org.rstudio.studio.client.workbench.views.ai.model.AiEventPayloadTests;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionColumnsTests;
+import org.rstudio.studio.client.workbench.views.environment.dataimport.DataImportSampleParserTests;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobManagerTests;
 import org.rstudio.studio.client.workbench.views.jobs.view.JobsListTests;
+import org.rstudio.studio.client.workbench.views.output.find.FindResultStoreTests;
 import org.rstudio.studio.client.workbench.views.source.editors.text.assist.RChunkHeaderParserTests;
+import org.rstudio.studio.client.workbench.views.source.editors.text.findreplace.FindMatchIndexTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalLocalEchoTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalSessionSocketTests;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkContextUiTests;
@@ -65,6 +74,15 @@ public class RStudioUnitTestSuite extends GWTTestSuite
       suite.addTestSuite(TestMocks.class);
       suite.addTestSuite(ApplicationUtilsTests.class);
       suite.addTestSuite(ProjectMRUEntryTests.class);
+      suite.addTestSuite(AiEventPayloadTests.class);
+      suite.addTestSuite(PanmirrorPandocBlockCacheTests.class);
+      suite.addTestSuite(CsvReaderTests.class);
+      suite.addTestSuite(DataImportSampleParserTests.class);
+      suite.addTestSuite(CommandPaletteIndexTests.class);
+      suite.addTestSuite(FindMatchIndexTests.class);
+      suite.addTestSuite(CompletionColumnsTests.class);
+      suite.addTestSuite(FindResultStoreTests.class);
+      suite.addTestSuite(RSConnectDeployManifestTests.class);
 
       return suite;
    }
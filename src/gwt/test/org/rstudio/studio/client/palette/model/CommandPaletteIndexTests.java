@@ -0,0 +1,335 @@
+/*
+ * CommandPaletteIndexTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.palette.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.studio.client.palette.events.PaletteItemInvokedEvent;
+
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.Widget;
+
+public class CommandPaletteIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testMatchOrdering()
+   {
+      CommandPaletteIndex index = new CommandPaletteIndex(null);
+      index.addProvider(new FakeProvider(SCOPE,
+            item("unsaved", "Unsaved Changes"),
+            item("savings", "Show Savings"),
+            item("version", "Set Active Version"),
+            item("saveall", "Save All"),
+            item("close", "Close"),
+            item("save", "Save")));
+
+      // whole words first, then word prefixes, then substrings, then
+      // subsequences; ties keep the provider's order
+      assertIds(index.search(keywords("save")),
+            "saveall", "save", "savings", "unsaved", "version");
+
+      // every keyword has to match
+      assertIds(index.search(keywords("save all")), "saveall");
+      assertIds(index.search(keywords("save nothing")));
+   }
+
+   public void testShortKeywordsDontMatchFuzzily()
+   {
+      CommandPaletteIndex index = new CommandPaletteIndex(null);
+      index.addProvider(new FakeProvider(SCOPE,
+            item("save", "Save"),
+            item("version", "Set Active Version")));
+
+      assertIds(index.search(keywords("sa")), "save");
+
+      // the refined keyword is long enough to match as a subsequence, so
+      // the previous matches can't be reused
+      assertIds(index.search(keywords("sav")), "save", "version");
+   }
+
+   public void testRefinedSearchMatchesFreshSearch()
+   {
+      // typing narrows the previous matches; the results should be the same
+      // as searching from scratch
+      CommandPaletteIndex refined = index();
+      for (String query: new String[] { "s", "se", "set", "set ", "set a", "set ac", "se" })
+      {
+         assertEquals(query,
+               ids(index().search(keywords(query))),
+               ids(refined.search(keywords(query))));
+      }
+   }
+
+   public void testEmptySearchReturnsEverything()
+   {
+      assertIds(index().search(keywords("")),
+            "save", "saveall", "version", "close");
+   }
+
+   public void testRecencyOrdering()
+   {
+      CommandPaletteIndex index = new CommandPaletteIndex(Arrays.asList(
+            new CommandPaletteMruEntry(SCOPE, "version"),
+            new CommandPaletteMruEntry("other", "save"),
+            new CommandPaletteMruEntry(SCOPE, "saveall")));
+
+      List<CommandPaletteItem> items = items();
+      index.addProvider(new FakeProvider(SCOPE, items));
+
+      // recently used items come first, most recent first, however well
+      // they match; MRU entries from other scopes don't count
+      assertIds(index.search(keywords("sav")), "version", "saveall", "save");
+      assertIds(index.search(keywords("")), "version", "saveall", "save", "close");
+
+      assertFalse(items.get(0).getIsMru());
+      assertTrue(items.get(1).getIsMru());
+      assertTrue(items.get(2).getIsMru());
+      assertFalse(items.get(3).getIsMru());
+   }
+
+   public void testRecentItemsOutsideProviderList()
+   {
+      CommandPaletteIndex index = new CommandPaletteIndex(Arrays.asList(
+            new CommandPaletteMruEntry(SCOPE, "hidden"),
+            new CommandPaletteMruEntry(SCOPE, "missing")));
+
+      FakeProvider provider = new FakeProvider(SCOPE, items());
+      provider.extra.put("hidden", item("hidden", "Save Hidden"));
+      index.addProvider(provider);
+
+      // recently used items the provider doesn't list are looked up by ID
+      assertIds(index.search(keywords("save")), "hidden", "save", "saveall", "version");
+      assertTrue(provider.extra.get("hidden").getIsMru());
+   }
+
+   public void testReplacedItemsAreReleased()
+   {
+      CommandPaletteIndex index = new CommandPaletteIndex(null);
+      FakeItem close = item("close", "Close");
+      FakeItem save = item("save", "Save");
+      FakeItem other = item("other", "Save Other");
+      index.addProvider(new FakeProvider("other", other));
+      assertTrue(index.addProvider(new FakeProvider(SCOPE, close, save)).isEmpty());
+
+      // attach invocation handlers as the palette does when it renders items
+      Map<CommandPaletteItem, HandlerRegistration> registrations = new HashMap<>();
+      for (CommandPaletteItem item: index.search(keywords("")))
+         registrations.put(item, item.addInvokeHandler((evt) -> {}));
+
+      // the provider drops one item, keeps another, and adds a new one
+      FakeItem saveAll = item("saveall", "Save All");
+      List<CommandPaletteItem> replaced =
+            index.addProvider(new FakeProvider(SCOPE, save, saveAll));
+      assertEquals(1, replaced.size());
+      assertSame(close, replaced.get(0));
+
+      for (CommandPaletteItem item: replaced)
+         registrations.remove(item).removeHandler();
+
+      assertEquals(0, close.getInvokeHandlerCount());
+      assertEquals(1, save.getInvokeHandlerCount());
+      assertEquals(1, other.getInvokeHandlerCount());
+
+      // replaced items are no longer found; other scopes are untouched
+      assertIds(index.search(keywords("")), "other", "save", "saveall");
+      assertIds(index.search(keywords("close")));
+   }
+
+   // Helpers ----
+
+   private static CommandPaletteIndex index()
+   {
+      CommandPaletteIndex index = new CommandPaletteIndex(null);
+      index.addProvider(new FakeProvider(SCOPE, items()));
+      return index;
+   }
+
+   private static List<CommandPaletteItem> items()
+   {
+      return new ArrayList<>(Arrays.asList(
+            item("save", "Save"),
+            item("saveall", "Save All"),
+            item("version", "Set Active Version"),
+            item("close", "Close")));
+   }
+
+   private static FakeItem item(String id, String label)
+   {
+      return new FakeItem(id, label);
+   }
+
+   private static String[] keywords(String query)
+   {
+      return query.toLowerCase().split(" ");
+   }
+
+   private static List<String> ids(List<CommandPaletteItem> items)
+   {
+      List<String> ids = new ArrayList<>();
+      for (CommandPaletteItem item: items)
+         ids.add(item.getId());
+      return ids;
+   }
+
+   private static void assertIds(List<CommandPaletteItem> items, String... expected)
+   {
+      assertEquals(Arrays.asList(expected), ids(items));
+   }
+
+   private static class FakeProvider implements CommandPaletteEntryProvider
+   {
+      FakeProvider(String scope, CommandPaletteItem... items)
+      {
+         this(scope, Arrays.asList(items));
+      }
+
+      FakeProvider(String scope, List<CommandPaletteItem> items)
+      {
+         scope_ = scope;
+         items_ = items;
+      }
+
+      @Override
+      public List<CommandPaletteItem> getCommandPaletteItems()
+      {
+         return items_;
+      }
+
+      @Override
+      public CommandPaletteItem getCommandPaletteItem(String id)
+      {
+         return extra.get(id);
+      }
+
+      @Override
+      public String getProviderScope()
+      {
+         return scope_;
+      }
+
+      final Map<String, CommandPaletteItem> extra = new HashMap<>();
+
+      private final String scope_;
+      private final List<CommandPaletteItem> items_;
+   }
+
+   private static class FakeItem implements CommandPaletteItem
+   {
+      FakeItem(String id, String label)
+      {
+         id_ = id;
+         label_ = label;
+      }
+
+      int getInvokeHandlerCount()
+      {
+         return handlers_.getHandlerCount(PaletteItemInvokedEvent.TYPE);
+      }
+
+      @Override
+      public Widget asWidget()
+      {
+         return null;
+      }
+
+      @Override
+      public void fireEvent(GwtEvent<?> event)
+      {
+         handlers_.fireEvent(event);
+      }
+
+      @Override
+      public boolean isRendered()
+      {
+         return false;
+      }
+
+      @Override
+      public void invoke(InvocationSource source)
+      {
+      }
+
+      @Override
+      public void setIsMru(boolean isMru)
+      {
+         isMru_ = isMru;
+      }
+
+      @Override
+      public boolean getIsMru()
+      {
+         return isMru_;
+      }
+
+      @Override
+      public HandlerRegistration addInvokeHandler(PaletteItemInvokedEvent.Handler handler)
+      {
+         return handlers_.addHandler(PaletteItemInvokedEvent.TYPE, handler);
+      }
+
+      @Override
+      public String getSearchText()
+      {
+         return label_;
+      }
+
+      @Override
+      public boolean matchesSearch(String[] keywords)
+      {
+         return false;
+      }
+
+      @Override
+      public void setSearchHighlight(String[] keywords)
+      {
+      }
+
+      @Override
+      public boolean dismissOnInvoke()
+      {
+         return true;
+      }
+
+      @Override
+      public void setSelected(boolean selected)
+      {
+      }
+
+      @Override
+      public String getId()
+      {
+         return id_;
+      }
+
+      private final String id_;
+      private final String label_;
+      private final HandlerManager handlers_ = new HandlerManager(this);
+      private boolean isMru_;
+   }
+
+   private static final String SCOPE = "test";
+}
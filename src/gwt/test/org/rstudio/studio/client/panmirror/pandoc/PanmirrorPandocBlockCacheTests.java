@@ -0,0 +1,564 @@
+/*
+ * PanmirrorPandocBlockCacheTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.panmirror.pandoc;
+
+import java.util.List;
+
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class PanmirrorPandocBlockCacheTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   // Markdown splitting ----
+
+   public void testSplitMarkdownSections()
+   {
+      String markdown = document(40, null);
+      List<String> sections = PanmirrorPandocBlockCache.splitMarkdown(markdown);
+      assertNotNull(sections);
+
+      // the front matter, then one section per heading
+      assertEquals(41, sections.size());
+      assertTrue(sections.get(0).startsWith("---\n"));
+      assertTrue(sections.get(1).startsWith("## Section 1\n"));
+      assertTrue(sections.get(40).startsWith("## Section 40\n"));
+
+      // nothing is lost between sections
+      assertEquals(markdown.trim(), String.join("\n\n", sections));
+   }
+
+   public void testSplitMarkdownSmallDocument()
+   {
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(document(3, null)));
+   }
+
+   public void testSplitMarkdownIgnoresHeadingsInBlocks()
+   {
+      String markdown = document(40, "```\n\n## Not a Section\n\n```\n\n" +
+                                     "::: note\n\n## Nor This\n\n:::");
+      List<String> sections = PanmirrorPandocBlockCache.splitMarkdown(markdown);
+      assertNotNull(sections);
+      assertEquals(41, sections.size());
+   }
+
+   public void testSplitMarkdownCrossSectionConstructs()
+   {
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(
+            document(40, "See the note.[^1]\n\n[^1]: A footnote.")));
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(
+            document(40, "A [link][ref].\n\n[ref]: https://example.com")));
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(
+            document(40, "See [Section 2] for details.")));
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(
+            document(40, "<div>\n\nspans sections\n\n</div>")));
+   }
+
+   public void testSplitMarkdownHeadingCollision()
+   {
+      // pandoc names these 'setup' and 'setup-1' across the whole document
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(
+            document(40, "## Setup\n\nOne.\n\n## Setup\n\nTwo.")));
+
+      // and these would both be 'results' (or 'results-1')
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(
+            document(40, "## Results\n\nOne.\n\n## Other {#results}\n\nTwo.")));
+   }
+
+   // Sentinel splitting ----
+
+   public void testSplitAstOnSentinel()
+   {
+      JavaScriptObject ast = convertMarkdown(
+            "# One\n\nfirst\n\n" + PanmirrorPandocBlockCache.SENTINEL + "\n\n" +
+            "# Two\n\n" + PanmirrorPandocBlockCache.SENTINEL + "\n\n" +
+            "# Three\n\nthird\n\nmore");
+
+      JsArray<JavaScriptObject> groups =
+            PanmirrorPandocBlockCache.splitAstOnSentinel(ast);
+      assertEquals(3, groups.length());
+      assertEquals(2, length(groups.get(0)));
+      assertEquals(1, length(groups.get(1)));
+      assertEquals(3, length(groups.get(2)));
+   }
+
+   public void testSplitMarkdownBatch()
+   {
+      String sentinel = PanmirrorPandocBlockCache.SENTINEL;
+      String[] pieces = PanmirrorPandocBlockCache.splitMarkdownBatch(
+            "# One\n\nfirst\n\n" + sentinel + "\n\n# Two\n\n" + sentinel + "\n\n# Three\n");
+      assertEquals(3, pieces.length);
+      assertEquals("# One\n\nfirst\n", pieces[0]);
+      assertEquals("\n# Two\n", pieces[1]);
+      assertEquals("\n# Three\n", pieces[2]);
+
+      // the sentinel only separates when it's a paragraph of its own
+      pieces = PanmirrorPandocBlockCache.splitMarkdownBatch(
+            "# One\n\ntext " + sentinel + " text\n");
+      assertEquals(1, pieces.length);
+   }
+
+   public void testDocumentContainingSentinel()
+   {
+      // a document with its own sentinel paragraph is never split, since the
+      // batch would split back into the wrong sections
+      String markdown = document(40, PanmirrorPandocBlockCache.SENTINEL);
+      assertNull(PanmirrorPandocBlockCache.splitMarkdown(markdown));
+
+      FakePandocServer server = new FakePandocServer();
+      PanmirrorPandocBlockCache cache = new PanmirrorPandocBlockCache(server);
+
+      Result<JavaScriptObject> ast = markdownToAst(cache, markdown);
+      assertEquals(1, server.calls);
+      assertEquals(markdown, server.lastMarkdown);
+      assertEquals(stringify(convertMarkdown(markdown)), stringify(ast.value));
+
+      Result<String> roundTrip = astToMarkdown(cache, ast.value);
+      assertEquals(2, server.calls);
+      assertSame(ast.value, server.lastAst);
+      assertEquals(writeMarkdown(ast.value), roundTrip.value);
+   }
+
+   // Fallback ----
+
+   public void testHeadingCollisionConvertsWhole()
+   {
+      String markdown = document(40, "## Setup\n\nOne.\n\n## Setup\n\nTwo.");
+
+      FakePandocServer server = new FakePandocServer();
+      PanmirrorPandocBlockCache cache = new PanmirrorPandocBlockCache(server);
+
+      Result<JavaScriptObject> ast = markdownToAst(cache, markdown);
+      assertEquals(1, server.calls);
+      assertEquals(markdown, server.lastMarkdown);
+      assertEquals(stringify(convertMarkdown(markdown)), stringify(ast.value));
+
+      // the AST side detects the collision independently
+      astToMarkdown(cache, ast.value);
+      assertEquals(2, server.calls);
+      assertSame(ast.value, server.lastAst);
+   }
+
+   public void testUnevenBatchConvertsWhole()
+   {
+      String markdown = document(40, null);
+
+      // a server that swallows the sentinels, as pandoc might if one were
+      // absorbed into a preceding block
+      FakePandocServer server = new FakePandocServer();
+      server.dropSentinels = true;
+      PanmirrorPandocBlockCache cache = new PanmirrorPandocBlockCache(server);
+
+      Result<JavaScriptObject> ast = markdownToAst(cache, markdown);
+      assertEquals(2, server.calls);
+      assertEquals(markdown, server.lastMarkdown);
+      assertEquals(stringify(convertMarkdown(markdown)), stringify(ast.value));
+
+      Result<String> result = astToMarkdown(cache, ast.value);
+      assertEquals(4, server.calls);
+      assertSame(ast.value, server.lastAst);
+      assertEquals(writeMarkdown(ast.value), result.value);
+   }
+
+   // Cached vs. full conversion ----
+
+   public void testCachedMarkdownToAstMatchesFull()
+   {
+      FakePandocServer server = new FakePandocServer();
+      PanmirrorPandocBlockCache cache = new PanmirrorPandocBlockCache(server);
+
+      // first conversion: every section is sent, in one batch
+      String markdown = document(40, null);
+      Result<JavaScriptObject> ast = markdownToAst(cache, markdown);
+      assertEquals(1, server.calls);
+      assertTrue(server.lastMarkdown.contains(PanmirrorPandocBlockCache.SENTINEL));
+      assertEquals(stringify(convertMarkdown(markdown)), stringify(ast.value));
+
+      // unchanged: served entirely from the cache
+      ast = markdownToAst(cache, markdown);
+      assertEquals(1, server.calls);
+      assertEquals(stringify(convertMarkdown(markdown)), stringify(ast.value));
+
+      // one section edited: only it is sent
+      String edited = markdown.replace("Paragraph 2 of section 7.",
+                                       "An edited paragraph in section 7.");
+      ast = markdownToAst(cache, edited);
+      assertEquals(2, server.calls);
+      assertFalse(server.lastMarkdown.contains(PanmirrorPandocBlockCache.SENTINEL));
+      assertTrue(server.lastMarkdown.startsWith("## Section 7\n"));
+      assertEquals(stringify(convertMarkdown(edited)), stringify(ast.value));
+
+      // front matter edited: the metadata follows the first section
+      String retitled = edited.replace("title: Analysis", "title: Revised");
+      ast = markdownToAst(cache, retitled);
+      assertEquals(3, server.calls);
+      assertEquals(stringify(convertMarkdown(retitled)), stringify(ast.value));
+   }
+
+   public void testCachedAstToMarkdownMatchesFull()
+   {
+      FakePandocServer server = new FakePandocServer();
+      PanmirrorPandocBlockCache cache = new PanmirrorPandocBlockCache(server);
+
+      JavaScriptObject ast = convertMarkdown(document(40, null));
+      Result<String> markdown = astToMarkdown(cache, ast);
+      assertEquals(1, server.calls);
+      assertEquals(writeMarkdown(ast), markdown.value);
+
+      markdown = astToMarkdown(cache, ast);
+      assertEquals(1, server.calls);
+      assertEquals(writeMarkdown(ast), markdown.value);
+
+      // edit a paragraph in the middle of the document
+      setParagraphText(ast, 20, "An edited paragraph.");
+      markdown = astToMarkdown(cache, ast);
+      assertEquals(2, server.calls);
+      assertEquals(writeMarkdown(ast), markdown.value);
+   }
+
+   // Cache bounds ----
+
+   public void testCacheEvictsByCount()
+   {
+      PanmirrorPandocBlockCache.LruCache<String> cache = stringCache(3, 1000);
+      cache.put("a", "1");
+      cache.put("b", "2");
+      cache.put("c", "3");
+      cache.put("d", "4");
+      assertFalse(cache.containsKey("a"));
+      assertEquals(3, cache.size());
+
+      // reads count as uses
+      cache.get("b");
+      cache.put("e", "5");
+      assertTrue(cache.containsKey("b"));
+      assertFalse(cache.containsKey("c"));
+   }
+
+   public void testCacheEvictsBySize()
+   {
+      // each entry is counted as 2 bytes per character of key and value
+      PanmirrorPandocBlockCache.LruCache<String> cache = stringCache(100, 100);
+      cache.put("a", "0123456789");
+      cache.put("b", "0123456789");
+      cache.put("c", "0123456789");
+      cache.put("d", "0123456789");
+      assertEquals(88, cache.getBytes());
+      assertEquals(4, cache.size());
+
+      cache.put("e", "01234567890123456789");
+      assertFalse(cache.containsKey("a"));
+      assertFalse(cache.containsKey("b"));
+      assertEquals(86, cache.getBytes());
+
+      // replacing a value accounts for the old one
+      cache.put("e", "0");
+      assertEquals(48, cache.getBytes());
+
+      // an entry larger than the bound is still kept, on its own
+      StringBuilder large = new StringBuilder();
+      for (int i = 0; i < 100; i++)
+         large.append('x');
+      cache.put("f", large.toString());
+      assertEquals(1, cache.size());
+      assertTrue(cache.containsKey("f"));
+      assertEquals(202, cache.getBytes());
+   }
+
+   // Helpers ----
+
+   private static class Result<T>
+   {
+      T value;
+   }
+
+   private static Result<JavaScriptObject> markdownToAst(PanmirrorPandocBlockCache cache,
+                                                        String markdown)
+   {
+      final Result<JavaScriptObject> result = new Result<>();
+      cache.markdownToAst(markdown, FORMAT, options(), new ServerRequestCallback<JavaScriptObject>()
+      {
+         @Override
+         public void onResponseReceived(JavaScriptObject response)
+         {
+            result.value = response;
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            fail(error.getUserMessage());
+         }
+      });
+      assertNotNull(result.value);
+      return result;
+   }
+
+   private static Result<String> astToMarkdown(PanmirrorPandocBlockCache cache,
+                                               JavaScriptObject ast)
+   {
+      final Result<String> result = new Result<>();
+      cache.astToMarkdown(ast, FORMAT, options(), new ServerRequestCallback<String>()
+      {
+         @Override
+         public void onResponseReceived(String response)
+         {
+            result.value = response;
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            fail(error.getUserMessage());
+         }
+      });
+      assertNotNull(result.value);
+      return result;
+   }
+
+   private static PanmirrorPandocBlockCache.LruCache<String> stringCache(int maxEntries,
+                                                                        int maxBytes)
+   {
+      return new PanmirrorPandocBlockCache.LruCache<String>(maxEntries, maxBytes)
+      {
+         @Override
+         protected int length(String value)
+         {
+            return value.length();
+         }
+      };
+   }
+
+   // an R Markdown document with front matter and the given number of
+   // sections (each a few paragraphs and a chunk), with 'extra' appended to
+   // the second section
+   private static String document(int sections, String extra)
+   {
+      StringBuilder builder = new StringBuilder();
+      builder.append("---\ntitle: Analysis\noutput: html_document\n---\n");
+      for (int i = 1; i <= sections; i++)
+      {
+         builder.append("\n## Section ").append(i).append("\n\n");
+         for (int j = 1; j <= 3; j++)
+         {
+            builder.append("Paragraph ").append(j).append(" of section ").append(i)
+                   .append(". The data were summarised by group and the estimates ")
+                   .append("compared against the previous run, with the residuals ")
+                   .append("examined for any remaining structure.\n\n");
+         }
+         builder.append("```{r}\nsummary(cars)\nplot(pressure)\n```\n");
+         if (i == 2 && extra != null)
+            builder.append("\n").append(extra).append("\n");
+      }
+      return builder.toString();
+   }
+
+   private static JsArrayString options()
+   {
+      return JavaScriptObject.createArray().cast();
+   }
+
+   // a stand-in for pandoc, with a toy (but section-local) conversion
+   private static class FakePandocServer implements PanmirrorPandocServerOperations
+   {
+      @Override
+      public void pandocMarkdownToAst(String markdown,
+                                      String format,
+                                      JsArrayString options,
+                                      ServerRequestCallback<JavaScriptObject> callback)
+      {
+         calls++;
+         lastMarkdown = markdown;
+         JavaScriptObject ast = convertMarkdown(markdown);
+         if (dropSentinels)
+            ast = removeSentinels(ast);
+         callback.onResponseReceived(ast);
+      }
+
+      @Override
+      public void pandocAstToMarkdown(JavaScriptObject ast,
+                                      String format,
+                                      JsArrayString options,
+                                      ServerRequestCallback<String> callback)
+      {
+         calls++;
+         lastAst = ast;
+         callback.onResponseReceived(writeMarkdown(dropSentinels ? removeSentinels(ast) : ast));
+      }
+
+      @Override
+      public void pandocGetCapabilities(ServerRequestCallback<JavaScriptObject> callback)
+      {
+      }
+
+      @Override
+      public void pandocListExtensions(String format, ServerRequestCallback<String> callback)
+      {
+      }
+
+      @Override
+      public void pandocGetBibliography(String file,
+                                        JsArrayString bibliographies,
+                                        String refBlock,
+                                        String etag,
+                                        ServerRequestCallback<JavaScriptObject> callback)
+      {
+      }
+
+      @Override
+      public void pandocAddToBibliography(String bibliography,
+                                          boolean project,
+                                          String id,
+                                          String sourceAsJson,
+                                          String sourceAsBibTeX,
+                                          ServerRequestCallback<Boolean> callback)
+      {
+      }
+
+      @Override
+      public void pandocCitationHTML(String file,
+                                     String sourceAsJson,
+                                     String csl,
+                                     ServerRequestCallback<String> callback)
+      {
+      }
+
+      int calls;
+      String lastMarkdown;
+      JavaScriptObject lastAst;
+      boolean dropSentinels;
+   }
+
+   // blank-line separated blocks become headings or paragraphs; front matter
+   // becomes the document's metadata
+   private static native JavaScriptObject convertMarkdown(String markdown) /*-{
+      var meta = {};
+      var text = markdown;
+      if (text.indexOf("---\n") === 0)
+      {
+         var end = text.indexOf("\n---", 4);
+         var lines = text.substring(4, end).split("\n");
+         for (var i = 0; i < lines.length; i++)
+         {
+            var colon = lines[i].indexOf(":");
+            meta[lines[i].substring(0, colon)] = {
+               t: "MetaString",
+               c: lines[i].substring(colon + 1).trim()
+            };
+         }
+         text = text.substring(end + 4);
+      }
+
+      var blocks = [];
+      var paragraphs = text.split(/\n\s*\n/);
+      for (var i = 0; i < paragraphs.length; i++)
+      {
+         var paragraph = paragraphs[i].replace(/^\n+|\n+$/g, "");
+         if (paragraph.length === 0)
+            continue;
+
+         var heading = /^(#+)\s+(.*)$/.exec(paragraph);
+         if (heading)
+         {
+            var id = heading[2].toLowerCase().replace(/[^a-z0-9]+/g, "-");
+            blocks.push({
+               t: "Header",
+               c: [heading[1].length, [id, [], []], [{ t: "Str", c: heading[2] }]]
+            });
+         }
+         else
+         {
+            blocks.push({ t: "Para", c: [{ t: "Str", c: paragraph }] });
+         }
+      }
+
+      return {
+         "pandoc-api-version": [1, 23, 1],
+         meta: meta,
+         blocks: blocks,
+         heading_ids: []
+      };
+   }-*/;
+
+   private static native String writeMarkdown(JavaScriptObject ast) /*-{
+      var parts = [];
+
+      var keys = Object.keys(ast.meta || {});
+      if (keys.length > 0)
+      {
+         var yaml = [];
+         for (var i = 0; i < keys.length; i++)
+            yaml.push(keys[i] + ": " + ast.meta[keys[i]].c);
+         parts.push("---\n" + yaml.join("\n") + "\n---");
+      }
+
+      for (var i = 0; i < ast.blocks.length; i++)
+      {
+         var block = ast.blocks[i];
+         if (block.t === "Header")
+            parts.push(new Array(block.c[0] + 1).join("#") + " " + block.c[2][0].c);
+         else
+            parts.push(block.c[0].c);
+      }
+
+      return parts.join("\n\n") + "\n";
+   }-*/;
+
+   private static native JavaScriptObject removeSentinels(JavaScriptObject ast) /*-{
+      var sentinel = @org.rstudio.studio.client.panmirror.pandoc.PanmirrorPandocBlockCache::SENTINEL;
+      var result = {};
+      for (var key in ast)
+         result[key] = ast[key];
+      result.blocks = ast.blocks.filter(function(block) {
+         return !(block.t === "Para" && block.c[0].c === sentinel);
+      });
+      return result;
+   }-*/;
+
+   // sets the text of the index'th paragraph (not counting headings)
+   private static native void setParagraphText(JavaScriptObject ast,
+                                               int index,
+                                               String text) /*-{
+      var count = 0;
+      for (var i = 0; i < ast.blocks.length; i++)
+      {
+         if (ast.blocks[i].t === "Para" && count++ === index)
+         {
+            ast.blocks[i].c = [{ t: "Str", c: text }];
+            return;
+         }
+      }
+   }-*/;
+
+   private static native int length(JavaScriptObject array) /*-{
+      return array.length;
+   }-*/;
+
+   private static native String stringify(JavaScriptObject object) /*-{
+      return JSON.stringify(object);
+   }-*/;
+
+   private static final String FORMAT = "markdown";
+}
@@ -0,0 +1,217 @@
+/*
+ * RSConnectDeployManifestTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rsconnect.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeployManifest.Entry;
+import org.rstudio.studio.client.rsconnect.model.RSConnectDeployManifest.Node;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class RSConnectDeployManifestTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testBuild()
+   {
+      RSConnectDeployManifest manifest = manifest();
+
+      // files added by hand are listed after the others, even if the server
+      // also listed them
+      assertEquals(7, manifest.size());
+      assertPaths(manifest.getEntries(),
+            "app.R", "data/raw/b.csv", "www/", "README.md", "data/c.csv",
+            "extra.R", "data/a.csv");
+
+      // ignored files start out unchecked, unless they were added by hand
+      assertEquals(Arrays.asList("README.md"), manifest.getPaths(false));
+      assertEquals(6, manifest.getPaths(true).size());
+      assertTrue(manifest.getEntry("data/a.csv").isChecked());
+
+      // sizes and times line up with the server's list, and are unknown for
+      // files added by hand
+      Entry c = manifest.getEntry("data/c.csv");
+      assertEquals(600.0, c.getSize());
+      assertEquals(60.0, c.getModified());
+      assertEquals(-1.0, manifest.getEntry("data/a.csv").getSize());
+      assertEquals(0.0, manifest.getEntry("extra.R").getModified());
+
+      assertTrue(manifest.contains("www/"));
+      assertFalse(manifest.contains("www"));
+      assertNull(manifest.getEntry("missing.R"));
+   }
+
+   public void testTree()
+   {
+      RSConnectDeployManifest manifest = manifest();
+
+      // directories first, then entries, each in the order they were added;
+      // a directory deployed as a whole is an entry
+      List<Node> root = manifest.getRoot().getChildren();
+      assertNames(root, "data", "app.R", "www/", "README.md", "extra.R");
+      assertTrue(root.get(0).isDirectory());
+      assertFalse(root.get(2).isDirectory());
+      assertSame(manifest.getEntry("www/"), root.get(2).getEntry());
+
+      Node data = root.get(0);
+      assertEquals("data", data.getPath());
+      assertNames(data.getChildren(), "raw", "c.csv", "a.csv");
+
+      Node raw = data.getChildren().get(0);
+      assertEquals("data/raw", raw.getPath());
+      assertNames(raw.getChildren(), "b.csv");
+      assertEquals("data/raw/b.csv", raw.getChildren().get(0).getPath());
+   }
+
+   public void testAdd()
+   {
+      RSConnectDeployManifest manifest = new RSConnectDeployManifest(
+            new ArrayList<>(), null, null, null, null);
+      assertEquals(0, manifest.size());
+      assertTrue(manifest.getRoot().getChildren().isEmpty());
+
+      Entry entry = manifest.add("R/utils.R", false);
+      assertNotNull(entry);
+      assertFalse(entry.isChecked());
+
+      // a path is only added once
+      assertNull(manifest.add("R/utils.R", true));
+      assertEquals(1, manifest.size());
+      assertFalse(manifest.getEntry("R/utils.R").isChecked());
+
+      entry.setChecked(true);
+      assertEquals(Arrays.asList("R/utils.R"), manifest.getPaths(true));
+      assertNames(manifest.getRoot().getChildren().get(0).getChildren(), "utils.R");
+   }
+
+   public void testSetPrimary()
+   {
+      RSConnectDeployManifest manifest = manifest();
+      manifest.getEntry("data/a.csv").setChecked(false);
+
+      manifest.setPrimary("data/a.csv");
+      Entry primary = manifest.getEntry("data/a.csv");
+      assertTrue(primary.isPrimary());
+      assertTrue(primary.isChecked());
+      assertSame(primary, manifest.getEntries().get(0));
+      assertEquals(7, manifest.size());
+
+      // first among its directory's entries, after the subdirectories
+      assertNames(manifest.getRoot().getChildren().get(0).getChildren(),
+            "raw", "a.csv", "c.csv");
+
+      // unknown paths are ignored
+      manifest.setPrimary("missing.R");
+      assertSame(primary, manifest.getEntries().get(0));
+   }
+
+   public void testChangedSince()
+   {
+      RSConnectDeployManifest manifest = manifest();
+      assertTrue(manifest.hasFileInfo());
+
+      // changed after the deployment, or not known to be unchanged
+      assertChanged(manifest.getChangedSince(30),
+            "data/raw/b.csv", "www/", "README.md", "data/c.csv", "extra.R", "data/a.csv");
+
+      // a file modified at the time of the deployment is unchanged
+      Entry app = manifest.getEntry("app.R");
+      assertFalse(RSConnectDeployManifest.isChangedSince(app, 10));
+      assertTrue(RSConnectDeployManifest.isChangedSince(app, 9));
+
+      // nothing changed since the latest modification, except the files
+      // whose times aren't known
+      assertChanged(manifest.getChangedSince(60), "www/", "extra.R", "data/a.csv");
+   }
+
+   public void testChangedSinceWithoutFileInfo()
+   {
+      RSConnectDeployManifest manifest = new RSConnectDeployManifest(
+            Arrays.asList("app.R", "data.csv"), null, null, null, null);
+
+      // without modification times every file is assumed to have changed
+      assertFalse(manifest.hasFileInfo());
+      assertChanged(manifest.getChangedSince(1000), "app.R", "data.csv");
+      assertEquals(-1.0, manifest.getEntry("app.R").getSize());
+   }
+
+   public void testShortFileInfo()
+   {
+      // times for only some of the files
+      RSConnectDeployManifest manifest = new RSConnectDeployManifest(
+            Arrays.asList("app.R", "data.csv"),
+            numbers(10),
+            numbers(100),
+            null,
+            null);
+
+      assertEquals(10.0, manifest.getEntry("app.R").getSize());
+      assertEquals(-1.0, manifest.getEntry("data.csv").getSize());
+      assertChanged(manifest.getChangedSince(100), "data.csv");
+   }
+
+   // Helpers ----
+
+   private static RSConnectDeployManifest manifest()
+   {
+      return new RSConnectDeployManifest(
+            Arrays.asList("app.R", "data/a.csv", "data/raw/b.csv", "www/",
+                          "README.md", "data/c.csv"),
+            numbers(100, 200, 300, 400, 500, 600),
+            numbers(10, 20, 40, 0, 50, 60),
+            Arrays.asList("extra.R", "data/a.csv"),
+            Arrays.asList("README.md", "data/a.csv"));
+   }
+
+   private static void assertPaths(List<Entry> entries, String... paths)
+   {
+      assertEquals(paths.length, entries.size());
+      for (int i = 0; i < paths.length; i++)
+         assertEquals(paths[i], entries.get(i).getPath());
+   }
+
+   private static void assertNames(List<Node> nodes, String... names)
+   {
+      assertEquals(names.length, nodes.size());
+      for (int i = 0; i < names.length; i++)
+         assertEquals(names[i], nodes.get(i).getName());
+   }
+
+   private static void assertChanged(HashSet<Entry> changed, String... paths)
+   {
+      HashSet<String> actual = new HashSet<>();
+      for (Entry entry: changed)
+         actual.add(entry.getPath());
+      assertEquals(new HashSet<>(Arrays.asList(paths)), actual);
+   }
+
+   private static JsArrayNumber numbers(double... values)
+   {
+      JsArrayNumber array = JavaScriptObject.createArray().cast();
+      for (double value: values)
+         array.push(value);
+      return array;
+   }
+}
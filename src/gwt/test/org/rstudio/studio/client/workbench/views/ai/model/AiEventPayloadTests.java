@@ -0,0 +1,100 @@
+/*
+ * AiEventPayloadTests.java
+ *
+ * Copyright (C) 2025 by William Nickols
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.ai.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class AiEventPayloadTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testScalarStreamPayload()
+   {
+      AiStreamPayload payload = scalarStreamEvent(7).cast();
+      assertEquals("42", payload.getMessageId());
+      assertEquals("delta 7", payload.getDelta());
+      assertTrue(payload.hasSequence());
+      assertEquals(7, payload.getSequence());
+      assertTrue(payload.isComplete());
+      assertFalse(payload.isCancelled());
+      assertEquals("req-1", payload.getRequestId());
+      assertEquals("", payload.getFilename());
+   }
+
+   public void testArrayStreamPayload()
+   {
+      // length-1 arrays (as R sends unmarked values) read the same as scalars
+      AiStreamPayload payload = arrayStreamEvent(7).cast();
+      assertEquals("42", payload.getMessageId());
+      assertEquals("delta 7", payload.getDelta());
+      assertEquals(7, payload.getSequence());
+      assertTrue(payload.isComplete());
+      assertEquals("req-1", payload.getRequestId());
+   }
+
+   public void testMissingFields()
+   {
+      AiStreamPayload payload = JavaScriptObject.createObject().cast();
+      assertEquals("", payload.getMessageId());
+      assertFalse(payload.hasSequence());
+      assertFalse(payload.isComplete());
+   }
+
+   public void testOperationPayload()
+   {
+      AiOperationPayload payload = operationEvent().cast();
+      assertEquals("edit_file_command", payload.getOperationType());
+      assertEquals("12", payload.getMessageId());
+      assertEquals(3, payload.getSequence());
+      assertTrue(payload.getSkipDiffHighlighting());
+      assertNotNull(payload.getDiffData());
+      assertEquals("", payload.getCommand());
+   }
+
+   private static native JavaScriptObject scalarStreamEvent(int sequence) /*-{
+      return {
+         messageId: 42,
+         delta: "delta " + sequence,
+         isComplete: true,
+         cancelled: false,
+         sequence: sequence,
+         requestId: "req-1"
+      };
+   }-*/;
+
+   private static native JavaScriptObject arrayStreamEvent(int sequence) /*-{
+      return {
+         messageId: [42],
+         delta: ["delta " + sequence],
+         isComplete: [true],
+         cancelled: [false],
+         sequence: [sequence],
+         requestId: ["req-1"]
+      };
+   }-*/;
+
+   private static native JavaScriptObject operationEvent() /*-{
+      return {
+         operation_type: "edit_file_command",
+         message_id: 12,
+         sequence: [3],
+         skip_diff_highlighting: true,
+         diff_data: { added: [1, 2], removed: [] }
+      };
+   }-*/;
+}
@@ -0,0 +1,321 @@
+/*
+ * CompletionColumnsTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.console.shell.assist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.rstudio.studio.client.common.codetools.Completions;
+import org.rstudio.studio.client.common.codetools.RCompletionType;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.QualifiedName;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.RCompletionManager.AutocompletionContext;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayBoolean;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class CompletionColumnsTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testColumnLayout()
+   {
+      CompletionColumns columns = new CompletionColumns(Completions.createCompletions(
+            "me",
+            strings("mean", "median", "x"),
+            strings("mean()", "median()", "x"),
+            strings("base", "stats", null),
+            booleans(false, false, true),
+            integers(RCompletionType.FUNCTION, RCompletionType.FUNCTION, RCompletionType.VECTOR),
+            null,
+            null,
+            strings("", "", "num"),
+            null, false, false, false, true,
+            "help", "R",
+            integers(AutocompletionContext.TYPE_UNKNOWN,
+                     AutocompletionContext.TYPE_UNKNOWN,
+                     AutocompletionContext.TYPE_UNKNOWN)));
+
+      assertEquals(3, columns.size());
+      assertEquals("median", columns.getName(1));
+      assertEquals("stats", columns.getSource(1));
+      assertNull(columns.getSource(2));
+      assertEquals(RCompletionType.VECTOR, columns.getType(2));
+      assertEquals("num", columns.getMeta(2));
+
+      // each field comes from the same index of its column
+      QualifiedName median = columns.get(1);
+      assertEquals("median", median.name);
+      assertEquals("median()", median.display);
+      assertEquals("stats", median.source);
+      assertFalse(median.shouldQuote);
+      assertEquals(RCompletionType.FUNCTION, median.type);
+      assertFalse(median.suggestOnAccept);
+      assertFalse(median.replaceToEnd);
+      assertEquals("", median.meta);
+      assertEquals("help", median.helpHandler);
+      assertEquals("R", median.language);
+      assertTrue(columns.get(2).shouldQuote);
+
+      // names are created once
+      assertSame(median, columns.get(1));
+
+      // client completions follow the server's
+      QualifiedName snippet = QualifiedName.createSnippet("lib");
+      assertEquals(3, columns.add(snippet));
+      assertEquals(4, columns.size());
+      assertEquals("lib", columns.getName(3));
+      assertEquals("snippet", columns.getSource(3));
+      assertEquals(RCompletionType.SNIPPET, columns.getType(3));
+      assertSame(snippet, columns.get(3));
+   }
+
+   public void testDisplayDefaultsToName()
+   {
+      CompletionColumns columns = columns(
+            new String[] { "x" },
+            new String[] { null },
+            new int[] { RCompletionType.VECTOR });
+      assertEquals("x", columns.get(0).display);
+   }
+
+   public void testCompareMatchesQualifiedName()
+   {
+      CompletionColumns columns = columns(
+            new String[] { "x", "X", "na.rm = ", "mean", "mean", "x = ", "Mean" },
+            new String[] { "base", null, "", "stats", "base", null, "zoo" },
+            new int[] { 1, 1, 7, 6, 6, 7, 6 });
+
+      for (int i = 0; i < columns.size(); i++)
+      {
+         for (int j = 0; j < columns.size(); j++)
+         {
+            assertEquals(i + " vs " + j,
+                  Integer.signum(columns.get(i).compareTo(columns.get(j))),
+                  Integer.signum(columns.compare(i, j)));
+         }
+      }
+   }
+
+   public void testSortIsStable()
+   {
+      Random random = new Random(7);
+      for (int iteration = 0; iteration < 100; iteration++)
+      {
+         int length = random.nextInt(40);
+         int[] keys = new int[length];
+         for (int i = 0; i < length; i++)
+            keys[i] = random.nextInt(5);
+
+         int[] indices = new int[length + 3];
+         List<Integer> expected = new ArrayList<>();
+         for (int i = 0; i < indices.length; i++)
+         {
+            indices[i] = i < length ? length - 1 - i : -1;
+            if (i < length)
+               expected.add(indices[i]);
+         }
+         expected.sort((a, b) -> keys[a] - keys[b]);
+
+         CompletionColumns.sort(indices, length, (a, b) -> keys[a] - keys[b]);
+         for (int i = 0; i < length; i++)
+            assertEquals((int) expected.get(i), indices[i]);
+
+         // entries past the length are left alone
+         for (int i = length; i < indices.length; i++)
+            assertEquals(-1, indices[i]);
+      }
+   }
+
+   public void testResolveDuplicates()
+   {
+      // the same function from two packages: the first is dropped
+      assertResolveDuplicates(
+            new String[] { "filter", "filter", "select" },
+            new String[] { "dplyr", "stats", "dplyr" },
+            new int[] { RCompletionType.FUNCTION, RCompletionType.FUNCTION, RCompletionType.FUNCTION },
+            1, 2);
+
+      // names with different types are both kept
+      assertResolveDuplicates(
+            new String[] { "x", "x" },
+            new String[] { null, null },
+            new int[] { RCompletionType.VECTOR, RCompletionType.FUNCTION },
+            0, 1);
+
+      // contextual completions are shadowed by any other type
+      assertResolveDuplicates(
+            new String[] { "x", "x", "y" },
+            new String[] { null, null, null },
+            new int[] { RCompletionType.CONTEXT, RCompletionType.VECTOR, RCompletionType.CONTEXT },
+            1, 2);
+   }
+
+   public void testResolveDuplicatesMatchesPrevious()
+   {
+      String[] names = { "a", "b", "a = ", "A" };
+      String[] sources = { "base", "stats", null };
+      int[] types = {
+            RCompletionType.VECTOR,
+            RCompletionType.FUNCTION,
+            RCompletionType.ARGUMENT,
+            RCompletionType.CONTEXT
+      };
+
+      Random random = new Random(42);
+      for (int iteration = 0; iteration < 200; iteration++)
+      {
+         int serverCount = random.nextInt(20);
+         int extraCount = random.nextInt(5);
+
+         String[] serverNames = new String[serverCount];
+         String[] serverSources = new String[serverCount];
+         int[] serverTypes = new int[serverCount];
+         for (int i = 0; i < serverCount; i++)
+         {
+            serverNames[i] = names[random.nextInt(names.length)];
+            serverSources[i] = sources[random.nextInt(sources.length)];
+            serverTypes[i] = types[random.nextInt(types.length)];
+         }
+
+         CompletionColumns columns = columns(serverNames, serverSources, serverTypes);
+         for (int i = 0; i < extraCount; i++)
+         {
+            columns.add(new QualifiedName(
+                  names[random.nextInt(names.length)],
+                  sources[random.nextInt(sources.length)],
+                  false,
+                  types[random.nextInt(types.length)]));
+         }
+
+         // completions are resolved in display order, not index order
+         int[] order = new int[columns.size()];
+         for (int i = 0; i < order.length; i++)
+            order[i] = i;
+         for (int i = order.length - 1; i > 0; i--)
+         {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+         }
+
+         List<QualifiedName> completions = new ArrayList<>();
+         for (int index : order)
+            completions.add(columns.get(index));
+
+         List<QualifiedName> expected = previousResolveDuplicates(completions);
+         int[] actual = CompletionRequester.resolveDuplicates(columns, order);
+         assertEquals(expected.size(), actual.length);
+         for (int i = 0; i < actual.length; i++)
+            assertSame(expected.get(i), columns.get(actual[i]));
+      }
+   }
+
+   // Helpers ----
+
+   private static void assertResolveDuplicates(String[] names,
+                                               String[] sources,
+                                               int[] types,
+                                               int... expected)
+   {
+      CompletionColumns columns = columns(names, sources, types);
+      int[] order = new int[names.length];
+      for (int i = 0; i < order.length; i++)
+         order[i] = i;
+
+      int[] actual = CompletionRequester.resolveDuplicates(columns, order);
+      assertEquals(expected.length, actual.length);
+      for (int i = 0; i < expected.length; i++)
+         assertEquals(expected[i], actual[i]);
+   }
+
+   // The list-based implementation that CompletionRequester used before
+   // completions were kept as columns
+   private static List<QualifiedName> previousResolveDuplicates(List<QualifiedName> completions)
+   {
+      List<QualifiedName> result = new ArrayList<>(completions);
+
+      List<QualifiedName> sorted = new ArrayList<>(completions);
+      sorted.sort((o1, o2) ->
+      {
+         int name = o1.name.compareTo(o2.name);
+         if (name != 0)
+            return name;
+         return o1.type - o2.type;
+      });
+
+      // (the previous code compared names with ==, which compiles to a
+      // string comparison)
+      for (int i = sorted.size() - 1; i > 0; i--)
+      {
+         QualifiedName o1 = sorted.get(i);
+         QualifiedName o2 = sorted.get(i - 1);
+         if (o1.name.equals(o2.name) &&
+             (o1.type == o2.type || o1.type == RCompletionType.CONTEXT))
+            result.remove(o1);
+      }
+
+      return result;
+   }
+
+   private static CompletionColumns columns(String[] names, String[] sources, int[] types)
+   {
+      JsArrayBoolean quote = JavaScriptObject.createArray().cast();
+      JsArrayString meta = JavaScriptObject.createArray().cast();
+      JsArrayInteger context = JavaScriptObject.createArray().cast();
+      for (int i = 0; i < names.length; i++)
+      {
+         quote.push(false);
+         meta.push("");
+         context.push(AutocompletionContext.TYPE_UNKNOWN);
+      }
+
+      return new CompletionColumns(Completions.createCompletions(
+            "", strings(names), null, strings(sources), quote, integers(types),
+            null, null, meta, null, false, false, false, true, null, "R", context));
+   }
+
+   private static JsArrayString strings(String... values)
+   {
+      JsArrayString array = JavaScriptObject.createArray().cast();
+      for (String value : values)
+         array.push(value);
+      return array;
+   }
+
+   private static JsArrayBoolean booleans(boolean... values)
+   {
+      JsArrayBoolean array = JavaScriptObject.createArray().cast();
+      for (boolean value : values)
+         array.push(value);
+      return array;
+   }
+
+   private static JsArrayInteger integers(int... values)
+   {
+      JsArrayInteger array = JavaScriptObject.createArray().cast();
+      for (int value : values)
+         array.push(value);
+      return array;
+   }
+}
@@ -0,0 +1,308 @@
+/*
+ * DataImportSampleParserTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.dataimport;
+
+import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewResponse;
+import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewSample;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+// The expected previews are those the server builds with readr for the same
+// data and options (column names, R types, formatted values, NAs, and
+// problem counts).
+public class DataImportSampleParserTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testHeaderAndTypes()
+   {
+      DataImportSampleParser parser = parser(
+            "id,name,flag,when,score\n" +
+            "1,alpha,TRUE,2024-01-05,1.50\n" +
+            "2,beta,false,2024-02-10,-3e2\n", true);
+
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertColumns(response, "id", "name", "flag", "when", "score");
+      assertTypes(response, "double", "character", "logical", "double", "double");
+      assertColumn(response, 0, "1", "2");
+      assertColumn(response, 1, "alpha", "beta");
+      assertColumn(response, 2, "TRUE", "FALSE");
+      assertColumn(response, 3, "2024-01-05", "2024-02-10");
+      assertColumn(response, 4, "1.5", "-300");
+      assertEquals(0, response.getParsingErrors());
+   }
+
+   public void testNoHeader()
+   {
+      DataImportSampleParser parser = parser("a,b\n1,2\n", true);
+
+      // without a header the first line is data, and columns are X1, X2, ...
+      DataImportPreviewResponse response = parse(parser, options(",", null, false, null, 0));
+      assertColumns(response, "X1", "X2");
+      assertTypes(response, "character", "character");
+      assertColumn(response, 0, "a", "1");
+
+      // switching the header back on reuses the tokenized records
+      response = parse(parser, options(",", null, true, null, 0));
+      assertColumns(response, "a", "b");
+      assertTypes(response, "double", "double");
+      assertColumn(response, 0, "1");
+   }
+
+   public void testHeaderNames()
+   {
+      // duplicated and empty names are made unique by position
+      DataImportSampleParser parser = parser("a,a, b ,\n1,2,3,4\n", true);
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertColumns(response, "a...1", "a...2", "b", "...4");
+   }
+
+   public void testDelimiter()
+   {
+      DataImportSampleParser parser = parser("a;b\n1,5;2\n", true);
+
+      DataImportPreviewResponse response = parse(parser, options(";", null, true, null, 0));
+      assertColumns(response, "a", "b");
+      assertColumn(response, 0, "1,5");
+      assertColumn(response, 1, "2");
+
+      // the same sample read as comma separated
+      response = parse(parser, options(",", null, true, null, 0));
+      assertColumns(response, "a;b");
+      assertColumn(response, 0, "1");
+      assertEquals(1, response.getParsingErrors());
+
+      response = parse(parser, options("\t", null, true, null, 0));
+      assertColumns(response, "a;b");
+      assertColumn(response, 0, "1,5;2");
+   }
+
+   public void testQuotes()
+   {
+      DataImportSampleParser parser = parser(
+            "name,quote\n\"Smith, J\",'it''s, true'\n", true);
+
+      // double quotes by default; single quotes are ordinary characters
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertColumns(response, "name", "quote");
+      assertColumn(response, 0, "Smith, J");
+      assertColumn(response, 1, "'it''s");
+      assertEquals(1, response.getParsingErrors());
+
+      // single quotes; double quotes are ordinary characters
+      response = parse(parser, options(",", "'", true, null, 0));
+      assertColumn(response, 0, "\"Smith");
+      assertColumn(response, 1, "J\"");
+      assertEquals(1, response.getParsingErrors());
+   }
+
+   public void testQuotedNewlines()
+   {
+      DataImportSampleParser parser = parser("a,b\n\"one\ntwo\",2\n3,4\n", true);
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertColumn(response, 0, "one\ntwo", "3");
+      assertColumn(response, 1, "2", "4");
+   }
+
+   public void testSkip()
+   {
+      DataImportSampleParser parser = parser(
+            "exported 2024-01-01\nsource: test\nx,y\n1,2\n", true);
+
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 2));
+      assertColumns(response, "x", "y");
+      assertColumn(response, 0, "1");
+
+      response = parse(parser, options(",", null, true, null, 3));
+      assertColumns(response, "1", "2");
+      assertEquals(0, columnLength(response, 0));
+
+      // skipping past the end leaves an empty preview
+      response = parse(parser, options(",", null, true, null, 10));
+      assertEquals(0, columnCount(response));
+   }
+
+   public void testEmptyRowsSkipped()
+   {
+      DataImportSampleParser parser = parser("a,b\n\n1,2\n  \n3,4\n", true);
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertColumn(response, 0, "1", "3");
+   }
+
+   public void testNA()
+   {
+      DataImportSampleParser parser = parser("a,b\nNA,-\n,x\n1,y\n", true);
+
+      // by default both empty fields and "NA" are missing
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertColumn(response, 0, null, null, "1");
+      assertTypes(response, "double", "character");
+      assertColumn(response, 1, "-", "x", "y");
+
+      // a custom NA string replaces the defaults
+      response = parse(parser, options(",", null, true, "-", 0));
+      assertColumn(response, 0, "NA", "", "1");
+      assertTypes(response, "character", "character");
+      assertColumn(response, 1, null, "x", "y");
+   }
+
+   public void testAllMissingColumnIsLogical()
+   {
+      DataImportSampleParser parser = parser("a,b\n1,\n2,NA\n", true);
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertTypes(response, "double", "logical");
+      assertColumn(response, 1, null, null);
+   }
+
+   public void testRaggedRowsCountAsProblems()
+   {
+      DataImportSampleParser parser = parser("a,b,c\n1,2\n1,2,3\n1,2,3,4\n", true);
+      DataImportPreviewResponse response = parse(parser, options(",", null, true, null, 0));
+      assertColumn(response, 2, null, "3", "3");
+      assertEquals(2, response.getParsingErrors());
+   }
+
+   public void testMaxRowsAndColumns()
+   {
+      DataImportSampleParser parser = parser("a,b,c\n1,2,3\n4,5,6\n7,8,9\n", true);
+      DataImportPreviewResponse response = parser.parse(
+            options(",", null, true, null, 0), 2, 2, null);
+      assertEquals(2, columnCount(response));
+      assertEquals(3, totalColumns(response));
+      assertColumn(response, 0, "1", "4");
+      assertColumn(response, 1, "2", "5");
+   }
+
+   public void testTruncatedSample()
+   {
+      // a sample that doesn't hold the whole file and has too few rows for
+      // the preview (or may end mid-record) is left to the server
+      DataImportSampleParser parser = parser("a,b\n1,2\n3,4\n", false);
+      assertNull(parser.parse(options(",", null, true, null, 0), 5, 10, null));
+      assertNotNull(parser.parse(options(",", null, true, null, 0), 1, 10, null));
+   }
+
+   public void testOptionsRequiringServer()
+   {
+      DataImportSampleParser parser = parser("a b\n1 2\n", true);
+
+      // whitespace delimited, comments, and backslash escapes
+      assertNull(parser.parse(options(" ", null, true, null, 0), 10, 10, null));
+      assertNull(parser.parse(DataImportOptionsCsv.create(
+            "data", ",", null, false, true, true, true, null, null, "#", 0, false), 10, 10, null));
+      assertNull(parser.parse(DataImportOptionsCsv.create(
+            "data", ",", null, true, true, true, true, null, null, null, 0, false), 10, 10, null));
+   }
+
+   public void testSampleKey()
+   {
+      DataImportOptionsCsv options = options(",", null, true, null, 0);
+      options.setImportLocation("~/data.csv");
+
+      DataImportSampleParser parser = new DataImportSampleParser(
+            DataImportSampleParser.sampleKey(options), sample("a\n1\n", true));
+      assertTrue(parser.isSampleFor(options));
+
+      DataImportOptionsCsv other = options(";", null, false, null, 1);
+      other.setImportLocation("~/data.csv");
+      assertTrue(parser.isSampleFor(other));
+
+      other.setImportLocation("~/other.csv");
+      assertFalse(parser.isSampleFor(other));
+   }
+
+   // Helpers ----
+
+   private static DataImportSampleParser parser(String sample, boolean complete)
+   {
+      return new DataImportSampleParser("key", sample(sample, complete));
+   }
+
+   private static DataImportPreviewResponse parse(DataImportSampleParser parser,
+                                                  DataImportOptionsCsv options)
+   {
+      DataImportPreviewResponse response = parser.parse(options, MAX_ROWS, MAX_COLS, null);
+      assertNotNull(response);
+      return response;
+   }
+
+   private static DataImportOptionsCsv options(String delimiter,
+                                               String quotes,
+                                               boolean header,
+                                               String na,
+                                               int skip)
+   {
+      return DataImportOptionsCsv.create(
+            "data", delimiter, quotes, false, true, header, true, null, na, null, skip, false);
+   }
+
+   private static void assertColumns(DataImportPreviewResponse response, String... names)
+   {
+      assertEquals(names.length, columnCount(response));
+      for (int i = 0; i < names.length; i++)
+         assertEquals(names[i], columnName(response, i));
+   }
+
+   private static void assertTypes(DataImportPreviewResponse response, String... types)
+   {
+      for (int i = 0; i < types.length; i++)
+         assertEquals(types[i], columnRType(response, i));
+   }
+
+   private static void assertColumn(DataImportPreviewResponse response,
+                                    int column,
+                                    String... values)
+   {
+      assertEquals(values.length, columnLength(response, column));
+      for (int i = 0; i < values.length; i++)
+         assertEquals(values[i], value(response, column, i));
+   }
+
+   private static native DataImportPreviewSample sample(String sample, boolean complete) /*-{
+      return { sample: sample, complete: complete };
+   }-*/;
+
+   // the first column describes the row names
+   private static native int columnCount(DataImportPreviewResponse response) /*-{
+      return response.columns.length - 1;
+   }-*/;
+
+   private static native int totalColumns(DataImportPreviewResponse response) /*-{
+      return response.columns[0].total_cols;
+   }-*/;
+
+   private static native String columnName(DataImportPreviewResponse response, int column) /*-{
+      return response.columns[column + 1].col_name;
+   }-*/;
+
+   private static native String columnRType(DataImportPreviewResponse response, int column) /*-{
+      return response.columns[column + 1].col_type_r;
+   }-*/;
+
+   private static native int columnLength(DataImportPreviewResponse response, int column) /*-{
+      return response.data[column] ? response.data[column].length : 0;
+   }-*/;
+
+   private static native String value(DataImportPreviewResponse response, int column, int row) /*-{
+      return response.data[column][row];
+   }-*/;
+
+   private static final int MAX_ROWS = 50;
+   private static final int MAX_COLS = 50;
+}
@@ -359,4 +359,77 @@ public class JobManagerTests extends GWTTestCase
       Assert.assertEquals(50, progress.received());
       Assert.assertEquals(40, progress.elapsed());
    }
+
+   /**
+    * Tests that progress tracked as jobs are updated matches the progress
+    * summarized from the whole state.
+    */
+   public void testTrackerFollowsUpdates()
+   {
+      JobState state = JobState.create();
+      JobProgressTracker tracker = new JobProgressTracker();
+
+      // a launcher job, which never contributes progress
+      Job launcher = new Job()
+      {{
+         id = "L";
+         name = "Launcher";
+         started = 10;
+         elapsed = 20;
+         received = 30;
+         completed = 0;
+         progress = 0;
+         max = 0;
+         state = JobConstants.STATE_RUNNING;
+         type = JobConstants.JOB_TYPE_LAUNCHER;
+      }};
+      state.addJob(launcher);
+      tracker.reset(state);
+
+      Assert.assertTrue(tracker.hasRunningJobs());
+      Assert.assertNull(tracker.summarize());
+
+      Job running = new Job()
+      {{
+         id = "A";
+         name = "JobA";
+         started = 10;
+         elapsed = 20;
+         received = 30;
+         completed = 0;
+         progress = 5;
+         max = 10;
+         state = JobConstants.STATE_RUNNING;
+         type = JobConstants.JOB_TYPE_SESSION;
+      }};
+      state.addJob(running);
+      tracker.updateJob(running);
+
+      LocalJobProgress expected = JobManager.summarizeProgress(state);
+      LocalJobProgress progress = tracker.summarize();
+      Assert.assertNotNull(progress);
+      Assert.assertEquals(expected.elapsed(), progress.elapsed());
+      Assert.assertEquals(expected.percent(), progress.percent(), 0.01);
+
+      Job finished = new Job()
+      {{
+         id = "A";
+         name = "JobA";
+         started = 10;
+         elapsed = 30;
+         received = 40;
+         completed = 40;
+         progress = 10;
+         max = 10;
+         state = JobConstants.STATE_SUCCEEDED;
+         type = JobConstants.JOB_TYPE_SESSION;
+      }};
+      state.updateJob(finished);
+      tracker.updateJob(finished);
+      Assert.assertNull(tracker.summarize());
+
+      state.removeJob(launcher);
+      tracker.removeJob(launcher);
+      Assert.assertFalse(tracker.hasRunningJobs());
+   }
 }
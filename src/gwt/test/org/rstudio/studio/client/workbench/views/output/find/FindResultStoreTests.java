@@ -0,0 +1,254 @@
+/*
+ * FindResultStoreTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class FindResultStoreTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testRoundTrip()
+   {
+      FindResultStore store = new FindResultStore();
+      store.add(FindResult.create(
+            "~/a.R", 3, "foo(bar, foo)",
+            integers(0, 9), integers(3, 12),
+            integers(), integers(),
+            "", true, true, "bad pattern"));
+      store.add(result("~/b.R", 7, "x <- foo"));
+
+      assertEquals(2, store.size());
+      assertEquals(2, store.getFileCount());
+      assertEquals("~/b.R", store.getFileForRow(1));
+      assertEquals(7, store.getLine(1));
+
+      FindResult first = store.getFindResult(0);
+      assertEquals("~/a.R", first.getFile());
+      assertEquals(3, first.getLine());
+      assertEquals("foo(bar, foo)", first.getLineValue());
+      assertEquals(list(0, 9), first.getMatchOns());
+      assertEquals(list(3, 12), first.getMatchOffs());
+      assertTrue(first.getReplaceIndicator());
+      assertTrue(first.getRegexPreviewIndicator());
+      assertEquals("bad pattern", first.getErrors());
+
+      FindResult second = store.getFindResult(1);
+      assertEquals(list(5), second.getMatchOns());
+      assertEquals(list(8), second.getMatchOffs());
+      assertFalse(second.getReplaceIndicator());
+      assertEquals("", second.getErrors());
+   }
+
+   public void testSetReplace()
+   {
+      FindResultStore store = new FindResultStore();
+      store.add(FindResult.create(
+            "~/a.R", 1, "foo",
+            integers(0), integers(3), integers(0), integers(3),
+            "", false, true, ""));
+
+      store.setReplace("bar");
+      FindResult result = store.getFindResult(0);
+      assertEquals("bar", result.getReplaceValue());
+      assertFalse(result.getRegexPreviewIndicator());
+
+      store.setReplace(null);
+      assertEquals("", store.getFindResult(0).getReplaceValue());
+   }
+
+   public void testBatchesGroupedByFile()
+   {
+      // results arrive in batches, interleaved across files, and well past
+      // the store's initial capacity
+      FindResultStore store = new FindResultStore();
+      int files = 7;
+      int rows = 1000;
+      for (int batch = 0; batch < 4; batch++)
+      {
+         for (int i = batch * rows / 4; i < (batch + 1) * rows / 4; i++)
+            store.add(result(file(i % files), i, "line " + i + " foo"));
+      }
+
+      assertEquals(rows, store.size());
+      assertEquals(files, store.getFileCount());
+      for (int i = 0; i < rows; i++)
+      {
+         assertEquals(i, store.getLine(i));
+         assertEquals(file(i % files), store.getFileForRow(i));
+         assertEquals(i % files, store.getFileId(i));
+      }
+
+      // each file's rows, in the order they arrived
+      int[][] byFile = store.refine("");
+      assertEquals(files, byFile.length);
+      for (int fileId = 0; fileId < files; fileId++)
+      {
+         assertEquals(file(fileId), store.getFile(fileId));
+         for (int i = 0; i < byFile[fileId].length; i++)
+            assertEquals(fileId + i * files, byFile[fileId][i]);
+      }
+      assertEquals(rows, count(byFile));
+   }
+
+   public void testRefine()
+   {
+      FindResultStore store = new FindResultStore();
+      store.add(result("~/R/Plot.R", 1, "plot(x)"));
+      store.add(result("~/R/model.R", 1, "fit <- lm(y ~ x)"));
+      store.add(result("~/R/model.R", 2, "Plot(fit)"));
+      store.add(result("~/R/model.R", 3, "summary(fit)"));
+
+      // matches the line text, ignoring case
+      assertRows(store.refine("PLOT"), new int[] { 0 }, new int[] { 2 });
+
+      // or the file path, which keeps all of the file's rows
+      assertRows(store.refine("model"), new int[] {}, new int[] { 1, 2, 3 });
+
+      // narrowing and widening again
+      assertRows(store.refine("f"), new int[] {}, new int[] { 1, 2, 3 });
+      assertRows(store.refine("fit)"), new int[] {}, new int[] { 2, 3 });
+      assertRows(store.refine("fit) "), new int[] {}, new int[] {});
+      assertRows(store.refine("fit"), new int[] {}, new int[] { 1, 2, 3 });
+      assertRows(store.refine(null), new int[] { 0 }, new int[] { 1, 2, 3 });
+   }
+
+   public void testRefinementDroppedWhenResultsArrive()
+   {
+      FindResultStore store = new FindResultStore();
+      store.add(result("~/a.R", 1, "food"));
+      store.add(result("~/a.R", 2, "bar"));
+      assertRows(store.refine("fo"), new int[] { 0 });
+
+      // a later result matching the narrower text must not be missed by
+      // reusing the earlier refinement
+      store.add(result("~/a.R", 3, "foo"));
+      store.add(result("~/b.R", 1, "foot"));
+      assertRows(store.refine("foo"), new int[] { 0, 2 }, new int[] { 3 });
+   }
+
+   public void testClear()
+   {
+      FindResultStore store = new FindResultStore();
+      for (int i = 0; i < 300; i++)
+         store.add(result(file(i % 3), i, "foo"));
+      store.refine("foo");
+
+      store.clear();
+      assertEquals(0, store.size());
+      assertEquals(0, store.getFileCount());
+      assertEquals(0, store.refine("foo").length);
+
+      // a new search starts its files and rows from scratch
+      store.add(result("~/other.R", 9, "foo"));
+      assertEquals(0, store.getFileId(0));
+      assertEquals("~/other.R", store.getFileForRow(0));
+      assertEquals(9, store.getLine(0));
+      assertRows(store.refine("foo"), new int[] { 0 });
+   }
+
+   public void testMaxCount()
+   {
+      // the server sends at most MAX_COUNT results for a search, in batches
+      FindResultStore store = new FindResultStore();
+      int files = 100;
+      int batch = 1000;
+      for (int start = 0; start < FindResultStore.MAX_COUNT; start += batch)
+      {
+         assertFalse(store.isFull());
+         for (int i = start; i < start + batch; i++)
+            store.add(result(file(i % files), i, i % 10 == 0 ? "foo bar" : "bar"));
+      }
+
+      assertTrue(store.isFull());
+      assertEquals(FindResultStore.MAX_COUNT, store.size());
+      assertEquals(files, store.getFileCount());
+
+      int last = FindResultStore.MAX_COUNT - 1;
+      assertEquals(last, store.getLine(last));
+      assertEquals(file(last % files), store.getFileForRow(last));
+      assertEquals("bar", store.getFindResult(last).getLineValue());
+
+      assertEquals(FindResultStore.MAX_COUNT, count(store.refine("")));
+      assertEquals(FindResultStore.MAX_COUNT / 10, count(store.refine("foo")));
+      assertEquals(FindResultStore.MAX_COUNT / files, count(store.refine(file(42))));
+   }
+
+   // Helpers ----
+
+   private static String file(int index)
+   {
+      return "~/src/file" + index + ".R";
+   }
+
+   // a result matching "foo" or the last word of the line
+   private static FindResult result(String file, int line, String lineValue)
+   {
+      int start = lineValue.indexOf("foo");
+      if (start == -1)
+         start = lineValue.lastIndexOf(' ') + 1;
+      int end = start + (lineValue.startsWith("foo", start) ? 3 : lineValue.length() - start);
+
+      return FindResult.create(
+            file, line, lineValue,
+            integers(start), integers(end), integers(), integers(),
+            "", false, false, "");
+   }
+
+   private static int count(int[][] rowsByFile)
+   {
+      int count = 0;
+      for (int[] rows : rowsByFile)
+         count += rows.length;
+      return count;
+   }
+
+   private static void assertRows(int[][] actual, int[]... expected)
+   {
+      assertEquals(expected.length, actual.length);
+      for (int fileId = 0; fileId < expected.length; fileId++)
+      {
+         assertEquals(expected[fileId].length, actual[fileId].length);
+         for (int i = 0; i < expected[fileId].length; i++)
+            assertEquals(expected[fileId][i], actual[fileId][i]);
+      }
+   }
+
+   private static ArrayList<Integer> list(int... values)
+   {
+      ArrayList<Integer> list = new ArrayList<>();
+      for (int value : values)
+         list.add(value);
+      return list;
+   }
+
+   private static JsArrayInteger integers(int... values)
+   {
+      JsArrayInteger array = JavaScriptObject.createArray().cast();
+      for (int value : values)
+         array.push(value);
+      return array;
+   }
+}
@@ -0,0 +1,320 @@
+/*
+ * FindMatchIndexTests.java
+ *
+ * Copyright (C) 2022 by Posit Software, PBC
+ *
+ * Unless you have received this program directly from Posit Software pursuant
+ * to the terms of a commercial license agreement with Posit Software, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.findreplace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.workbench.views.source.editors.text.findreplace.FindMatchIndex.Replacement;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class FindMatchIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testIsLineLocal()
+   {
+      assertTrue(FindMatchIndex.isLineLocal("a\\sb", false));
+      assertTrue(FindMatchIndex.isLineLocal("(\\w+)=(\\d+)", true));
+      assertFalse(FindMatchIndex.isLineLocal("a\\sb", true));
+      assertFalse(FindMatchIndex.isLineLocal("[^x]", true));
+      assertFalse(FindMatchIndex.isLineLocal("a\nb", false));
+   }
+
+   public void testOverlappingMatches()
+   {
+      // matches are found left to right and don't overlap, as when
+      // searching the document
+      FakeDocument doc = new FakeDocument("aaaa\naaa");
+      FindMatchIndex index = index(doc, "aa", false);
+      assertEquals(3, index.getMatchCount());
+
+      assertTrue(index.isMatch(0, 0, 2));
+      assertTrue(index.isMatch(0, 2, 4));
+      assertFalse(index.isMatch(0, 1, 3));
+      assertTrue(index.isMatch(1, 0, 2));
+      assertFalse(index.isMatch(1, 1, 3));
+
+      assertEquals(1, index.countBefore(0, 1));
+      assertEquals(2, index.countBefore(0, 3));
+      assertEquals(2, index.countBefore(1, 0));
+      assertEquals(3, index.countBefore(2, 0));
+
+      replaceAll(doc, index, "b");
+      assertEquals("bb\nba", doc.getText());
+   }
+
+   public void testEmptyMatches()
+   {
+      FakeDocument doc = new FakeDocument("ab\n\ncd");
+      FindMatchIndex index = index(doc, "^", true);
+      assertEquals(3, index.getMatchCount());
+
+      replaceAll(doc, index, "> ");
+      assertEquals("> ab\n> \n> cd", doc.getText());
+   }
+
+   public void testReplacementLengthDiffers()
+   {
+      FakeDocument doc = new FakeDocument("x = foo(foo)\nbar\nfoo");
+      FindMatchIndex index = index(doc, "foo", false);
+
+      // the matches on a row are replaced by a single edit that spans them
+      List<Replacement> replacements = replacements(doc, index, "quux");
+      assertEquals(2, replacements.size());
+      assertReplacement(replacements.get(0), 0, 4, 0, 11, "quux(quux", 2);
+      assertReplacement(replacements.get(1), 2, 0, 2, 3, "quux", 1);
+
+      FindMatchIndex.applyReplacements(doc, replacements);
+      assertEquals("x = quux(quux)\nbar\nquux", doc.getText());
+
+      // and back to something shorter
+      index = index(doc, "quux", false);
+      replaceAll(doc, index, "");
+      assertEquals("x = ()\nbar\n", doc.getText());
+   }
+
+   public void testRegexSubstitution()
+   {
+      FakeDocument doc = new FakeDocument("a=1, bb=22\nc");
+      FindMatchIndex index = index(doc, "(\\w+)=(\\d+)", true);
+      replaceAll(doc, index, "$2:$1");
+      assertEquals("1:a, 22:bb\nc", doc.getText());
+   }
+
+   public void testReplaceWithinRange()
+   {
+      FakeDocument doc = new FakeDocument("foo foo\nfoo foo\nfoo foo");
+      FindMatchIndex index = index(doc, "foo", false);
+
+      List<Replacement> replacements =
+            index.getReplacements(doc, 0, 4, 2, 3, "x");
+      FindMatchIndex.applyReplacements(doc, replacements);
+      assertEquals("foo x\nx x\nx foo", doc.getText());
+   }
+
+   public void testUndoIsSingleGroup()
+   {
+      String original = "foo foo\nbar\nfoo\nfoobar foo";
+      FakeDocument doc = new FakeDocument(original);
+      FindMatchIndex index = index(doc, "foo", false);
+
+      // one edit per row with matches, applied together
+      List<Replacement> replacements = replacements(doc, index, "longer text");
+      assertEquals(3, replacements.size());
+      FindMatchIndex.applyReplacements(doc, replacements);
+      assertEquals("longer text longer text\nbar\nlonger text\nlonger textbar longer text",
+            doc.getText());
+      assertEquals(1, doc.getUndoGroupCount());
+
+      // undoing once restores the whole document
+      doc.undo();
+      assertEquals(original, doc.getText());
+      assertEquals(0, doc.getUndoGroupCount());
+
+      // nothing to replace adds no undo group
+      FindMatchIndex.applyReplacements(doc, replacements(doc, index(doc, "nope", false), "x"));
+      assertEquals(0, doc.getUndoGroupCount());
+   }
+
+   public void testMultilineReplacements()
+   {
+      // patterns that can span lines are replaced in the text as a whole
+      String original = "foo\nbar\nfoo\nbaz";
+      FakeDocument doc = new FakeDocument(original);
+      List<Replacement> replacements = FindMatchIndex.getReplacements(
+            Pattern.create(Pattern.escape("o\nb"), "gm"), false,
+            doc.getText(), 0, 0, "-");
+      assertEquals(2, replacements.size());
+      assertReplacement(replacements.get(0), 0, 2, 1, 1, "-", 1);
+      assertReplacement(replacements.get(1), 2, 2, 3, 1, "-", 1);
+
+      FindMatchIndex.applyReplacements(doc, replacements);
+      assertEquals("fo-ar\nfo-az", doc.getText());
+      assertEquals(1, doc.getUndoGroupCount());
+
+      doc.undo();
+      assertEquals(original, doc.getText());
+   }
+
+   public void testIncrementalUpdates()
+   {
+      FakeDocument doc = new FakeDocument("foo\nbar\nfoo");
+      FindMatchIndex index = new FindMatchIndex(pattern("foo", false), false);
+
+      // indexing in chunks
+      assertFalse(index.indexRows(doc, 2));
+      assertEquals(1, index.getMatchCount());
+      assertTrue(index.indexRows(doc, 2));
+      assertEquals(2, index.getMatchCount());
+
+      doc.replace(new Replacement(1, 0, 1, 0, "foo\nfoo ", 0));
+      index.onInsert(doc, 1, 2);
+      assertEquals("foo\nfoo\nfoo bar\nfoo", doc.getText());
+      assertEquals(4, index.getMatchCount());
+      assertTrue(index.isMatch(2, 0, 3));
+
+      doc.replace(new Replacement(0, 1, 2, 1, "", 0));
+      index.onRemove(doc, 0, 2);
+      assertEquals("foo bar\nfoo", doc.getText());
+      assertEquals(2, index.getMatchCount());
+      assertEquals(1, index.countBefore(1, 0));
+   }
+
+   // Helpers ----
+
+   private static Pattern pattern(String query, boolean regex)
+   {
+      return Pattern.create(regex ? query : Pattern.escape(query), "gm");
+   }
+
+   private static FindMatchIndex index(FakeDocument doc, String query, boolean regex)
+   {
+      FindMatchIndex index = new FindMatchIndex(pattern(query, regex), regex);
+      assertTrue(index.indexRows(doc, Integer.MAX_VALUE));
+      return index;
+   }
+
+   private static List<Replacement> replacements(FakeDocument doc,
+                                                 FindMatchIndex index,
+                                                 String replacement)
+   {
+      return index.getReplacements(
+            doc, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, replacement);
+   }
+
+   private static void replaceAll(FakeDocument doc,
+                                  FindMatchIndex index,
+                                  String replacement)
+   {
+      FindMatchIndex.applyReplacements(doc, replacements(doc, index, replacement));
+   }
+
+   private static void assertReplacement(Replacement replacement,
+                                         int startRow, int startColumn,
+                                         int endRow, int endColumn,
+                                         String text,
+                                         int matches)
+   {
+      assertEquals(startRow, replacement.startRow);
+      assertEquals(startColumn, replacement.startColumn);
+      assertEquals(endRow, replacement.endRow);
+      assertEquals(endColumn, replacement.endColumn);
+      assertEquals(text, replacement.text);
+      assertEquals(matches, replacement.matches);
+   }
+
+   // A plain text document that records its edits in undo groups, as the
+   // editor session does
+   private static class FakeDocument implements FindMatchIndex.Lines,
+                                                FindMatchIndex.Editor
+   {
+      FakeDocument(String text)
+      {
+         text_ = text;
+      }
+
+      String getText()
+      {
+         return text_;
+      }
+
+      int getUndoGroupCount()
+      {
+         return undoGroups_.size();
+      }
+
+      void undo()
+      {
+         List<Edit> group = undoGroups_.remove(undoGroups_.size() - 1);
+         for (int i = group.size() - 1; i >= 0; i--)
+         {
+            Edit edit = group.get(i);
+            text_ = text_.substring(0, edit.offset) +
+                    edit.removed +
+                    text_.substring(edit.offset + edit.inserted);
+         }
+      }
+
+      @Override
+      public int getLength()
+      {
+         return lines().length;
+      }
+
+      @Override
+      public String getLine(int row)
+      {
+         return lines()[row];
+      }
+
+      @Override
+      public void markUndoGroup()
+      {
+         if (!edits_.isEmpty())
+         {
+            undoGroups_.add(edits_);
+            edits_ = new ArrayList<>();
+         }
+      }
+
+      @Override
+      public void replace(Replacement replacement)
+      {
+         int start = offset(replacement.startRow, replacement.startColumn);
+         int end = offset(replacement.endRow, replacement.endColumn);
+         edits_.add(new Edit(start, text_.substring(start, end), replacement.text.length()));
+         text_ = text_.substring(0, start) + replacement.text + text_.substring(end);
+      }
+
+      private String[] lines()
+      {
+         return text_.split("\n", -1);
+      }
+
+      private int offset(int row, int column)
+      {
+         String[] lines = lines();
+         int offset = 0;
+         for (int i = 0; i < row; i++)
+            offset += lines[i].length() + 1;
+         return offset + column;
+      }
+
+      private static class Edit
+      {
+         Edit(int offset, String removed, int inserted)
+         {
+            this.offset = offset;
+            this.removed = removed;
+            this.inserted = inserted;
+         }
+
+         final int offset;
+         final String removed;
+         final int inserted;
+      }
+
+      private String text_;
+      private List<Edit> edits_ = new ArrayList<>();
+      private final List<List<Edit>> undoGroups_ = new ArrayList<>();
+   }
+}